@@ -26,6 +26,7 @@ import org.springframework.context.annotation.Import;
 import org.springframework.core.ReactiveAdapterRegistry;
 import org.springframework.dsl.lsp.server.config.DslConfigurationProperties;
 import org.springframework.dsl.lsp.server.config.EnableLanguageServer;
+import org.springframework.dsl.lsp.server.config.LspServerDomainSocketConfiguration;
 import org.springframework.dsl.lsp.server.config.LspServerSocketConfiguration;
 import org.springframework.dsl.lsp.server.config.LspServerStdioConfiguration;
 import org.springframework.dsl.lsp.server.support.JvmLspExiter;
@@ -75,4 +76,10 @@ public class LspServerAutoConfiguration {
 	@Import({ LspServerSocketConfiguration.class })
 	public static class LspServerSocketConfig {
 	}
+
+	@ConditionalOnProperty(prefix = "spring.dsl.lsp.server", name = "mode", havingValue = "DOMAINSOCKET")
+	@Configuration
+	@Import({ LspServerDomainSocketConfiguration.class })
+	public static class LspServerDomainSocketConfig {
+	}
 }
@@ -22,6 +22,9 @@ import org.springframework.boot.autoconfigure.AutoConfigurations;
 import org.springframework.boot.test.context.runner.ApplicationContextRunner;
 import org.springframework.core.ReactiveAdapterRegistry;
 import org.springframework.dsl.lsp.server.controller.RootLanguageServerController;
+import org.springframework.dsl.lsp.server.jsonrpc.NettyTcpServer;
+
+import reactor.ipc.netty.resources.LoopResources;
 
 /**
  * Tests for {@link LspServerAutoConfiguration}.
@@ -59,4 +62,20 @@ public class LspServerAutoConfigurationTests {
 					assertThat(context).doesNotHaveBean(RootLanguageServerController.class);
 				});
 	}
+
+	@Test
+	public void autoConfigSocketTransport() {
+		this.contextRunner
+				.withUserConfiguration(DslAutoConfiguration.class)
+				.withPropertyValues("spring.dsl.lsp.server.mode=SOCKET",
+						"spring.dsl.lsp.server.transport.type=NIO",
+						"spring.dsl.lsp.server.transport.worker-threads=2",
+						"spring.dsl.lsp.server.transport.receive-buffer-size=65536",
+						"spring.dsl.lsp.server.transport.write-buffer-high-water-mark=131072")
+				.run((context) -> {
+					assertThat(context).hasSingleBean(LoopResources.class);
+					assertThat(context).hasSingleBean(NettyTcpServer.class);
+					assertThat(context.getBean(NettyTcpServer.class).getPort()).isGreaterThan(0);
+				});
+	}
 }
@@ -21,6 +21,7 @@ public class TrackedDocument {
 
 	private final TextDocument doc;
 	private int openCount = 0;
+	private long size;
 
 	public TrackedDocument(TextDocument doc) {
 		this.doc = doc;
@@ -44,4 +45,12 @@ public class TrackedDocument {
 		return openCount;
 	}
 
+	public long getSize() {
+		return size;
+	}
+
+	public void setSize(long size) {
+		this.size = size;
+	}
+
 }
@@ -15,11 +15,12 @@
  */
 package org.springframework.dsl.service;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dsl.DslException;
 import org.springframework.dsl.document.BadLocationException;
 import org.springframework.dsl.document.Document;
 import org.springframework.dsl.document.TextDocument;
@@ -27,24 +28,59 @@ import org.springframework.dsl.domain.DidChangeTextDocumentParams;
 import org.springframework.dsl.domain.DidCloseTextDocumentParams;
 import org.springframework.dsl.domain.DidOpenTextDocumentParams;
 import org.springframework.dsl.domain.DidSaveTextDocumentParams;
+import org.springframework.dsl.domain.TextDocumentIdentifier;
 import org.springframework.dsl.domain.TextDocumentItem;
 import org.springframework.dsl.domain.VersionedTextDocumentIdentifier;
 import org.springframework.dsl.domain.WillSaveTextDocumentParams;
 import org.springframework.dsl.model.LanguageId;
 import org.springframework.dsl.model.TrackedDocument;
+import org.springframework.lang.Nullable;
 
+import reactor.core.Disposable;
 import reactor.core.publisher.Mono;
 
 /**
+ * Default implementation of a {@link DocumentStateTracker}.
+ * <p>
+ * Documents are released when closed as many times as those were opened.
+ * Sizes of documents, in characters, are kept within a maximum size of this
+ * tracker and an optional {@link DocumentSizeBudget} shared with other
+ * trackers. Open documents are never evicted as a client would then be out of
+ * sync, instead opening a document which doesn't fit is refused with an error.
+ * Changes to open documents are always applied and may grow size over a
+ * maximum, which then only affects documents opened later.
  *
  * @author Kris De Volder
  * @author Janne Valkealahti
  *
  */
-public class DefaultDocumentStateTracker implements DocumentStateTracker {
+public class DefaultDocumentStateTracker implements DocumentStateTracker, Disposable {
 
 	private static final Logger log = LoggerFactory.getLogger(DefaultDocumentStateTracker.class);
-	private Map<String, TrackedDocument> documents = new HashMap<>();
+	private final Map<String, TrackedDocument> documents = new ConcurrentHashMap<>();
+	private final long maxSize;
+	private final DocumentSizeBudget sizeBudget;
+	private long size;
+	private volatile boolean disposed;
+
+	/**
+	 * Instantiates a new default document state tracker without size limits.
+	 */
+	public DefaultDocumentStateTracker() {
+		this(-1, null);
+	}
+
+	/**
+	 * Instantiates a new default document state tracker. Negative
+	 * {@code maxSize} means that size of this tracker is not limited.
+	 *
+	 * @param maxSize the maximum size of tracked documents in characters
+	 * @param sizeBudget the size budget shared with other trackers
+	 */
+	public DefaultDocumentStateTracker(long maxSize, @Nullable DocumentSizeBudget sizeBudget) {
+		this.maxSize = maxSize;
+		this.sizeBudget = sizeBudget;
+	}
 
 	@Override
 	public Document getDocument(String uri) {
@@ -52,6 +88,33 @@ public class DefaultDocumentStateTracker implements DocumentStateTracker {
 		return trackedDocument != null ? trackedDocument.getDocument() : null;
 	}
 
+	/**
+	 * Gets the current size of tracked documents in characters.
+	 *
+	 * @return the size of tracked documents
+	 */
+	public synchronized long getSize() {
+		return size;
+	}
+
+	/**
+	 * Releases all tracked documents, usually when a session owning this
+	 * tracker is closed or expired. Documents are not opened after this
+	 * tracker is disposed.
+	 */
+	@Override
+	public synchronized void dispose() {
+		this.disposed = true;
+		for (String uri : documents.keySet()) {
+			removeDocument(uri);
+		}
+	}
+
+	@Override
+	public boolean isDisposed() {
+		return disposed;
+	}
+
 	@Override
 	public boolean isIncrementalChangesSupported() {
 		return true;
@@ -66,8 +129,12 @@ public class DefaultDocumentStateTracker implements DocumentStateTracker {
 		int version = textDocument.getVersion();
 		String text = textDocument.getText();
 
-		TrackedDocument trackedDocument = createDocument(uri, languageId, version, text).open();
-		return Mono.just(trackedDocument.getDocument());
+		try {
+			return Mono.just(openDocument(uri, languageId, version, text).getDocument());
+		} catch (DslException e) {
+			log.warn("Refusing to track document [{}]", uri, e);
+			return Mono.error(e);
+		}
 	}
 
 	@Override
@@ -75,13 +142,9 @@ public class DefaultDocumentStateTracker implements DocumentStateTracker {
 		VersionedTextDocumentIdentifier identifier = params.getTextDocument();
 		String url = identifier.getUri();
 		if (url != null) {
-			TrackedDocument trackedDocument = documents.get(url);
-
 			try {
-				TextDocument doc = trackedDocument.getDocument();
-				doc.apply(params);
-				return Mono.just(doc);
-
+				TextDocument doc = changeDocument(url, params);
+				return doc != null ? Mono.just(doc) : Mono.empty();
 			} catch (BadLocationException e) {
 				log.error("", e);
 			}
@@ -98,12 +161,11 @@ public class DefaultDocumentStateTracker implements DocumentStateTracker {
 	@Override
 	public Mono<Document> didClose(DidCloseTextDocumentParams params) {
 		log.debug("didClose {}", params);
-//		TextDocumentIdentifier identifier = params.getTextDocument();
-//		String url = identifier.getUri();
-//		if (url != null) {
-//			TrackedDocument trackedDocument = documents.get(url);
-//		}
-
+		TextDocumentIdentifier identifier = params.getTextDocument();
+		String url = identifier != null ? identifier.getUri() : null;
+		if (url != null) {
+			closeDocument(url);
+		}
 		return Mono.empty();
 	}
 
@@ -113,23 +175,75 @@ public class DefaultDocumentStateTracker implements DocumentStateTracker {
 		return Mono.empty();
 	}
 
-//	private synchronized TextDocument getOrCreateDocument(String url) {
-//		TrackedDocument doc = documents.get(url);
-//		if (doc==null) {
-//			log.warn("Trying to get document ["+url+"] but it did not exists. Creating it with language-id 'plaintext'");
-//			doc = createDocument(url, LanguageId.PLAINTEXT, 0, "");
-//		}
-//		return doc.getDocument();
-//	}
-
-	private synchronized TrackedDocument createDocument(String url, LanguageId languageId, int version, String text) {
+	private synchronized TrackedDocument openDocument(String url, LanguageId languageId, int version, String text) {
+		// disposed tracker would never release a document nor its size
+		if (disposed) {
+			throw new DslException("Unable to open document [" + url + "] as tracker is disposed");
+		}
 		TrackedDocument trackedDocument = documents.get(url);
 		if (trackedDocument != null) {
 			log.warn("Creating document [{}] but it already exists. Reusing existing!", url);
-			return trackedDocument;
+			return trackedDocument.open();
 		}
 		trackedDocument = new TrackedDocument(new TextDocument(url, languageId, version, text));
-		documents.put(url, trackedDocument);
+		long documentSize = trackedDocument.getDocument().length();
+		if (maxSize >= 0 && size + documentSize > maxSize) {
+			throw new DslException("Unable to open document [" + url + "] having size " + documentSize
+					+ " as tracked documents would exceed maximum size of " + maxSize);
+		}
+		if (sizeBudget != null && !sizeBudget.tryAdd(documentSize)) {
+			throw new DslException("Unable to open document [" + url + "] having size " + documentSize
+					+ " as documents of all sessions would exceed maximum size of " + sizeBudget.getMaxSize());
+		}
+		size += documentSize;
+		trackedDocument.setSize(documentSize);
+		documents.put(url, trackedDocument.open());
 		return trackedDocument;
 	}
+
+	private synchronized TextDocument changeDocument(String url, DidChangeTextDocumentParams params)
+			throws BadLocationException {
+		// applied under same lock as close and dispose so that a released
+		// document is never changed nor its size counted again
+		TrackedDocument trackedDocument = documents.get(url);
+		if (trackedDocument == null) {
+			log.warn("Changing document [{}] but it is not tracked, it was either closed or never opened", url);
+			return null;
+		}
+		TextDocument doc = trackedDocument.getDocument();
+		doc.apply(params);
+		long delta = doc.length() - trackedDocument.getSize();
+		trackedDocument.setSize(trackedDocument.getSize() + delta);
+		addSize(delta);
+		if (isOverBudget()) {
+			log.warn("Tracked documents exceed maximum size after change of document [{}]", url);
+		}
+		return doc;
+	}
+
+	private synchronized void closeDocument(String url) {
+		TrackedDocument trackedDocument = documents.get(url);
+		if (trackedDocument != null && trackedDocument.close()) {
+			log.debug("Releasing closed document [{}]", url);
+			removeDocument(url);
+		}
+	}
+
+	private boolean isOverBudget() {
+		return (maxSize >= 0 && size > maxSize) || (sizeBudget != null && sizeBudget.isExceeded());
+	}
+
+	private void removeDocument(String url) {
+		TrackedDocument trackedDocument = documents.remove(url);
+		if (trackedDocument != null) {
+			addSize(-trackedDocument.getSize());
+		}
+	}
+
+	private void addSize(long delta) {
+		size += delta;
+		if (sizeBudget != null) {
+			sizeBudget.add(delta);
+		}
+	}
 }
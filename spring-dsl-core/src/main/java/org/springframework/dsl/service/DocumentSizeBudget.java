@@ -0,0 +1,97 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@code DocumentSizeBudget} keeps count of document content sizes, in
+ * characters, shared between multiple {@link DocumentStateTracker}s. Used to
+ * bound memory taken by tracked documents over all sessions.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class DocumentSizeBudget {
+
+	private final long maxSize;
+	private final AtomicLong size = new AtomicLong();
+
+	/**
+	 * Instantiates a new document size budget. Negative {@code maxSize} means
+	 * that size is not limited.
+	 *
+	 * @param maxSize the maximum size in characters
+	 */
+	public DocumentSizeBudget(long maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * Gets the maximum size in characters.
+	 *
+	 * @return the maximum size
+	 */
+	public long getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * Gets the current size in characters.
+	 *
+	 * @return the current size
+	 */
+	public long getSize() {
+		return size.get();
+	}
+
+	/**
+	 * Adds a given delta into current size. Negative delta releases size.
+	 *
+	 * @param delta the size delta
+	 */
+	public void add(long delta) {
+		size.addAndGet(delta);
+	}
+
+	/**
+	 * Adds a given size into current size only if maximum size is not
+	 * exceeded by it.
+	 *
+	 * @param delta the size to add
+	 * @return true, if size was added
+	 */
+	public boolean tryAdd(long delta) {
+		for (;;) {
+			long current = size.get();
+			if (maxSize >= 0 && current + delta > maxSize) {
+				return false;
+			}
+			if (size.compareAndSet(current, current + delta)) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Checks if current size is over the maximum size.
+	 *
+	 * @return true, if budget is exceeded
+	 */
+	public boolean isExceeded() {
+		return maxSize >= 0 && size.get() > maxSize;
+	}
+}
@@ -16,15 +16,20 @@
 package org.springframework.dsl.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import java.util.Arrays;
 
 import org.junit.Test;
+import org.springframework.dsl.DslException;
+import org.springframework.dsl.document.Document;
 import org.springframework.dsl.domain.DidChangeTextDocumentParams;
+import org.springframework.dsl.domain.DidCloseTextDocumentParams;
 import org.springframework.dsl.domain.DidOpenTextDocumentParams;
 import org.springframework.dsl.domain.Position;
 import org.springframework.dsl.domain.Range;
 import org.springframework.dsl.domain.TextDocumentContentChangeEvent;
+import org.springframework.dsl.domain.TextDocumentIdentifier;
 import org.springframework.dsl.domain.TextDocumentItem;
 import org.springframework.dsl.domain.VersionedTextDocumentIdentifier;
 import org.springframework.dsl.model.LanguageId;
@@ -82,4 +87,106 @@ public class DefaultDocumentStateTrackerTests {
 //		assertThat(tracker.getDocument("uri1")).isNotNull();
 //		assertThat(tracker.getDocument("uri1").get()).isEqualTo("12");
 	}
+
+	@Test
+	public void testCloseReleasesDocument() {
+		DefaultDocumentStateTracker tracker = new DefaultDocumentStateTracker();
+
+		open(tracker, "uri1", "123");
+		open(tracker, "uri1", "123");
+		assertThat(tracker.getSize()).isEqualTo(3);
+
+		close(tracker, "uri1");
+		assertThat(tracker.getDocument("uri1")).isNotNull();
+
+		close(tracker, "uri1");
+		assertThat(tracker.getDocument("uri1")).isNull();
+		assertThat(tracker.getSize()).isEqualTo(0);
+	}
+
+	@Test
+	public void testOpenOverMaxSizeRefused() {
+		DefaultDocumentStateTracker tracker = new DefaultDocumentStateTracker(5, null);
+
+		open(tracker, "uri1", "12");
+		open(tracker, "uri2", "12");
+		assertThatThrownBy(() -> open(tracker, "uri3", "12")).isInstanceOf(DslException.class);
+		assertThat(tracker.getDocument("uri1")).isNotNull();
+		assertThat(tracker.getDocument("uri2")).isNotNull();
+		assertThat(tracker.getDocument("uri3")).isNull();
+		assertThat(tracker.getSize()).isEqualTo(4);
+
+		close(tracker, "uri1");
+		open(tracker, "uri3", "12");
+		assertThat(tracker.getDocument("uri3")).isNotNull();
+	}
+
+	@Test
+	public void testChangeOverMaxSizeApplied() {
+		DefaultDocumentStateTracker tracker = new DefaultDocumentStateTracker(5, null);
+
+		open(tracker, "uri1", "1234");
+		change(tracker, "uri1", "123456");
+		assertThat(tracker.getDocument("uri1").content()).isEqualTo("123456");
+		assertThat(tracker.getSize()).isEqualTo(6);
+		assertThatThrownBy(() -> open(tracker, "uri2", "1")).isInstanceOf(DslException.class);
+	}
+
+	@Test
+	public void testChangeAfterCloseIgnored() {
+		DefaultDocumentStateTracker tracker = new DefaultDocumentStateTracker();
+
+		open(tracker, "uri1", "12");
+		close(tracker, "uri1");
+		assertThat(change(tracker, "uri1", "1234")).isNull();
+		assertThat(tracker.getSize()).isEqualTo(0);
+	}
+
+	@Test
+	public void testSharedSizeBudget() {
+		DocumentSizeBudget budget = new DocumentSizeBudget(5);
+		DefaultDocumentStateTracker tracker1 = new DefaultDocumentStateTracker(-1, budget);
+		DefaultDocumentStateTracker tracker2 = new DefaultDocumentStateTracker(-1, budget);
+
+		open(tracker1, "uri1", "12");
+		open(tracker1, "uri2", "12");
+		assertThatThrownBy(() -> open(tracker2, "uri3", "12")).isInstanceOf(DslException.class);
+		assertThat(budget.getSize()).isEqualTo(4);
+		assertThat(tracker2.getDocument("uri3")).isNull();
+
+		open(tracker2, "uri4", "1");
+		assertThat(tracker1.getDocument("uri1")).isNotNull();
+		assertThat(budget.getSize()).isEqualTo(5);
+
+		tracker1.dispose();
+		assertThat(budget.getSize()).isEqualTo(1);
+	}
+
+	@Test
+	public void testOpenAfterDisposeRefused() {
+		DocumentSizeBudget budget = new DocumentSizeBudget(5);
+		DefaultDocumentStateTracker tracker = new DefaultDocumentStateTracker(-1, budget);
+
+		tracker.dispose();
+		assertThatThrownBy(() -> open(tracker, "uri1", "12")).isInstanceOf(DslException.class);
+		assertThat(tracker.getDocument("uri1")).isNull();
+		assertThat(tracker.getSize()).isEqualTo(0);
+		assertThat(budget.getSize()).isEqualTo(0);
+	}
+
+	private static void open(DefaultDocumentStateTracker tracker, String uri, String text) {
+		TextDocumentItem textDocumentItem = new TextDocumentItem(uri, LanguageId.TXT.getIdentifier(), 0, text);
+		tracker.didOpen(new DidOpenTextDocumentParams(textDocumentItem)).block();
+	}
+
+	private static Document change(DefaultDocumentStateTracker tracker, String uri, String text) {
+		DidChangeTextDocumentParams params = new DidChangeTextDocumentParams();
+		params.setTextDocument(new VersionedTextDocumentIdentifier(1, uri));
+		params.setContentChanges(Arrays.asList(new TextDocumentContentChangeEvent(null, text)));
+		return tracker.didChange(params).block();
+	}
+
+	private static void close(DefaultDocumentStateTracker tracker, String uri) {
+		tracker.didClose(new DidCloseTextDocumentParams(new TextDocumentIdentifier(uri))).block();
+	}
 }
@@ -15,6 +15,8 @@
  */
 package org.springframework.dsl.jsonrpc;
 
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
 import reactor.core.publisher.Mono;
 
 /**
@@ -53,6 +55,19 @@ public interface JsonRpcInputMessage {
 	 */
 	Mono<String> getParams();
 
+	/**
+	 * Gets the params as already parsed tokens. Returned buffer can be read
+	 * multiple times via {@link TokenBuffer#asParser()} and allows binding
+	 * params into a target type without parsing a raw json again. Default
+	 * implementation returns empty in which case consumers should fall back
+	 * to {@link #getParams()}.
+	 *
+	 * @return the params as a token buffer
+	 */
+	default Mono<TokenBuffer> getParamsBuffer() {
+		return Mono.empty();
+	}
+
 	/**
 	 * Gets the session id.
 	 *
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.jsonrpc;
+
+import java.util.Map;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * A {@link JsonRpcOutputMessage} which is able to take result values as is
+ * instead of those being encoded into a body first. Used with transports
+ * where both ends live in a same JVM and encoding would be pure overhead.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public interface JsonRpcObjectOutputMessage extends JsonRpcOutputMessage {
+
+	/**
+	 * Use the given {@link Publisher} to write result values of the message
+	 * without encoding those. Empty publisher indicates a {@code null} value.
+	 *
+	 * @param values the values publisher
+	 * @param elementType the element type
+	 * @param hints the writer hints
+	 * @return a {@link Mono} that indicates completion or error
+	 */
+	Mono<Void> writeObjects(Publisher<?> values, ResolvableType elementType, Map<String, Object> hints);
+}
@@ -19,6 +19,9 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.lang.reflect.Type;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.reactivestreams.Publisher;
 import org.slf4j.Logger;
@@ -29,13 +32,17 @@ import org.springframework.core.codec.CodecException;
 import org.springframework.core.codec.EncodingException;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.dsl.jsonrpc.JsonRpcInputMessage;
+import org.springframework.dsl.jsonrpc.JsonRpcObjectOutputMessage;
 import org.springframework.dsl.jsonrpc.JsonRpcOutputMessage;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
 import org.springframework.util.StringUtils;
 
 import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JavaType;
@@ -48,6 +55,13 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 /**
+ * {@link JsonRpcMessageWriter} encoding values into json rpc responses and
+ * notifications with {@code Jackson}. {@link ObjectWriter}s are cached per
+ * element type and json view. Output buffers are sized per method from a
+ * decaying maximum of earlier message sizes, which is raised right away by a
+ * larger message and lowered towards a smaller one by an eighth of their
+ * difference. Estimate is capped to 1MB, a larger message simply expands its
+ * buffer while being written.
  *
  * @author Janne Valkealahti
  *
@@ -55,7 +69,12 @@ import reactor.core.publisher.Mono;
 public class Jackson2JsonRpcMessageWriter implements JsonRpcMessageWriter<Object> {
 
 	private static final Logger log = LoggerFactory.getLogger(Jackson2JsonRpcMessageWriter.class);
+	private static final int DEFAULT_BUFFER_SIZE = 256;
+	private static final int MAX_BUFFER_SIZE = 1024 * 1024;
+	private static final int MAX_BUFFER_SIZE_ESTIMATES = 256;
 	private final ObjectMapper objectMapper;
+	private final Map<WriterKey, ObjectWriter> writerCache = new ConcurrentHashMap<>();
+	private final Map<String, AtomicInteger> bufferSizeEstimates = new ConcurrentHashMap<>();
 	public static final String JSON_VIEW_HINT = Jackson2JsonRpcMessageWriter.class.getName() + ".jsonView";
 
 	/**
@@ -76,7 +95,14 @@ public class Jackson2JsonRpcMessageWriter implements JsonRpcMessageWriter<Object
 	@Override
 	public Mono<Void> write(Publisher<? extends Object> inputStream, ResolvableType elementType,
 			JsonRpcInputMessage request, JsonRpcOutputMessage message, Map<String, Object> hints) {
-		Flux<DataBuffer> encode = encode(inputStream, message.bufferFactory(), elementType, hints, request);
+		if (message instanceof JsonRpcObjectOutputMessage) {
+			// nothing to encode if other end can take values as is
+			return ((JsonRpcObjectOutputMessage) message).writeObjects(inputStream, elementType, hints);
+		}
+		// other end may have negotiated a different data format
+		JsonFactory factory = (message instanceof JsonRpcFormatOutputMessage
+				? ((JsonRpcFormatOutputMessage) message).getJsonFactory() : null);
+		Flux<DataBuffer> encode = encode(inputStream, message.bufferFactory(), elementType, hints, request, factory);
 		return message.writeWith(encode);
 	}
 
@@ -86,65 +112,114 @@ public class Jackson2JsonRpcMessageWriter implements JsonRpcMessageWriter<Object
 
 	public Flux<DataBuffer> encode(Publisher<?> inputStream, DataBufferFactory bufferFactory,
 			ResolvableType elementType, @Nullable Map<String, Object> hints, JsonRpcInputMessage request) {
+		return encode(inputStream, bufferFactory, elementType, hints, request, null);
+	}
 
-		JsonEncoding encoding = JsonEncoding.UTF8;
+	public Flux<DataBuffer> encode(Publisher<?> inputStream, DataBufferFactory bufferFactory,
+			ResolvableType elementType, @Nullable Map<String, Object> hints, JsonRpcInputMessage request,
+			@Nullable JsonFactory factory) {
 
-		return Flux.from(inputStream)
-				.map(value -> {
-					return encodeValue(value, bufferFactory, elementType, hints, encoding, request);
-				})
-				.switchIfEmpty(Mono.just(encodeValue(null, bufferFactory, elementType, hints, encoding, request)));
+		JsonEncoding encoding = JsonEncoding.UTF8;
+		ObjectWriter writer = getObjectWriter(elementType, hints);
+		JsonFactory generatorFactory = (factory != null ? factory : writer.getFactory());
 
+		return resolveEnvelope(request, hints)
+				.flatMapMany(envelope -> Flux.from(inputStream)
+						.map(value -> encodeValue(value, bufferFactory, writer, generatorFactory, encoding, envelope))
+						.switchIfEmpty(Mono.fromSupplier(
+								() -> encodeValue(null, bufferFactory, writer, generatorFactory, encoding, envelope))));
+	}
 
-//		return Flux.from(inputStream).map(value -> {
-//			DataBuffer buffer = encodeValue(value, bufferFactory, elementType, hints, encoding, request);
-//			return buffer;
-//		});
+	/**
+	 * Encode a json rpc error response for a given request id. Error is
+	 * written with a generator from a given factory, or from a configured
+	 * object mapper if not set, using {@code UTF-8} for textual formats.
+	 *
+	 * @param bufferFactory the buffer factory
+	 * @param id the request id, {@code null} if it is not known
+	 * @param code the error code
+	 * @param message the error message
+	 * @param factory the json factory to use, or {@code null}
+	 * @return the buffer containing the encoded error
+	 */
+	public DataBuffer encodeError(DataBufferFactory bufferFactory, @Nullable String id, int code, String message,
+			@Nullable JsonFactory factory) {
+		JsonFactory generatorFactory = (factory != null ? factory : this.objectMapper.getFactory());
+		DataBuffer buffer = bufferFactory.allocateBuffer(DEFAULT_BUFFER_SIZE);
+		boolean release = true;
+		try {
+			JsonGenerator generator = generatorFactory.createGenerator(buffer.asOutputStream(), JsonEncoding.UTF8);
+			generator.writeStartObject();
+			generator.writeStringField("jsonrpc", "2.0");
+			if (id != null) {
+				generator.writeStringField("id", id);
+			} else {
+				generator.writeNullField("id");
+			}
+			generator.writeObjectFieldStart("error");
+			generator.writeNumberField("code", code);
+			generator.writeStringField("message", message);
+			generator.writeEndObject();
+			generator.writeEndObject();
+			generator.flush();
+			release = false;
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Unexpected I/O error while writing to data buffer", ex);
+		}
+		finally {
+			if (release) {
+				DataBufferUtils.release(buffer);
+			}
+		}
+		return buffer;
 	}
 
-	public DataBuffer encodeValue(Object value, DataBufferFactory bufferFactory,
-			ResolvableType elementType, @Nullable Map<String, Object> hints, JsonEncoding encoding, JsonRpcInputMessage request) {
+	protected JavaType getJavaType(Type type, @Nullable Class<?> contextClass) {
+		TypeFactory typeFactory = this.objectMapper.getTypeFactory();
+		return typeFactory.constructType(GenericTypeResolver.resolveType(type, contextClass));
+	}
 
-		JavaType javaType = getJavaType(elementType.getType(), null);
+	private ObjectWriter getObjectWriter(ResolvableType elementType, @Nullable Map<String, Object> hints) {
 		Class<?> jsonView = (hints != null ? (Class<?>) hints.get(JSON_VIEW_HINT) : null);
-		ObjectWriter writer = (jsonView != null ?
-				getObjectMapper().writerWithView(jsonView) : getObjectMapper().writer());
-
-		if (javaType.isContainerType()) {
-			writer = writer.forType(javaType);
-		}
+		return this.writerCache.computeIfAbsent(new WriterKey(elementType, jsonView), key -> {
+			JavaType javaType = getJavaType(elementType.getType(), null);
+			ObjectWriter writer = (jsonView != null ?
+					getObjectMapper().writerWithView(jsonView) : getObjectMapper().writer());
+			if (javaType.isContainerType()) {
+				writer = writer.forType(javaType);
+			}
+			return writer;
+		});
+	}
 
+	private DataBuffer encodeValue(Object value, DataBufferFactory bufferFactory, ObjectWriter writer,
+			JsonFactory factory, JsonEncoding encoding, Envelope envelope) {
 
-		DataBuffer buffer = bufferFactory.allocateBuffer();
+		DataBuffer buffer = bufferFactory.allocateBuffer(estimateBufferSize(envelope.method));
 		OutputStream outputStream = buffer.asOutputStream();
+		boolean release = true;
 
 		try {
-			JsonGenerator generator = getObjectMapper().getFactory().createGenerator(outputStream, encoding);
+			JsonGenerator generator = factory.createGenerator(outputStream, encoding);
 			generator.writeStartObject();
-			generator.writeStringField("jsonrpc", request.getJsonrpc().block());
+			generator.writeStringField("jsonrpc", envelope.jsonrpc);
 			// if request id is missing, it's a notification
-			if (request.getId() != null) {
-				String block = request.getId().block();
-				if (block != null) {
-					log.trace("id {}", block);
-					log.trace("result {}", value);
-					generator.writeStringField("id", block);
-					generator.writeObjectField("result", value);
-				} else {
-					String method = (String) hints.get("method");
-					if (!StringUtils.hasText(method)) {
-						method = request.getMethod().block();
-					}
-					log.trace("method {}", method);
-//					log.trace("method {}", request.getMethod().block());
-					log.trace("params {}", value);
-//					generator.writeObjectField("method", request.getMethod().block());
-					generator.writeObjectField("method", method);
-					generator.writeObjectField("params", value);
-				}
+			if (envelope.id != null) {
+				log.trace("id {}", envelope.id);
+				log.trace("result {}", value);
+				generator.writeStringField("id", envelope.id);
+				generator.writeFieldName("result");
+			} else {
+				log.trace("method {}", envelope.method);
+				log.trace("params {}", value);
+				generator.writeStringField("method", envelope.method);
+				generator.writeFieldName("params");
 			}
+			writer.writeValue(generator, value);
 			generator.writeEndObject();
 			generator.flush();
+			release = false;
 		}
 		catch (InvalidDefinitionException ex) {
 			log.error("{}", ex);
@@ -158,54 +233,97 @@ public class Jackson2JsonRpcMessageWriter implements JsonRpcMessageWriter<Object
 			log.error("{}", ex);
 			throw new IllegalStateException("Unexpected I/O error while writing to data buffer", ex);
 		}
+		finally {
+			if (release) {
+				DataBufferUtils.release(buffer);
+			}
+		}
 
+		updateBufferSize(envelope.method, buffer.readableByteCount());
 		return buffer;
 	}
 
+	private int estimateBufferSize(@Nullable String method) {
+		AtomicInteger estimate = (method != null ? this.bufferSizeEstimates.get(method) : null);
+		return (estimate != null ? estimate.get() : DEFAULT_BUFFER_SIZE);
+	}
 
-//	public DataBuffer encodeValuex(Object value, DataBufferFactory bufferFactory,
-//			ResolvableType elementType, @Nullable Map<String, Object> hints, JsonEncoding encoding, JsonRpcInputMessage request) {
-//
-//		JavaType javaType = getJavaType(elementType.getType(), null);
-//		Class<?> jsonView = (hints != null ? (Class<?>) hints.get(JSON_VIEW_HINT) : null);
-//		ObjectWriter writer = (jsonView != null ?
-//				getObjectMapper().writerWithView(jsonView) : getObjectMapper().writer());
-//
-////		if (javaType.isContainerType()) {
-////			writer = writer.forType(javaType);
-////		}
-//
-//		DataBuffer buffer = bufferFactory.allocateBuffer();
-//		OutputStream outputStream = buffer.asOutputStream();
-//
-//		try {
-//			JsonGenerator generator = getObjectMapper().getFactory().createGenerator(outputStream, encoding);
-//			generator.writeStartObject();
-//			generator.writeStringField("jsonrpc", request.getJsonrpc().block());
-//			generator.writeNumberField("id", request.getId().block());
-//			generator.writeObjectField("result", value);
-//			generator.writeEndObject();
-//			generator.flush();
-//		}
-//		catch (InvalidDefinitionException ex) {
-//			log.error("{}", ex);
-//			throw new CodecException("Type definition error: " + ex.getType(), ex);
-//		}
-//		catch (JsonProcessingException ex) {
-//			log.error("{}", ex);
-//			throw new EncodingException("JSON encoding error: " + ex.getOriginalMessage(), ex);
-//		}
-//		catch (IOException ex) {
-//			log.error("{}", ex);
-//			throw new IllegalStateException("Unexpected I/O error while writing to data buffer", ex);
-//		}
-//
-//		return buffer;
-//	}
+	private void updateBufferSize(@Nullable String method, int size) {
+		if (method == null) {
+			return;
+		}
+		size = Math.min(size, MAX_BUFFER_SIZE);
+		AtomicInteger estimate = this.bufferSizeEstimates.get(method);
+		if (estimate == null) {
+			if (this.bufferSizeEstimates.size() < MAX_BUFFER_SIZE_ESTIMATES) {
+				this.bufferSizeEstimates.putIfAbsent(method, new AtomicInteger(size));
+			}
+			return;
+		}
+		// decaying maximum instead of an average, a buffer sized from an
+		// average would need to be expanded for every larger than usual
+		// message while an oversized one only wastes some memory for a while
+		int current = estimate.get();
+		estimate.lazySet(size >= current ? size : current - ((current - size) >> 3));
+	}
 
-	protected JavaType getJavaType(Type type, @Nullable Class<?> contextClass) {
-		TypeFactory typeFactory = this.objectMapper.getTypeFactory();
-		return typeFactory.constructType(GenericTypeResolver.resolveType(type, contextClass));
+	private static Mono<Envelope> resolveEnvelope(JsonRpcInputMessage request,
+			@Nullable Map<String, Object> hints) {
+		Object hintedMethod = (hints != null ? hints.get("method") : null);
+		return Mono.zip(optional(request.getJsonrpc()), optional(request.getId()), optional(request.getMethod()))
+				.map(t -> {
+					String method = (hintedMethod instanceof String && StringUtils.hasText((String) hintedMethod)
+							? (String) hintedMethod : t.getT3().orElse(null));
+					return new Envelope(t.getT1().orElse(null), t.getT2().orElse(null), method);
+				});
 	}
 
+	private static Mono<Optional<String>> optional(@Nullable Mono<String> mono) {
+		if (mono == null) {
+			return Mono.just(Optional.empty());
+		}
+		return mono.map(Optional::of).defaultIfEmpty(Optional.empty());
+	}
+
+	private static class Envelope {
+
+		final String jsonrpc;
+		final String id;
+		final String method;
+
+		Envelope(String jsonrpc, String id, String method) {
+			this.jsonrpc = jsonrpc;
+			this.id = id;
+			this.method = method;
+		}
+	}
+
+	private static class WriterKey {
+
+		final ResolvableType elementType;
+		final Class<?> jsonView;
+
+		WriterKey(ResolvableType elementType, @Nullable Class<?> jsonView) {
+			this.elementType = elementType;
+			this.jsonView = jsonView;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof WriterKey)) {
+				return false;
+			}
+			WriterKey otherKey = (WriterKey) other;
+			return this.elementType.equals(otherKey.elementType)
+					&& ObjectUtils.nullSafeEquals(this.jsonView, otherKey.jsonView);
+		}
+
+		@Override
+		public int hashCode() {
+			return this.elementType.hashCode() * 31 + ObjectUtils.nullSafeHashCode(this.jsonView);
+		}
+	}
 }
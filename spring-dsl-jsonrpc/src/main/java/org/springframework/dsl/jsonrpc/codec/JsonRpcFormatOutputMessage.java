@@ -0,0 +1,39 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.jsonrpc.codec;
+
+import org.springframework.dsl.jsonrpc.JsonRpcOutputMessage;
+
+import com.fasterxml.jackson.core.JsonFactory;
+
+/**
+ * A {@link JsonRpcOutputMessage} which expects its body to be encoded with
+ * a specific {@code Jackson} data format instead of a plain json, i.e. when
+ * other end has negotiated a compact binary format like {@code CBOR} or
+ * {@code Smile}.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public interface JsonRpcFormatOutputMessage extends JsonRpcOutputMessage {
+
+	/**
+	 * Gets the {@link JsonFactory} used to create generators for a body.
+	 *
+	 * @return the json factory
+	 */
+	JsonFactory getJsonFactory();
+}
@@ -84,7 +84,8 @@ public class DelegatingJsonRpcConfiguration {
 	}
 	
 	@Bean
-	public JsonRpcRequestParamsArgumentResolver jsonRpcRequestParamsArgumentResolver() {
-		return new JsonRpcRequestParamsArgumentResolver();
+	public JsonRpcRequestParamsArgumentResolver jsonRpcRequestParamsArgumentResolver(
+			@Qualifier(JsonRpcSystemConstants.JSONRPC_OBJECT_MAPPER_BEAN_NAME) ObjectMapper objectMapper) {
+		return new JsonRpcRequestParamsArgumentResolver(objectMapper);
 	}
 }
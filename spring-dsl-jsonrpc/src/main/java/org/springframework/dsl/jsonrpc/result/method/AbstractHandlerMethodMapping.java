@@ -31,6 +31,7 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.springframework.aop.support.AopUtils;
 import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.NoSuchBeanDefinitionException;
 import org.springframework.context.support.ApplicationObjectSupport;
 import org.springframework.core.MethodIntrospector;
 import org.springframework.dsl.jsonrpc.JsonRpcHandlerMapping;
@@ -55,9 +56,7 @@ public abstract class AbstractHandlerMethodMapping<T> extends ApplicationObjectS
 
 	@Override
 	public Mono<Object> getHandler(ServerJsonRpcExchange exchange) {
-		return getHandlerInternal(exchange).map(handler -> {
-			return handler;
-		});
+		return getHandlerInternal(exchange).cast(Object.class);
 	}
 
 	@Override
@@ -81,6 +80,14 @@ public abstract class AbstractHandlerMethodMapping<T> extends ApplicationObjectS
 		HandlerMethod handlerMethod = null;
 
 		try {
+			String lookupKey = getLookupKey(exchange);
+			DirectMapping direct = mappingRegistry.getDirectMapping(lookupKey);
+			if (direct != null) {
+				// single mapping for this method name and nothing else could
+				// match, skip conditions and use pre-resolved handler
+				handleMatch(direct.getMapping(), direct.getHandlerMethod(), exchange);
+				return Mono.just(direct.getResolvedHandlerMethod());
+			}
 			handlerMethod = lookupHandlerMethod(exchange);
 		} catch (Exception ex) {
 			return Mono.error(ex);
@@ -96,7 +103,7 @@ public abstract class AbstractHandlerMethodMapping<T> extends ApplicationObjectS
 	protected HandlerMethod lookupHandlerMethod(ServerJsonRpcExchange exchange)
 			throws Exception {
 		List<Match> matches = new ArrayList<>();
-		addMatchingMappings(mappingRegistry.getMappings().keySet(), matches, exchange);
+		addMatchingMappings(mappingRegistry.getCandidateMappings(getLookupKey(exchange)), matches, exchange);
 
 		if (!matches.isEmpty()) {
 			Comparator<Match> comparator = new MatchComparator(getMappingComparator(exchange));
@@ -112,7 +119,7 @@ public abstract class AbstractHandlerMethodMapping<T> extends ApplicationObjectS
 					Method m1 = bestMatch.handlerMethod.getMethod();
 					Method m2 = secondBestMatch.handlerMethod.getMethod();
 					throw new IllegalStateException("Ambiguous handler methods mapped for JSONRCP method '" +
-							exchange.getRequest().getMethod() + "': {" + m1 + ", " + m2 + "}");
+							getLookupKey(exchange) + "': {" + m1 + ", " + m2 + "}");
 				}
 			}
 			handleMatch(bestMatch.mapping, bestMatch.handlerMethod, exchange);
@@ -130,6 +137,32 @@ public abstract class AbstractHandlerMethodMapping<T> extends ApplicationObjectS
 
 	protected abstract T getMatchingMapping(T mapping, ServerJsonRpcExchange exchange);
 
+	/**
+	 * Gets the {@code JSONRPC} method names a given mapping matches directly.
+	 * These are used to index mappings so that a request can be routed without
+	 * evaluating conditions of all registered mappings. Returning an empty
+	 * collection means mapping may match any method and is always evaluated
+	 * via its conditions, which is also the default.
+	 *
+	 * @param mapping the mapping
+	 * @return the direct method names, never {@code null}
+	 */
+	protected Collection<String> getDirectMethods(T mapping) {
+		return Collections.emptySet();
+	}
+
+	/**
+	 * Gets the lookup key used against directly indexed mappings, which by
+	 * default is a {@code JSONRPC} method name of a request.
+	 *
+	 * @param exchange the exchange
+	 * @return the lookup key or {@code null}
+	 */
+	@Nullable
+	protected String getLookupKey(ServerJsonRpcExchange exchange) {
+		return exchange.getRequest().getMethod().block();
+	}
+
 	/**
 	 * Handle match.
 	 *
@@ -240,16 +273,66 @@ public abstract class AbstractHandlerMethodMapping<T> extends ApplicationObjectS
 
 	protected abstract T getMappingForMethod(Method method, Class<?> handlerType);
 
+	private boolean isSingletonHandler(HandlerMethod handlerMethod) {
+		if (!(handlerMethod.getBean() instanceof String)) {
+			return true;
+		}
+		try {
+			return obtainApplicationContext().isSingleton((String) handlerMethod.getBean());
+		} catch (NoSuchBeanDefinitionException e) {
+			return false;
+		}
+	}
+
 	class MappingRegistry {
 
 		private final Map<T, MappingRegistration<T>> registry = new HashMap<>();
 		private final Map<T, HandlerMethod> mappingLookup = new LinkedHashMap<>();
+		private volatile Map<String, List<T>> methodLookup = Collections.emptyMap();
+		private volatile Map<String, DirectMapping> directLookup = Collections.emptyMap();
+		private volatile List<T> undirectedMappings = Collections.emptyList();
 		private final ReentrantReadWriteLock readWriteLock = new ReentrantReadWriteLock();
 
 		public Map<T, HandlerMethod> getMappings() {
 			return this.mappingLookup;
 		}
 
+		/**
+		 * Gets a direct mapping for a method name if exactly one mapping can
+		 * match it.
+		 *
+		 * @param method the method name
+		 * @return the direct mapping or {@code null}
+		 */
+		@Nullable
+		public DirectMapping getDirectMapping(@Nullable String method) {
+			return method != null ? this.directLookup.get(method) : null;
+		}
+
+		/**
+		 * Gets mappings which may match a given method name, meaning mappings
+		 * indexed with that name and mappings not indexed at all.
+		 *
+		 * @param method the method name
+		 * @return the candidate mappings
+		 */
+		public Collection<T> getCandidateMappings(@Nullable String method) {
+			if (method == null) {
+				return this.mappingLookup.keySet();
+			}
+			List<T> indexed = this.methodLookup.get(method);
+			List<T> undirected = this.undirectedMappings;
+			if (indexed == null) {
+				return undirected;
+			}
+			if (undirected.isEmpty()) {
+				return indexed;
+			}
+			List<T> candidates = new ArrayList<>(indexed);
+			candidates.addAll(undirected);
+			return candidates;
+		}
+
 		public void acquireReadLock() {
 			this.readWriteLock.readLock().lock();
 		}
@@ -269,6 +352,7 @@ public abstract class AbstractHandlerMethodMapping<T> extends ApplicationObjectS
 				}
 				this.mappingLookup.put(mapping, handlerMethod);
 				this.registry.put(mapping, new MappingRegistration<>(mapping, handlerMethod));
+				rebuildIndex();
 			}
 			finally {
 				this.readWriteLock.writeLock().unlock();
@@ -294,12 +378,51 @@ public abstract class AbstractHandlerMethodMapping<T> extends ApplicationObjectS
 				}
 
 				this.mappingLookup.remove(definition.getMapping());
+				rebuildIndex();
 			}
 			finally {
 				this.readWriteLock.writeLock().unlock();
 			}
 		}
 
+		private void rebuildIndex() {
+			Map<String, List<T>> methods = new HashMap<>();
+			List<T> undirected = new ArrayList<>();
+			for (T mapping : this.mappingLookup.keySet()) {
+				Collection<String> directMethods = getDirectMethods(mapping);
+				if (directMethods.isEmpty()) {
+					undirected.add(mapping);
+				} else {
+					for (String method : directMethods) {
+						methods.computeIfAbsent(method, key -> new ArrayList<>()).add(mapping);
+					}
+				}
+			}
+
+			// only unambiguous names are routed directly, others fall back
+			// to condition matching
+			Map<String, DirectMapping> direct = new HashMap<>();
+			if (undirected.isEmpty()) {
+				methods.forEach((method, mappings) -> {
+					if (mappings.size() == 1) {
+						T mapping = mappings.get(0);
+						HandlerMethod handlerMethod = this.mappingLookup.get(mapping);
+						DirectMapping existing = this.directLookup.get(method);
+						if (existing != null && existing.getMapping().equals(mapping)
+								&& existing.getHandlerMethod().equals(handlerMethod)) {
+							direct.put(method, existing);
+						} else {
+							direct.put(method, new DirectMapping(mapping, handlerMethod));
+						}
+					}
+				});
+			}
+
+			methods.replaceAll((method, mappings) -> Collections.unmodifiableList(mappings));
+			this.methodLookup = methods;
+			this.undirectedMappings = Collections.unmodifiableList(undirected);
+			this.directLookup = direct;
+		}
 	}
 
 	private static class MappingRegistration<T> {
@@ -323,6 +446,41 @@ public abstract class AbstractHandlerMethodMapping<T> extends ApplicationObjectS
 		}
 	}
 
+	/**
+	 * Mapping which is the only candidate for its method name, caching a
+	 * handler method with a resolved bean if the bean is a singleton.
+	 */
+	private class DirectMapping {
+
+		private final T mapping;
+		private final HandlerMethod handlerMethod;
+		private volatile HandlerMethod resolvedHandlerMethod;
+
+		public DirectMapping(T mapping, HandlerMethod handlerMethod) {
+			this.mapping = mapping;
+			this.handlerMethod = handlerMethod;
+		}
+
+		public T getMapping() {
+			return mapping;
+		}
+
+		public HandlerMethod getHandlerMethod() {
+			return handlerMethod;
+		}
+
+		public HandlerMethod getResolvedHandlerMethod() {
+			HandlerMethod resolved = this.resolvedHandlerMethod;
+			if (resolved == null) {
+				resolved = handlerMethod.createWithResolvedBean();
+				if (isSingletonHandler(handlerMethod)) {
+					this.resolvedHandlerMethod = resolved;
+				}
+			}
+			return resolved;
+		}
+	}
+
 	/**
 	 * A thin wrapper around a matched HandlerMethod and its mapping, for the purpose of
 	 * comparing the best match with a comparator in the context of the current request.
@@ -16,7 +16,11 @@
 package org.springframework.dsl.jsonrpc.result.method;
 
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.core.BridgeMethodResolver;
@@ -27,6 +31,7 @@ import org.springframework.core.annotation.SynthesizingMethodParameter;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
 
 public class HandlerMethod {
 
@@ -36,6 +41,8 @@ public class HandlerMethod {
 	private final Method method;
 	private final Method bridgedMethod;
 	private final MethodParameter[] parameters;
+	private final MethodParameter returnType;
+	private final MethodHandle invoker;
 
 	/**
 	 * Instantiates a new handler method.
@@ -52,6 +59,8 @@ public class HandlerMethod {
 		this.method = method;
 		this.bridgedMethod = BridgeMethodResolver.findBridgedMethod(method);
 		this.parameters = initMethodParameters();
+		this.returnType = new HandlerMethodParameter(-1);
+		this.invoker = initInvoker();
 	}
 
 	/**
@@ -72,6 +81,8 @@ public class HandlerMethod {
 		this.method = method;
 		this.bridgedMethod = BridgeMethodResolver.findBridgedMethod(method);
 		this.parameters = initMethodParameters();
+		this.returnType = new HandlerMethodParameter(-1);
+		this.invoker = initInvoker();
 	}
 
 
@@ -88,6 +99,8 @@ public class HandlerMethod {
 		this.method = handlerMethod.method;
 		this.bridgedMethod = handlerMethod.bridgedMethod;
 		this.parameters = handlerMethod.parameters;
+		this.returnType = handlerMethod.returnType;
+		this.invoker = handlerMethod.invoker;
 	}
 
 	/**
@@ -105,6 +118,8 @@ public class HandlerMethod {
 		this.method = handlerMethod.method;
 		this.bridgedMethod = handlerMethod.bridgedMethod;
 		this.parameters = handlerMethod.parameters;
+		this.returnType = handlerMethod.returnType;
+		this.invoker = handlerMethod.invoker;
 	}
 
 	/**
@@ -131,7 +146,7 @@ public class HandlerMethod {
 	 * @return the return type
 	 */
 	public MethodParameter getReturnType() {
-		return new HandlerMethodParameter(-1);
+		return this.returnType;
 	}
 
 	/**
@@ -183,6 +198,18 @@ public class HandlerMethod {
 		return this.bridgedMethod;
 	}
 
+	/**
+	 * Return an invoker for the bridged method, having a signature
+	 * {@code (Object bean, Object[] args)Object}. Invoker is created once when
+	 * this handler method is created and then shared with copies, thus
+	 * avoiding reflective access checks on every invocation.
+	 *
+	 * @return the invoker for the bridged method
+	 */
+	protected MethodHandle getInvoker() {
+		return this.invoker;
+	}
+
 	/**
 	 * Return the method parameters for this handler method.
 	 *
@@ -250,6 +277,25 @@ public class HandlerMethod {
 		}
 	}
 
+	/**
+	 * Inits the invoker.
+	 *
+	 * @return the method handle
+	 */
+	private MethodHandle initInvoker() {
+		ReflectionUtils.makeAccessible(this.bridgedMethod);
+		try {
+			MethodHandle handle = MethodHandles.lookup().unreflect(this.bridgedMethod);
+			if (Modifier.isStatic(this.bridgedMethod.getModifiers())) {
+				handle = MethodHandles.dropArguments(handle, 0, Object.class);
+			}
+			return handle.asSpreader(Object[].class, this.bridgedMethod.getParameterCount())
+					.asType(MethodType.methodType(Object.class, Object.class, Object[].class));
+		} catch (IllegalAccessException e) {
+			throw new IllegalStateException("Unable to access handler method " + this.bridgedMethod, e);
+		}
+	}
+
 	/**
 	 * Inits the method parameters.
 	 *
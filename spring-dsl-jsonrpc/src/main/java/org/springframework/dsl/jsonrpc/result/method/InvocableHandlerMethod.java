@@ -22,10 +22,8 @@ import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
-import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -38,10 +36,11 @@ import org.springframework.dsl.jsonrpc.JsonRpcHandlerResult;
 import org.springframework.dsl.jsonrpc.JsonRpcOutputMessage;
 import org.springframework.dsl.jsonrpc.ServerJsonRpcExchange;
 import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.ObjectUtils;
-import org.springframework.util.ReflectionUtils;
 
+import reactor.core.Fuseable;
 import reactor.core.publisher.Mono;
 
 /**
@@ -55,9 +54,8 @@ import reactor.core.publisher.Mono;
 public class InvocableHandlerMethod extends HandlerMethod {
 
 	private static final Logger log = LoggerFactory.getLogger(InvocableHandlerMethod.class);
-	private static final Mono<Object[]> EMPTY_ARGS = Mono.just(new Object[0]);
-	private static final Object NO_ARG_VALUE = new Object();
 	private List<JsonRpcHandlerMethodArgumentResolver> resolvers = new ArrayList<>();
+	private JsonRpcHandlerMethodArgumentResolver[] parameterResolvers;
 	private ParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
 	private ReactiveAdapterRegistry reactiveAdapterRegistry = ReactiveAdapterRegistry.getSharedInstance();
 
@@ -89,6 +87,7 @@ public class InvocableHandlerMethod extends HandlerMethod {
 	public void setArgumentResolvers(List<JsonRpcHandlerMethodArgumentResolver> resolvers) {
 		this.resolvers.clear();
 		this.resolvers.addAll(resolvers);
+		this.parameterResolvers = null;
 	}
 
 	/**
@@ -101,99 +100,164 @@ public class InvocableHandlerMethod extends HandlerMethod {
 	}
 
 	/**
-	 * Invoke.
+	 * Gets resolvers matched for each method parameter. Matching is done once
+	 * and cached, array index follows a parameter index and contains
+	 * {@code null} if there were no suitable resolver.
+	 *
+	 * @return the resolvers for method parameters
+	 */
+	public JsonRpcHandlerMethodArgumentResolver[] getParameterResolvers() {
+		if (this.parameterResolvers == null) {
+			MethodParameter[] parameters = getMethodParameters();
+			JsonRpcHandlerMethodArgumentResolver[] parameterResolvers = new JsonRpcHandlerMethodArgumentResolver[parameters.length];
+			for (int i = 0; i < parameters.length; i++) {
+				MethodParameter param = parameters[i];
+				param.initParameterNameDiscovery(this.parameterNameDiscoverer);
+				parameterResolvers[i] = this.resolvers.stream()
+						.filter(r -> r.supportsParameter(param))
+						.findFirst()
+						.orElse(null);
+			}
+			this.parameterResolvers = parameterResolvers;
+		}
+		return this.parameterResolvers;
+	}
+
+	/**
+	 * Sets already matched resolvers for method parameters, usually shared
+	 * from an earlier instance created for a same handler method.
+	 *
+	 * @param parameterResolvers the resolvers for method parameters
+	 * @see #getParameterResolvers()
+	 */
+	public void setParameterResolvers(JsonRpcHandlerMethodArgumentResolver[] parameterResolvers) {
+		Assert.isTrue(parameterResolvers.length == getMethodParameters().length,
+				"Parameter resolvers must match method parameters");
+		this.parameterResolvers = parameterResolvers;
+	}
+
+	/**
+	 * Invoke. Arguments are resolved and a method invoked only when returned
+	 * {@link Mono} is subscribed, every subscription invoking it again.
 	 *
 	 * @param exchange the exchange
 	 * @param providedArgs the provided args
 	 * @return the mono
 	 */
 	public Mono<JsonRpcHandlerResult> invoke(ServerJsonRpcExchange exchange, Object... providedArgs) {
-		return resolveArguments(exchange, providedArgs).flatMap(args -> {
+		return Mono.defer(() -> {
+			Object[] args = new Object[getMethodParameters().length];
+			Mono<Object[]> pendingArgs;
 			try {
-				Object value = doInvoke(args);
-
-				MethodParameter returnType = getReturnType();
-				ReactiveAdapter adapter = this.reactiveAdapterRegistry.getAdapter(returnType.getParameterType());
-				boolean asyncVoid = isAsyncVoidReturnType(returnType, adapter);
-				if ((value == null || asyncVoid) && isResponseHandled(args, exchange)) {
-					log.debug("Response fully handled in controller method");
-					return asyncVoid ? Mono.from(adapter.toPublisher(value)) : Mono.empty();
-				}
-
-				JsonRpcHandlerResult result = new JsonRpcHandlerResult(this, value, getReturnType());
-				return Mono.just(result);
-			}
-			catch (InvocationTargetException ex) {
-				return Mono.error(ex.getTargetException());
+				pendingArgs = resolveArguments(exchange, args, providedArgs);
 			}
 			catch (Throwable ex) {
-				return Mono.error(new IllegalStateException(getInvocationErrorMessage(new String[0])));
+				return Mono.error(ex);
 			}
+			if (pendingArgs == null) {
+				// every argument was available right away, no need to go
+				// through operators before invoking
+				return invokeWithArguments(exchange, args);
+			}
+			return pendingArgs.flatMap(resolvedArgs -> invokeWithArguments(exchange, resolvedArgs));
 		});
 	}
 
-	/**
-	 * Resolve arguments.
-	 *
-	 * @param exchange the exchange
-	 * @param providedArgs the provided args
-	 * @return the mono
-	 */
-	private Mono<Object[]> resolveArguments(ServerJsonRpcExchange exchange, Object... providedArgs) {
-
-		if (ObjectUtils.isEmpty(getMethodParameters())) {
-			return EMPTY_ARGS;
-		}
+	private Mono<JsonRpcHandlerResult> invokeWithArguments(ServerJsonRpcExchange exchange, Object[] args) {
 		try {
-			List<Mono<Object>> argMonos = Stream.of(getMethodParameters())
-					.map(param -> {
-						param.initParameterNameDiscovery(this.parameterNameDiscoverer);
-						return findProvidedArgument(param, providedArgs)
-								.map(Mono::just)
-								.orElseGet(() -> {
-									JsonRpcHandlerMethodArgumentResolver resolver = findResolver(param);
-									return resolveArg(resolver, param, exchange);
-								});
+			Object value = doInvoke(args);
 
-					})
-					.collect(Collectors.toList());
+			MethodParameter returnType = getReturnType();
+			ReactiveAdapter adapter = this.reactiveAdapterRegistry.getAdapter(returnType.getParameterType());
+			boolean asyncVoid = isAsyncVoidReturnType(returnType, adapter);
+			if ((value == null || asyncVoid) && isResponseHandled(args, exchange)) {
+				log.debug("Response fully handled in controller method");
+				return asyncVoid ? Mono.from(adapter.toPublisher(value)) : Mono.empty();
+			}
 
-			// Create Mono with array of resolved values...
-			return Mono.zip(argMonos, argValues ->
-					Stream.of(argValues).map(o -> o != NO_ARG_VALUE ? o : null).toArray());
+			JsonRpcHandlerResult result = new JsonRpcHandlerResult(this, value, returnType);
+			return Mono.just(result);
+		}
+		catch (InvocationTargetException ex) {
+			return Mono.error(ex.getTargetException());
 		}
 		catch (Throwable ex) {
-			return Mono.error(ex);
+			return Mono.error(new IllegalStateException(getInvocationErrorMessage(args)));
 		}
 	}
 
 	/**
-	 * Find provided argument.
+	 * Resolve arguments into a given array. Arguments which resolvers return
+	 * as a scalar {@link Mono} are set right away, others are set when returned
+	 * {@link Mono} completes.
 	 *
-	 * @param parameter the parameter
+	 * @param exchange the exchange
+	 * @param args the array for resolved arguments
 	 * @param providedArgs the provided args
-	 * @return the optional
+	 * @return the mono completing when pending arguments are resolved or
+	 *         {@code null} if all arguments were resolved
+	 * @throws Exception if argument resolving failed
 	 */
-	private Optional<Object> findProvidedArgument(MethodParameter parameter, Object... providedArgs) {
-		if (ObjectUtils.isEmpty(providedArgs)) {
-			return Optional.empty();
+	@Nullable
+	private Mono<Object[]> resolveArguments(ServerJsonRpcExchange exchange, Object[] args, Object... providedArgs)
+			throws Exception {
+		MethodParameter[] parameters = getMethodParameters();
+		if (ObjectUtils.isEmpty(parameters)) {
+			return null;
 		}
-		return Arrays.stream(providedArgs)
-				.filter(arg -> parameter.getParameterType().isInstance(arg))
-				.findFirst();
+		JsonRpcHandlerMethodArgumentResolver[] parameterResolvers = getParameterResolvers();
+		List<Mono<Object>> argMonos = null;
+		for (int i = 0; i < parameters.length; i++) {
+			MethodParameter param = parameters[i];
+			Object providedArg = findProvidedArgument(param, providedArgs);
+			if (providedArg != null) {
+				args[i] = providedArg;
+			} else if (parameterResolvers[i] != null) {
+				Mono<Object> argMono = resolveArg(parameterResolvers[i], param, exchange);
+				if (argMono instanceof Fuseable.ScalarCallable) {
+					args[i] = resolveScalarArg(argMono, param);
+				} else {
+					if (argMonos == null) {
+						argMonos = new ArrayList<>(parameters.length);
+					}
+					int index = i;
+					argMonos.add(argMono
+							.doOnNext(value -> args[index] = value)
+							.doOnError(cause -> {
+								if (log.isDebugEnabled()) {
+									log.debug(getDetailedErrorMessage("Failed to resolve", param), cause);
+								}
+							}));
+				}
+			} else {
+				throw getArgumentError("No suitable resolver for", param, null);
+			}
+		}
+
+		if (argMonos == null) {
+			return null;
+		}
+		return Mono.when(argMonos).then(Mono.just(args));
 	}
 
 	/**
-	 * Find resolver.
+	 * Find provided argument.
 	 *
-	 * @param param the param
-	 * @return the lsp handler method argument resolver
+	 * @param parameter the parameter
+	 * @param providedArgs the provided args
+	 * @return the provided argument or {@code null}
 	 */
-	private JsonRpcHandlerMethodArgumentResolver findResolver(MethodParameter param) {
-		return this.resolvers.stream()
-				.filter(r -> r.supportsParameter(param))
-				.findFirst()
-				.orElseThrow(() -> getArgumentError("No suitable resolver for", param, null));
+	@Nullable
+	private Object findProvidedArgument(MethodParameter parameter, Object... providedArgs) {
+		if (ObjectUtils.isEmpty(providedArgs)) {
+			return null;
+		}
+		for (Object providedArg : providedArgs) {
+			if (parameter.getParameterType().isInstance(providedArg)) {
+				return providedArg;
+			}
+		}
+		return null;
 	}
 
 	/**
@@ -208,19 +272,36 @@ public class InvocableHandlerMethod extends HandlerMethod {
 			ServerJsonRpcExchange exchange) {
 
 		try {
-			return resolver.resolveArgument(parameter, exchange)
-					.defaultIfEmpty(NO_ARG_VALUE)
-					.doOnError(cause -> {
-						if (log.isDebugEnabled()) {
-							log.debug(getDetailedErrorMessage("Failed to resolve", parameter), cause);
-						}
-					});
+			return resolver.resolveArgument(parameter, exchange);
 		}
 		catch (Exception ex) {
 			throw getArgumentError("Failed to resolve", parameter, ex);
 		}
 	}
 
+	/**
+	 * Resolve a value from a scalar {@link Mono} which is either a value, empty
+	 * or an error known at assembly time.
+	 *
+	 * @param argMono the scalar mono
+	 * @param parameter the parameter
+	 * @return the resolved value or {@code null} if mono was empty
+	 * @throws Exception if mono was an error
+	 */
+	@SuppressWarnings("unchecked")
+	@Nullable
+	private Object resolveScalarArg(Mono<Object> argMono, MethodParameter parameter) throws Exception {
+		try {
+			return ((Fuseable.ScalarCallable<Object>) argMono).call();
+		}
+		catch (Exception ex) {
+			if (log.isDebugEnabled()) {
+				log.debug(getDetailedErrorMessage("Failed to resolve", parameter), ex);
+			}
+			throw ex;
+		}
+	}
+
 	/**
 	 * Gets the argument error.
 	 *
@@ -275,8 +356,15 @@ public class InvocableHandlerMethod extends HandlerMethod {
 			log.trace("Invoking '" + ClassUtils.getQualifiedMethodName(getMethod(), getBeanType()) +
 					"' with arguments " + Arrays.toString(args));
 		}
-		ReflectionUtils.makeAccessible(getBridgedMethod());
-		Object returnValue = getBridgedMethod().invoke(getBean(), args);
+		assertArgumentTypes(args);
+		Object returnValue;
+		try {
+			returnValue = (Object) getInvoker().invokeExact(getBean(), args);
+		}
+		catch (Throwable ex) {
+			// keep same contract as with reflective invocation
+			throw new InvocationTargetException(ex);
+		}
 		if (log.isTraceEnabled()) {
 			log.trace("Method [" + ClassUtils.getQualifiedMethodName(getMethod(), getBeanType()) +
 					"] returned [" + returnValue + "]");
@@ -284,6 +372,17 @@ public class InvocableHandlerMethod extends HandlerMethod {
 		return returnValue;
 	}
 
+	private void assertArgumentTypes(Object[] args) {
+		// invoker would fail with a cast error which is then impossible to
+		// differentiate from an error thrown by a method itself
+		MethodParameter[] parameters = getMethodParameters();
+		for (int i = 0; i < parameters.length; i++) {
+			if (!ClassUtils.isAssignableValue(parameters[i].getParameterType(), args[i])) {
+				throw new IllegalArgumentException("Argument type mismatch for " + parameters[i]);
+			}
+		}
+	}
+
 	/**
 	 * Gets the invocation error message.
 	 *
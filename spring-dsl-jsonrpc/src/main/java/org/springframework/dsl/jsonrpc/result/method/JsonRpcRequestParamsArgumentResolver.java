@@ -15,8 +15,9 @@
  */
 package org.springframework.dsl.jsonrpc.result.method;
 
-import java.io.IOException;
 import java.nio.charset.Charset;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.springframework.core.GenericTypeResolver;
 import org.springframework.core.MethodParameter;
@@ -26,6 +27,7 @@ import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.dsl.jsonrpc.ServerJsonRpcExchange;
 import org.springframework.dsl.jsonrpc.annotation.JsonRpcRequestParams;
+import org.springframework.dsl.jsonrpc.support.JsonRpcParamsUtils;
 import org.springframework.util.Assert;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
@@ -47,6 +49,26 @@ import reactor.core.publisher.Mono;
  */
 public class JsonRpcRequestParamsArgumentResolver implements JsonRpcHandlerMethodArgumentResolver {
 
+	private final Map<MethodParameter, ObjectReader> readerCache = new ConcurrentHashMap<>(64);
+	private final ObjectMapper objectMapper;
+
+	/**
+	 * Instantiates a new json rpc request params argument resolver.
+	 */
+	public JsonRpcRequestParamsArgumentResolver() {
+		this(new ObjectMapper());
+	}
+
+	/**
+	 * Instantiates a new json rpc request params argument resolver.
+	 *
+	 * @param objectMapper the object mapper used to build readers
+	 */
+	public JsonRpcRequestParamsArgumentResolver(ObjectMapper objectMapper) {
+		Assert.notNull(objectMapper, "ObjectMapper must be set");
+		this.objectMapper = objectMapper;
+	}
+
 	@Override
 	public boolean supportsParameter(MethodParameter parameter) {
 		return parameter.hasParameterAnnotation(JsonRpcRequestParams.class);
@@ -54,21 +76,17 @@ public class JsonRpcRequestParamsArgumentResolver implements JsonRpcHandlerMetho
 
 	@Override
 	public Mono<Object> resolveArgument(MethodParameter parameter, ServerJsonRpcExchange exchange) {
-		Class<?> type = parameter.getParameterType();
-		Class<?> contextClass = (parameter != null ? parameter.getContainingClass() : null);
-
-		Mono<String> bodyAsString = exchange.getRequest().getParams();
+		return JsonRpcParamsUtils.readParams(getObjectReader(parameter), exchange.getRequest());
+	}
 
-		ObjectMapper objectMapper = new ObjectMapper();
-		objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-		TypeFactory typeFactory = objectMapper.getTypeFactory();
-		JavaType javaType = typeFactory.constructType(GenericTypeResolver.resolveType(type, contextClass));
-		ObjectReader forType = objectMapper.readerFor(javaType);
-		try {
-			return Mono.just(forType.readValue(bodyAsString.block().toString()));
-		} catch (IOException e) {
-			return Mono.error(e);
-		}
+	private ObjectReader getObjectReader(MethodParameter parameter) {
+		return this.readerCache.computeIfAbsent(parameter, p -> {
+			Class<?> type = p.getParameterType();
+			Class<?> contextClass = p.getContainingClass();
+			TypeFactory typeFactory = this.objectMapper.getTypeFactory();
+			JavaType javaType = typeFactory.constructType(GenericTypeResolver.resolveType(type, contextClass));
+			return this.objectMapper.readerFor(javaType).without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+		});
 	}
 
 	public Mono<String> getBodyAsString(Flux<DataBuffer> body) {
@@ -15,13 +15,17 @@
  */
 package org.springframework.dsl.jsonrpc.result.method.annotation;
 
+import java.lang.reflect.Method;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.reactivestreams.Publisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.MethodClassKey;
 import org.springframework.core.MethodParameter;
 import org.springframework.core.ReactiveAdapter;
 import org.springframework.core.ReactiveAdapterRegistry;
@@ -40,6 +44,10 @@ import reactor.core.publisher.Mono;
 /**
  * Abstract base class for result handlers that handle return values by writing
  * to the response with {@link JsonRpcMessageWriter}.
+ * <p>
+ * Reactive adapter, element type, hints and a writer are resolved once for a
+ * handler method return type and then reused, unless return type is declared
+ * as {@code Object} in which case those depend on an actual return value.
  *
  * @author Janne Valkealahti
  *
@@ -48,6 +56,7 @@ public abstract class AbstractMessageWriterResultHandler extends HandlerResultHa
 
 	private static final Logger log = LoggerFactory.getLogger(AbstractMessageWriterResultHandler.class);
 	private final List<JsonRpcMessageWriter<?>> messageWriters;
+	private final Map<MethodClassKey, BodyWriter> bodyWriterCache = new ConcurrentHashMap<>(64);
 
 	protected AbstractMessageWriterResultHandler(List<JsonRpcMessageWriter<?>> messageWriters,
 			ReactiveAdapterRegistry adapterRegistry) {
@@ -64,46 +73,71 @@ public abstract class AbstractMessageWriterResultHandler extends HandlerResultHa
 	protected Mono<Void> writeBody(@Nullable Object body, MethodParameter bodyParameter,
 			@Nullable MethodParameter actualParameter, ServerJsonRpcExchange exchange) {
 
+		BodyWriter bodyWriter = getBodyWriter(body, bodyParameter);
+		Publisher<?> publisher = (bodyWriter.adapter != null ?
+				bodyWriter.adapter.toPublisher(body) : Mono.justOrEmpty(body));
+
+		if (bodyWriter.isVoid()) {
+			return Mono.from((Publisher<Void>) publisher);
+		}
+
+		JsonRpcInputMessage request = exchange.getRequest();
+		JsonRpcOutputMessage response = exchange.getResponse();
+
+		log.debug("request id {} method {}", request.getId(), request.getMethod());
+
+		if (bodyWriter.writer != null) {
+			return bodyWriter.writer.write((Publisher) publisher, bodyWriter.elementType, request, response,
+					bodyWriter.hints);
+		}
+		return Mono.error(new IllegalStateException("No writer for : " + bodyWriter.elementType));
+	}
+
+	private BodyWriter getBodyWriter(@Nullable Object body, MethodParameter bodyParameter) {
+		Method method = bodyParameter.getMethod();
+		if (method == null || bodyParameter.getParameterIndex() != -1
+				|| Object.class.equals(bodyParameter.getParameterType())) {
+			return createBodyWriter(body, bodyParameter);
+		}
+		MethodClassKey key = new MethodClassKey(method, bodyParameter.getContainingClass());
+		BodyWriter bodyWriter = this.bodyWriterCache.get(key);
+		if (bodyWriter == null) {
+			// declared type alone defines how body is written, thus resolve
+			// without a body and reuse for a handler method
+			bodyWriter = createBodyWriter(null, bodyParameter);
+			this.bodyWriterCache.put(key, bodyWriter);
+		}
+		return bodyWriter;
+	}
+
+	private BodyWriter createBodyWriter(@Nullable Object body, MethodParameter bodyParameter) {
 		ResolvableType bodyType = ResolvableType.forMethodParameter(bodyParameter);
-		ResolvableType actualType = (actualParameter == null ?
-				bodyType : ResolvableType.forMethodParameter(actualParameter));
 		Class<?> bodyClass = bodyType.resolve();
 		ReactiveAdapter adapter = getAdapterRegistry().getAdapter(bodyClass, body);
 
-		Publisher<?> publisher;
 		ResolvableType elementType;
 		if (adapter != null) {
-			publisher = adapter.toPublisher(body);
 			ResolvableType genericType = bodyType.getGeneric(0);
 			elementType = getElementType(adapter, genericType);
 		} else {
-			publisher = Mono.justOrEmpty(body);
 			elementType = ((bodyClass == null || bodyClass.equals(Object.class)) && body != null ?
 					ResolvableType.forInstance(body) : bodyType);
 		}
 
-		if (void.class == elementType.getRawClass() || Void.class == elementType.getRawClass()) {
-			return Mono.from((Publisher<Void>) publisher);
-		}
-
-		JsonRpcInputMessage request = exchange.getRequest();
-		JsonRpcOutputMessage response = exchange.getResponse();
-
-		log.debug("request id {} method {}", request.getId(), request.getMethod());
-
 		Map<String, Object> hints = new HashMap<>();
 		JsonRpcNotification notification = bodyParameter.getMethodAnnotation(JsonRpcNotification.class);
 		if (notification != null) {
 			hints.put("method", AnnotationUtils.getValue(notification, "method"));
 		}
 
-		for (JsonRpcMessageWriter<?> writer : messageWriters) {
-			if (writer.canWrite(elementType)) {
-//				return writer.write((Publisher) publisher, elementType, request, response, Collections.emptyMap());
-				return writer.write((Publisher) publisher, elementType, request, response, hints);
+		JsonRpcMessageWriter<?> writer = null;
+		for (JsonRpcMessageWriter<?> messageWriter : messageWriters) {
+			if (messageWriter.canWrite(elementType)) {
+				writer = messageWriter;
+				break;
 			}
 		}
-		return Mono.error(new IllegalStateException("No writer for : " + elementType));
+		return new BodyWriter(adapter, elementType, writer, Collections.unmodifiableMap(hints));
 	}
 
 	private ResolvableType getElementType(ReactiveAdapter adapter, ResolvableType genericType) {
@@ -117,4 +151,27 @@ public abstract class AbstractMessageWriterResultHandler extends HandlerResultHa
 			return ResolvableType.forClass(Object.class);
 		}
 	}
+
+	/**
+	 * Resolved strategies for writing a body of a given type.
+	 */
+	private static class BodyWriter {
+
+		final ReactiveAdapter adapter;
+		final ResolvableType elementType;
+		final JsonRpcMessageWriter<?> writer;
+		final Map<String, Object> hints;
+
+		BodyWriter(ReactiveAdapter adapter, ResolvableType elementType, JsonRpcMessageWriter<?> writer,
+				Map<String, Object> hints) {
+			this.adapter = adapter;
+			this.elementType = elementType;
+			this.writer = writer;
+			this.hints = hints;
+		}
+
+		boolean isVoid() {
+			return void.class == elementType.getRawClass() || Void.class == elementType.getRawClass();
+		}
+	}
 }
@@ -17,6 +17,7 @@ package org.springframework.dsl.jsonrpc.result.method.annotation;
 
 import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Method;
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.Set;
 
@@ -75,6 +76,13 @@ public class JsonRpcRequestMappingHandlerMapping extends AbstractHandlerMethodMa
 		return info.getMatchingCondition(exchange);
 	}
 
+	@Override
+	protected Collection<String> getDirectMethods(JsonRpcRequestMappingInfo info) {
+		// methods condition is the only condition in a mapping info, thus
+		// a mapping with explicit methods is fully determined by a method name
+		return info.getMethodsCondition().getMethods();
+	}
+
 	@Override
 	protected JsonRpcRequestMappingInfo getMappingForMethod(Method method, Class<?> handlerType) {
 		JsonRpcRequestMappingInfo info = createRequestMappingInfo(method);
@@ -15,6 +15,8 @@
  */
 package org.springframework.dsl.jsonrpc.session;
 
+import java.time.Duration;
+
 import org.springframework.dsl.jsonrpc.ServerJsonRpcExchange;
 import org.springframework.util.Assert;
 
@@ -33,6 +35,7 @@ public class DefaultJsonRpcSessionManager implements JsonRpcSessionManager {
 
 	private JsonRpcSessionIdResolver sessionIdResolver = new RequestSessionIdJsonRpcSessionIdResolver();
 	private JsonRpcSessionStore sessionStore = new InMemoryJsonRpcSessionStore();
+	private Duration boundSessionMaxIdleTime = Duration.ofSeconds(-1);
 
 	@Override
 	public Mono<JsonRpcSession> getSession(ServerJsonRpcExchange exchange) {
@@ -41,6 +44,34 @@ public class DefaultJsonRpcSessionManager implements JsonRpcSessionManager {
 				.doOnNext(session -> exchange.getResponse().beforeCommit(() -> save(exchange, session))));
 	}
 
+	@Override
+	public Mono<JsonRpcSession> getSession(String sessionId) {
+		Assert.notNull(sessionId, "Session id must be set");
+		// saved right away so that session is still found from a store
+		// while bound to a connection
+		return Mono.defer(() -> this.sessionStore.retrieveSession(sessionId)
+				.switchIfEmpty(this.sessionStore.createSession(sessionId))
+				.flatMap(session -> {
+					session.setMaxIdleTime(boundSessionMaxIdleTime);
+					session.start();
+					return session.save().thenReturn(session);
+				}));
+	}
+
+	/**
+	 * Sets the max idle time of sessions bound to a connection via
+	 * {@link #getSession(String)}. A connection owns its session and
+	 * invalidates it when closed, thus by default bound sessions never idle
+	 * out while a connection is still in use. A negative duration means that
+	 * session never expires.
+	 *
+	 * @param boundSessionMaxIdleTime the bound session max idle time
+	 */
+	public void setBoundSessionMaxIdleTime(Duration boundSessionMaxIdleTime) {
+		Assert.notNull(boundSessionMaxIdleTime, "Bound session max idle time must be set");
+		this.boundSessionMaxIdleTime = boundSessionMaxIdleTime;
+	}
+
 	/**
 	 * Sets the session id resolver.
 	 * <p>
@@ -19,28 +19,56 @@ import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneId;
-import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
-import java.util.concurrent.locks.ReentrantLock;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.Assert;
+
+import reactor.core.Disposable;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
 /**
  * Simple in-memory map based storage for a {@link JsonRpcSessionStore}.
+ * <p>
+ * Expiration is checked in a background with a configurable period. Sessions
+ * are bucketed by a check tick when those are due to expire and only buckets
+ * which are due are looked at, thus a check doesn't need to go through all
+ * sessions. A session is moved to another bucket when an access changes its
+ * due tick and removed from its bucket when it's invalidated or removed, thus
+ * buckets only hold live sessions. Session attributes implementing {@link Disposable}
+ * are disposed when session is invalidated or expired. Disposing a store
+ * stops background expiration checks.
  *
  * @author Janne Valkealahti
  *
  */
-public class InMemoryJsonRpcSessionStore implements JsonRpcSessionStore {
+public class InMemoryJsonRpcSessionStore implements JsonRpcSessionStore, Disposable {
 
-	private static final Duration EXPIRATION_CHECK_PERIOD = Duration.ofSeconds(60);
+	private static final Logger log = LoggerFactory.getLogger(InMemoryJsonRpcSessionStore.class);
+	public static final Duration DEFAULT_EXPIRATION_CHECK_PERIOD = Duration.ofSeconds(60);
+	public static final Duration DEFAULT_MAX_IDLE_TIME = Duration.ofMinutes(30);
 	private final ConcurrentMap<String, InMemoryJsonRpcSession> sessions = new ConcurrentHashMap<>();
+	private final TreeMap<Long, Set<InMemoryJsonRpcSession>> expirationBuckets = new TreeMap<>();
 	private Clock clock = Clock.system(ZoneId.of("GMT"));
-	private volatile Instant nextExpirationCheckTime = Instant.now(this.clock).plus(EXPIRATION_CHECK_PERIOD);
-	private final ReentrantLock expirationCheckLock = new ReentrantLock();
+	private volatile Duration expirationCheckPeriod = DEFAULT_EXPIRATION_CHECK_PERIOD;
+	private volatile Duration maxIdleTime = DEFAULT_MAX_IDLE_TIME;
+	private Scheduler scheduler = Schedulers.parallel();
+	private final AtomicReference<Disposable> expirationTask = new AtomicReference<>();
+	private volatile boolean disposed;
 
 	@Override
 	public Mono<JsonRpcSession> createSession(String sessionId) {
@@ -49,26 +77,27 @@ public class InMemoryJsonRpcSessionStore implements JsonRpcSessionStore {
 
 	@Override
 	public Mono<JsonRpcSession> retrieveSession(String sessionId) {
-		Instant currentTime = Instant.now(this.clock);
-		if (!this.sessions.isEmpty() && !currentTime.isBefore(this.nextExpirationCheckTime)) {
-			checkExpiredSessions(currentTime);
-		}
-
 		InMemoryJsonRpcSession session = this.sessions.get(sessionId);
 		if (session == null) {
 			return Mono.empty();
-		} else if (session.isExpired(currentTime)) {
-			this.sessions.remove(sessionId);
+		}
+		Instant currentTime = Instant.now(this.clock);
+		if (session.isExpired(currentTime)) {
+			expire(session);
 			return Mono.empty();
 		} else {
 			session.updateLastAccessTime(currentTime);
+			scheduleExpiration(session, currentTime);
 			return Mono.just(session);
 		}
 	}
 
 	@Override
 	public Mono<Void> removeSession(String sessionId) {
-		this.sessions.remove(sessionId);
+		InMemoryJsonRpcSession session = this.sessions.remove(sessionId);
+		if (session != null) {
+			unscheduleExpiration(session);
+		}
 		return Mono.empty();
 	}
 
@@ -77,27 +106,231 @@ public class InMemoryJsonRpcSessionStore implements JsonRpcSessionStore {
 		return Mono.just(webSession);
 	}
 
-	private Clock getClock() {
+	/**
+	 * Sets the period how often expiration is checked in a background.
+	 * <p>
+	 * By default {@code 60} seconds.
+	 *
+	 * @param expirationCheckPeriod the expiration check period
+	 */
+	public void setExpirationCheckPeriod(Duration expirationCheckPeriod) {
+		Assert.notNull(expirationCheckPeriod, "Expiration check period must be set");
+		Assert.isTrue(!expirationCheckPeriod.isNegative() && !expirationCheckPeriod.isZero(),
+				"Expiration check period must be positive");
+		this.expirationCheckPeriod = expirationCheckPeriod;
+		synchronized (this.expirationBuckets) {
+			// ticks are based on a period so re-bucket what we have
+			List<InMemoryJsonRpcSession> bucketed = drainBuckets(Long.MAX_VALUE);
+			Instant currentTime = Instant.now(this.clock);
+			bucketed.forEach(session -> scheduleExpiration(session, currentTime));
+		}
+		Disposable task = this.expirationTask.getAndSet(null);
+		if (task != null) {
+			task.dispose();
+			startExpirationTask();
+		}
+	}
+
+	/**
+	 * Gets the expiration check period.
+	 *
+	 * @return the expiration check period
+	 */
+	public Duration getExpirationCheckPeriod() {
+		return expirationCheckPeriod;
+	}
+
+	/**
+	 * Sets the max idle time for created sessions. A negative value indicates
+	 * sessions should not expire.
+	 * <p>
+	 * By default {@code 30} minutes.
+	 *
+	 * @param maxIdleTime the max idle time
+	 */
+	public void setMaxIdleTime(Duration maxIdleTime) {
+		Assert.notNull(maxIdleTime, "Max idle time must be set");
+		this.maxIdleTime = maxIdleTime;
+	}
+
+	/**
+	 * Gets the max idle time for created sessions.
+	 *
+	 * @return the max idle time
+	 */
+	public Duration getMaxIdleTime() {
+		return maxIdleTime;
+	}
+
+	/**
+	 * Sets the clock used for session timestamps and expiration checks.
+	 *
+	 * @param clock the clock
+	 */
+	public void setClock(Clock clock) {
+		Assert.notNull(clock, "Clock must be set");
+		this.clock = clock;
+	}
+
+	/**
+	 * Gets the clock.
+	 *
+	 * @return the clock
+	 */
+	public Clock getClock() {
 		return this.clock;
 	}
 
-	private void checkExpiredSessions(Instant currentTime) {
-		if (this.expirationCheckLock.tryLock()) {
-			try {
-				Iterator<InMemoryJsonRpcSession> iterator = this.sessions.values().iterator();
-				while (iterator.hasNext()) {
-					InMemoryJsonRpcSession session = iterator.next();
-					if (session.isExpired(currentTime)) {
-						iterator.remove();
-						session.invalidate();
-					}
-				}
+	/**
+	 * Sets the scheduler running background expiration checks.
+	 * <p>
+	 * By default {@link Schedulers#parallel()}.
+	 *
+	 * @param scheduler the scheduler
+	 */
+	public void setScheduler(Scheduler scheduler) {
+		Assert.notNull(scheduler, "Scheduler must be set");
+		this.scheduler = scheduler;
+	}
+
+	/**
+	 * Gets the current sessions, mostly useful for testing.
+	 *
+	 * @return the current sessions
+	 */
+	public Map<String, JsonRpcSession> getSessions() {
+		return Collections.unmodifiableMap(this.sessions);
+	}
+
+	@Override
+	public void dispose() {
+		this.disposed = true;
+		Disposable task = this.expirationTask.getAndSet(null);
+		if (task != null) {
+			task.dispose();
+		}
+	}
+
+	@Override
+	public boolean isDisposed() {
+		return this.disposed;
+	}
+
+	/**
+	 * Check sessions which are due to expire and remove those which are
+	 * expired. This is called periodically in a background and only looks at
+	 * sessions in due buckets.
+	 */
+	public void removeExpiredSessions() {
+		Instant currentTime = Instant.now(this.clock);
+		List<InMemoryJsonRpcSession> due;
+		synchronized (this.expirationBuckets) {
+			due = drainBuckets(toTick(currentTime));
+		}
+		for (InMemoryJsonRpcSession session : due) {
+			if (session.isExpired(currentTime)) {
+				log.debug("Expiring session {}", session.getId());
+				expire(session);
+			} else if (this.sessions.get(session.getId()) == session) {
+				// not yet idle long enough, i.e. max idle time was extended, so
+				// move to its new due bucket
+				scheduleExpiration(session, currentTime);
 			}
-			finally {
-				this.nextExpirationCheckTime = currentTime.plus(EXPIRATION_CHECK_PERIOD);
-				this.expirationCheckLock.unlock();
+		}
+	}
+
+	/**
+	 * Gets the count of sessions waiting in expiration buckets, mostly useful
+	 * for testing.
+	 *
+	 * @return the count of scheduled sessions
+	 */
+	int getScheduledExpirationCount() {
+		synchronized (this.expirationBuckets) {
+			return this.expirationBuckets.values().stream().mapToInt(Set::size).sum();
+		}
+	}
+
+	private List<InMemoryJsonRpcSession> drainBuckets(long tick) {
+		List<InMemoryJsonRpcSession> drained = new ArrayList<>();
+		Map.Entry<Long, Set<InMemoryJsonRpcSession>> entry;
+		while ((entry = this.expirationBuckets.firstEntry()) != null && entry.getKey() <= tick) {
+			this.expirationBuckets.pollFirstEntry();
+			for (InMemoryJsonRpcSession session : entry.getValue()) {
+				session.expirationTick = -1;
+				drained.add(session);
+			}
+		}
+		return drained;
+	}
+
+	private void scheduleExpiration(InMemoryJsonRpcSession session, Instant currentTime) {
+		Duration sessionMaxIdleTime = session.getMaxIdleTime();
+		if (sessionMaxIdleTime.isNegative()) {
+			unscheduleExpiration(session);
+			return;
+		}
+		long tick = Math.max(toTick(session.getLastAccessTime().plus(sessionMaxIdleTime)), toTick(currentTime)) + 1;
+		if (session.expirationTick == tick) {
+			// accessed within a same tick, already in a right bucket
+			return;
+		}
+		synchronized (this.expirationBuckets) {
+			removeFromBucket(session);
+			this.expirationBuckets.computeIfAbsent(tick, key -> new HashSet<>()).add(session);
+			session.expirationTick = tick;
+		}
+	}
+
+	private void unscheduleExpiration(InMemoryJsonRpcSession session) {
+		if (session.expirationTick < 0) {
+			return;
+		}
+		synchronized (this.expirationBuckets) {
+			removeFromBucket(session);
+		}
+	}
+
+	private void removeFromBucket(InMemoryJsonRpcSession session) {
+		if (session.expirationTick < 0) {
+			return;
+		}
+		Set<InMemoryJsonRpcSession> bucket = this.expirationBuckets.get(session.expirationTick);
+		if (bucket != null) {
+			bucket.remove(session);
+			if (bucket.isEmpty()) {
+				this.expirationBuckets.remove(session.expirationTick);
 			}
 		}
+		session.expirationTick = -1;
+	}
+
+	private void startExpirationTask() {
+		if (this.disposed || this.expirationTask.get() != null) {
+			return;
+		}
+		long period = this.expirationCheckPeriod.toMillis();
+		Disposable task = this.scheduler.schedulePeriodically(() -> {
+			try {
+				removeExpiredSessions();
+			} catch (Exception e) {
+				// keep periodic task alive
+				log.error("Session expiration check failed", e);
+			}
+		}, period, period, TimeUnit.MILLISECONDS);
+		// store may have been disposed while task was scheduled
+		if (!this.expirationTask.compareAndSet(null, task) || this.disposed) {
+			task.dispose();
+		}
+	}
+
+	private long toTick(Instant instant) {
+		return instant.toEpochMilli() / this.expirationCheckPeriod.toMillis();
+	}
+
+	private void expire(InMemoryJsonRpcSession session) {
+		this.sessions.remove(session.getId(), session);
+		session.invalidate();
 	}
 
 	private class InMemoryJsonRpcSession implements JsonRpcSession {
@@ -110,10 +343,14 @@ public class InMemoryJsonRpcSessionStore implements JsonRpcSessionStore {
 
 		private volatile Instant lastAccessTime;
 
-		private volatile Duration maxIdleTime = Duration.ofMinutes(30);
+		private volatile Duration maxIdleTime = InMemoryJsonRpcSessionStore.this.maxIdleTime;
 
 		private final AtomicReference<State> state = new AtomicReference<>(State.NEW);
 
+		private final AtomicBoolean invalidated = new AtomicBoolean();
+
+		private volatile long expirationTick = -1;
+
 		public InMemoryJsonRpcSession(String id) {
 			this.id = id;
 			this.creationTime = Instant.now(getClock());
@@ -163,8 +400,12 @@ public class InMemoryJsonRpcSessionStore implements JsonRpcSessionStore {
 		@Override
 		public Mono<Void> invalidate() {
 			this.state.set(State.EXPIRED);
+			InMemoryJsonRpcSessionStore.this.sessions.remove(this.id, this);
+			unscheduleExpiration(this);
+			if (this.invalidated.compareAndSet(false, true)) {
+				disposeAttributes();
+			}
 			getAttributes().clear();
-			InMemoryJsonRpcSessionStore.this.sessions.remove(this.id);
 			return Mono.empty();
 		}
 
@@ -174,6 +415,8 @@ public class InMemoryJsonRpcSessionStore implements JsonRpcSessionStore {
 				this.state.compareAndSet(State.NEW, State.STARTED);
 			}
 			InMemoryJsonRpcSessionStore.this.sessions.put(this.getId(), this);
+			scheduleExpiration(this, this.lastAccessTime);
+			startExpirationTask();
 			return Mono.empty();
 		}
 
@@ -201,6 +444,19 @@ public class InMemoryJsonRpcSessionStore implements JsonRpcSessionStore {
 		private void updateLastAccessTime(Instant currentTime) {
 			this.lastAccessTime = currentTime;
 		}
+
+		private void disposeAttributes() {
+			// i.e. document state trackers are kept in session attributes
+			for (Object value : getAttributes().values()) {
+				if (value instanceof Disposable) {
+					try {
+						((Disposable) value).dispose();
+					} catch (Exception e) {
+						log.warn("Failed to dispose session attribute " + value, e);
+					}
+				}
+			}
+		}
 	}
 
 	private enum State { NEW, STARTED, EXPIRED }
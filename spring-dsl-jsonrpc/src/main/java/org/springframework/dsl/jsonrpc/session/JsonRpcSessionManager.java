@@ -37,4 +37,19 @@ public interface JsonRpcSessionManager {
 	 * @return {@link Mono} for the JsonRpcSession
 	 */
 	Mono<JsonRpcSession> getSession(ServerJsonRpcExchange exchange);
+
+	/**
+	 * Return a started {@link JsonRpcSession} for the given session id meant to
+	 * be bound to a connection for its whole lifetime. Transports which have a
+	 * connection per session can resolve it once and pass it to exchanges as is
+	 * instead of resolving it for every message via
+	 * {@link #getSession(ServerJsonRpcExchange)}. By default returns an empty
+	 * {@link Mono} which keeps session resolved for every message.
+	 *
+	 * @param sessionId the session id
+	 * @return {@link Mono} for the JsonRpcSession
+	 */
+	default Mono<JsonRpcSession> getSession(String sessionId) {
+		return Mono.empty();
+	}
 }
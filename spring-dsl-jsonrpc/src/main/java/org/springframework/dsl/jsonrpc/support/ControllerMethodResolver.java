@@ -15,7 +15,10 @@
  */
 package org.springframework.dsl.jsonrpc.support;
 
+import java.lang.reflect.Method;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.springframework.dsl.jsonrpc.result.method.HandlerMethod;
 import org.springframework.dsl.jsonrpc.result.method.InvocableHandlerMethod;
@@ -32,6 +35,9 @@ public class ControllerMethodResolver {
 	/** The request mapping resolvers. */
 	private final List<JsonRpcHandlerMethodArgumentResolver> requestMappingResolvers;
 
+	/** Resolvers matched per method parameters, keyed by a handler method. */
+	private final Map<Method, JsonRpcHandlerMethodArgumentResolver[]> parameterResolversCache = new ConcurrentHashMap<>(64);
+
 	/**
 	 * Instantiates a new controller method resolver.
 	 *
@@ -50,6 +56,13 @@ public class ControllerMethodResolver {
 	public InvocableHandlerMethod getRequestMappingMethod(HandlerMethod handlerMethod) {
 		InvocableHandlerMethod invocable = new InvocableHandlerMethod(handlerMethod);
 		invocable.setArgumentResolvers(this.requestMappingResolvers);
+		JsonRpcHandlerMethodArgumentResolver[] parameterResolvers = this.parameterResolversCache
+				.get(handlerMethod.getMethod());
+		if (parameterResolvers != null) {
+			invocable.setParameterResolvers(parameterResolvers);
+		} else {
+			this.parameterResolversCache.put(handlerMethod.getMethod(), invocable.getParameterResolvers());
+		}
 		return invocable;
 	}
 
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.jsonrpc.support;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.function.Supplier;
+
+import org.springframework.dsl.jsonrpc.JsonRpcInputMessage;
+import org.springframework.dsl.jsonrpc.JsonRpcRequest;
+import org.springframework.util.Assert;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Default {@link JsonRpcInputMessage} backed by a {@link JsonRpcRequest}. If
+ * request {@code params} has been kept as a {@link TokenBuffer} it is exposed
+ * as is via {@link #getParamsBuffer()} and only rendered into a text when
+ * {@link #getParams()} is requested.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class DefaultJsonRpcInputMessage implements JsonRpcInputMessage {
+
+	private static final JsonFactory JSON_FACTORY = new JsonFactory();
+	private final JsonRpcRequest request;
+	private final Supplier<String> sessionIdSupplier;
+
+	/**
+	 * Instantiates a new default json rpc input message.
+	 *
+	 * @param request the json rpc request
+	 * @param sessionIdSupplier the session id supplier
+	 */
+	public DefaultJsonRpcInputMessage(JsonRpcRequest request, Supplier<String> sessionIdSupplier) {
+		Assert.notNull(request, "JsonRpcRequest must be set");
+		Assert.notNull(sessionIdSupplier, "Session id supplier must be set");
+		this.request = request;
+		this.sessionIdSupplier = sessionIdSupplier;
+	}
+
+	@Override
+	public Mono<String> getJsonrpc() {
+		return Mono.justOrEmpty(request.getJsonrpc());
+	}
+
+	@Override
+	public Mono<String> getId() {
+		return Mono.justOrEmpty(request.getId());
+	}
+
+	@Override
+	public Mono<String> getMethod() {
+		return Mono.justOrEmpty(request.getMethod());
+	}
+
+	@Override
+	public Mono<String> getParams() {
+		Object params = request.getParams();
+		if (params instanceof TokenBuffer) {
+			return Mono.fromCallable(() -> toText((TokenBuffer) params));
+		}
+		return Mono.justOrEmpty(params != null ? params.toString() : null);
+	}
+
+	@Override
+	public Mono<TokenBuffer> getParamsBuffer() {
+		Object params = request.getParams();
+		if (params instanceof TokenBuffer) {
+			return Mono.just((TokenBuffer) params);
+		}
+		return Mono.empty();
+	}
+
+	@Override
+	public Mono<String> getSessionId() {
+		return Mono.fromSupplier(sessionIdSupplier);
+	}
+
+	/**
+	 * Gets the request this message is based on.
+	 *
+	 * @return the json rpc request
+	 */
+	public JsonRpcRequest getRequest() {
+		return request;
+	}
+
+	private static String toText(TokenBuffer buffer) throws IOException {
+		// keep same format as before where value nodes are used as is
+		// and structured nodes are rendered as json
+		try (JsonParser parser = buffer.asParser()) {
+			JsonToken token = parser.nextToken();
+			if (token == null || token == JsonToken.VALUE_NULL) {
+				return null;
+			} else if (token.isScalarValue()) {
+				return parser.getText();
+			}
+		}
+		StringWriter writer = new StringWriter();
+		try (JsonGenerator generator = JSON_FACTORY.createGenerator(writer)) {
+			buffer.serialize(generator);
+		}
+		return writer.toString();
+	}
+
+	@Override
+	public String toString() {
+		return "DefaultJsonRpcInputMessage [request=" + request + "]";
+	}
+}
@@ -27,8 +27,8 @@ import reactor.core.publisher.Mono;
 
 /**
  * Default implementation of a {@link ServerJsonRpcExchange}. Simply returning
- * request and response as is. Session is requested from a manager and cached in
- * this exchange.
+ * request and response as is. Session is either given as is when it's bound to
+ * a connection or requested from a manager and cached in this exchange.
  *
  * @author Janne Valkealahti
  *
@@ -73,6 +73,25 @@ public class DefaultServerJsonRpcExchange implements ServerJsonRpcExchange {
 		}).cache();
 	}
 
+	/**
+	 * Instantiates a new default server json rpc exchange with a session which
+	 * is already known, usually bound to a connection, thus no session lookups
+	 * happen with this exchange.
+	 *
+	 * @param request the request
+	 * @param response the response
+	 * @param session the session
+	 */
+	public DefaultServerJsonRpcExchange(JsonRpcInputMessage request, JsonRpcOutputMessage response,
+			JsonRpcSession session) {
+		Assert.notNull(request, "'request' is required");
+		Assert.notNull(response, "'response' is required");
+		Assert.notNull(session, "'session' is required");
+		this.request = request;
+		this.response = response;
+		this.sessionMono = Mono.just(session);
+	}
+
 	@Override
 	public JsonRpcInputMessage getRequest() {
 		return request;
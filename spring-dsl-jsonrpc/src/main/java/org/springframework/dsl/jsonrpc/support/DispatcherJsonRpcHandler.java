@@ -18,6 +18,7 @@ package org.springframework.dsl.jsonrpc.support;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -25,6 +26,8 @@ import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.BeanFactoryUtils;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
+import org.springframework.core.MethodClassKey;
+import org.springframework.core.MethodParameter;
 import org.springframework.core.annotation.AnnotationAwareOrderComparator;
 import org.springframework.dsl.jsonrpc.JsonRpcHandler;
 import org.springframework.dsl.jsonrpc.JsonRpcHandlerAdapter;
@@ -32,6 +35,7 @@ import org.springframework.dsl.jsonrpc.JsonRpcHandlerMapping;
 import org.springframework.dsl.jsonrpc.JsonRpcHandlerResult;
 import org.springframework.dsl.jsonrpc.JsonRpcHandlerResultHandler;
 import org.springframework.dsl.jsonrpc.ServerJsonRpcExchange;
+import org.springframework.dsl.jsonrpc.result.method.HandlerMethod;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -54,6 +58,12 @@ public class DispatcherJsonRpcHandler implements JsonRpcHandler, ApplicationCont
 	private List<JsonRpcHandlerAdapter> handlerAdapters;
 	private List<JsonRpcHandlerResultHandler> resultHandlers;
 
+	/** Adapters matched for handler methods, keyed by a method and its bean type. */
+	private final Map<MethodClassKey, JsonRpcHandlerAdapter> handlerAdapterCache = new ConcurrentHashMap<>(64);
+
+	/** Result handlers matched for return types, keyed by a method and its containing class. */
+	private final Map<MethodClassKey, JsonRpcHandlerResultHandler> resultHandlerCache = new ConcurrentHashMap<>(64);
+
 	public DispatcherJsonRpcHandler() {
 	}
 
@@ -64,9 +74,7 @@ public class DispatcherJsonRpcHandler implements JsonRpcHandler, ApplicationCont
 	@Override
 	public Mono<Void> handle(ServerJsonRpcExchange exchange) {
 		log.trace("Handling exchange {}", exchange);
-		return Flux.fromIterable(handlerMappings)
-			.concatMap(mapping -> mapping.getHandler(exchange))
-			.next()
+		return getHandler(exchange)
 			.switchIfEmpty(Mono.error(HANDLER_NOT_FOUND_EXCEPTION))
 			.flatMap(handler -> invokeHandler(exchange, handler))
 			.flatMap(result -> handleResult(exchange, result));
@@ -95,17 +103,55 @@ public class DispatcherJsonRpcHandler implements JsonRpcHandler, ApplicationCont
 
 		this.resultHandlers = new ArrayList<>(beans.values());
 		AnnotationAwareOrderComparator.sort(this.resultHandlers);
+
+		this.handlerAdapterCache.clear();
+		this.resultHandlerCache.clear();
 	}
 
 
+	private Mono<Object> getHandler(ServerJsonRpcExchange exchange) {
+		if (this.handlerMappings.size() == 1) {
+			// common case, no need to go through a flux
+			return this.handlerMappings.get(0).getHandler(exchange);
+		}
+		return Flux.fromIterable(this.handlerMappings)
+			.concatMap(mapping -> mapping.getHandler(exchange))
+			.next();
+	}
+
 	private Mono<JsonRpcHandlerResult> invokeHandler(ServerJsonRpcExchange exchange, Object handler) {
 		log.trace("invokeHandler {}", handler);
+		JsonRpcHandlerAdapter handlerAdapter = getHandlerAdapter(handler);
+		if (handlerAdapter != null) {
+			return handlerAdapter.handle(exchange, handler);
+		}
+		return Mono.error(new IllegalStateException("No JsonRpcHandlerAdapter: " + handler));
+	}
+
+	private JsonRpcHandlerAdapter getHandlerAdapter(Object handler) {
+		if (handler instanceof HandlerMethod) {
+			// adapter matched for a handler method stays same for every request
+			HandlerMethod handlerMethod = (HandlerMethod) handler;
+			MethodClassKey key = new MethodClassKey(handlerMethod.getMethod(), handlerMethod.getBeanType());
+			JsonRpcHandlerAdapter handlerAdapter = this.handlerAdapterCache.get(key);
+			if (handlerAdapter == null) {
+				handlerAdapter = findHandlerAdapter(handler);
+				if (handlerAdapter != null) {
+					this.handlerAdapterCache.put(key, handlerAdapter);
+				}
+			}
+			return handlerAdapter;
+		}
+		return findHandlerAdapter(handler);
+	}
+
+	private JsonRpcHandlerAdapter findHandlerAdapter(Object handler) {
 		for (JsonRpcHandlerAdapter handlerAdapter : this.handlerAdapters) {
 			if (handlerAdapter.supports(handler)) {
-				return handlerAdapter.handle(exchange, handler);
+				return handlerAdapter;
 			}
 		}
-		return Mono.error(new IllegalStateException("No JsonRpcHandlerAdapter: " + handler));
+		return null;
 	}
 
 	private Mono<Void> handleResult(ServerJsonRpcExchange exchange, JsonRpcHandlerResult result) {
@@ -118,6 +164,20 @@ public class DispatcherJsonRpcHandler implements JsonRpcHandler, ApplicationCont
 
 	private JsonRpcHandlerResultHandler getResultHandler(JsonRpcHandlerResult handlerResult) {
 		log.debug("getResultHandler {}", handlerResult);
+		MethodParameter returnType = handlerResult.getReturnTypeSource();
+		if (returnType.getMethod() == null) {
+			return findResultHandler(handlerResult);
+		}
+		MethodClassKey key = new MethodClassKey(returnType.getMethod(), returnType.getContainingClass());
+		JsonRpcHandlerResultHandler resultHandler = this.resultHandlerCache.get(key);
+		if (resultHandler == null) {
+			resultHandler = findResultHandler(handlerResult);
+			this.resultHandlerCache.put(key, resultHandler);
+		}
+		return resultHandler;
+	}
+
+	private JsonRpcHandlerResultHandler findResultHandler(JsonRpcHandlerResult handlerResult) {
 		for (JsonRpcHandlerResultHandler resultHandler : this.resultHandlers) {
 			if (resultHandler.supports(handlerResult)) {
 				return resultHandler;
@@ -0,0 +1,221 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.jsonrpc.support;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.Assert;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+
+/**
+ * Registry tracking requests which are currently being handled within a single
+ * connection. Handling is subscribed through this registry so that an entry is
+ * kept only for as long as handling is in progress, and it can be cancelled
+ * either on demand or after an optional per-method deadline.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class InflightRequestRegistry {
+
+	private static final Logger log = LoggerFactory.getLogger(InflightRequestRegistry.class);
+	private final Map<String, InflightRequest> requests = new ConcurrentHashMap<>();
+	private final Map<String, Duration> timeouts;
+	private final Duration defaultTimeout;
+
+	/**
+	 * Instantiates a new inflight request registry without deadlines.
+	 */
+	public InflightRequestRegistry() {
+		this(null, null);
+	}
+
+	/**
+	 * Instantiates a new inflight request registry.
+	 *
+	 * @param timeouts the per-method timeouts
+	 * @param defaultTimeout the timeout for methods not having their own timeout
+	 */
+	public InflightRequestRegistry(Map<String, Duration> timeouts, Duration defaultTimeout) {
+		this.timeouts = timeouts != null ? new HashMap<>(timeouts) : Collections.emptyMap();
+		this.defaultTimeout = defaultTimeout;
+	}
+
+	/**
+	 * Subscribe to a handling of a request and keep it registered until it
+	 * terminates. If a deadline is set for a method and handling doesn't
+	 * terminate in time, handling is cancelled and {@code onTimeout} is
+	 * subscribed instead.
+	 *
+	 * @param id the request id
+	 * @param method the request method
+	 * @param handling the handling of a request
+	 * @param onTimeout the fallback used when deadline is reached
+	 * @return the mono completing when handling has terminated or was cancelled
+	 */
+	public Mono<Void> register(String id, String method, Mono<Void> handling, Mono<Void> onTimeout) {
+		return register(id, method, handling, onTimeout, null);
+	}
+
+	/**
+	 * Subscribe to a handling of a request and keep it registered until it
+	 * terminates. If a deadline is set for a method and handling doesn't
+	 * terminate in time, handling is cancelled and {@code onTimeout} is
+	 * subscribed instead. {@code onCancel} is run before handling is
+	 * cancelled via {@link #cancel(String)}, usually to reply with an error.
+	 * As handling may have just written its response, replies from
+	 * {@code onTimeout} and {@code onCancel} should go through a
+	 * {@link SingleResponseJsonRpcOutputMessage} shared with a handling.
+	 *
+	 * @param id the request id
+	 * @param method the request method
+	 * @param handling the handling of a request
+	 * @param onTimeout the fallback used when deadline is reached
+	 * @param onCancel the callback run when request is cancelled
+	 * @return the mono completing when handling has terminated or was cancelled
+	 */
+	public Mono<Void> register(String id, String method, Mono<Void> handling, Mono<Void> onTimeout,
+			Runnable onCancel) {
+		Assert.notNull(id, "Request id must be set");
+		Assert.notNull(handling, "Handling must be set");
+		Duration timeout = getTimeout(method);
+		if (timeout != null) {
+			handling = onTimeout != null ? handling.timeout(timeout, onTimeout) : handling.timeout(timeout);
+		}
+		// entry needs to exist before subscribing as handling may
+		// terminate synchronously, errors are expected to be replied
+		// by a handling itself
+		MonoProcessor<Void> done = MonoProcessor.create();
+		InflightRequest request = new InflightRequest(onCancel);
+		requests.put(id, request);
+		request.disposable.update(handling
+				.doFinally(signal -> {
+					requests.remove(id, request);
+					done.onComplete();
+				})
+				.subscribe(null, e -> log.debug("Handling of request {} failed", id, e)));
+		return done;
+	}
+
+	/**
+	 * Cancel a handling of a request if it's still in progress.
+	 *
+	 * @param id the request id
+	 * @return true, if handling was cancelled
+	 */
+	public boolean cancel(String id) {
+		if (id == null) {
+			return false;
+		}
+		InflightRequest request = requests.remove(id);
+		if (request != null) {
+			if (request.onCancel != null) {
+				request.onCancel.run();
+			}
+			request.disposable.dispose();
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Cancel all requests still in progress. Usually called when underlying
+	 * connection is closed.
+	 */
+	public void cancelAll() {
+		for (String id : requests.keySet()) {
+			InflightRequest request = requests.remove(id);
+			if (request != null) {
+				request.disposable.dispose();
+			}
+		}
+	}
+
+	/**
+	 * Gets the count of requests in progress.
+	 *
+	 * @return the count of requests in progress
+	 */
+	public int size() {
+		return requests.size();
+	}
+
+	/**
+	 * Gets the timeout for a method. Method specific timeout takes precedence
+	 * over a default one.
+	 *
+	 * @param method the method
+	 * @return the timeout or {@code null} if there is no deadline
+	 */
+	public Duration getTimeout(String method) {
+		Duration timeout = method != null ? timeouts.get(method) : null;
+		return timeout != null ? timeout : defaultTimeout;
+	}
+
+	/**
+	 * Resolve an {@code id} field from a request params, i.e. an id of a
+	 * request to cancel from {@code $/cancelRequest} notification params.
+	 *
+	 * @param params the request params
+	 * @return the id or {@code null} if params don't have one
+	 */
+	public static String resolveParamsId(Object params) {
+		if (!(params instanceof TokenBuffer)) {
+			return null;
+		}
+		try (JsonParser parser = ((TokenBuffer) params).asParser()) {
+			if (parser.nextToken() != JsonToken.START_OBJECT) {
+				return null;
+			}
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				String field = parser.getCurrentName();
+				JsonToken token = parser.nextToken();
+				if ("id".equals(field)) {
+					return token.isScalarValue() && token != JsonToken.VALUE_NULL ? parser.getText() : null;
+				}
+				parser.skipChildren();
+			}
+		} catch (IOException e) {
+			log.debug("Unable to resolve id from params", e);
+		}
+		return null;
+	}
+
+	private static class InflightRequest {
+
+		final Disposable.Swap disposable = Disposables.swap();
+		final Runnable onCancel;
+
+		InflightRequest(Runnable onCancel) {
+			this.onCancel = onCancel;
+		}
+	}
+}
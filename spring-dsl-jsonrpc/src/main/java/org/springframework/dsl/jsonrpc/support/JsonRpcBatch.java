@@ -0,0 +1,333 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.jsonrpc.support;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.dsl.jsonrpc.JsonRpcMessage;
+import org.springframework.dsl.jsonrpc.JsonRpcOutputMessage;
+import org.springframework.dsl.jsonrpc.JsonRpcRequest;
+import org.springframework.dsl.jsonrpc.JsonRpcResponse;
+import org.springframework.util.Assert;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@code JSON-RPC 2.0} batch of requests received in a single json array.
+ * Requests having an {@code id} are exposed as members of this batch, and
+ * their responses are collected via {@link #getOutputMessage(JsonRpcRequest)}
+ * and written as a single json array once all members have been completed.
+ * Notifications within a batch are passed as is as those don't have
+ * responses. Elements which are not valid requests are replied with an
+ * {@code invalid request} error within a same json array. Input which is not
+ * valid json, or a batch which is not a complete json array, is replied with
+ * a single {@code parse error}.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class JsonRpcBatch {
+
+	private static final Logger log = LoggerFactory.getLogger(JsonRpcBatch.class);
+	private static final byte[] ARRAY_START = new byte[] { '[' };
+	private static final byte[] ARRAY_SEPARATOR = new byte[] { ',' };
+	private static final byte[] ARRAY_END = new byte[] { ']' };
+	private static final byte[] INVALID_REQUEST = "{\"jsonrpc\":\"2.0\",\"id\":null,\"error\":{\"code\":-32600,\"message\":\"invalid request\"}}"
+			.getBytes(StandardCharsets.UTF_8);
+	private static final byte[] PARSE_ERROR = "{\"jsonrpc\":\"2.0\",\"id\":null,\"error\":{\"code\":-32700,\"message\":\"parse error\"}}"
+			.getBytes(StandardCharsets.UTF_8);
+	private final List<JsonRpcRequest> requests;
+	private final List<Queue<DataBuffer>> responses;
+	private final AtomicInteger remaining;
+	private final DataBufferFactory bufferFactory;
+	private final Supplier<JsonRpcOutputMessage> outputMessage;
+
+	/**
+	 * Instantiates a new json rpc batch.
+	 *
+	 * @param requests the requests in a batch
+	 * @param bufferFactory the buffer factory
+	 * @param outputMessage the supplier for an output message writing responses
+	 */
+	public JsonRpcBatch(List<JsonRpcRequest> requests, DataBufferFactory bufferFactory,
+			Supplier<JsonRpcOutputMessage> outputMessage) {
+		this(requests, 0, bufferFactory, outputMessage);
+	}
+
+	/**
+	 * Instantiates a new json rpc batch.
+	 *
+	 * @param requests the requests in a batch
+	 * @param invalidCount the count of invalid elements in a batch
+	 * @param bufferFactory the buffer factory
+	 * @param outputMessage the supplier for an output message writing responses
+	 */
+	public JsonRpcBatch(List<JsonRpcRequest> requests, int invalidCount, DataBufferFactory bufferFactory,
+			Supplier<JsonRpcOutputMessage> outputMessage) {
+		Assert.notNull(requests, "Requests must be set");
+		Assert.notNull(bufferFactory, "DataBufferFactory must be set");
+		Assert.notNull(outputMessage, "Output message supplier must be set");
+		this.bufferFactory = bufferFactory;
+		this.outputMessage = outputMessage;
+		this.requests = new ArrayList<>(requests.size());
+		this.responses = new ArrayList<>(requests.size() + invalidCount);
+		for (JsonRpcRequest request : requests) {
+			if (request.getId() != null) {
+				this.requests.add(new Member(request, this, responses.size()));
+				this.responses.add(new ConcurrentLinkedQueue<>());
+			} else {
+				this.requests.add(request);
+			}
+		}
+		// members may be handled concurrently, remaining count makes their
+		// writes visible to a one writing a whole batch
+		this.remaining = new AtomicInteger(responses.size());
+		for (int i = 0; i < invalidCount; i++) {
+			Queue<DataBuffer> response = new ConcurrentLinkedQueue<>();
+			response.add(bufferFactory.wrap(INVALID_REQUEST));
+			this.responses.add(response);
+		}
+	}
+
+	/**
+	 * Gets the requests of this batch in order those were received.
+	 *
+	 * @return the requests
+	 */
+	public List<JsonRpcRequest> getRequests() {
+		return Collections.unmodifiableList(requests);
+	}
+
+	/**
+	 * Gets an output message for a request which is collecting responses for
+	 * this batch instead of writing those directly.
+	 *
+	 * @param request the request
+	 * @return the output message
+	 */
+	public JsonRpcOutputMessage getOutputMessage(JsonRpcRequest request) {
+		Member member = asMember(request);
+		return new CollectingJsonRpcOutputMessage(bufferFactory, responses.get(member.index));
+	}
+
+	/**
+	 * Mark handling of a request completed. When last request of a batch
+	 * completes, collected responses are written as a json array. Every
+	 * member needs to be completed, completing a member more than once has
+	 * no effect.
+	 *
+	 * @param request the request
+	 */
+	public void complete(JsonRpcRequest request) {
+		Member member = asMember(request);
+		if (member.completed.compareAndSet(false, true) && remaining.decrementAndGet() == 0) {
+			write();
+		}
+	}
+
+	/**
+	 * Gets a batch a given request belongs to.
+	 *
+	 * @param request the request
+	 * @return the batch or {@code null} if request is not a member of a batch
+	 */
+	public static JsonRpcBatch getBatch(JsonRpcRequest request) {
+		return request instanceof Member ? ((Member) request).batch : null;
+	}
+
+	/**
+	 * Read messages from a json which is either a single message or a batch of
+	 * those. Requests in a batch are returned as members of a new
+	 * {@link JsonRpcBatch} writing its responses into an output message from a
+	 * given supplier. Responses in a batch are returned as is. If json can't
+	 * be parsed, a {@code parse error} is written into an output message from
+	 * a given supplier and no messages are returned.
+	 *
+	 * @param objectMapper the object mapper
+	 * @param input the json input, or input in a data format of a given object mapper
+	 * @param bufferFactory the buffer factory
+	 * @param outputMessage the supplier for an output message writing batch responses
+	 * @return the messages
+	 * @throws IOException if input can't be read
+	 */
+	public static List<JsonRpcMessage> readMessages(ObjectMapper objectMapper, InputStream input,
+			DataBufferFactory bufferFactory, Supplier<JsonRpcOutputMessage> outputMessage) throws IOException {
+		try {
+			return doReadMessages(objectMapper, input, bufferFactory, outputMessage);
+		} catch (JsonParseException e) {
+			// no id can be known from a broken json, spec says to reply once
+			log.debug("Replying parse error for invalid json", e);
+			writeSingle(bufferFactory, outputMessage, PARSE_ERROR);
+			return Collections.emptyList();
+		} catch (JsonMappingException e) {
+			log.debug("Replying invalid request for json not being a message", e);
+			writeSingle(bufferFactory, outputMessage, INVALID_REQUEST);
+			return Collections.emptyList();
+		}
+	}
+
+	private static List<JsonRpcMessage> doReadMessages(ObjectMapper objectMapper, InputStream input,
+			DataBufferFactory bufferFactory, Supplier<JsonRpcOutputMessage> outputMessage) throws IOException {
+		List<JsonRpcMessage> messages = new ArrayList<>();
+		int invalidCount = 0;
+		// look at a first token instead of a raw byte so that binary data
+		// formats are detected too
+		try (JsonParser parser = objectMapper.getFactory().createParser(input)) {
+			JsonToken first = parser.nextToken();
+			if (first == null) {
+				throw new JsonParseException(parser, "No content");
+			}
+			if (first == JsonToken.START_OBJECT) {
+				return Collections.singletonList(objectMapper.readValue(parser, JsonRpcMessage.class));
+			}
+			if (first != JsonToken.START_ARRAY) {
+				writeSingle(bufferFactory, outputMessage, INVALID_REQUEST);
+				return Collections.emptyList();
+			}
+			for (JsonToken token = parser.nextToken(); token != JsonToken.END_ARRAY; token = parser.nextToken()) {
+				if (token == null) {
+					throw new JsonParseException(parser, "Unexpected end of batch");
+				}
+				if (token != JsonToken.START_OBJECT) {
+					parser.skipChildren();
+					invalidCount++;
+					continue;
+				}
+				JsonRpcMessage message = objectMapper.readValue(parser, JsonRpcMessage.class);
+				if (isValid(message)) {
+					messages.add(message);
+				} else {
+					invalidCount++;
+				}
+			}
+		}
+		if (messages.isEmpty() && invalidCount == 0) {
+			writeSingle(bufferFactory, outputMessage, INVALID_REQUEST);
+			return Collections.emptyList();
+		}
+		List<JsonRpcMessage> responses = new ArrayList<>();
+		List<JsonRpcRequest> requests = new ArrayList<>();
+		for (JsonRpcMessage message : messages) {
+			if (message instanceof JsonRpcRequest) {
+				requests.add((JsonRpcRequest) message);
+			} else {
+				responses.add(message);
+			}
+		}
+		if (!requests.isEmpty() || invalidCount > 0) {
+			JsonRpcBatch batch = new JsonRpcBatch(requests, invalidCount, bufferFactory, outputMessage);
+			responses.addAll(batch.getRequests());
+			if (batch.remaining.get() == 0) {
+				// nothing to wait for, i.e. only notifications and invalid elements
+				batch.write();
+			}
+		}
+		return responses;
+	}
+
+	private static void writeSingle(DataBufferFactory bufferFactory, Supplier<JsonRpcOutputMessage> outputMessage,
+			byte[] content) {
+		JsonRpcOutputMessage output = outputMessage.get();
+		output.writeWith(Mono.just(bufferFactory.wrap(content))).subscribe();
+		output.setComplete().subscribe();
+	}
+
+	private static boolean isValid(JsonRpcMessage message) {
+		if (message instanceof JsonRpcRequest) {
+			return true;
+		}
+		return message instanceof JsonRpcResponse
+				&& (((JsonRpcResponse) message).getResult() != null || ((JsonRpcResponse) message).getError() != null);
+	}
+
+	private Member asMember(JsonRpcRequest request) {
+		Assert.isTrue(getBatch(request) == this, "Request is not a member of this batch");
+		return (Member) request;
+	}
+
+	private void write() {
+		List<DataBuffer> buffers = new ArrayList<>();
+		for (Queue<DataBuffer> response : responses) {
+			for (DataBuffer buffer : response) {
+				buffers.add(bufferFactory.wrap(buffers.isEmpty() ? ARRAY_START : ARRAY_SEPARATOR));
+				buffers.add(buffer);
+			}
+		}
+		// spec says nothing is returned if there's nothing to respond
+		if (buffers.isEmpty()) {
+			return;
+		}
+		buffers.add(bufferFactory.wrap(ARRAY_END));
+		JsonRpcOutputMessage output = outputMessage.get();
+		output.writeWith(Mono.just(bufferFactory.join(buffers))).subscribe();
+		output.setComplete().subscribe();
+	}
+
+	private static class Member extends DefaultJsonRpcRequest {
+
+		private final JsonRpcBatch batch;
+		private final int index;
+		private final AtomicBoolean completed = new AtomicBoolean();
+
+		Member(JsonRpcRequest request, JsonRpcBatch batch, int index) {
+			super(request.getJsonrpc(), request.getId(), request.getMethod(), request.getParams());
+			this.batch = batch;
+			this.index = index;
+		}
+	}
+
+	private static class CollectingJsonRpcOutputMessage extends AbstractJsonRpcOutputMessage {
+
+		private final Queue<DataBuffer> buffers;
+
+		CollectingJsonRpcOutputMessage(DataBufferFactory dataBufferFactory, Queue<DataBuffer> buffers) {
+			super(dataBufferFactory);
+			this.buffers = buffers;
+		}
+
+		@Override
+		protected Mono<Void> writeWithInternal(Publisher<? extends DataBuffer> body) {
+			return Flux.from(body).doOnNext(buffers::add).then();
+		}
+
+		@Override
+		protected Mono<Void> writeAndFlushWithInternal(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+			return Flux.from(body).concatMap(this::writeWithInternal).then();
+		}
+	}
+}
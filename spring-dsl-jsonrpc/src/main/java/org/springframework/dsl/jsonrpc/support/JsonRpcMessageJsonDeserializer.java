@@ -0,0 +1,109 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.jsonrpc.support;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.springframework.dsl.jsonrpc.JsonRpcMessage;
+import org.springframework.dsl.jsonrpc.JsonRpcRequest;
+import org.springframework.dsl.jsonrpc.JsonRpcResponse;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+/**
+ * {@link JsonDeserializer} for a {@link JsonRpcMessage} reading an envelope
+ * fields in a single pass and classifying a message either as a
+ * {@link JsonRpcRequest} if {@code method} exists or otherwise as a
+ * {@link JsonRpcResponse}. Request {@code params} are kept as a
+ * {@link TokenBuffer} so that those can be bound later into a target type
+ * without parsing a json text again. Structured response {@code result} and
+ * {@code error} are kept as json text.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class JsonRpcMessageJsonDeserializer extends JsonDeserializer<JsonRpcMessage> {
+
+	private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+	@Override
+	public JsonRpcMessage deserialize(JsonParser p, DeserializationContext ctxt)
+			throws IOException, JsonProcessingException {
+		String jsonrpc = null;
+		String id = null;
+		String method = null;
+		TokenBuffer params = null;
+		String result = null;
+		String error = null;
+
+		JsonToken token = p.getCurrentToken();
+		if (token == JsonToken.START_OBJECT) {
+			token = p.nextToken();
+		}
+		for (; token == JsonToken.FIELD_NAME; token = p.nextToken()) {
+			String field = p.getCurrentName();
+			JsonToken value = p.nextToken();
+			if ("jsonrpc".equals(field)) {
+				jsonrpc = p.getText();
+			} else if ("id".equals(field)) {
+				id = value != JsonToken.VALUE_NULL ? p.getText() : null;
+			} else if ("method".equals(field)) {
+				method = p.getText();
+			} else if ("params".equals(field)) {
+				params = new TokenBuffer(p, ctxt);
+				params.copyCurrentStructure(p);
+			} else if ("result".equals(field)) {
+				result = readValue(p);
+			} else if ("error".equals(field)) {
+				error = readValue(p);
+			} else {
+				p.skipChildren();
+			}
+		}
+
+		if (method != null) {
+			return new DefaultJsonRpcRequest(jsonrpc, id, method, params);
+		} else {
+			return new DefaultJsonRpcResponse(jsonrpc, id, result, error);
+		}
+	}
+
+	private static String readValue(JsonParser p) throws IOException {
+		if (p.getCurrentToken().isScalarValue()) {
+			return p.getText();
+		}
+		// result and error are kept as json text so that structured values
+		// like an error code and message are not lost, binary formats can't
+		// write into a writer
+		JsonFactory factory = p.getCodec().getFactory();
+		if (!JsonFactory.FORMAT_NAME_JSON.equals(factory.getFormatName())) {
+			factory = JSON_FACTORY;
+		}
+		StringWriter writer = new StringWriter();
+		try (JsonGenerator generator = factory.createGenerator(writer)) {
+			generator.copyCurrentStructure(p);
+		}
+		return writer.toString();
+	}
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.jsonrpc.support;
+
+import java.util.concurrent.Callable;
+
+import org.springframework.dsl.jsonrpc.JsonRpcInputMessage;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import reactor.core.Fuseable;
+import reactor.core.publisher.Mono;
+
+/**
+ * Various utility functions for reading {@code params} of a
+ * {@link JsonRpcInputMessage}.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public abstract class JsonRpcParamsUtils {
+
+	/**
+	 * Read params of a message with a given reader. Params are bound from
+	 * already parsed tokens if available, otherwise raw params are parsed. If
+	 * tokens are known at assembly time, params are read right away and a
+	 * returned {@link Mono} is a scalar instead of an operator chain.
+	 *
+	 * @param reader the object reader
+	 * @param message the input message
+	 * @return the mono for read params
+	 */
+	@SuppressWarnings("unchecked")
+	public static Mono<Object> readParams(ObjectReader reader, JsonRpcInputMessage message) {
+		Mono<TokenBuffer> paramsBuffer = message.getParamsBuffer();
+		if (paramsBuffer instanceof Fuseable.ScalarCallable) {
+			TokenBuffer buffer;
+			try {
+				buffer = ((Fuseable.ScalarCallable<TokenBuffer>) paramsBuffer).call();
+			} catch (Exception e) {
+				return Mono.error(e);
+			}
+			if (buffer != null) {
+				return readValue(() -> reader.readValue(buffer.asParser()));
+			}
+			return message.getParams().flatMap(params -> readValue(() -> reader.readValue(params)));
+		}
+		return paramsBuffer
+				.flatMap(buffer -> readValue(() -> reader.readValue(buffer.asParser())))
+				.switchIfEmpty(Mono.defer(() -> message.getParams()
+						.flatMap(params -> readValue(() -> reader.readValue(params)))));
+	}
+
+	private static Mono<Object> readValue(Callable<Object> callable) {
+		try {
+			return Mono.justOrEmpty(callable.call());
+		} catch (Exception e) {
+			return Mono.error(e);
+		}
+	}
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.jsonrpc.support;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.dsl.jsonrpc.JsonRpcOutputMessage;
+import org.springframework.util.Assert;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link JsonRpcOutputMessage} making sure that only one response is written
+ * for a request. A handler writing through this message owns a response when
+ * its first buffer is written, while an error reply on cancel or timeout needs
+ * to {@link #claim()} it first. Whichever comes first wins, and writes from
+ * a losing side are dropped.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class SingleResponseJsonRpcOutputMessage implements JsonRpcOutputMessage {
+
+	private static final int NONE = 0;
+	private static final int WRITER = 1;
+	private static final int CLAIMED = 2;
+	private final JsonRpcOutputMessage delegate;
+	private final AtomicInteger owner = new AtomicInteger(NONE);
+
+	/**
+	 * Instantiates a new single response json rpc output message.
+	 *
+	 * @param delegate the output message to delegate to
+	 */
+	public SingleResponseJsonRpcOutputMessage(JsonRpcOutputMessage delegate) {
+		Assert.notNull(delegate, "JsonRpcOutputMessage must be set");
+		this.delegate = delegate;
+	}
+
+	/**
+	 * Claim a response for a reply written outside of a handler, i.e. an
+	 * error when a request is cancelled. After a successful claim, writes
+	 * via this message are dropped and a reply is written into
+	 * {@link #getDelegate()}.
+	 *
+	 * @return true, if response was claimed and nothing was written yet
+	 */
+	public boolean claim() {
+		return owner.compareAndSet(NONE, CLAIMED);
+	}
+
+	/**
+	 * Gets the output message this message delegates to.
+	 *
+	 * @return the delegating output message
+	 */
+	public JsonRpcOutputMessage getDelegate() {
+		return delegate;
+	}
+
+	@Override
+	public DataBufferFactory bufferFactory() {
+		return delegate.bufferFactory();
+	}
+
+	@Override
+	public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+		return delegate.writeWith(Flux.from(body).filter(this::acquire));
+	}
+
+	@Override
+	public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+		return delegate.writeAndFlushWith(Flux.from(body).map(buffers -> Flux.from(buffers).filter(this::acquire)));
+	}
+
+	@Override
+	public Mono<Void> setComplete() {
+		return delegate.setComplete();
+	}
+
+	@Override
+	public boolean isCommitted() {
+		return delegate.isCommitted();
+	}
+
+	@Override
+	public void beforeCommit(Supplier<? extends Mono<Void>> action) {
+		delegate.beforeCommit(action);
+	}
+
+	private boolean acquire(DataBuffer buffer) {
+		// response is owned when content is actually written, not when a
+		// write is merely set up with a publisher which may emit much later
+		if (owner.compareAndSet(NONE, WRITER) || owner.get() == WRITER) {
+			return true;
+		}
+		DataBufferUtils.release(buffer);
+		return false;
+	}
+}
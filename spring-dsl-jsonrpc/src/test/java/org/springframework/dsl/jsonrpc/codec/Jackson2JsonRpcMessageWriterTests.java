@@ -0,0 +1,230 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.jsonrpc.codec;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.dsl.jsonrpc.JsonRpcInputMessage;
+import org.springframework.dsl.jsonrpc.support.AbstractJsonRpcOutputMessage;
+import org.springframework.dsl.jsonrpc.support.DefaultJsonRpcInputMessage;
+import org.springframework.dsl.jsonrpc.support.DefaultJsonRpcRequest;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Tests for {@link Jackson2JsonRpcMessageWriter}.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class Jackson2JsonRpcMessageWriterTests {
+
+	private final Jackson2JsonRpcMessageWriter writer = new Jackson2JsonRpcMessageWriter(new ObjectMapper());
+	private final DefaultDataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+
+	@Test
+	public void testResponse() {
+		JsonRpcInputMessage request = request("1", "hi");
+		List<String> encoded = encode(Mono.just("hi"), ResolvableType.forClass(String.class), null, request);
+		assertThat(encoded).containsExactly("{\"jsonrpc\":\"2.0\",\"id\":\"1\",\"result\":\"hi\"}");
+	}
+
+	@Test
+	public void testEmptyResponse() {
+		JsonRpcInputMessage request = request("1", "hi");
+		List<String> encoded = encode(Mono.empty(), ResolvableType.forClass(String.class), null, request);
+		assertThat(encoded).containsExactly("{\"jsonrpc\":\"2.0\",\"id\":\"1\",\"result\":null}");
+	}
+
+	@Test
+	public void testContainerResponse() {
+		JsonRpcInputMessage request = request("1", "hi");
+		List<String> encoded = encode(Mono.just(Arrays.asList(new Pojo("hi"))),
+				ResolvableType.forClassWithGenerics(List.class, Pojo.class), null, request);
+		assertThat(encoded).containsExactly("{\"jsonrpc\":\"2.0\",\"id\":\"1\",\"result\":[{\"message\":\"hi\"}]}");
+	}
+
+	@Test
+	public void testNotifications() {
+		JsonRpcInputMessage request = request(null, "hi");
+		Map<String, Object> hints = new HashMap<>();
+		hints.put("method", "notify");
+		List<String> encoded = encode(Flux.just("hi1", "hi2"), ResolvableType.forClass(String.class), hints,
+				request);
+		assertThat(encoded).containsExactly(
+				"{\"jsonrpc\":\"2.0\",\"method\":\"notify\",\"params\":\"hi1\"}",
+				"{\"jsonrpc\":\"2.0\",\"method\":\"notify\",\"params\":\"hi2\"}");
+	}
+
+	@Test
+	public void testNotificationWithoutHint() {
+		JsonRpcInputMessage request = request(null, "hi");
+		List<String> encoded = encode(Mono.just("hi"), ResolvableType.forClass(String.class),
+				Collections.emptyMap(), request);
+		assertThat(encoded).containsExactly("{\"jsonrpc\":\"2.0\",\"method\":\"hi\",\"params\":\"hi\"}");
+	}
+
+	@Test
+	public void testLargeResponsesForSameMethod() {
+		JsonRpcInputMessage request = request("1", "hi");
+		String large = string(10000);
+		for (int i = 0; i < 3; i++) {
+			List<String> encoded = encode(Mono.just(large), ResolvableType.forClass(String.class), null, request);
+			assertThat(encoded).containsExactly("{\"jsonrpc\":\"2.0\",\"id\":\"1\",\"result\":\"" + large + "\"}");
+			encoded = encode(Mono.just("hi"), ResolvableType.forClass(String.class), null, request);
+			assertThat(encoded).containsExactly("{\"jsonrpc\":\"2.0\",\"id\":\"1\",\"result\":\"hi\"}");
+		}
+	}
+
+	@Test
+	public void testBufferSizeEstimate() {
+		List<Integer> allocated = new ArrayList<>();
+		DefaultDataBufferFactory bufferFactory = new DefaultDataBufferFactory() {
+
+			@Override
+			public DefaultDataBuffer allocateBuffer(int initialCapacity) {
+				allocated.add(initialCapacity);
+				return super.allocateBuffer(initialCapacity);
+			}
+		};
+		JsonRpcInputMessage request = request("1", "hi");
+		ResolvableType type = ResolvableType.forClass(String.class);
+		int small = writer.encode(Mono.just("hi"), bufferFactory, type, null, request)
+				.map(Jackson2JsonRpcMessageWriterTests::toString).blockFirst().length();
+		int large = writer.encode(Mono.just(string(10000)), bufferFactory, type, null, request)
+				.map(Jackson2JsonRpcMessageWriterTests::toString).blockFirst().length();
+		for (int i = 0; i < 2; i++) {
+			writer.encode(Mono.just("hi"), bufferFactory, type, null, request)
+					.map(Jackson2JsonRpcMessageWriterTests::toString).blockFirst();
+		}
+
+		// raised right away to a larger size and decayed by an eighth of a
+		// difference towards a smaller size
+		int decayed = large - ((large - small) >> 3);
+		assertThat(allocated).containsExactly(256, small, large, decayed);
+	}
+
+	@Test
+	public void testFormatOutputMessage() throws Exception {
+		JsonRpcInputMessage request = request("1", "hi");
+		CBORFactory factory = new CBORFactory();
+		List<DataBuffer> written = new ArrayList<>();
+		JsonRpcFormatOutputMessage output = new FormatOutputMessage(factory, written);
+		writer.write(Mono.just(new Pojo("hi")), ResolvableType.forClass(Pojo.class), request, output,
+				Collections.emptyMap()).block();
+		assertThat(written).hasSize(1);
+		DataBuffer buffer = written.get(0);
+		byte[] bytes = new byte[buffer.readableByteCount()];
+		buffer.read(bytes);
+		JsonNode node = new ObjectMapper(factory).readTree(bytes);
+		assertThat(node.get("id").asText()).isEqualTo("1");
+		assertThat(node.get("result").get("message").asText()).isEqualTo("hi");
+	}
+
+	private List<String> encode(Flux<?> values, ResolvableType elementType, Map<String, Object> hints,
+			JsonRpcInputMessage request) {
+		return writer.encode(values, bufferFactory, elementType, hints, request)
+				.map(Jackson2JsonRpcMessageWriterTests::toString)
+				.collectList()
+				.block();
+	}
+
+	private List<String> encode(Mono<?> value, ResolvableType elementType, Map<String, Object> hints,
+			JsonRpcInputMessage request) {
+		return encode(Flux.from(value), elementType, hints, request);
+	}
+
+	private static class FormatOutputMessage extends AbstractJsonRpcOutputMessage
+			implements JsonRpcFormatOutputMessage {
+
+		private final JsonFactory factory;
+		private final List<DataBuffer> written;
+
+		FormatOutputMessage(JsonFactory factory, List<DataBuffer> written) {
+			super(new DefaultDataBufferFactory());
+			this.factory = factory;
+			this.written = written;
+		}
+
+		@Override
+		public JsonFactory getJsonFactory() {
+			return factory;
+		}
+
+		@Override
+		protected Mono<Void> writeWithInternal(Publisher<? extends DataBuffer> body) {
+			return Flux.from(body).doOnNext(written::add).then();
+		}
+
+		@Override
+		protected Mono<Void> writeAndFlushWithInternal(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+			return Flux.from(body).concatMap(this::writeWithInternal).then();
+		}
+	}
+
+	private static JsonRpcInputMessage request(String id, String method) {
+		return new DefaultJsonRpcInputMessage(new DefaultJsonRpcRequest("2.0", id, method, null), () -> "session");
+	}
+
+	private static String toString(DataBuffer buffer) {
+		byte[] bytes = new byte[buffer.readableByteCount()];
+		buffer.read(bytes);
+		DataBufferUtils.release(buffer);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static String string(int length) {
+		StringBuilder buf = new StringBuilder();
+		for (int i = 0; i < length; i++) {
+			buf.append("x");
+		}
+		return buf.toString();
+	}
+
+	private static class Pojo {
+
+		private String message;
+
+		Pojo(String message) {
+			this.message = message;
+		}
+
+		public String getMessage() {
+			return message;
+		}
+	}
+}
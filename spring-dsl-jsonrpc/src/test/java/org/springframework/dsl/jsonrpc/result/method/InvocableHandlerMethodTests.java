@@ -16,8 +16,11 @@
 package org.springframework.dsl.jsonrpc.result.method;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.dsl.jsonrpc.ResolvableMethod.on;
 import static org.springframework.dsl.jsonrpc.support.MockJsonRpcInputMessage.get;
@@ -51,6 +54,89 @@ public class InvocableHandlerMethodTests {
 		assertThat(this.exchange.getResponse().getBodyAsString().block(Duration.ZERO)).isEqualTo("body");
 	}
 
+	@Test
+	public void parameterResolversAreMatchedOnce() throws Exception {
+		Method method = on(VoidController.class).mockCall(c -> c.exchangeMonoVoid(exchange)).method();
+		JsonRpcHandlerMethodArgumentResolver resolver = resolverFor(Mono.just(this.exchange));
+		InvocableHandlerMethod hm = new InvocableHandlerMethod(new VoidController(), method);
+		hm.setArgumentResolvers(Arrays.asList(resolver));
+
+		JsonRpcHandlerMethodArgumentResolver[] parameterResolvers = hm.getParameterResolvers();
+		assertThat(parameterResolvers).containsExactly(resolver);
+		assertThat(hm.getParameterResolvers()).isSameAs(parameterResolvers);
+
+		hm.invoke(this.exchange).block(Duration.ZERO);
+		hm.invoke(this.exchange).block(Duration.ZERO);
+		verify(resolver, times(1)).supportsParameter(any());
+		verify(resolver, times(2)).resolveArgument(any(), any());
+	}
+
+	@Test
+	public void invokeWithScalarArgument() throws Exception {
+		Method method = on(TestController.class).mockCall(c -> c.singleArg(null)).method();
+		JsonRpcHandlerResult result = invoke(new TestController(), method, resolverFor(Mono.just("foo")))
+				.block(Duration.ZERO);
+
+		assertThat(result.getReturnValue()).isEqualTo("success:foo");
+	}
+
+	@Test
+	public void invokeWithEmptyArgument() throws Exception {
+		Method method = on(TestController.class).mockCall(c -> c.singleArg(null)).method();
+		JsonRpcHandlerResult result = invoke(new TestController(), method, resolverFor(Mono.empty()))
+				.block(Duration.ZERO);
+
+		assertThat(result.getReturnValue()).isEqualTo("success:null");
+	}
+
+	@Test
+	public void invokeWithAsyncArgument() throws Exception {
+		Method method = on(TestController.class).mockCall(c -> c.singleArg(null)).method();
+		Mono<JsonRpcHandlerResult> mono = invoke(new TestController(), method,
+				resolverFor(Mono.<Object>just("foo").delayElement(Duration.ofMillis(10))));
+
+		assertThat(mono.block(Duration.ofSeconds(1)).getReturnValue()).isEqualTo("success:foo");
+	}
+
+	@Test
+	public void invokeWithScalarArgumentError() throws Exception {
+		Method method = on(TestController.class).mockCall(c -> c.singleArg(null)).method();
+		Mono<JsonRpcHandlerResult> mono = invoke(new TestController(), method,
+				resolverFor(Mono.error(new IllegalArgumentException("bad"))));
+
+		assertThatThrownBy(() -> mono.block(Duration.ZERO)).isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("bad");
+	}
+
+	@Test
+	public void invokeMethodThrowingException() throws Exception {
+		Method method = on(TestController.class).mockCall(c -> c.exceptionMethod()).method();
+		Mono<JsonRpcHandlerResult> mono = invoke(new TestController(), method);
+
+		assertThatThrownBy(() -> mono.block(Duration.ZERO)).isInstanceOf(IllegalStateException.class)
+				.hasMessage("boo");
+	}
+
+	@Test
+	public void invokeWithArgumentTypeMismatch() throws Exception {
+		Method method = on(TestController.class).mockCall(c -> c.singleArg(null)).method();
+		Mono<JsonRpcHandlerResult> mono = invoke(new TestController(), method, resolverFor(Mono.just(1)));
+
+		assertThatThrownBy(() -> mono.block(Duration.ZERO)).isInstanceOf(IllegalStateException.class)
+				.hasMessageContaining("Failed to invoke handler method");
+	}
+
+	@Test
+	public void invokeOnlyWhenSubscribed() throws Exception {
+		Method method = on(TestController.class).mockCall(c -> c.countingArg(null)).method();
+		TestController controller = new TestController();
+		Mono<JsonRpcHandlerResult> mono = invoke(controller, method, resolverFor(Mono.just("foo")));
+
+		assertThat(controller.count).isEqualTo(0);
+		assertThat(mono.block(Duration.ZERO).getReturnValue()).isEqualTo("success:foo:1");
+		assertThat(mono.block(Duration.ZERO).getReturnValue()).isEqualTo("success:foo:2");
+	}
+
 	private Mono<JsonRpcHandlerResult> invoke(Object handler, Method method, JsonRpcHandlerMethodArgumentResolver... resolver) {
 
 		InvocableHandlerMethod hm = new InvocableHandlerMethod(handler, method);
@@ -68,6 +154,8 @@ public class InvocableHandlerMethodTests {
 	@SuppressWarnings("unused")
 	private static class TestController {
 
+		private int count;
+
 		public String noArgs() {
 			return "success";
 		}
@@ -76,6 +164,10 @@ public class InvocableHandlerMethodTests {
 			return "success:" + q;
 		}
 
+		public String countingArg(String q) {
+			return "success:" + q + ":" + ++count;
+		}
+
 		public void exceptionMethod() {
 			throw new IllegalStateException("boo");
 		}
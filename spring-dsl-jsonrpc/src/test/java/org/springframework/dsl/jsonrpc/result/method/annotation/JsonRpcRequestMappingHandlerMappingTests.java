@@ -16,6 +16,7 @@
 package org.springframework.dsl.jsonrpc.result.method.annotation;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import java.lang.reflect.Method;
 import java.util.Set;
@@ -25,7 +26,10 @@ import org.junit.Test;
 import org.springframework.context.support.StaticApplicationContext;
 import org.springframework.dsl.jsonrpc.annotation.JsonRpcController;
 import org.springframework.dsl.jsonrpc.annotation.JsonRpcRequestMapping;
+import org.springframework.dsl.jsonrpc.result.method.HandlerMethod;
 import org.springframework.dsl.jsonrpc.result.method.JsonRpcRequestMappingInfo;
+import org.springframework.dsl.jsonrpc.support.MockJsonRpcInputMessage;
+import org.springframework.dsl.jsonrpc.support.MockServerJsonRpcExchange;
 
 /**
  * Tests for {@link JsonRpcRequestMappingHandlerMapping}.
@@ -51,6 +55,67 @@ public class JsonRpcRequestMappingHandlerMappingTests {
 		assertAnnotationMapping("handlerMethod2", TestController2.class);
 	}
 
+	@Test
+	public void testDirectLookup() throws Exception {
+		context.registerSingleton("controller1", TestController1.class);
+		context.refresh();
+		handlerMapping.afterPropertiesSet();
+
+		HandlerMethod handlerMethod1 = lookup("handlerMethod1");
+		assertThat(handlerMethod1).isNotNull();
+		assertThat(handlerMethod1.getBean()).isInstanceOf(TestController1.class);
+		assertThat(handlerMethod1.getMethod().getName()).isEqualTo("handlerMethod1");
+
+		HandlerMethod handlerMethod2 = lookup("handlerMethod2");
+		assertThat(handlerMethod2).isNotNull();
+		assertThat(handlerMethod2.getBean()).isInstanceOf(TestController1.class);
+		assertThat(handlerMethod2.getMethod().getName()).isEqualTo("handlerMethod2");
+
+		HandlerMethod handlerMethod3 = lookup("handlerMethod1");
+		assertThat(handlerMethod3).isSameAs(handlerMethod1);
+
+		assertThat(lookup("handlerMethod3")).isNull();
+	}
+
+	@Test
+	public void testFallbackLookupWithUndirectedMapping() throws Exception {
+		context.registerSingleton("controller1", TestController1.class);
+		context.registerSingleton("controller3", TestController3.class);
+		context.refresh();
+		handlerMapping.afterPropertiesSet();
+
+		HandlerMethod handlerMethod1 = lookup("handlerMethod1");
+		assertThat(handlerMethod1).isNotNull();
+		assertThat(handlerMethod1.getBean()).isInstanceOf(TestController1.class);
+
+		HandlerMethod handlerMethod2 = lookup("handlerMethod3");
+		assertThat(handlerMethod2).isNotNull();
+		assertThat(handlerMethod2.getBean()).isInstanceOf(TestController3.class);
+	}
+
+	@Test
+	public void testAmbiguousMethodFallsBackToConditions() throws Exception {
+		context.registerSingleton("controller1", TestController1.class);
+		context.refresh();
+		handlerMapping.afterPropertiesSet();
+
+		JsonRpcRequestMappingInfo info = JsonRpcRequestMappingInfo.builder().methods("handlerMethod1").build();
+		handlerMapping.registerMapping(info, new TestController2(), TestController2.class.getMethod("handlerMethod1"));
+		assertThatThrownBy(() -> lookup("handlerMethod1")).isInstanceOf(IllegalStateException.class);
+		assertThat(lookup("handlerMethod2")).isNotNull();
+
+		handlerMapping.unregisterMapping(info);
+		HandlerMethod handlerMethod = lookup("handlerMethod1");
+		assertThat(handlerMethod).isNotNull();
+		assertThat(handlerMethod.getBean()).isInstanceOf(TestController1.class);
+	}
+
+	private HandlerMethod lookup(String method) {
+		MockServerJsonRpcExchange exchange = MockServerJsonRpcExchange
+				.from(MockJsonRpcInputMessage.get("").method(method));
+		return handlerMapping.getHandlerInternal(exchange).block();
+	}
+
 	private JsonRpcRequestMappingInfo assertAnnotationMapping(String methodName, Class<?> clazz) throws Exception {
 		Method method = clazz.getMethod(methodName);
 		JsonRpcRequestMappingInfo info = this.handlerMapping.getMappingForMethod(method, clazz);
@@ -86,4 +151,12 @@ public class JsonRpcRequestMappingHandlerMappingTests {
 		public void handlerMethod2() {
 		}
 	}
+
+	@JsonRpcController
+	private static class TestController3 {
+
+		@JsonRpcRequestMapping
+		public void handlerMethod3() {
+		}
+	}
 }
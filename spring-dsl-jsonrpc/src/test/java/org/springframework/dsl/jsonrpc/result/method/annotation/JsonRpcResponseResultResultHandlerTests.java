@@ -20,16 +20,27 @@ import static org.assertj.core.api.Assertions.assertThat;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+
+import org.reactivestreams.Publisher;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.springframework.core.ReactiveAdapterRegistry;
+import org.springframework.core.ResolvableType;
+import org.springframework.dsl.jsonrpc.JsonRpcInputMessage;
+import org.springframework.dsl.jsonrpc.JsonRpcOutputMessage;
 import org.springframework.dsl.jsonrpc.JsonRpcHandlerResult;
 import org.springframework.dsl.jsonrpc.ResolvableMethod;
 import org.springframework.dsl.jsonrpc.annotation.JsonRpcController;
 import org.springframework.dsl.jsonrpc.annotation.JsonRpcResponseResult;
 import org.springframework.dsl.jsonrpc.codec.JsonRpcMessageWriter;
 import org.springframework.dsl.jsonrpc.result.method.HandlerMethod;
+import org.springframework.dsl.jsonrpc.support.MockJsonRpcInputMessage;
+import org.springframework.dsl.jsonrpc.support.MockServerJsonRpcExchange;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 /**
  * Tests for {@link JsonRpcResponseResultResultHandler}.
@@ -40,10 +51,13 @@ import org.springframework.dsl.jsonrpc.result.method.HandlerMethod;
 public class JsonRpcResponseResultResultHandlerTests {
 
 	private JsonRpcResponseResultResultHandler resultHandler;
+	private TestMessageWriter messageWriter;
 
 	@Before
 	public void setup() {
+		this.messageWriter = new TestMessageWriter();
 		List<JsonRpcMessageWriter<?>> messageWriters = new ArrayList<>(1);
+		messageWriters.add(this.messageWriter);
 		this.resultHandler = new JsonRpcResponseResultResultHandler(messageWriters,
 				ReactiveAdapterRegistry.getSharedInstance());
 	}
@@ -57,6 +71,42 @@ public class JsonRpcResponseResultResultHandlerTests {
 		testSupports(controller, method);
 	}
 
+	@Test
+	public void writerResolvedOncePerReturnType() {
+		Object controller = new TestController();
+		Method method = ResolvableMethod.on(TestController.class).resolveMethod("hiMono");
+
+		handleResult(controller, method, Mono.just("hi1"));
+		handleResult(controller, method, Mono.just("hi2"));
+
+		assertThat(this.messageWriter.canWriteCount).isEqualTo(1);
+		assertThat(this.messageWriter.elementTypes).hasSize(2);
+		assertThat(this.messageWriter.elementTypes.get(1).resolve()).isEqualTo(String.class);
+		assertThat(this.messageWriter.values).containsExactly("hi1", "hi2");
+	}
+
+	@Test
+	public void writerResolvedPerValueForObjectReturnType() {
+		Object controller = new TestController();
+		Method method = ResolvableMethod.on(TestController.class).resolveMethod("hiObject");
+
+		handleResult(controller, method, "hi");
+		handleResult(controller, method, 1);
+
+		assertThat(this.messageWriter.canWriteCount).isEqualTo(2);
+		assertThat(this.messageWriter.elementTypes.get(0).resolve()).isEqualTo(String.class);
+		assertThat(this.messageWriter.elementTypes.get(1).resolve()).isEqualTo(Integer.class);
+		assertThat(this.messageWriter.values).containsExactly("hi", 1);
+	}
+
+	private void handleResult(Object controller, Method method, Object returnValue) {
+		HandlerMethod handlerMethod = new HandlerMethod(controller, method);
+		JsonRpcHandlerResult handlerResult = new JsonRpcHandlerResult(handlerMethod, returnValue,
+				handlerMethod.getReturnType());
+		MockServerJsonRpcExchange exchange = MockServerJsonRpcExchange.from(MockJsonRpcInputMessage.get("body"));
+		this.resultHandler.handleResult(exchange, handlerResult).block();
+	}
+
 	private void testSupports(Object controller, Method method) {
 		JsonRpcHandlerResult handlerResult = getHandlerResult(controller, method);
 		assertThat(this.resultHandler.supports(handlerResult)).isTrue();
@@ -74,5 +124,35 @@ public class JsonRpcResponseResultResultHandlerTests {
 		public String hi() {
 			return null;
 		}
+
+		@JsonRpcResponseResult
+		public Mono<String> hiMono() {
+			return null;
+		}
+
+		@JsonRpcResponseResult
+		public Object hiObject() {
+			return null;
+		}
+	}
+
+	private static class TestMessageWriter implements JsonRpcMessageWriter<Object> {
+
+		int canWriteCount;
+		final List<ResolvableType> elementTypes = new ArrayList<>();
+		final List<Object> values = new ArrayList<>();
+
+		@Override
+		public boolean canWrite(ResolvableType elementType) {
+			canWriteCount++;
+			return true;
+		}
+
+		@Override
+		public Mono<Void> write(Publisher<? extends Object> inputStream, ResolvableType elementType,
+				JsonRpcInputMessage request, JsonRpcOutputMessage message, Map<String, Object> hints) {
+			elementTypes.add(elementType);
+			return Flux.from(inputStream).doOnNext(values::add).then();
+		}
 	}
 }
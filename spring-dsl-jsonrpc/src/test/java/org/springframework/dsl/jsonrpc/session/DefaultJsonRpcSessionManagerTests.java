@@ -0,0 +1,77 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.jsonrpc.session;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+
+import org.junit.Test;
+import org.springframework.dsl.jsonrpc.support.DefaultServerJsonRpcExchange;
+import org.springframework.dsl.jsonrpc.support.MockJsonRpcInputMessage;
+import org.springframework.dsl.jsonrpc.support.MockJsonRpcOutputMessage;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Tests for {@link DefaultJsonRpcSessionManager}.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class DefaultJsonRpcSessionManagerTests {
+
+	@Test
+	public void testBoundSessionIsStartedAndStored() {
+		DefaultJsonRpcSessionManager manager = new DefaultJsonRpcSessionManager();
+		JsonRpcSession session = manager.getSession("id1").block(Duration.ofSeconds(1));
+
+		assertThat(session).isNotNull();
+		assertThat(session.getId()).isEqualTo("id1");
+		assertThat(session.isStarted()).isTrue();
+		assertThat(manager.getSessionStore().retrieveSession("id1").block(Duration.ofSeconds(1))).isSameAs(session);
+		assertThat(manager.getSession("id1").block(Duration.ofSeconds(1))).isSameAs(session);
+
+		session.invalidate().block(Duration.ofSeconds(1));
+		assertThat(manager.getSessionStore().retrieveSession("id1").block(Duration.ofSeconds(1))).isNull();
+	}
+
+	@Test
+	public void testBoundSessionMaxIdleTime() {
+		DefaultJsonRpcSessionManager manager = new DefaultJsonRpcSessionManager();
+		assertThat(manager.getSession("id1").block(Duration.ofSeconds(1)).getMaxIdleTime().isNegative()).isTrue();
+
+		manager.setBoundSessionMaxIdleTime(Duration.ofMinutes(1));
+		assertThat(manager.getSession("id2").block(Duration.ofSeconds(1)).getMaxIdleTime())
+				.isEqualTo(Duration.ofMinutes(1));
+	}
+
+	@Test
+	public void testSessionNotBoundByDefault() {
+		JsonRpcSessionManager manager = exchange -> Mono.empty();
+		assertThat(manager.getSession("id1").block(Duration.ofSeconds(1))).isNull();
+	}
+
+	@Test
+	public void testExchangeWithBoundSession() {
+		DefaultJsonRpcSessionManager manager = new DefaultJsonRpcSessionManager();
+		JsonRpcSession session = manager.getSession("id1").block(Duration.ofSeconds(1));
+		DefaultServerJsonRpcExchange exchange = new DefaultServerJsonRpcExchange(
+				MockJsonRpcInputMessage.get("body").build(), new MockJsonRpcOutputMessage(), session);
+
+		assertThat(exchange.getSession().block(Duration.ZERO)).isSameAs(session);
+	}
+}
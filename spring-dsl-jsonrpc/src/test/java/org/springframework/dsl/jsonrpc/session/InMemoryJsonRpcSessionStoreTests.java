@@ -0,0 +1,226 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.jsonrpc.session;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import reactor.core.Disposable;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Tests for {@link InMemoryJsonRpcSessionStore}.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class InMemoryJsonRpcSessionStoreTests {
+
+	private final MutableClock clock = new MutableClock();
+	private final InMemoryJsonRpcSessionStore store = new InMemoryJsonRpcSessionStore();
+
+	@Before
+	public void setup() {
+		store.setClock(clock);
+		store.setMaxIdleTime(Duration.ofMinutes(10));
+		store.setExpirationCheckPeriod(Duration.ofMinutes(1));
+	}
+
+	@Test
+	public void testIdleSessionExpires() {
+		JsonRpcSession session = createStartedSession("id1");
+		TestDisposable disposable = new TestDisposable();
+		session.getAttributes().put("tracker", disposable);
+
+		clock.advance(Duration.ofMinutes(5));
+		store.removeExpiredSessions();
+		assertThat(store.getSessions()).containsKey("id1");
+
+		clock.advance(Duration.ofMinutes(7));
+		store.removeExpiredSessions();
+		assertThat(store.getSessions()).doesNotContainKey("id1");
+		assertThat(session.isExpired()).isTrue();
+		assertThat(disposable.isDisposed()).isTrue();
+	}
+
+	@Test
+	public void testAccessedSessionIsRescheduled() {
+		createStartedSession("id1");
+
+		clock.advance(Duration.ofMinutes(8));
+		assertThat(store.retrieveSession("id1").block()).isNotNull();
+
+		clock.advance(Duration.ofMinutes(4));
+		store.removeExpiredSessions();
+		assertThat(store.getSessions()).containsKey("id1");
+
+		clock.advance(Duration.ofMinutes(8));
+		store.removeExpiredSessions();
+		assertThat(store.getSessions()).doesNotContainKey("id1");
+	}
+
+	@Test
+	public void testNonExpiringSession() {
+		JsonRpcSession session = store.createSession("id1").block();
+		session.setMaxIdleTime(Duration.ofSeconds(-1));
+		session.start();
+		session.save().block();
+
+		clock.advance(Duration.ofDays(1));
+		store.removeExpiredSessions();
+		assertThat(store.getSessions()).containsKey("id1");
+	}
+
+	@Test
+	public void testInvalidateDisposesAttributes() {
+		JsonRpcSession session = createStartedSession("id1");
+		TestDisposable disposable = new TestDisposable();
+		session.getAttributes().put("tracker", disposable);
+
+		session.invalidate().block();
+		assertThat(store.getSessions()).isEmpty();
+		assertThat(disposable.isDisposed()).isTrue();
+	}
+
+	@Test
+	public void testInvalidateRemovesFromBucket() {
+		JsonRpcSession session = createStartedSession("id1");
+		assertThat(store.getScheduledExpirationCount()).isEqualTo(1);
+
+		session.invalidate().block();
+		assertThat(store.getScheduledExpirationCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void testRemoveRemovesFromBucket() {
+		createStartedSession("id1");
+		assertThat(store.getScheduledExpirationCount()).isEqualTo(1);
+
+		store.removeSession("id1").block();
+		assertThat(store.getScheduledExpirationCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void testAccessMovesBucket() {
+		createStartedSession("id1");
+		for (int i = 0; i < 5; i++) {
+			clock.advance(Duration.ofMinutes(2));
+			assertThat(store.retrieveSession("id1").block()).isNotNull();
+			assertThat(store.getScheduledExpirationCount()).isEqualTo(1);
+		}
+
+		clock.advance(Duration.ofMinutes(11));
+		store.removeExpiredSessions();
+		assertThat(store.getSessions()).doesNotContainKey("id1");
+		assertThat(store.getScheduledExpirationCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void testDisposeStopsExpirationTask() {
+		TestScheduler scheduler = new TestScheduler();
+		store.setScheduler(scheduler);
+		createStartedSession("id1");
+		assertThat(scheduler.tasks).hasSize(1);
+		assertThat(scheduler.tasks.get(0).isDisposed()).isFalse();
+
+		store.dispose();
+		assertThat(store.isDisposed()).isTrue();
+		assertThat(scheduler.tasks.get(0).isDisposed()).isTrue();
+
+		// disposed store doesn't start a new task
+		createStartedSession("id2");
+		assertThat(scheduler.tasks).hasSize(1);
+	}
+
+	private JsonRpcSession createStartedSession(String id) {
+		JsonRpcSession session = store.createSession(id).block();
+		session.start();
+		session.save().block();
+		return session;
+	}
+
+	private static class TestDisposable implements Disposable {
+
+		boolean disposed;
+
+		@Override
+		public void dispose() {
+			disposed = true;
+		}
+
+		@Override
+		public boolean isDisposed() {
+			return disposed;
+		}
+	}
+
+	private static class TestScheduler implements Scheduler {
+
+		final List<TestDisposable> tasks = new ArrayList<>();
+
+		@Override
+		public Disposable schedule(Runnable task) {
+			return new TestDisposable();
+		}
+
+		@Override
+		public Disposable schedulePeriodically(Runnable task, long initialDelay, long period, TimeUnit unit) {
+			TestDisposable disposable = new TestDisposable();
+			tasks.add(disposable);
+			return disposable;
+		}
+
+		@Override
+		public Worker createWorker() {
+			return Schedulers.immediate().createWorker();
+		}
+	}
+
+	private static class MutableClock extends Clock {
+
+		private Instant instant = Instant.parse("2018-01-01T00:00:00Z");
+
+		void advance(Duration duration) {
+			instant = instant.plus(duration);
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneId.of("GMT");
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return this;
+		}
+
+		@Override
+		public Instant instant() {
+			return instant;
+		}
+	}
+}
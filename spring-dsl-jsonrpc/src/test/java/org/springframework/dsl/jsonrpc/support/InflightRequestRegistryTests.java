@@ -0,0 +1,139 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.jsonrpc.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+
+/**
+ * Tests for {@link InflightRequestRegistry}.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class InflightRequestRegistryTests {
+
+	@Test
+	public void testRemovedOnCompletion() {
+		InflightRequestRegistry registry = new InflightRequestRegistry();
+		MonoProcessor<Void> handling = MonoProcessor.create();
+		registry.register("1", "method", handling, null);
+		assertThat(registry.size()).isEqualTo(1);
+		handling.onComplete();
+		assertThat(registry.size()).isEqualTo(0);
+	}
+
+	@Test
+	public void testSynchronousCompletion() {
+		InflightRequestRegistry registry = new InflightRequestRegistry();
+		registry.register("1", "method", Mono.empty(), null);
+		registry.register("2", "method", Mono.error(new RuntimeException()), null);
+		assertThat(registry.size()).isEqualTo(0);
+	}
+
+	@Test
+	public void testCancel() {
+		InflightRequestRegistry registry = new InflightRequestRegistry();
+		AtomicBoolean cancelled = new AtomicBoolean();
+		registry.register("1", "method", Mono.<Void>never().doOnCancel(() -> cancelled.set(true)), null);
+		assertThat(registry.cancel("2")).isFalse();
+		assertThat(registry.cancel("1")).isTrue();
+		assertThat(cancelled.get()).isTrue();
+		assertThat(registry.cancel("1")).isFalse();
+		assertThat(registry.size()).isEqualTo(0);
+	}
+
+	@Test
+	public void testCancelRunsCallbackBeforeDispose() {
+		InflightRequestRegistry registry = new InflightRequestRegistry();
+		StringBuilder events = new StringBuilder();
+		registry.register("1", "method", Mono.<Void>never().doOnCancel(() -> events.append("dispose")), null,
+				() -> events.append("callback,"));
+		assertThat(registry.cancel("1")).isTrue();
+		assertThat(events.toString()).isEqualTo("callback,dispose");
+	}
+
+	@Test
+	public void testCancelAllDoesNotRunCallback() {
+		InflightRequestRegistry registry = new InflightRequestRegistry();
+		AtomicBoolean called = new AtomicBoolean();
+		registry.register("1", "method", Mono.never(), null, () -> called.set(true));
+		registry.cancelAll();
+		assertThat(registry.size()).isEqualTo(0);
+		assertThat(called.get()).isFalse();
+	}
+
+	@Test
+	public void testResolveParamsId() throws Exception {
+		ObjectMapper mapper = new ObjectMapper();
+		assertThat(InflightRequestRegistry.resolveParamsId(
+				mapper.readValue("{\"id\":4}", TokenBuffer.class))).isEqualTo("4");
+		assertThat(InflightRequestRegistry.resolveParamsId(
+				mapper.readValue("{\"other\":{\"id\":1},\"id\":\"abc\"}", TokenBuffer.class))).isEqualTo("abc");
+		assertThat(InflightRequestRegistry.resolveParamsId(
+				mapper.readValue("{\"id\":null}", TokenBuffer.class))).isNull();
+		assertThat(InflightRequestRegistry.resolveParamsId(null)).isNull();
+	}
+
+	@Test
+	public void testCancelAll() {
+		InflightRequestRegistry registry = new InflightRequestRegistry();
+		registry.register("1", "method", Mono.never(), null);
+		registry.register("2", "method", Mono.never(), null);
+		assertThat(registry.size()).isEqualTo(2);
+		registry.cancelAll();
+		assertThat(registry.size()).isEqualTo(0);
+	}
+
+	@Test
+	public void testTimeout() throws InterruptedException {
+		InflightRequestRegistry registry = new InflightRequestRegistry(
+				Collections.singletonMap("slow", Duration.ofMillis(50)), null);
+		AtomicBoolean cancelled = new AtomicBoolean();
+		CountDownLatch latch = new CountDownLatch(1);
+		registry.register("1", "slow", Mono.<Void>never().doOnCancel(() -> cancelled.set(true)),
+				Mono.fromRunnable(() -> latch.countDown()));
+		registry.register("2", "fast", Mono.never(), null);
+		assertThat(latch.await(2, TimeUnit.SECONDS)).isTrue();
+		assertThat(cancelled.get()).isTrue();
+		for (int i = 0; i < 100 && registry.size() > 1; i++) {
+			Thread.sleep(20);
+		}
+		assertThat(registry.size()).isEqualTo(1);
+	}
+
+	@Test
+	public void testGetTimeout() {
+		InflightRequestRegistry registry = new InflightRequestRegistry(
+				Collections.singletonMap("slow", Duration.ofSeconds(2)), Duration.ofSeconds(1));
+		assertThat(registry.getTimeout("slow")).isEqualTo(Duration.ofSeconds(2));
+		assertThat(registry.getTimeout("other")).isEqualTo(Duration.ofSeconds(1));
+		assertThat(new InflightRequestRegistry().getTimeout("slow")).isNull();
+	}
+}
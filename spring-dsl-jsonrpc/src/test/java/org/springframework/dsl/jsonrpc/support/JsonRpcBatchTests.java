@@ -0,0 +1,257 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.jsonrpc.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.dsl.jsonrpc.JsonRpcMessage;
+import org.springframework.dsl.jsonrpc.JsonRpcOutputMessage;
+import org.springframework.dsl.jsonrpc.JsonRpcRequest;
+import org.springframework.dsl.jsonrpc.JsonRpcResponse;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Tests for {@link JsonRpcBatch}.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class JsonRpcBatchTests {
+
+	private ObjectMapper mapper;
+	private DataBufferFactory bufferFactory;
+	private List<String> written;
+
+	@Before
+	public void setup() {
+		SimpleModule module = new SimpleModule();
+		module.addDeserializer(JsonRpcMessage.class, new JsonRpcMessageJsonDeserializer());
+		mapper = new ObjectMapper();
+		mapper.registerModule(module);
+		bufferFactory = new DefaultDataBufferFactory();
+		written = new ArrayList<>();
+	}
+
+	@Test
+	public void testSingleMessage() throws Exception {
+		List<JsonRpcMessage> messages = read(" {\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"hi\"}");
+		assertThat(messages).hasSize(1);
+		assertThat(messages.get(0)).isInstanceOf(JsonRpcRequest.class);
+		assertThat(JsonRpcBatch.getBatch((JsonRpcRequest) messages.get(0))).isNull();
+	}
+
+	@Test
+	public void testBatchResponsesInOrder() throws Exception {
+		List<JsonRpcMessage> messages = read(" [{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"hi\"},"
+				+ "{\"jsonrpc\":\"2.0\",\"method\":\"notify\"},"
+				+ "{\"jsonrpc\":\"2.0\",\"id\":2,\"method\":\"bye\"}]");
+		assertThat(messages).hasSize(3);
+		JsonRpcRequest first = (JsonRpcRequest) messages.get(0);
+		JsonRpcRequest notification = (JsonRpcRequest) messages.get(1);
+		JsonRpcRequest second = (JsonRpcRequest) messages.get(2);
+		JsonRpcBatch batch = JsonRpcBatch.getBatch(first);
+		assertThat(batch).isNotNull();
+		assertThat(JsonRpcBatch.getBatch(notification)).isNull();
+		assertThat(JsonRpcBatch.getBatch(second)).isSameAs(batch);
+		assertThat(first.getId()).isEqualTo("1");
+		assertThat(first.getMethod()).isEqualTo("hi");
+
+		// complete in reverse order
+		write(batch.getOutputMessage(second), "{\"id\":2}");
+		batch.complete(second);
+		assertThat(written).isEmpty();
+		write(batch.getOutputMessage(first), "{\"id\":1}");
+		batch.complete(first);
+		assertThat(written).containsExactly("[{\"id\":1},{\"id\":2}]");
+	}
+
+	@Test
+	public void testBatchMemberWithoutResponse() throws Exception {
+		List<JsonRpcMessage> messages = read("[{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"hi\"},"
+				+ "{\"jsonrpc\":\"2.0\",\"id\":2,\"method\":\"bye\"}]");
+		JsonRpcRequest first = (JsonRpcRequest) messages.get(0);
+		JsonRpcRequest second = (JsonRpcRequest) messages.get(1);
+		JsonRpcBatch batch = JsonRpcBatch.getBatch(first);
+		batch.complete(first);
+		write(batch.getOutputMessage(second), "{\"id\":2}");
+		batch.complete(second);
+		assertThat(written).containsExactly("[{\"id\":2}]");
+	}
+
+	@Test
+	public void testBatchOfNotifications() throws Exception {
+		List<JsonRpcMessage> messages = read("[{\"jsonrpc\":\"2.0\",\"method\":\"notify1\"},"
+				+ "{\"jsonrpc\":\"2.0\",\"method\":\"notify2\"}]");
+		assertThat(messages).hasSize(2);
+		assertThat(messages).allMatch(m -> JsonRpcBatch.getBatch((JsonRpcRequest) m) == null);
+		assertThat(written).isEmpty();
+	}
+
+	@Test
+	public void testBatchOfResponses() throws Exception {
+		List<JsonRpcMessage> messages = read("[{\"jsonrpc\":\"2.0\",\"id\":1,\"result\":\"hi\"},"
+				+ "{\"jsonrpc\":\"2.0\",\"id\":2,\"result\":\"bye\"}]");
+		assertThat(messages).hasSize(2);
+		assertThat(messages).allMatch(m -> m instanceof JsonRpcResponse);
+	}
+
+	@Test
+	public void testEmptyBatch() throws Exception {
+		List<JsonRpcMessage> messages = read("[]");
+		assertThat(messages).isEmpty();
+		assertThat(written).hasSize(1);
+		assertThat(written.get(0)).contains("-32600");
+	}
+
+	@Test
+	public void testInvalidElementsReplied() throws Exception {
+		List<JsonRpcMessage> messages = read("[1,{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"hi\"},"
+				+ "{\"foo\":\"bar\"},[2]]");
+		assertThat(messages).hasSize(1);
+		JsonRpcRequest request = (JsonRpcRequest) messages.get(0);
+		JsonRpcBatch batch = JsonRpcBatch.getBatch(request);
+		assertThat(batch).isNotNull();
+		assertThat(written).isEmpty();
+		write(batch.getOutputMessage(request), "{\"id\":1}");
+		batch.complete(request);
+		assertThat(written).hasSize(1);
+		assertThat(written.get(0)).startsWith("[{\"id\":1},");
+		assertThat(written.get(0).split("-32600", -1)).hasSize(4);
+	}
+
+	@Test
+	public void testBatchOfInvalidElements() throws Exception {
+		List<JsonRpcMessage> messages = read("[1,2,{\"jsonrpc\":\"2.0\",\"method\":\"notify\"}]");
+		assertThat(messages).hasSize(1);
+		assertThat(written).hasSize(1);
+		assertThat(written.get(0).split("-32600", -1)).hasSize(3);
+	}
+
+	@Test
+	public void testCompleteMemberTwice() throws Exception {
+		List<JsonRpcMessage> messages = read("[{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"hi\"},"
+				+ "{\"jsonrpc\":\"2.0\",\"id\":2,\"method\":\"bye\"}]");
+		JsonRpcRequest first = (JsonRpcRequest) messages.get(0);
+		JsonRpcRequest second = (JsonRpcRequest) messages.get(1);
+		JsonRpcBatch batch = JsonRpcBatch.getBatch(first);
+		write(batch.getOutputMessage(first), "{\"id\":1}");
+		batch.complete(first);
+		batch.complete(first);
+		assertThat(written).isEmpty();
+		write(batch.getOutputMessage(second), "{\"id\":2}");
+		batch.complete(second);
+		assertThat(written).containsExactly("[{\"id\":1},{\"id\":2}]");
+	}
+
+	@Test
+	public void testInvalidJson() throws Exception {
+		List<JsonRpcMessage> messages = read("{\"jsonrpc\":\"2.0\",\"id\":1,\"method\"");
+		assertThat(messages).isEmpty();
+		assertThat(written).containsExactly(
+				"{\"jsonrpc\":\"2.0\",\"id\":null,\"error\":{\"code\":-32700,\"message\":\"parse error\"}}");
+	}
+
+	@Test
+	public void testIncompleteBatch() throws Exception {
+		List<JsonRpcMessage> messages = read("[{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"hi\"},");
+		assertThat(messages).isEmpty();
+		assertThat(written).hasSize(1);
+		assertThat(written.get(0)).contains("-32700");
+	}
+
+	@Test
+	public void testEmptyInput() throws Exception {
+		List<JsonRpcMessage> messages = read("");
+		assertThat(messages).isEmpty();
+		assertThat(written).hasSize(1);
+		assertThat(written.get(0)).contains("-32700");
+	}
+
+	@Test
+	public void testNotAnObject() throws Exception {
+		List<JsonRpcMessage> messages = read("1");
+		assertThat(messages).isEmpty();
+		assertThat(written).containsExactly(
+				"{\"jsonrpc\":\"2.0\",\"id\":null,\"error\":{\"code\":-32600,\"message\":\"invalid request\"}}");
+	}
+
+	@Test
+	public void testCborBatch() throws Exception {
+		SimpleModule module = new SimpleModule();
+		module.addDeserializer(JsonRpcMessage.class, new JsonRpcMessageJsonDeserializer());
+		ObjectMapper cborMapper = new ObjectMapper(new CBORFactory());
+		cborMapper.registerModule(module);
+		byte[] cbor = cborMapper.writeValueAsBytes(mapper.readTree("[{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"hi\"},"
+				+ "{\"jsonrpc\":\"2.0\",\"id\":2,\"result\":{\"message\":\"bye\"}}]"));
+		List<JsonRpcMessage> messages = JsonRpcBatch.readMessages(cborMapper, new ByteArrayInputStream(cbor),
+				bufferFactory, () -> new TestJsonRpcOutputMessage(bufferFactory, written));
+		assertThat(messages).hasSize(2);
+		JsonRpcRequest request = (JsonRpcRequest) messages.get(1);
+		assertThat(request.getMethod()).isEqualTo("hi");
+		assertThat(JsonRpcBatch.getBatch(request)).isNotNull();
+		JsonRpcResponse response = (JsonRpcResponse) messages.get(0);
+		assertThat(response.getId()).isEqualTo("2");
+		assertThat(response.getResult()).isEqualTo("{\"message\":\"bye\"}");
+	}
+
+	private List<JsonRpcMessage> read(String json) throws Exception {
+		return JsonRpcBatch.readMessages(mapper, new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)),
+				bufferFactory, () -> new TestJsonRpcOutputMessage(bufferFactory, written));
+	}
+
+	private void write(JsonRpcOutputMessage output, String json) {
+		output.writeWith(Mono.just(bufferFactory.wrap(json.getBytes(StandardCharsets.UTF_8)))).block();
+	}
+
+	private static class TestJsonRpcOutputMessage extends AbstractJsonRpcOutputMessage {
+
+		private final List<String> written;
+
+		TestJsonRpcOutputMessage(DataBufferFactory dataBufferFactory, List<String> written) {
+			super(dataBufferFactory);
+			this.written = written;
+		}
+
+		@Override
+		protected Mono<Void> writeWithInternal(Publisher<? extends DataBuffer> body) {
+			return Flux.from(body)
+					.doOnNext(buffer -> written.add(StandardCharsets.UTF_8.decode(buffer.asByteBuffer()).toString()))
+					.then();
+		}
+
+		@Override
+		protected Mono<Void> writeAndFlushWithInternal(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+			return Mono.empty();
+		}
+	}
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.jsonrpc.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.dsl.jsonrpc.JsonRpcMessage;
+import org.springframework.dsl.jsonrpc.JsonRpcRequest;
+import org.springframework.dsl.jsonrpc.JsonRpcResponse;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+/**
+ * Tests for {@link JsonRpcMessageJsonDeserializer}.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class JsonRpcMessageJsonDeserializerTests {
+
+	private ObjectMapper mapper;
+
+	@Before
+	public void setup() {
+		SimpleModule module = new SimpleModule();
+		module.addDeserializer(JsonRpcMessage.class, new JsonRpcMessageJsonDeserializer());
+		mapper = new ObjectMapper();
+		mapper.registerModule(module);
+	}
+
+	@Test
+	public void testRequest() throws Exception {
+		JsonRpcMessage message = mapper.readValue(
+				"{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"hi\",\"params\":{\"message\":\"hi\",\"array\":[1,2]}}",
+				JsonRpcMessage.class);
+		assertThat(message).isInstanceOf(JsonRpcRequest.class);
+		JsonRpcRequest request = (JsonRpcRequest) message;
+		assertThat(request.getJsonrpc()).isEqualTo("2.0");
+		assertThat(request.getId()).isEqualTo("1");
+		assertThat(request.getMethod()).isEqualTo("hi");
+		assertThat(request.getParams()).isInstanceOf(TokenBuffer.class);
+		DefaultJsonRpcInputMessage inputMessage = new DefaultJsonRpcInputMessage(request, () -> "id");
+		assertThat(inputMessage.getParams().block()).isEqualTo("{\"message\":\"hi\",\"array\":[1,2]}");
+		TokenBuffer buffer = inputMessage.getParamsBuffer().block();
+		Pojo pojo = mapper.readerFor(Pojo.class).readValue(buffer.asParser());
+		assertThat(pojo.getMessage()).isEqualTo("hi");
+		pojo = mapper.readerFor(Pojo.class).readValue(buffer.asParser());
+		assertThat(pojo.getMessage()).isEqualTo("hi");
+	}
+
+	@Test
+	public void testNotificationWithValueParams() throws Exception {
+		JsonRpcMessage message = mapper.readValue(
+				"{\"params\":\"hi\",\"jsonrpc\":\"2.0\",\"method\":\"hi\"}", JsonRpcMessage.class);
+		assertThat(message).isInstanceOf(JsonRpcRequest.class);
+		JsonRpcRequest request = (JsonRpcRequest) message;
+		assertThat(request.getId()).isNull();
+		assertThat(request.getMethod()).isEqualTo("hi");
+		DefaultJsonRpcInputMessage inputMessage = new DefaultJsonRpcInputMessage(request, () -> "id");
+		assertThat(inputMessage.getParams().block()).isEqualTo("hi");
+	}
+
+	@Test
+	public void testNullParams() throws Exception {
+		JsonRpcMessage message = mapper.readValue(
+				"{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"hi\",\"params\":null}", JsonRpcMessage.class);
+		DefaultJsonRpcInputMessage inputMessage = new DefaultJsonRpcInputMessage((JsonRpcRequest) message, () -> "id");
+		assertThat(inputMessage.getParams().block()).isNull();
+	}
+
+	@Test
+	public void testResponse() throws Exception {
+		JsonRpcMessage message = mapper.readValue(
+				"{\"jsonrpc\":\"2.0\",\"id\":\"1\",\"unknown\":{\"a\":[]},\"result\":{\"message\":\"hi\"}}",
+				JsonRpcMessage.class);
+		assertThat(message).isInstanceOf(JsonRpcResponse.class);
+		JsonRpcResponse response = (JsonRpcResponse) message;
+		assertThat(response.getId()).isEqualTo("1");
+		assertThat(response.getResult()).isEqualTo("{\"message\":\"hi\"}");
+		assertThat(response.getError()).isNull();
+	}
+
+	@Test
+	public void testErrorResponse() throws Exception {
+		JsonRpcMessage message = mapper.readValue(
+				"{\"jsonrpc\":\"2.0\",\"id\":1,\"error\":{\"code\":-32603,\"message\":\"internal server error\"}}",
+				JsonRpcMessage.class);
+		assertThat(message).isInstanceOf(JsonRpcResponse.class);
+		JsonRpcResponse response = (JsonRpcResponse) message;
+		assertThat(response.getResult()).isNull();
+		assertThat(response.getError()).isEqualTo("{\"code\":-32603,\"message\":\"internal server error\"}");
+		Map<?, ?> error = mapper.readValue(response.getError(), Map.class);
+		assertThat(error.get("code")).isEqualTo(-32603);
+		assertThat(error.get("message")).isEqualTo("internal server error");
+	}
+
+	@Test
+	public void testErrorResponseWithData() throws Exception {
+		JsonRpcMessage message = mapper.readValue(
+				"{\"jsonrpc\":\"2.0\",\"id\":1,\"error\":{\"code\":1,\"message\":\"m\",\"data\":[1,{\"a\":\"b\"}]},\"foo\":1}",
+				JsonRpcMessage.class);
+		JsonRpcResponse response = (JsonRpcResponse) message;
+		assertThat(response.getId()).isEqualTo("1");
+		assertThat(response.getError()).isEqualTo("{\"code\":1,\"message\":\"m\",\"data\":[1,{\"a\":\"b\"}]}");
+	}
+
+	@JsonIgnoreProperties(ignoreUnknown = true)
+	private static class Pojo {
+
+		private String message;
+
+		public String getMessage() {
+			return message;
+		}
+
+		public void setMessage(String message) {
+			this.message = message;
+		}
+	}
+}
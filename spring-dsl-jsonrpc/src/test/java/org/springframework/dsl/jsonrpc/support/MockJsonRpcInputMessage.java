@@ -30,10 +30,16 @@ public class MockJsonRpcInputMessage implements JsonRpcInputMessage {
 
 	private final Flux<DataBuffer> body;
 	private final String params;
+	private final String method;
 
 	public MockJsonRpcInputMessage(Publisher<? extends DataBuffer> body, String params) {
+		this(body, params, null);
+	}
+
+	public MockJsonRpcInputMessage(Publisher<? extends DataBuffer> body, String params, String method) {
 		this.body = Flux.from(body);
 		this.params = params;
+		this.method = method;
 	}
 
 //	@Override
@@ -43,7 +49,7 @@ public class MockJsonRpcInputMessage implements JsonRpcInputMessage {
 
 	@Override
 	public Mono<String> getMethod() {
-		return null;
+		return Mono.justOrEmpty(method);
 	}
 
 	@Override
@@ -57,6 +63,7 @@ public class MockJsonRpcInputMessage implements JsonRpcInputMessage {
 
 	public interface Builder {
 		Builder body(String body);
+		Builder method(String method);
 		MockJsonRpcInputMessage build();
 	}
 
@@ -64,6 +71,7 @@ public class MockJsonRpcInputMessage implements JsonRpcInputMessage {
 
 		private static final DataBufferFactory BUFFER_FACTORY = new DefaultDataBufferFactory();
 		private String body;
+		private String method;
 
 		public DefaultBuilder(String body) {
 			this.body = body;
@@ -75,9 +83,16 @@ public class MockJsonRpcInputMessage implements JsonRpcInputMessage {
 			return this;
 		}
 
+		@Override
+		public Builder method(String method) {
+			this.method = method;
+			return this;
+		}
+
 		@Override
 		public MockJsonRpcInputMessage build() {
-			return new MockJsonRpcInputMessage(Flux.just(BUFFER_FACTORY.wrap(body.getBytes(Charset.defaultCharset()))), body);
+			return new MockJsonRpcInputMessage(Flux.just(BUFFER_FACTORY.wrap(body.getBytes(Charset.defaultCharset()))), body,
+					method);
 		}
 
 	}
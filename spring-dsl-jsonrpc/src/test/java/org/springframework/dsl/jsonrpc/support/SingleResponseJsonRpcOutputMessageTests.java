@@ -0,0 +1,70 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.jsonrpc.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+
+/**
+ * Tests for {@link SingleResponseJsonRpcOutputMessage}.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class SingleResponseJsonRpcOutputMessageTests {
+
+	@Test
+	public void testWriteBeforeClaim() {
+		MockJsonRpcOutputMessage delegate = new MockJsonRpcOutputMessage();
+		SingleResponseJsonRpcOutputMessage message = new SingleResponseJsonRpcOutputMessage(delegate);
+		message.writeWith(Mono.just(wrap(message, "result"))).block();
+		assertThat(message.claim()).isFalse();
+		assertThat(delegate.getBodyAsString().block()).isEqualTo("result");
+	}
+
+	@Test
+	public void testClaimBeforeDelayedBody() {
+		MockJsonRpcOutputMessage delegate = new MockJsonRpcOutputMessage();
+		SingleResponseJsonRpcOutputMessage message = new SingleResponseJsonRpcOutputMessage(delegate);
+		MonoProcessor<DataBuffer> body = MonoProcessor.create();
+		message.writeWith(body).subscribe();
+		assertThat(message.claim()).isTrue();
+		body.onNext(wrap(message, "result"));
+		assertThat(delegate.getBodyAsString().block()).isEmpty();
+	}
+
+	@Test
+	public void testClaimBeforeWrite() {
+		MockJsonRpcOutputMessage delegate = new MockJsonRpcOutputMessage();
+		SingleResponseJsonRpcOutputMessage message = new SingleResponseJsonRpcOutputMessage(delegate);
+		assertThat(message.claim()).isTrue();
+		assertThat(message.claim()).isFalse();
+		message.getDelegate().writeWith(Mono.just(wrap(message, "error"))).block();
+		message.writeWith(Mono.just(wrap(message, "result"))).block();
+		assertThat(delegate.getBodyAsString().block()).isEqualTo("error");
+	}
+
+	private static DataBuffer wrap(SingleResponseJsonRpcOutputMessage message, String content) {
+		return message.bufferFactory().wrap(content.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -15,12 +15,21 @@
  */
 package org.springframework.dsl.lsp.client;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.reactivestreams.Publisher;
 import org.springframework.dsl.jsonrpc.JsonRpcRequest;
 import org.springframework.dsl.jsonrpc.codec.JsonRpcExtractorStrategies;
 import org.springframework.dsl.jsonrpc.support.DefaultJsonRpcRequest;
 import org.springframework.dsl.lsp.server.config.LspDomainJacksonConfiguration;
 import org.springframework.util.Assert;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 /**
@@ -55,6 +64,9 @@ public abstract class AbstractLspClient implements LspClient {
 	@Override
 	public abstract NotificationSpec notification();
 
+	@Override
+	public abstract BatchSpec batch();
+
 	public JsonRpcExtractorStrategies getJsonRpcExtractorStrategies() {
 		return jsonRpcExtractorStrategies;
 	}
@@ -69,6 +81,29 @@ public abstract class AbstractLspClient implements LspClient {
 	protected void doStart() {
 	}
 
+	/**
+	 * Gets responses matching requests with an id in a batch. Returned
+	 * {@link Flux} completes when all responses have been received, or
+	 * immediately if batch contains only notifications.
+	 *
+	 * @param responses the responses
+	 * @param requests the requests in a batch
+	 * @return the flux of responses for a batch
+	 */
+	protected static Flux<LspClientResponse> batchResponses(Publisher<LspClientResponse> responses,
+			List<JsonRpcRequest> requests) {
+		Set<String> ids = requests.stream()
+				.map(JsonRpcRequest::getId)
+				.filter(Objects::nonNull)
+				.collect(Collectors.toSet());
+		if (ids.isEmpty()) {
+			return Flux.empty();
+		}
+		return Flux.from(responses)
+				.filter(r -> ids.contains(r.response().getId()))
+				.take(ids.size());
+	}
+
 	/**
 	 * Actual {@link #stop()} which a sub-class can override.
 	 */
@@ -83,6 +118,7 @@ public abstract class AbstractLspClient implements LspClient {
 		private String id;
 		private String method;
 		private Object params;
+		private Duration timeout;
 		private ExchangeRequestFunction exchangeFunction;
 
 		/**
@@ -113,10 +149,17 @@ public abstract class AbstractLspClient implements LspClient {
 			return this;
 		}
 
+		@Override
+		public RequestSpec timeout(Duration timeout) {
+			this.timeout = timeout;
+			return this;
+		}
+
 		@Override
 		public Mono<LspClientResponse> exchange() {
 			JsonRpcRequest request = new DefaultJsonRpcRequest(id, method, params);
-			return exchangeFunction.exchange(request);
+			Mono<LspClientResponse> response = exchangeFunction.exchange(request);
+			return timeout != null ? response.timeout(timeout) : response;
 		}
 	}
 
@@ -158,4 +201,32 @@ public abstract class AbstractLspClient implements LspClient {
 		}
 	}
 
+	protected static class DefaultBatchSpec implements BatchSpec {
+
+		private final List<JsonRpcRequest> requests = new ArrayList<>();
+		private ExchangeBatchFunction exchangeFunction;
+
+		public DefaultBatchSpec(ExchangeBatchFunction exchangeFunction) {
+			Assert.notNull(exchangeFunction, "ExchangeBatchFunction must be set");
+			this.exchangeFunction = exchangeFunction;
+		}
+
+		@Override
+		public BatchSpec request(String id, String method, Object params) {
+			Assert.notNull(id, "Request id must be set");
+			requests.add(new DefaultJsonRpcRequest(id, method, params));
+			return this;
+		}
+
+		@Override
+		public BatchSpec notification(String method, Object params) {
+			requests.add(new DefaultJsonRpcRequest(null, method, params));
+			return this;
+		}
+
+		@Override
+		public Flux<LspClientResponse> exchange() {
+			return exchangeFunction.exchange(new ArrayList<>(requests));
+		}
+	}
 }
@@ -15,11 +15,13 @@
  */
 package org.springframework.dsl.lsp.client;
 
-import java.nio.charset.Charset;
-import java.util.HashMap;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 import org.reactivestreams.Processor;
 import org.reactivestreams.Subscriber;
@@ -27,16 +29,24 @@ import org.reactivestreams.Subscription;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
 import org.springframework.core.io.buffer.NettyDataBufferFactory;
-import org.springframework.dsl.DslException;
 import org.springframework.dsl.jsonrpc.JsonRpcInputMessage;
+import org.springframework.dsl.jsonrpc.JsonRpcMessage;
 import org.springframework.dsl.jsonrpc.JsonRpcOutputMessage;
 import org.springframework.dsl.jsonrpc.JsonRpcRequest;
 import org.springframework.dsl.jsonrpc.JsonRpcResponse;
+import org.springframework.dsl.jsonrpc.codec.Jackson2JsonRpcMessageWriter;
+import org.springframework.dsl.jsonrpc.session.JsonRpcSession;
 import org.springframework.dsl.jsonrpc.session.JsonRpcSession.JsonRpcSessionCustomizer;
+import org.springframework.dsl.jsonrpc.support.DefaultJsonRpcInputMessage;
+import org.springframework.dsl.jsonrpc.support.InflightRequestRegistry;
+import org.springframework.dsl.jsonrpc.support.JsonRpcBatch;
+import org.springframework.dsl.jsonrpc.support.SingleResponseJsonRpcOutputMessage;
 import org.springframework.dsl.lsp.LspSystemConstants;
 import org.springframework.dsl.lsp.server.jsonrpc.LspJsonRpcDecoder;
 import org.springframework.dsl.lsp.server.jsonrpc.LspJsonRpcEncoder;
+import org.springframework.dsl.lsp.server.jsonrpc.LspJsonRpcFlushConsolidationHandler;
 import org.springframework.dsl.lsp.server.jsonrpc.ReactorJsonRpcOutputMessage;
 import org.springframework.dsl.lsp.server.jsonrpc.RpcHandler;
 import org.springframework.util.Assert;
@@ -45,13 +55,12 @@ import org.springframework.util.ObjectUtils;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import io.netty.buffer.ByteBuf;
-import reactor.core.Disposable;
+import io.netty.buffer.ByteBufInputStream;
 import reactor.core.publisher.EmitterProcessor;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.ipc.netty.NettyInbound;
 import reactor.ipc.netty.NettyOutbound;
-import reactor.ipc.netty.NettyPipeline;
 
 /**
  * Client level adapter to hook into netty's channels to dispatch messages into
@@ -68,8 +77,9 @@ public class ClientReactorJsonRpcHandlerAdapter
 	private final EmitterProcessor<ByteBuf> requests = EmitterProcessor.create();
 	private final EmitterProcessor<LspClientResponse> responses = EmitterProcessor.create();
 	private final ObjectMapper objectMapper;
-	private final Function<String, JsonRpcRequest> requestDecoder;
-	private final Function<String, JsonRpcResponse> responseDecoder;
+	private final Jackson2JsonRpcMessageWriter messageWriter;
+	private Map<String, Duration> requestTimeouts;
+	private Duration defaultRequestTimeout;
 
 	/**
 	 * Instantiates a new client reactor json rpc handler adapter.
@@ -81,20 +91,27 @@ public class ClientReactorJsonRpcHandlerAdapter
 		Assert.notNull(objectMapper, "ObjectMapper must be set");
 		this.rpcHandler = rpcHandler;
 		this.objectMapper = objectMapper;
-		this.requestDecoder = s -> {
-			try {
-				return objectMapper.readValue(s, JsonRpcRequest.class);
-			} catch (Exception e) {
-				throw new DslException("Unable to convert json to rpc request", e);
-			}
-		};
-		this.responseDecoder = s -> {
-			try {
-				return objectMapper.readValue(s, JsonRpcResponse.class);
-			} catch (Exception e) {
-				throw new DslException("Unable to convert json to rpc response", e);
-			}
-		};
+		this.messageWriter = new Jackson2JsonRpcMessageWriter(objectMapper);
+	}
+
+	/**
+	 * Sets the per-method deadlines for handling requests. Handling not
+	 * completed in time is cancelled and replied with an error.
+	 *
+	 * @param requestTimeouts the per-method request timeouts
+	 */
+	public void setRequestTimeouts(Map<String, Duration> requestTimeouts) {
+		this.requestTimeouts = requestTimeouts;
+	}
+
+	/**
+	 * Sets the deadline for handling requests not having a method specific
+	 * deadline.
+	 *
+	 * @param defaultRequestTimeout the default request timeout
+	 */
+	public void setDefaultRequestTimeout(Duration defaultRequestTimeout) {
+		this.defaultRequestTimeout = defaultRequestTimeout;
 	}
 
 	@Override
@@ -124,114 +141,138 @@ public class ClientReactorJsonRpcHandlerAdapter
 
 	@Override
 	public Mono<Void> apply(NettyInbound in, NettyOutbound out) {
-		Map<String, Disposable> disposables = new HashMap<>();
 		NettyDataBufferFactory bufferFactory = new NettyDataBufferFactory(out.alloc());
 
+		// requests in progress are tracked per connection and cancelled
+		// when connection goes away
+		InflightRequestRegistry inflightRequests = new InflightRequestRegistry(requestTimeouts,
+				defaultRequestTimeout);
+		in.context().onClose(inflightRequests::cancelAll);
+
 		in.context().addHandlerLast(new LspJsonRpcDecoder());
 		out.context().addHandlerLast(new LspJsonRpcEncoder());
+		// flushes are consolidated close to the channel so that frames
+		// written back-to-back end up in a single write
+		out.context().addHandlerFirst(new LspJsonRpcFlushConsolidationHandler());
 
 		// we can only have one subscriber to NettyInbound, so need to dispatch
 		// relevant responses to client.
 		NettyBoundedLspClient lspClient = new NettyBoundedLspClient(out, objectMapper);
+		in.context().onClose(lspClient.getPendingRequests()::cancelAll);
 		JsonRpcSessionCustomizer customizer = session -> session.getAttributes()
 				.put(LspSystemConstants.SESSION_ATTRIBUTE_LSP_CLIENT, lspClient);
 
+		// connection is always one session, so bind it once instead of
+		// resolving it for every message and let it go with a connection
+		String sessionId = in.context().channel().id().asLongText();
+		Mono<JsonRpcSession> boundSession = rpcHandler.bindSession(sessionId, customizer).cache();
+		in.context().onClose(() -> boundSession.flatMap(JsonRpcSession::invalidate).subscribe());
+
 		requests.doOnNext(bb -> {
 			out.sendObject(bb).then().subscribe();
 		}).subscribe();
 
-		Flux<String> shared = in.receiveObject()
-			.ofType(String.class)
+		// frames are parsed once into either requests or responses before
+		// sharing, frame itself is released by reactor after being decoded.
+		// batch is flattened into its requests which know where to write
+		// responses
+		Flux<JsonRpcMessage> shared = in.receiveObject()
+			.ofType(ByteBuf.class)
+			.flatMapIterable(buf -> decodeMessages(buf, bufferFactory,
+					() -> new ReactorJsonRpcOutputMessage(out, bufferFactory)))
 			.share();
 
 		shared
-			.map(responseDecoder)
+			.ofType(JsonRpcResponse.class)
 			.filter(response -> response.getResult() != null || response.getError() != null)
 			.subscribe(bb -> {
-					lspClient.getResponses().onNext(
+					lspClient.getPendingRequests().complete(
 							LspClientResponse.create(lspClient.getJsonRpcExtractorStrategies()).response(bb).build());
 					responses.onNext(LspClientResponse.create().response(bb).build());
 			});
 
+		// batch member needs to complete its slot whichever way its handling
+		// goes, otherwise whole batch never replies
 		shared
-			.map(requestDecoder)
-			.filter(request -> request.getMethod() != null)
+			.ofType(JsonRpcRequest.class)
 			.subscribe(request -> {
-				log.info("Receive request {}", request);
-
-				JsonRpcInputMessage inputMessage = new JsonRpcInputMessage() {
-
-					@Override
-					public Mono<String> getJsonrpc() {
-						return Mono.justOrEmpty(request.getJsonrpc());
-					}
-
-					@Override
-					public Mono<String> getId() {
-						return Mono.justOrEmpty(request.getId());
-					}
-
-					@Override
-					public Mono<String> getMethod() {
-						return Mono.justOrEmpty(request.getMethod());
-					}
-
-					@Override
-					public Mono<String> getParams() {
-						return Mono.justOrEmpty(request.getParams().toString());
-					}
-
-					@Override
-					public Mono<String> getSessionId() {
-						return Mono.fromSupplier(() -> in.context().channel().id().asLongText());
-					}
-				};
-
-				JsonRpcOutputMessage adaptedResponse = new ReactorJsonRpcOutputMessage(out, bufferFactory);
-
-				String disposableId = null;
-				Disposable disposable = null;
-				if (request.getId() != null) {
-					disposableId = in.context().channel().id().asLongText() + request.getId();
-				}
-
-				if (ObjectUtils.nullSafeEquals("$/cancelRequest", request.getMethod())) {
-					if (disposableId != null) {
-						disposable = disposables.remove(disposableId);
-						if (disposable != null) {
-							disposable.dispose();
-							String error = "{\"jsonrpc\":\"2.0\", \"id\":" + request.getId() + ", \"error\":{\"code\":-32800, \"message\": \"cancel\"}}";
-							DataBuffer buffer = bufferFactory.wrap(error.getBytes(Charset.defaultCharset()));
-							Flux<DataBuffer> body = Flux.just(buffer);
-							adaptedResponse.writeWith(body).subscribe();
-							adaptedResponse.setComplete().subscribe();
-						}
-					} else {
-						log.error("Cancel request but no existing disposable");
-					}
-					return;
+				JsonRpcBatch batch = JsonRpcBatch.getBatch(request);
+				Mono<Void> handling = Mono.defer(() -> handleRequest(request, batch, out, bufferFactory, sessionId,
+						boundSession, customizer, inflightRequests));
+				if (batch != null) {
+					handling = handling.doFinally(signal -> batch.complete(request));
 				}
+				handling.subscribe(null, e -> log.debug("Handling of request {} failed", request, e));
+			});
 
-				disposable = rpcHandler.handle(inputMessage, adaptedResponse, customizer)
-						.doOnError(ex -> {
-							log.error("Handling completed with error", ex);
-
-							String error = "{\"jsonrpc\":\"2.0\", \"id\":" + request.getId() + ", \"error\":{\"code\":-32603, \"message\": \"internal server error\"}}";
-
-							DataBuffer buffer = bufferFactory.wrap(error.getBytes(Charset.defaultCharset()));
-							Flux<DataBuffer> body = Flux.just(buffer);
-							adaptedResponse.writeWith(body).subscribe();
-							adaptedResponse.setComplete().subscribe();
-						})
-						.doOnSuccess(aVoid -> log.debug("Handling completed with success"))
-						.subscribe();
+		return out.neverComplete();
+	}
 
-				if (disposableId != null) {
-					disposables.put(disposableId, disposable);
-				}
+	private Mono<Void> handleRequest(JsonRpcRequest request, JsonRpcBatch batch, NettyOutbound out,
+			NettyDataBufferFactory bufferFactory, String sessionId, Mono<JsonRpcSession> boundSession,
+			JsonRpcSessionCustomizer customizer, InflightRequestRegistry inflightRequests) {
+		log.info("Receive request {}", request);
+
+		// cancel is a notification having an id of a request to cancel in its
+		// params, cancelled request itself replies with an error
+		if (ObjectUtils.nullSafeEquals("$/cancelRequest", request.getMethod())) {
+			String cancelId = InflightRequestRegistry.resolveParamsId(request.getParams());
+			if (!inflightRequests.cancel(cancelId)) {
+				log.debug("Cancel request {} but no existing request in progress", cancelId);
+			}
+			return Mono.empty();
+		}
+
+		JsonRpcInputMessage inputMessage = new DefaultJsonRpcInputMessage(request, () -> sessionId);
+
+		// only one response is written whichever of handling, its error,
+		// timeout or cancel comes first
+		SingleResponseJsonRpcOutputMessage adaptedResponse = new SingleResponseJsonRpcOutputMessage(
+				batch != null ? batch.getOutputMessage(request) : new ReactorJsonRpcOutputMessage(out, bufferFactory));
+
+		// handler not binding sessions resolves one for every request
+		Mono<Void> handling = boundSession
+				.map(session -> rpcHandler.handle(inputMessage, adaptedResponse, session))
+				.defaultIfEmpty(Mono.defer(() -> rpcHandler.handle(inputMessage, adaptedResponse, customizer)))
+				.flatMap(Function.identity())
+				.doOnError(ex -> {
+					log.error("Handling completed with error", ex);
+					writeError(adaptedResponse, request.getId(), -32603, "internal server error");
+				})
+				.doOnSuccess(aVoid -> log.debug("Handling completed with success"));
+
+		if (request.getId() != null) {
+			Mono<Void> onTimeout = Mono.fromRunnable(() -> {
+				log.error("Handling of request {} timed out", request);
+				writeError(adaptedResponse, request.getId(), -32000, "timeout");
 			});
+			return inflightRequests.register(request.getId(), request.getMethod(), handling, onTimeout,
+					() -> writeError(adaptedResponse, request.getId(), -32800, "cancelled"));
+		}
+		return handling;
+	}
+
+	private List<JsonRpcMessage> decodeMessages(ByteBuf buf, DataBufferFactory bufferFactory,
+			Supplier<JsonRpcOutputMessage> outputMessage) {
+		try {
+			return JsonRpcBatch.readMessages(objectMapper, new ByteBufInputStream(buf.duplicate()), bufferFactory,
+					outputMessage);
+		} catch (Exception e) {
+			// invalid json is already replied with an error, failing here
+			// would stop reading a whole connection
+			log.error("Unable to convert json to rpc message", e);
+			return Collections.emptyList();
+		}
+	}
 
-		return out.options(NettyPipeline.SendOptions::flushOnEach)
-				.neverComplete();
+	private void writeError(SingleResponseJsonRpcOutputMessage response, String id, int code, String message) {
+		if (!response.claim()) {
+			log.debug("Not replying error {} for request {} as response was already written", code, id);
+			return;
+		}
+		JsonRpcOutputMessage delegate = response.getDelegate();
+		DataBuffer buffer = messageWriter.encodeError(delegate.bufferFactory(), id, code, message, null);
+		delegate.writeWith(Mono.just(buffer)).subscribe();
+		delegate.setComplete().subscribe();
 	}
 }
@@ -27,7 +27,8 @@ import reactor.ipc.netty.NettyOutbound;
 
 /**
  * Default implementation of a {@link Builder} currently building instances of a
- * {@link NettyTcpClientLspClient}.
+ * {@link NettyTcpClientLspClient} or {@link NettyDomainSocketClientLspClient}
+ * if socket file path is set.
  *
  * @author Janne Valkealahti
  *
@@ -36,6 +37,7 @@ public class DefaultLspClientBuilder implements Builder {
 
 	private String host;
 	private Integer port;
+	private String path;
 	private BiFunction<NettyInbound, NettyOutbound, Mono<Void>> function;
 	private Processor<ByteBuf, LspClientResponse> processor;
 
@@ -51,6 +53,12 @@ public class DefaultLspClientBuilder implements Builder {
 		return this;
 	}
 
+	@Override
+	public Builder path(String path) {
+		this.path = path;
+		return this;
+	}
+
 	@Override
 	public Builder function(BiFunction<NettyInbound, NettyOutbound, Mono<Void>> function) {
 		this.function = function;
@@ -65,6 +73,9 @@ public class DefaultLspClientBuilder implements Builder {
 
 	@Override
 	public LspClient build() {
+		if (path != null) {
+			return new NettyDomainSocketClientLspClient(path, function, processor);
+		}
 		return new NettyTcpClientLspClient(host, port, function, processor);
 	}
 
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.lsp.client;
+
+import java.util.List;
+
+import org.springframework.dsl.jsonrpc.JsonRpcRequest;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * Contract to handle exchange for a {@code JSONRPC batch}.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+@FunctionalInterface
+public interface ExchangeBatchFunction {
+
+	/**
+	 * Handle exchange and return a {@link Flux} of responses for requests
+	 * having an id.
+	 *
+	 * @param requests the json rpc requests and notifications
+	 * @return the flux of responses
+	 */
+	Flux<LspClientResponse> exchange(List<JsonRpcRequest> requests);
+}
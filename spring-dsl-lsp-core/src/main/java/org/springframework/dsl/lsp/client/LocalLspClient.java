@@ -0,0 +1,359 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.lsp.client;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.dsl.jsonrpc.JsonRpcInputMessage;
+import org.springframework.dsl.jsonrpc.JsonRpcObjectOutputMessage;
+import org.springframework.dsl.jsonrpc.JsonRpcRequest;
+import org.springframework.dsl.jsonrpc.JsonRpcResponse;
+import org.springframework.dsl.jsonrpc.session.JsonRpcSession.JsonRpcSessionCustomizer;
+import org.springframework.dsl.jsonrpc.support.AbstractJsonRpcObject;
+import org.springframework.dsl.jsonrpc.support.DefaultJsonRpcInputMessage;
+import org.springframework.dsl.jsonrpc.support.DefaultJsonRpcRequest;
+import org.springframework.dsl.jsonrpc.support.DefaultJsonRpcResponse;
+import org.springframework.dsl.jsonrpc.support.DefaultJsonRpcResponseJsonDeserializer;
+import org.springframework.dsl.lsp.server.jsonrpc.RpcHandler;
+import org.springframework.util.Assert;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+/**
+ * {@link LspClient} passing requests and responses as objects directly to a
+ * {@link RpcHandler} living in a same JVM. There is no socket or framing in
+ * between and params and results are never rendered as json text, params are
+ * handed over as {@link TokenBuffer}s and results are passed as is.
+ * <p>
+ * If a client side {@link RpcHandler} is given, server is able to call back
+ * to a client using {@link LspClient} it resolves from its session.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class LocalLspClient extends AbstractLspClient {
+
+	private static final Logger log = LoggerFactory.getLogger(LocalLspClient.class);
+	private static final AtomicLong SESSION_IDS = new AtomicLong();
+	private final RpcHandler remoteHandler;
+	private final RpcHandler localHandler;
+	private final ObjectMapper objectMapper;
+	private final ObjectMapper responseMapper;
+	private final String sessionId;
+	private final DataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+	private LocalLspClient reverse;
+
+	/**
+	 * Instantiates a new local lsp client.
+	 *
+	 * @param remoteHandler the handler requests are passed to
+	 * @param objectMapper the object mapper
+	 */
+	public LocalLspClient(RpcHandler remoteHandler, ObjectMapper objectMapper) {
+		this(remoteHandler, null, objectMapper);
+	}
+
+	/**
+	 * Instantiates a new local lsp client.
+	 *
+	 * @param remoteHandler the handler requests are passed to
+	 * @param localHandler the handler for requests coming back from a remote, may be {@code null}
+	 * @param objectMapper the object mapper
+	 */
+	public LocalLspClient(RpcHandler remoteHandler, RpcHandler localHandler, ObjectMapper objectMapper) {
+		this(remoteHandler, localHandler, objectMapper, "local-" + SESSION_IDS.incrementAndGet());
+	}
+
+	private LocalLspClient(RpcHandler remoteHandler, RpcHandler localHandler, ObjectMapper objectMapper,
+			String sessionId) {
+		Assert.notNull(remoteHandler, "RpcHandler must be set");
+		Assert.notNull(objectMapper, "ObjectMapper must be set");
+		this.remoteHandler = remoteHandler;
+		this.localHandler = localHandler;
+		this.objectMapper = objectMapper;
+		this.sessionId = sessionId;
+		SimpleModule module = new SimpleModule();
+		module.addDeserializer(DefaultJsonRpcResponse.class, new DefaultJsonRpcResponseJsonDeserializer());
+		this.responseMapper = new ObjectMapper();
+		this.responseMapper.registerModule(module);
+	}
+
+	@Override
+	public RequestSpec request() {
+		return new DefaultRequestSpec(this::exchangeRequest);
+	}
+
+	@Override
+	public NotificationSpec notification() {
+		return new DefaultNotificationSpec(this::exchangeNotification);
+	}
+
+	@Override
+	public BatchSpec batch() {
+		// no frames to save with local calls, members are just exchanged one by one
+		return new DefaultBatchSpec(this::exchangeBatch);
+	}
+
+	private Mono<LspClientResponse> exchangeRequest(JsonRpcRequest request) {
+		return Mono.create(sink -> {
+			LocalOutputMessage response = new LocalOutputMessage(request, sink);
+			handle(request, response).subscribe(null, e -> {
+				log.error("Handling completed with error", e);
+				sink.success(createResponse(new DefaultJsonRpcResponse(request.getId(), null,
+						"internal server error")));
+			}, () -> sink.success());
+		});
+	}
+
+	private Mono<Void> exchangeNotification(JsonRpcRequest request) {
+		return handle(request, new LocalOutputMessage(request, null));
+	}
+
+	private Flux<LspClientResponse> exchangeBatch(List<JsonRpcRequest> requests) {
+		return Flux.fromIterable(requests)
+				.flatMap(request -> request.getId() != null ? exchangeRequest(request)
+						: exchangeNotification(request).then(Mono.empty()));
+	}
+
+	private Mono<Void> handle(JsonRpcRequest request, LocalOutputMessage response) {
+		return Mono.defer(() -> {
+			JsonRpcRequest adapted = new DefaultJsonRpcRequest(request.getJsonrpc(), request.getId(),
+					request.getMethod(), toTokens(request.getParams()));
+			JsonRpcInputMessage inputMessage = new DefaultJsonRpcInputMessage(adapted, () -> sessionId);
+			return remoteHandler.handle(inputMessage, response, sessionCustomizer());
+		});
+	}
+
+	private JsonRpcSessionCustomizer sessionCustomizer() {
+		if (localHandler == null) {
+			return null;
+		}
+		LocalLspClient lspClient = reverse();
+		return session -> session.getAttributes().put("lspClient", lspClient);
+	}
+
+	private LocalLspClient reverse() {
+		// same session in both directions, handlers just swap places
+		if (reverse == null) {
+			reverse = new LocalLspClient(localHandler, remoteHandler, objectMapper, sessionId);
+		}
+		return reverse;
+	}
+
+	private Object toTokens(Object params) {
+		if (params == null || params instanceof TokenBuffer) {
+			return params;
+		}
+		// binding from tokens works same way than from a parsed json
+		// without ever rendering params as text
+		TokenBuffer buffer = new TokenBuffer(objectMapper, false);
+		try {
+			objectMapper.writeValue(buffer, params);
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Unable to convert params", e);
+		}
+		return buffer;
+	}
+
+	private LspClientResponse createResponse(JsonRpcResponse response) {
+		return new LocalLspClientResponse(response, this);
+	}
+
+	/**
+	 * {@link LspClientResponse} giving out a result value directly when it is
+	 * already of a requested type.
+	 */
+	private static class LocalLspClientResponse extends DefaultLspClientResponse {
+
+		LocalLspClientResponse(JsonRpcResponse response, LocalLspClient client) {
+			super(response, client.getJsonRpcExtractorStrategies());
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public <T> Mono<T> resultToMono(Class<? extends T> elementClass) {
+			if (response() instanceof LocalJsonRpcResponse) {
+				Object value = ((LocalJsonRpcResponse) response()).getValue();
+				if (value == null) {
+					return Mono.empty();
+				} else if (elementClass.isInstance(value)) {
+					return Mono.just((T) value);
+				}
+				return Mono.fromCallable(() -> strategies().objectMapper().convertValue(value, elementClass));
+			}
+			return super.resultToMono(elementClass);
+		}
+	}
+
+	/**
+	 * {@link JsonRpcResponse} keeping a result value as is and rendering it
+	 * only if someone asks for it as a text.
+	 */
+	private static class LocalJsonRpcResponse extends AbstractJsonRpcObject implements JsonRpcResponse {
+
+		private final Object value;
+		private final ObjectMapper objectMapper;
+		private volatile String result;
+
+		LocalJsonRpcResponse(String id, Object value, ObjectMapper objectMapper) {
+			super(id);
+			this.value = value;
+			this.objectMapper = objectMapper;
+		}
+
+		Object getValue() {
+			return value;
+		}
+
+		@Override
+		public String getResult() {
+			if (result == null && value != null) {
+				result = render(value, objectMapper);
+			}
+			return result;
+		}
+
+		@Override
+		public String getError() {
+			return null;
+		}
+
+		private static String render(Object value, ObjectMapper objectMapper) {
+			// keep same format as responses read from a wire where value
+			// nodes are used as is and structured nodes are rendered as json
+			if (value instanceof CharSequence || value instanceof Number || value instanceof Boolean) {
+				return value.toString();
+			}
+			StringWriter writer = new StringWriter();
+			try (JsonGenerator generator = objectMapper.getFactory().createGenerator(writer)) {
+				objectMapper.writeValue(generator, value);
+			} catch (IOException e) {
+				throw new IllegalStateException("Unable to render result", e);
+			}
+			return writer.toString();
+		}
+	}
+
+	/**
+	 * {@link JsonRpcObjectOutputMessage} passing written values back to a
+	 * caller or as notifications to a local handler.
+	 */
+	private class LocalOutputMessage implements JsonRpcObjectOutputMessage {
+
+		private final JsonRpcRequest request;
+		private final MonoSink<LspClientResponse> sink;
+		private volatile boolean committed;
+
+		LocalOutputMessage(JsonRpcRequest request, MonoSink<LspClientResponse> sink) {
+			this.request = request;
+			this.sink = sink;
+		}
+
+		@Override
+		public Mono<Void> writeObjects(Publisher<?> values, ResolvableType elementType, Map<String, Object> hints) {
+			committed = true;
+			if (request.getId() != null) {
+				return Mono.from(values)
+						.map(value -> createResponse(new LocalJsonRpcResponse(request.getId(), value, objectMapper)))
+						.defaultIfEmpty(createResponse(new LocalJsonRpcResponse(request.getId(), null, objectMapper)))
+						.doOnNext(this::respond)
+						.then();
+			}
+			Object hintedMethod = hints != null ? hints.get("method") : null;
+			String method = hintedMethod instanceof String ? (String) hintedMethod : request.getMethod();
+			return Flux.from(values)
+					.concatMap(value -> notifyLocal(method, value))
+					.then();
+		}
+
+		@Override
+		public DataBufferFactory bufferFactory() {
+			return bufferFactory;
+		}
+
+		@Override
+		public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+			// something wrote an already encoded body, read it back as a response
+			committed = true;
+			return Flux.from(body)
+					.doOnNext(buffer -> {
+						try {
+							DefaultJsonRpcResponse response = responseMapper.readValue(buffer.asInputStream(),
+									DefaultJsonRpcResponse.class);
+							respond(createResponse(response));
+						} catch (IOException e) {
+							log.error("Unable to read response", e);
+						} finally {
+							DataBufferUtils.release(buffer);
+						}
+					})
+					.then();
+		}
+
+		@Override
+		public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+			return Flux.from(body).concatMap(this::writeWith).then();
+		}
+
+		@Override
+		public Mono<Void> setComplete() {
+			return Mono.empty();
+		}
+
+		@Override
+		public boolean isCommitted() {
+			return committed;
+		}
+
+		@Override
+		public void beforeCommit(Supplier<? extends Mono<Void>> action) {
+		}
+
+		private void respond(LspClientResponse response) {
+			if (sink != null) {
+				sink.success(response);
+			}
+		}
+
+		private Mono<Void> notifyLocal(String method, Object params) {
+			if (localHandler == null) {
+				log.debug("No local handler for notification {}", method);
+				return Mono.empty();
+			}
+			return reverse().exchangeNotification(new DefaultJsonRpcRequest(null, method, params));
+		}
+	}
+}
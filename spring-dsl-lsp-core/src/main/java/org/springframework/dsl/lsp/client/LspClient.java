@@ -15,11 +15,13 @@
  */
 package org.springframework.dsl.lsp.client;
 
+import java.time.Duration;
 import java.util.function.BiFunction;
 
 import org.reactivestreams.Processor;
 
 import io.netty.buffer.ByteBuf;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.ipc.netty.NettyInbound;
 import reactor.ipc.netty.NettyOutbound;
@@ -62,6 +64,14 @@ public interface LspClient {
 	 */
 	NotificationSpec notification();
 
+	/**
+	 * Prepare a {@code JSONRPC} batch of requests and notifications sent
+	 * together in a single message.
+	 *
+	 * @return a {@link BatchSpec} for specifying the batch
+	 */
+	BatchSpec batch();
+
 	/**
 	 * Gets a builder for instances of a {@link LspClient}s.
 	 *
@@ -92,6 +102,15 @@ public interface LspClient {
 		 */
 		Builder port(Integer port);
 
+		/**
+		 * Sets a unix domain socket file path where client should connect to.
+		 * If set, host and port are not used.
+		 *
+		 * @param path the socket file path
+		 * @return the builder
+		 */
+		Builder path(String path);
+
 		Builder function(BiFunction<NettyInbound, NettyOutbound, Mono<Void>> function);
 		Builder processor(Processor<ByteBuf, LspClientResponse> processor);
 
@@ -133,6 +152,16 @@ public interface LspClient {
 		 */
 		RequestSpec params(Object params);
 
+		/**
+		 * Sets the timeout for waiting a response. Request is cancelled and
+		 * returned {@link Mono} fails with a {@code TimeoutException} if
+		 * response doesn't arrive in time.
+		 *
+		 * @param timeout the timeout
+		 * @return the request spec
+		 */
+		RequestSpec timeout(Duration timeout);
+
 		/**
 		 * Gets the exchange.
 		 * <p>
@@ -175,4 +204,40 @@ public interface LspClient {
 		 */
 		Mono<Void> exchange();
 	}
+
+	/**
+	 * Defines a contract for a {@code JSONRPC batch}.
+	 */
+	interface BatchSpec {
+
+		/**
+		 * Adds a request into a batch.
+		 *
+		 * @param id the id
+		 * @param method the method
+		 * @param params the params
+		 * @return the batch spec
+		 */
+		BatchSpec request(String id, String method, Object params);
+
+		/**
+		 * Adds a notification into a batch.
+		 *
+		 * @param method the method
+		 * @param params the params
+		 * @return the batch spec
+		 */
+		BatchSpec notification(String method, Object params);
+
+		/**
+		 * Gets the exchange.
+		 * <p>
+		 * Calling this method doesn't cause any exchange to happen until returned
+		 * {@link Flux} is consumed. Flux completes when responses for all
+		 * requests in a batch have been received.
+		 *
+		 * @return the flux of responses
+		 */
+		Flux<LspClientResponse> exchange();
+	}
 }
@@ -16,6 +16,8 @@
 package org.springframework.dsl.lsp.client;
 
 import java.nio.charset.Charset;
+import java.time.Duration;
+import java.util.List;
 import java.util.function.Function;
 
 import org.springframework.core.io.buffer.NettyDataBufferFactory;
@@ -23,11 +25,11 @@ import org.springframework.dsl.DslException;
 import org.springframework.dsl.jsonrpc.JsonRpcOutputMessage;
 import org.springframework.dsl.jsonrpc.JsonRpcRequest;
 import org.springframework.dsl.lsp.server.jsonrpc.ReactorJsonRpcOutputMessage;
-import org.springframework.util.ObjectUtils;
+import org.springframework.lang.Nullable;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
-import reactor.core.publisher.EmitterProcessor;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.ipc.netty.NettyOutbound;
 
@@ -39,12 +41,36 @@ import reactor.ipc.netty.NettyOutbound;
  */
 public class NettyBoundedLspClient extends AbstractLspClient {
 
+	private static final String ID_PREFIX = "netty-";
 	private NettyOutbound out;
 	private final Function<JsonRpcRequest, String> requestDecoder;
-	private EmitterProcessor<LspClientResponse> responses = EmitterProcessor.create();
+	private final Function<List<JsonRpcRequest>, String> batchDecoder;
+	private final PendingRequestRegistry pendingRequests;
 
+	/**
+	 * Instantiates a new netty bounded lsp client.
+	 *
+	 * @param out the netty outbound
+	 * @param objectMapper the object mapper
+	 */
 	public NettyBoundedLspClient(NettyOutbound out, ObjectMapper objectMapper) {
+		this(out, objectMapper, null);
+	}
+
+	/**
+	 * Instantiates a new netty bounded lsp client. Requests not having an
+	 * explicit timeout fail if a response doesn't arrive within a given
+	 * timeout, {@code null} meaning waiting until a connection is closed.
+	 *
+	 * @param out the netty outbound
+	 * @param objectMapper the object mapper
+	 * @param requestTimeout the default timeout for requests
+	 */
+	public NettyBoundedLspClient(NettyOutbound out, ObjectMapper objectMapper, @Nullable Duration requestTimeout) {
 		this.out = out;
+		// ids are prefixed so that those can't be confused with ids of
+		// requests a remote end sends to us
+		this.pendingRequests = new PendingRequestRegistry(ID_PREFIX, requestTimeout);
 		this.requestDecoder = s -> {
 			try {
 				return objectMapper.writeValueAsString(s);
@@ -52,6 +78,13 @@ public class NettyBoundedLspClient extends AbstractLspClient {
 				throw new DslException("Unable to convert json rpc request", e);
 			}
 		};
+		this.batchDecoder = s -> {
+			try {
+				return objectMapper.writeValueAsString(s);
+			} catch (Exception e) {
+				throw new DslException("Unable to convert json rpc batch", e);
+			}
+		};
 	}
 
 	@Override
@@ -64,8 +97,18 @@ public class NettyBoundedLspClient extends AbstractLspClient {
 		return new DefaultNotificationSpec(new DefaultExchangeNotificationFunction());
 	}
 
-	public EmitterProcessor<LspClientResponse> getResponses() {
-		return responses;
+	@Override
+	public BatchSpec batch() {
+		return new DefaultBatchSpec(new DefaultExchangeBatchFunction());
+	}
+
+	/**
+	 * Gets the registry of requests waiting for a response.
+	 *
+	 * @return the pending requests
+	 */
+	public PendingRequestRegistry getPendingRequests() {
+		return pendingRequests;
 	}
 
 	private class DefaultExchangeRequestFunction implements ExchangeRequestFunction {
@@ -73,18 +116,18 @@ public class NettyBoundedLspClient extends AbstractLspClient {
 		@Override
 		public Mono<LspClientResponse> exchange(JsonRpcRequest request) {
 			return Mono.defer(() -> {
+				JsonRpcRequest pendingRequest = pendingRequests.withId(request);
 				NettyDataBufferFactory bufferFactory = new NettyDataBufferFactory(out.alloc());
 				JsonRpcOutputMessage adaptedResponse = new ReactorJsonRpcOutputMessage(out, bufferFactory);
-				Mono.just(request)
+				Mono<Void> send = Mono.just(pendingRequest)
 					.map(requestDecoder)
 					.map(r -> bufferFactory.wrap(r.getBytes(Charset.defaultCharset())))
-				.doOnNext(r -> {
-					adaptedResponse.writeWith(Mono.just(r)).subscribe();
-					adaptedResponse.setComplete().subscribe();
-				})
-				.subscribe();
-				return Mono.from(responses)
-					.filter(r -> ObjectUtils.nullSafeEquals(r.response().getId(), request.getId()));
+					.doOnNext(r -> {
+						adaptedResponse.writeWith(Mono.just(r)).subscribe();
+						adaptedResponse.setComplete().subscribe();
+					})
+					.then();
+				return pendingRequests.register(pendingRequest.getId(), send);
 			});
 		}
 	}
@@ -107,4 +150,24 @@ public class NettyBoundedLspClient extends AbstractLspClient {
 			});
 		}
 	}
+
+	private class DefaultExchangeBatchFunction implements ExchangeBatchFunction {
+
+		@Override
+		public Flux<LspClientResponse> exchange(List<JsonRpcRequest> requests) {
+			return Flux.defer(() -> {
+				NettyDataBufferFactory bufferFactory = new NettyDataBufferFactory(out.alloc());
+				JsonRpcOutputMessage adaptedResponse = new ReactorJsonRpcOutputMessage(out, bufferFactory);
+				Mono<Void> send = Mono.just(requests)
+					.map(batchDecoder)
+					.map(r -> bufferFactory.wrap(r.getBytes(Charset.defaultCharset())))
+					.doOnNext(r -> {
+						adaptedResponse.writeWith(Mono.just(r)).subscribe();
+						adaptedResponse.setComplete().subscribe();
+					})
+					.then();
+				return pendingRequests.registerBatch(requests, send);
+			});
+		}
+	}
 }
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.lsp.client;
+
+import java.time.Duration;
+import java.util.function.BiFunction;
+
+import org.reactivestreams.Processor;
+import org.springframework.dsl.lsp.server.jsonrpc.DomainSocketLoopResources;
+import org.springframework.util.Assert;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.unix.DomainSocketAddress;
+import io.netty.handler.logging.LoggingHandler;
+import reactor.core.publisher.Mono;
+import reactor.ipc.netty.NettyContext;
+import reactor.ipc.netty.NettyInbound;
+import reactor.ipc.netty.NettyOutbound;
+import reactor.ipc.netty.channel.ChannelOperations;
+import reactor.ipc.netty.channel.ContextHandler;
+import reactor.ipc.netty.options.ClientOptions;
+
+/**
+ * {@link LspClient} connecting to a {@code Language Server} listening on a
+ * unix domain socket file.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class NettyDomainSocketClientLspClient extends NettyTcpClientLspClient {
+
+	private static final LoggingHandler loggingHandler = new LoggingHandler(NettyDomainSocketClientLspClient.class);
+	private static final ClientOptions OPTIONS = ClientOptions.builder().disablePool().build();
+	private final String path;
+	private final BiFunction<NettyInbound, NettyOutbound, Mono<Void>> function;
+	private DomainSocketLoopResources loopResources;
+	private NettyContext nettyContext;
+
+	/**
+	 * Instantiates a new netty domain socket client lsp client.
+	 *
+	 * @param path the socket file path
+	 * @param function the function
+	 * @param processor the processor
+	 */
+	public NettyDomainSocketClientLspClient(String path, BiFunction<NettyInbound, NettyOutbound, Mono<Void>> function,
+			Processor<ByteBuf, LspClientResponse> processor) {
+		super(function, processor);
+		Assert.hasText(path, "Path must be set");
+		this.path = path;
+		this.function = function;
+	}
+
+	@Override
+	public void doStart() {
+		if (nettyContext == null) {
+			loopResources = DomainSocketLoopResources.create("lsp-uds-client");
+			try {
+				nettyContext = connect().block();
+			} catch (RuntimeException e) {
+				loopResources.dispose();
+				loopResources = null;
+				throw e;
+			}
+		}
+	}
+
+	@Override
+	public void doStop() {
+		if (nettyContext != null) {
+			nettyContext.dispose();
+			nettyContext.onClose().block(Duration.ofSeconds(5));
+		}
+		nettyContext = null;
+		if (loopResources != null) {
+			loopResources.dispose();
+		}
+		loopResources = null;
+	}
+
+	private Mono<NettyContext> connect() {
+		// domain socket channel is not a socket channel which tcp client
+		// expects, so connect it with a plain bootstrap and bind reactor
+		// operations to it
+		DomainSocketAddress address = new DomainSocketAddress(path);
+		return Mono.create(sink -> {
+			ContextHandler<Channel> contextHandler = ContextHandler.newClientContext(sink, OPTIONS, loggingHandler,
+					false, address, (ch, c, msg) -> ChannelOperations.bind(ch, function, c));
+			sink.onCancel(contextHandler);
+			EventLoopGroup group = loopResources.onClient(true);
+			Bootstrap bootstrap = new Bootstrap()
+					.group(group)
+					.channel(loopResources.onChannel(group))
+					.remoteAddress(address)
+					.handler(contextHandler);
+			contextHandler.setFuture(bootstrap.connect());
+		});
+	}
+}
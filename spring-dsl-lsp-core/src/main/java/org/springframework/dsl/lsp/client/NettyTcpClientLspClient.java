@@ -15,6 +15,7 @@
  */
 package org.springframework.dsl.lsp.client;
 
+import java.util.List;
 import java.util.function.BiFunction;
 
 import org.reactivestreams.Processor;
@@ -71,6 +72,21 @@ public class NettyTcpClientLspClient extends AbstractLspClient {
 		this.processor = processor;
 	}
 
+	/**
+	 * Instantiates a new netty tcp client lsp client for subclasses which
+	 * connect on their own and don't use host and port.
+	 *
+	 * @param function the function
+	 * @param processor the processor
+	 */
+	protected NettyTcpClientLspClient(BiFunction<NettyInbound, NettyOutbound, Mono<Void>> function,
+			Processor<ByteBuf, LspClientResponse> processor) {
+		this.host = null;
+		this.port = null;
+		this.function = function;
+		this.processor = processor;
+	}
+
 	@Override
 	public void doStart() {
 		if (blockingNettyContext == null) {
@@ -96,6 +112,11 @@ public class NettyTcpClientLspClient extends AbstractLspClient {
 		return new DefaultNotificationSpec(new DefaultExchangeNotificationFunction(processor));
 	}
 
+	@Override
+	public BatchSpec batch() {
+		return new DefaultBatchSpec(new DefaultExchangeBatchFunction(processor, processor));
+	}
+
 	private void init() {
 		blockingNettyContext = TcpClient.create(host, port).start(function);
 	}
@@ -166,4 +187,34 @@ public class NettyTcpClientLspClient extends AbstractLspClient {
 				});
 		}
 	}
+
+	private class DefaultExchangeBatchFunction implements ExchangeBatchFunction {
+
+		final Subscriber<ByteBuf> requests;
+		final Publisher<LspClientResponse> responses;
+		ObjectMapper mapper;
+
+		public DefaultExchangeBatchFunction(Subscriber<ByteBuf> requests, Publisher<LspClientResponse> responses) {
+			this.requests = requests;
+			this.responses = responses;
+			mapper = new ObjectMapper();
+		}
+
+		@Override
+		public Flux<LspClientResponse> exchange(List<JsonRpcRequest> batch) {
+			Flux<LspClientResponse> batchResponses = batchResponses(responses, batch);
+			return Mono.defer(() -> {
+					String r = null;
+					try {
+						r = mapper.writeValueAsString(batch);
+					} catch (JsonProcessingException e) {
+						log.error("Mapper error", e);
+						throw new RuntimeException(e);
+					}
+					requests.onNext(Unpooled.copiedBuffer(r.getBytes()));
+					return Mono.empty();
+				})
+				.thenMany(batchResponses);
+		}
+	}
 }
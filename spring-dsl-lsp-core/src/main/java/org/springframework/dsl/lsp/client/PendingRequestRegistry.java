@@ -0,0 +1,209 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.lsp.client;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dsl.jsonrpc.JsonRpcRequest;
+import org.springframework.dsl.jsonrpc.support.DefaultJsonRpcRequest;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+
+/**
+ * Registry of requests sent by a {@link LspClient} which are still waiting
+ * for a response. Responses are dispatched by a request id directly to a
+ * waiting caller instead of every caller looking at every response. An
+ * entry is added when an exchange is subscribed and removed when a response
+ * arrives, when a caller cancels, or when an optional default timeout is
+ * reached.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class PendingRequestRegistry {
+
+	private static final Logger log = LoggerFactory.getLogger(PendingRequestRegistry.class);
+	private final Map<String, MonoProcessor<LspClientResponse>> pending = new ConcurrentHashMap<>();
+	private final AtomicLong counter = new AtomicLong();
+	private final String idPrefix;
+	private final Duration defaultTimeout;
+
+	/**
+	 * Instantiates a new pending request registry without a prefix for
+	 * generated ids and without a default timeout.
+	 */
+	public PendingRequestRegistry() {
+		this("", null);
+	}
+
+	/**
+	 * Instantiates a new pending request registry. A {@code null} default
+	 * timeout means that requests wait until a response arrives or those are
+	 * cancelled.
+	 *
+	 * @param idPrefix the prefix for generated request ids
+	 * @param defaultTimeout the timeout applied to every registered request
+	 */
+	public PendingRequestRegistry(String idPrefix, @Nullable Duration defaultTimeout) {
+		Assert.notNull(idPrefix, "Id prefix must be set");
+		this.idPrefix = idPrefix;
+		this.defaultTimeout = defaultTimeout;
+	}
+
+	/**
+	 * Generate a new request id which is not used by any pending request.
+	 *
+	 * @return the request id
+	 */
+	public String nextId() {
+		String id;
+		do {
+			id = idPrefix + counter.incrementAndGet();
+		} while (pending.containsKey(id));
+		return id;
+	}
+
+	/**
+	 * Gets a request having an id, generating a new id if a given request
+	 * doesn't have one.
+	 *
+	 * @param request the request
+	 * @return the request with an id
+	 */
+	public JsonRpcRequest withId(JsonRpcRequest request) {
+		if (request.getId() != null) {
+			return request;
+		}
+		return new DefaultJsonRpcRequest(request.getJsonrpc(), nextId(), request.getMethod(), request.getParams());
+	}
+
+	/**
+	 * Register a request with an id and send it. Request is registered only
+	 * when returned {@link Mono} is subscribed, right before subscribing a
+	 * given send {@code Mono} so that a fast response is not missed. Entry is
+	 * removed when a response arrives, when sending fails, when a subscriber
+	 * cancels or when a default timeout is reached, thus a request which is
+	 * never subscribed is never left pending.
+	 *
+	 * @param id the request id
+	 * @param send the mono sending a request
+	 * @return the mono of a response
+	 */
+	public Mono<LspClientResponse> register(String id, Mono<Void> send) {
+		Assert.notNull(id, "Request id must be set");
+		Assert.notNull(send, "Send must be set");
+		Mono<LspClientResponse> exchange = Mono.defer(() -> {
+			Mono<LspClientResponse> response = add(id);
+			return Flux.merge(response, send.then(Mono.<LspClientResponse>empty())).next();
+		});
+		return defaultTimeout != null ? exchange.timeout(defaultTimeout) : exchange;
+	}
+
+	/**
+	 * Register all requests having an id in a batch and send it. Requests are
+	 * registered only when returned {@link Flux} is subscribed, right before
+	 * subscribing a given send {@code Mono}. Returned {@code Flux} completes
+	 * when all responses have been received, or when batch has been sent if
+	 * it contains only notifications.
+	 *
+	 * @param requests the requests in a batch
+	 * @param send the mono sending a batch
+	 * @return the flux of responses for a batch
+	 */
+	public Flux<LspClientResponse> registerBatch(List<JsonRpcRequest> requests, Mono<Void> send) {
+		Assert.notNull(requests, "Requests must be set");
+		Assert.notNull(send, "Send must be set");
+		Flux<LspClientResponse> exchange = Flux.defer(() -> {
+			List<String> registered = new ArrayList<>();
+			List<Publisher<LspClientResponse>> responses = new ArrayList<>();
+			try {
+				for (JsonRpcRequest request : requests) {
+					if (request.getId() != null) {
+						responses.add(add(request.getId()));
+						registered.add(request.getId());
+					}
+				}
+			} catch (IllegalStateException e) {
+				// nothing is subscribed yet so clean up what was registered
+				registered.forEach(pending::remove);
+				throw e;
+			}
+			responses.add(send.then(Mono.<LspClientResponse>empty()));
+			return Flux.merge(responses);
+		});
+		return defaultTimeout != null ? exchange.timeout(defaultTimeout) : exchange;
+	}
+
+	/**
+	 * Complete a pending request with a response.
+	 *
+	 * @param response the response
+	 * @return true, if there was a request waiting for a response
+	 */
+	public boolean complete(LspClientResponse response) {
+		String id = response.response().getId();
+		MonoProcessor<LspClientResponse> processor = id != null ? pending.remove(id) : null;
+		if (processor == null) {
+			log.debug("No pending request for response with id {}", id);
+			return false;
+		}
+		processor.onNext(response);
+		return true;
+	}
+
+	/**
+	 * Fail all pending requests with a {@link CancellationException}. Usually
+	 * called when underlying connection is closed.
+	 */
+	public void cancelAll() {
+		for (String id : pending.keySet()) {
+			MonoProcessor<LspClientResponse> processor = pending.remove(id);
+			if (processor != null) {
+				processor.onError(new CancellationException("Request " + id + " cancelled"));
+			}
+		}
+	}
+
+	/**
+	 * Gets the count of pending requests.
+	 *
+	 * @return the count of pending requests
+	 */
+	public int size() {
+		return pending.size();
+	}
+
+	private Mono<LspClientResponse> add(String id) {
+		MonoProcessor<LspClientResponse> processor = MonoProcessor.create();
+		if (pending.putIfAbsent(id, processor) != null) {
+			throw new IllegalStateException("Request with id " + id + " is already pending");
+		}
+		return processor.doFinally(signal -> pending.remove(id, processor));
+	}
+}
@@ -15,6 +15,10 @@
  */
 package org.springframework.dsl.lsp.server.config;
 
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -61,6 +65,8 @@ public class DslConfigurationProperties {
 	public static class WebSocketProperties {
 
 		String path = "/ws";
+		boolean binary;
+		int maxMessageSize = 10 * 1024 * 1024;
 
 		public String getPath() {
 			return path;
@@ -69,14 +75,39 @@ public class DslConfigurationProperties {
 		public void setPath(String path) {
 			this.path = path;
 		}
+
+		public boolean isBinary() {
+			return binary;
+		}
+
+		public void setBinary(boolean binary) {
+			this.binary = binary;
+		}
+
+		public int getMaxMessageSize() {
+			return maxMessageSize;
+		}
+
+		public void setMaxMessageSize(int maxMessageSize) {
+			this.maxMessageSize = maxMessageSize;
+		}
 	}
 
 	public static class LspServerProperties {
 
 		private Integer port;
+		private String path;
 		private LspServerSocketMode mode = LspServerSocketMode.PROCESS;
 		private boolean forceJvmExitOnShutdown;
 		private WebSocketProperties websocket = new WebSocketProperties();
+		private Duration requestTimeout;
+		private Map<String, Duration> requestTimeouts = new HashMap<>();
+		private Duration clientRequestTimeout;
+		private int handlerThreads = Runtime.getRuntime().availableProcessors();
+		private int inboundQueueSize = 256;
+		private int maxConcurrentRequests = 32;
+		private LspServerTransportProperties transport = new LspServerTransportProperties();
+		private LspServerSessionProperties session = new LspServerSessionProperties();
 
 		public LspServerSocketMode getMode() {
 			return mode;
@@ -94,6 +125,14 @@ public class DslConfigurationProperties {
 			this.port = port;
 		}
 
+		public String getPath() {
+			return path;
+		}
+
+		public void setPath(String path) {
+			this.path = path;
+		}
+
 		public boolean isForceJvmExitOnShutdown() {
 			return forceJvmExitOnShutdown;
 		}
@@ -109,6 +148,195 @@ public class DslConfigurationProperties {
 		public void setWebsocket(WebSocketProperties websocket) {
 			this.websocket = websocket;
 		}
+
+		public Duration getRequestTimeout() {
+			return requestTimeout;
+		}
+
+		public void setRequestTimeout(Duration requestTimeout) {
+			this.requestTimeout = requestTimeout;
+		}
+
+		public Map<String, Duration> getRequestTimeouts() {
+			return requestTimeouts;
+		}
+
+		public void setRequestTimeouts(Map<String, Duration> requestTimeouts) {
+			this.requestTimeouts = requestTimeouts;
+		}
+
+		public Duration getClientRequestTimeout() {
+			return clientRequestTimeout;
+		}
+
+		public void setClientRequestTimeout(Duration clientRequestTimeout) {
+			this.clientRequestTimeout = clientRequestTimeout;
+		}
+
+		public int getHandlerThreads() {
+			return handlerThreads;
+		}
+
+		public void setHandlerThreads(int handlerThreads) {
+			this.handlerThreads = handlerThreads;
+		}
+
+		public int getInboundQueueSize() {
+			return inboundQueueSize;
+		}
+
+		public void setInboundQueueSize(int inboundQueueSize) {
+			this.inboundQueueSize = inboundQueueSize;
+		}
+
+		public int getMaxConcurrentRequests() {
+			return maxConcurrentRequests;
+		}
+
+		public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+			this.maxConcurrentRequests = maxConcurrentRequests;
+		}
+
+		public LspServerTransportProperties getTransport() {
+			return transport;
+		}
+
+		public void setTransport(LspServerTransportProperties transport) {
+			this.transport = transport;
+		}
+
+		public LspServerSessionProperties getSession() {
+			return session;
+		}
+
+		public void setSession(LspServerSessionProperties session) {
+			this.session = session;
+		}
+	}
+
+	public static class LspServerSessionProperties {
+
+		private Duration maxIdleTime = Duration.ofMinutes(30);
+		private Duration boundMaxIdleTime = Duration.ofSeconds(-1);
+		private Duration expirationCheckPeriod = Duration.ofSeconds(60);
+		private long maxDocumentsSize = 32 * 1024 * 1024;
+		private long maxTotalDocumentsSize = 256 * 1024 * 1024;
+
+		public Duration getMaxIdleTime() {
+			return maxIdleTime;
+		}
+
+		public void setMaxIdleTime(Duration maxIdleTime) {
+			this.maxIdleTime = maxIdleTime;
+		}
+
+		public Duration getBoundMaxIdleTime() {
+			return boundMaxIdleTime;
+		}
+
+		public void setBoundMaxIdleTime(Duration boundMaxIdleTime) {
+			this.boundMaxIdleTime = boundMaxIdleTime;
+		}
+
+		public Duration getExpirationCheckPeriod() {
+			return expirationCheckPeriod;
+		}
+
+		public void setExpirationCheckPeriod(Duration expirationCheckPeriod) {
+			this.expirationCheckPeriod = expirationCheckPeriod;
+		}
+
+		public long getMaxDocumentsSize() {
+			return maxDocumentsSize;
+		}
+
+		public void setMaxDocumentsSize(long maxDocumentsSize) {
+			this.maxDocumentsSize = maxDocumentsSize;
+		}
+
+		public long getMaxTotalDocumentsSize() {
+			return maxTotalDocumentsSize;
+		}
+
+		public void setMaxTotalDocumentsSize(long maxTotalDocumentsSize) {
+			this.maxTotalDocumentsSize = maxTotalDocumentsSize;
+		}
+	}
+
+	public static class LspServerTransportProperties {
+
+		private LspServerTransportType type = LspServerTransportType.AUTO;
+		private int selectThreads;
+		private int workerThreads;
+		private boolean tcpNoDelay = true;
+		private Integer receiveBufferSize;
+		private Integer sendBufferSize;
+		private Integer writeBufferLowWaterMark;
+		private Integer writeBufferHighWaterMark;
+
+		public LspServerTransportType getType() {
+			return type;
+		}
+
+		public void setType(LspServerTransportType type) {
+			this.type = type;
+		}
+
+		public int getSelectThreads() {
+			return selectThreads;
+		}
+
+		public void setSelectThreads(int selectThreads) {
+			this.selectThreads = selectThreads;
+		}
+
+		public int getWorkerThreads() {
+			return workerThreads;
+		}
+
+		public void setWorkerThreads(int workerThreads) {
+			this.workerThreads = workerThreads;
+		}
+
+		public boolean isTcpNoDelay() {
+			return tcpNoDelay;
+		}
+
+		public void setTcpNoDelay(boolean tcpNoDelay) {
+			this.tcpNoDelay = tcpNoDelay;
+		}
+
+		public Integer getReceiveBufferSize() {
+			return receiveBufferSize;
+		}
+
+		public void setReceiveBufferSize(Integer receiveBufferSize) {
+			this.receiveBufferSize = receiveBufferSize;
+		}
+
+		public Integer getSendBufferSize() {
+			return sendBufferSize;
+		}
+
+		public void setSendBufferSize(Integer sendBufferSize) {
+			this.sendBufferSize = sendBufferSize;
+		}
+
+		public Integer getWriteBufferLowWaterMark() {
+			return writeBufferLowWaterMark;
+		}
+
+		public void setWriteBufferLowWaterMark(Integer writeBufferLowWaterMark) {
+			this.writeBufferLowWaterMark = writeBufferLowWaterMark;
+		}
+
+		public Integer getWriteBufferHighWaterMark() {
+			return writeBufferHighWaterMark;
+		}
+
+		public void setWriteBufferHighWaterMark(Integer writeBufferHighWaterMark) {
+			this.writeBufferHighWaterMark = writeBufferHighWaterMark;
+		}
 	}
 
 	public static class LspClientProperties {
@@ -127,6 +355,13 @@ public class DslConfigurationProperties {
 	public enum LspServerSocketMode {
 		PROCESS,
 		SOCKET,
+		DOMAINSOCKET,
 		WEBSOCKET;
 	}
+
+	public enum LspServerTransportType {
+		AUTO,
+		NIO,
+		EPOLL;
+	}
 }
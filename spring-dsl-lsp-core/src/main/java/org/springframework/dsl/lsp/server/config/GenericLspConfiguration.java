@@ -25,7 +25,10 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
 import org.springframework.dsl.jsonrpc.JsonRpcSystemConstants;
 import org.springframework.dsl.jsonrpc.config.JsonRpcJacksonConfiguration;
+import org.springframework.dsl.jsonrpc.session.DefaultJsonRpcSessionManager;
+import org.springframework.dsl.jsonrpc.session.InMemoryJsonRpcSessionStore;
 import org.springframework.dsl.jsonrpc.support.DispatcherJsonRpcHandler;
+import org.springframework.dsl.lsp.server.jsonrpc.DocumentOrderedExecutor;
 import org.springframework.dsl.lsp.server.jsonrpc.LspClientArgumentResolver;
 import org.springframework.dsl.lsp.server.jsonrpc.LspDomainArgumentResolver;
 import org.springframework.dsl.lsp.server.jsonrpc.ReactorJsonRpcHandlerAdapter;
@@ -36,6 +39,8 @@ import org.springframework.dsl.service.reconcile.Reconciler;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import reactor.core.scheduler.Schedulers;
+
 /**
  * Generic configurations among {@code LSP} features.
  *
@@ -52,8 +57,9 @@ public class GenericLspConfiguration {
 	}
 
 	@Bean
-	public LspDomainArgumentResolver lspDomainArgumentResolver() {
-		return new LspDomainArgumentResolver();
+	public LspDomainArgumentResolver lspDomainArgumentResolver(
+			@Qualifier(JsonRpcSystemConstants.JSONRPC_OBJECT_MAPPER_BEAN_NAME) ObjectMapper objectMapper) {
+		return new LspDomainArgumentResolver(objectMapper);
 	}
 
 	@Bean
@@ -61,14 +67,52 @@ public class GenericLspConfiguration {
 		return new LspClientArgumentResolver();
 	}
 
+	@Bean(destroyMethod = "dispose")
+	public InMemoryJsonRpcSessionStore jsonRpcSessionStore(Optional<DslConfigurationProperties> properties) {
+		InMemoryJsonRpcSessionStore sessionStore = new InMemoryJsonRpcSessionStore();
+		properties.ifPresent(p -> {
+			sessionStore.setMaxIdleTime(p.getLsp().getServer().getSession().getMaxIdleTime());
+			sessionStore.setExpirationCheckPeriod(p.getLsp().getServer().getSession().getExpirationCheckPeriod());
+		});
+		return sessionStore;
+	}
+
 	@Bean
-	public RpcJsonRpcHandlerAdapter rpcJsonRpcHandlerAdapter(DispatcherJsonRpcHandler dispatcherJsonRpcHandler) {
-		return new RpcJsonRpcHandlerAdapter(dispatcherJsonRpcHandler);
+	public RpcJsonRpcHandlerAdapter rpcJsonRpcHandlerAdapter(DispatcherJsonRpcHandler dispatcherJsonRpcHandler,
+			InMemoryJsonRpcSessionStore jsonRpcSessionStore, Optional<DslConfigurationProperties> properties) {
+		RpcJsonRpcHandlerAdapter adapter = new RpcJsonRpcHandlerAdapter(dispatcherJsonRpcHandler);
+		DefaultJsonRpcSessionManager sessionManager = new DefaultJsonRpcSessionManager();
+		sessionManager.setSessionStore(jsonRpcSessionStore);
+		properties.ifPresent(p -> sessionManager
+				.setBoundSessionMaxIdleTime(p.getLsp().getServer().getSession().getBoundMaxIdleTime()));
+		adapter.setSessionManager(sessionManager);
+		return adapter;
+	}
+
+	@Bean(destroyMethod = "dispose")
+	public DocumentOrderedExecutor documentOrderedExecutor(Optional<DslConfigurationProperties> properties) {
+		int threads = properties.map(p -> p.getLsp().getServer().getHandlerThreads())
+				.orElse(Runtime.getRuntime().availableProcessors());
+		// zero threads keeps handling on netty's event loop
+		if (threads < 1) {
+			return new DocumentOrderedExecutor(Schedulers.immediate());
+		}
+		return new DocumentOrderedExecutor(Schedulers.newParallel("lsp-handler", threads, true));
 	}
 
 	@Bean
 	public ReactorJsonRpcHandlerAdapter reactorJsonRpcHandlerAdapter(RpcJsonRpcHandlerAdapter rpcJsonRpcHandlerAdapter,
-			@Qualifier(JsonRpcSystemConstants.JSONRPC_OBJECT_MAPPER_BEAN_NAME) ObjectMapper objectMapper) {
-		return new ReactorJsonRpcHandlerAdapter(rpcJsonRpcHandlerAdapter, objectMapper);
+			@Qualifier(JsonRpcSystemConstants.JSONRPC_OBJECT_MAPPER_BEAN_NAME) ObjectMapper objectMapper,
+			DocumentOrderedExecutor documentOrderedExecutor, Optional<DslConfigurationProperties> properties) {
+		ReactorJsonRpcHandlerAdapter adapter = new ReactorJsonRpcHandlerAdapter(rpcJsonRpcHandlerAdapter, objectMapper);
+		adapter.setDocumentOrderedExecutor(documentOrderedExecutor);
+		properties.ifPresent(p -> {
+			adapter.setDefaultRequestTimeout(p.getLsp().getServer().getRequestTimeout());
+			adapter.setRequestTimeouts(p.getLsp().getServer().getRequestTimeouts());
+			adapter.setClientRequestTimeout(p.getLsp().getServer().getClientRequestTimeout());
+			adapter.setInboundQueueSize(p.getLsp().getServer().getInboundQueueSize());
+			adapter.setMaxConcurrentRequests(p.getLsp().getServer().getMaxConcurrentRequests());
+		});
+		return adapter;
 	}
 }
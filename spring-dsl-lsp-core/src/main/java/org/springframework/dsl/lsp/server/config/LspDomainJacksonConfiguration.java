@@ -21,9 +21,11 @@ import org.springframework.dsl.domain.DiagnosticSeverity;
 import org.springframework.dsl.domain.MarkupKind;
 import org.springframework.dsl.domain.MessageType;
 import org.springframework.dsl.domain.ServerCapabilities;
+import org.springframework.dsl.jsonrpc.JsonRpcMessage;
 import org.springframework.dsl.jsonrpc.JsonRpcRequest;
 import org.springframework.dsl.jsonrpc.JsonRpcResponse;
 import org.springframework.dsl.jsonrpc.jackson.JsonRpcJackson2ObjectMapperBuilderCustomizer;
+import org.springframework.dsl.jsonrpc.support.JsonRpcMessageJsonDeserializer;
 import org.springframework.dsl.jsonrpc.support.JsonRpcRequestJsonDeserializer;
 import org.springframework.dsl.jsonrpc.support.JsonRpcResponseJsonDeserializer;
 import org.springframework.dsl.lsp.server.domain.DiagnosticSeverityDeserializer;
@@ -50,6 +52,7 @@ public class LspDomainJacksonConfiguration {
 	public static JsonRpcJackson2ObjectMapperBuilderCustomizer DEFAULT_CUSTOMIZERS = builder -> {
 		builder.deserializerByType(JsonRpcRequest.class, new JsonRpcRequestJsonDeserializer());
 		builder.deserializerByType(JsonRpcResponse.class, new JsonRpcResponseJsonDeserializer());
+		builder.deserializerByType(JsonRpcMessage.class, new JsonRpcMessageJsonDeserializer());
 		builder.serializerByType(ServerCapabilities.class, new ServerCapabilitiesJsonSerializer());
 		builder.deserializerByType(ServerCapabilities.class, new ServerCapabilitiesJsonDeserializer());
 		builder.serializerByType(DiagnosticSeverity.class, new DiagnosticSeveritySerializer());
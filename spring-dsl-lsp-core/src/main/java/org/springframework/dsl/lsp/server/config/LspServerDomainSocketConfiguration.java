@@ -0,0 +1,42 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.lsp.server.config;
+
+import java.io.File;
+import java.util.Optional;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dsl.lsp.server.jsonrpc.NettyDomainSocketServer;
+import org.springframework.dsl.lsp.server.jsonrpc.ReactorJsonRpcHandlerAdapter;
+
+/**
+ * Generic {@code LSP} configuration for a unix domain socket integration.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+@Configuration
+public class LspServerDomainSocketConfiguration {
+
+	@Bean(initMethod = "start", destroyMethod = "stop")
+	public NettyDomainSocketServer nettyDomainSocketServer(ReactorJsonRpcHandlerAdapter handlerAdapter,
+			Optional<DslConfigurationProperties> properties) {
+		String path = properties.map(p -> p.getLsp().getServer().getPath())
+				.orElse(new File(System.getProperty("java.io.tmpdir"), "spring-dsl-lsp.sock").getAbsolutePath());
+		return new NettyDomainSocketServer(path, handlerAdapter, null);
+	}
+}
@@ -15,12 +15,21 @@
  */
 package org.springframework.dsl.lsp.server.config;
 
+import java.util.Optional;
+
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.dsl.lsp.server.config.DslConfigurationProperties.LspServerTransportProperties;
+import org.springframework.dsl.lsp.server.config.DslConfigurationProperties.LspServerTransportType;
 import org.springframework.dsl.lsp.server.jsonrpc.NettyTcpServer;
 import org.springframework.dsl.lsp.server.jsonrpc.ReactorJsonRpcHandlerAdapter;
 
+import io.netty.channel.ChannelOption;
+import io.netty.channel.WriteBufferWaterMark;
+import io.netty.channel.epoll.Epoll;
+import reactor.ipc.netty.options.ServerOptions;
+import reactor.ipc.netty.resources.LoopResources;
 import reactor.ipc.netty.tcp.TcpServer;
 
 /**
@@ -35,10 +44,57 @@ public class LspServerSocketConfiguration {
 	@Value("${server.port:0}")
 	private Integer serverPort;
 
+	@Bean(destroyMethod = "dispose")
+	public LoopResources lspServerLoopResources(Optional<DslConfigurationProperties> properties) {
+		LspServerTransportProperties transport = transportProperties(properties);
+		int workerThreads = transport.getWorkerThreads() > 0 ? transport.getWorkerThreads()
+				: LoopResources.DEFAULT_IO_WORKER_COUNT;
+		// without dedicated select threads accepts are colocated on workers
+		if (transport.getSelectThreads() > 0) {
+			return LoopResources.create("lsp-tcp", transport.getSelectThreads(), workerThreads, true);
+		}
+		return LoopResources.create("lsp-tcp", workerThreads, true);
+	}
+
 	@Bean(initMethod = "start", destroyMethod = "stop")
-	public NettyTcpServer nettyTcpServer(ReactorJsonRpcHandlerAdapter handlerAdapter) {
-		TcpServer tcpServer = TcpServer.create(serverPort);
+	public NettyTcpServer nettyTcpServer(ReactorJsonRpcHandlerAdapter handlerAdapter, LoopResources lspServerLoopResources,
+			Optional<DslConfigurationProperties> properties) {
+		LspServerTransportProperties transport = transportProperties(properties);
+		TcpServer tcpServer = TcpServer.create(options -> {
+			options.port(serverPort);
+			options.loopResources(lspServerLoopResources);
+			configureTransport(options, transport);
+		});
 		NettyTcpServer nettyTcpServer = new NettyTcpServer(tcpServer, handlerAdapter, null);
 		return nettyTcpServer;
 	}
+
+	private static LspServerTransportProperties transportProperties(Optional<DslConfigurationProperties> properties) {
+		return properties.map(p -> p.getLsp().getServer().getTransport()).orElseGet(LspServerTransportProperties::new);
+	}
+
+	private static void configureTransport(ServerOptions.Builder<?> options, LspServerTransportProperties transport) {
+		LspServerTransportType type = transport.getType();
+		if (type == LspServerTransportType.EPOLL && !Epoll.isAvailable()) {
+			throw new IllegalStateException("Native epoll transport requested but not available",
+					Epoll.unavailabilityCause());
+		}
+		// auto uses epoll when netty finds it from a classpath
+		options.preferNative(type != LspServerTransportType.NIO);
+		options.option(ChannelOption.TCP_NODELAY, transport.isTcpNoDelay());
+		if (transport.getReceiveBufferSize() != null) {
+			options.option(ChannelOption.SO_RCVBUF, transport.getReceiveBufferSize());
+		}
+		if (transport.getSendBufferSize() != null) {
+			options.option(ChannelOption.SO_SNDBUF, transport.getSendBufferSize());
+		}
+		if (transport.getWriteBufferLowWaterMark() != null || transport.getWriteBufferHighWaterMark() != null) {
+			WriteBufferWaterMark defaults = WriteBufferWaterMark.DEFAULT;
+			int low = transport.getWriteBufferLowWaterMark() != null ? transport.getWriteBufferLowWaterMark()
+					: defaults.low();
+			int high = transport.getWriteBufferHighWaterMark() != null ? transport.getWriteBufferHighWaterMark()
+					: defaults.high();
+			options.option(ChannelOption.WRITE_BUFFER_WATER_MARK, new WriteBufferWaterMark(low, high));
+		}
+	}
 }
@@ -17,11 +17,8 @@ package org.springframework.dsl.lsp.server.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.dsl.lsp.server.jsonrpc.NettyTcpServer;
+import org.springframework.dsl.lsp.server.jsonrpc.NettyStdioServer;
 import org.springframework.dsl.lsp.server.jsonrpc.ReactorJsonRpcHandlerAdapter;
-import org.springframework.dsl.lsp.server.support.StdioSocketBridge;
-
-import reactor.ipc.netty.tcp.TcpServer;
 
 /**
  * Generic {@code LSP} configuration for a stdio integration.
@@ -33,15 +30,7 @@ import reactor.ipc.netty.tcp.TcpServer;
 public class LspServerStdioConfiguration {
 
 	@Bean(initMethod = "start", destroyMethod = "stop")
-	public NettyTcpServer nettyTcpServer(ReactorJsonRpcHandlerAdapter handlerAdapter) {
-		TcpServer tcpServer = TcpServer.create();
-		NettyTcpServer nettyTcpServer = new NettyTcpServer(tcpServer, handlerAdapter, null);
-		return nettyTcpServer;
+	public NettyStdioServer nettyStdioServer(ReactorJsonRpcHandlerAdapter handlerAdapter) {
+		return new NettyStdioServer(handlerAdapter);
 	}
-
-	@Bean(initMethod = "start", destroyMethod = "stop")
-	public StdioSocketBridge stdioSocketBridge(NettyTcpServer nettyTcpServer) {
-		return new StdioSocketBridge(nettyTcpServer);
-	}
-
 }
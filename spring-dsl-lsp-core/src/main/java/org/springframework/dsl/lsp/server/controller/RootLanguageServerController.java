@@ -33,10 +33,13 @@ import org.springframework.dsl.lsp.LspVersionDetector.LspVersion;
 import org.springframework.dsl.lsp.server.config.DslConfigurationProperties;
 import org.springframework.dsl.lsp.server.jsonrpc.LspSessionState;
 import org.springframework.dsl.lsp.server.support.LspExiter;
+import org.springframework.dsl.lsp.server.config.DslConfigurationProperties.LspServerSessionProperties;
 import org.springframework.dsl.service.DefaultDocumentStateTracker;
+import org.springframework.dsl.service.DocumentSizeBudget;
 import org.springframework.dsl.service.DslServiceRegistry;
 import org.springframework.util.Assert;
 
+import reactor.core.Disposable;
 import reactor.core.publisher.Mono;
 
 /**
@@ -53,6 +56,7 @@ public class RootLanguageServerController {
 	private final DslServiceRegistry registry;
 	private LspExiter lspExiter = LspExiter.NOOP_LSPEXITER;
 	private DslConfigurationProperties properties;
+	private final DocumentSizeBudget documentSizeBudget;
 
 	/**
 	 * Instantiate a base language server controller.
@@ -63,6 +67,9 @@ public class RootLanguageServerController {
 	public RootLanguageServerController(DslServiceRegistry dslServiceRegistry, DslConfigurationProperties properties) {
 		this.registry = dslServiceRegistry;
 		this.properties = properties;
+		// documents tracked by all sessions share a same budget
+		this.documentSizeBudget = new DocumentSizeBudget(
+				properties.getLsp().getServer().getSession().getMaxTotalDocumentsSize());
 	}
 
 	/**
@@ -106,8 +113,13 @@ public class RootLanguageServerController {
 		}).doOnSuccess(result -> {
 			// TODO: just a conceptual tweak now to see how session is used
 			session.getAttributes().put(LspSystemConstants.SESSION_ATTRIBUTE_LSP_SESSION_STATE, LspSessionState.CREATED);
-			session.getAttributes().put(LspSystemConstants.SESSION_ATTRIBUTE_DOCUMENT_STATE_TRACKER,
-					new DefaultDocumentStateTracker());
+			LspServerSessionProperties sessionProperties = properties.getLsp().getServer().getSession();
+			Object previousTracker = session.getAttributes().put(LspSystemConstants.SESSION_ATTRIBUTE_DOCUMENT_STATE_TRACKER,
+					new DefaultDocumentStateTracker(sessionProperties.getMaxDocumentsSize(), documentSizeBudget));
+			if (previousTracker instanceof Disposable) {
+				// release documents from a budget if client initializes again
+				((Disposable) previousTracker).dispose();
+			}
 			session.getAttributes().put(LspSystemConstants.SESSION_ATTRIBUTE_LSP_VERSION, lspVersion);
 		});
 	}
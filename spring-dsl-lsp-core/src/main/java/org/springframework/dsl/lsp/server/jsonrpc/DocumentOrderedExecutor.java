@@ -0,0 +1,213 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.lsp.server.jsonrpc;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * Executor running handling of requests on a shared {@link Scheduler} while
+ * keeping them in order per connection. Messages for a same document are
+ * queued and only one of those is running at a time, messages for different
+ * documents run concurrently. Messages not about a document, like
+ * {@code initialize}, {@code shutdown} or {@code workspace} requests, are
+ * serialized with everything else within a connection, they start after all
+ * previously received messages have completed and messages received after
+ * those wait until they complete. This makes it possible to move slow work
+ * like linting and completion away from netty's event loop without breaking
+ * lsp lifecycle or the order in which document changes are applied.
+ * <p>
+ * Handling is not complete until its {@link Mono} terminates, thus handling
+ * which continues asynchronously still completes before a next one in order
+ * is subscribed.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class DocumentOrderedExecutor implements Disposable {
+
+	private final Scheduler scheduler;
+	private final Map<String, Connection> connections = new ConcurrentHashMap<>();
+
+	/**
+	 * Instantiates a new document ordered executor.
+	 *
+	 * @param scheduler the scheduler running the tasks
+	 */
+	public DocumentOrderedExecutor(Scheduler scheduler) {
+		Assert.notNull(scheduler, "Scheduler must be set");
+		this.scheduler = scheduler;
+	}
+
+	/**
+	 * Wraps a given {@link Mono} so that it's subscribed in order within a
+	 * connection, and a next one it's ordered with is not started until this
+	 * {@code Mono} terminates or is cancelled. Without a document uri a
+	 * {@code Mono} is ordered with all other messages of a connection. If
+	 * executor is not able to run a {@code Mono}, it fails with an error.
+	 *
+	 * @param <T> the type of a mono
+	 * @param connectionId the connection id
+	 * @param uri the document uri
+	 * @param mono the mono to order
+	 * @return the mono ordered for a connection and document
+	 */
+	public <T> Mono<T> ordered(String connectionId, @Nullable String uri, Mono<T> mono) {
+		Assert.notNull(connectionId, "Connection id must be set");
+		Assert.notNull(mono, "Mono must be set");
+		return Mono.create(sink -> {
+			Disposable.Swap subscription = Disposables.swap();
+			sink.onCancel(subscription);
+			submit(connectionId, new Task(uri, done -> {
+				// cancelled before it got its turn, only release its place
+				if (subscription.isDisposed()) {
+					done.run();
+					return;
+				}
+				try {
+					subscription.update(mono
+						.doFinally(signal -> done.run())
+						.subscribe(sink::success, sink::error, () -> sink.success()));
+				} catch (RuntimeException e) {
+					done.run();
+					sink.error(e);
+				}
+			}, sink::error));
+		});
+	}
+
+	@Override
+	public void dispose() {
+		scheduler.dispose();
+	}
+
+	@Override
+	public boolean isDisposed() {
+		return scheduler.isDisposed();
+	}
+
+	private void submit(String connectionId, Task task) {
+		List<Task> startable = new ArrayList<>();
+		connections.compute(connectionId, (key, connection) -> {
+			if (connection == null) {
+				connection = new Connection();
+			}
+			connection.pending.add(task);
+			connection.poll(startable);
+			return connection;
+		});
+		start(connectionId, startable);
+	}
+
+	private void complete(String connectionId, Task task) {
+		List<Task> startable = new ArrayList<>();
+		connections.computeIfPresent(connectionId, (key, connection) -> {
+			connection.running.remove(task);
+			connection.poll(startable);
+			return connection.isEmpty() ? null : connection;
+		});
+		start(connectionId, startable);
+	}
+
+	private void start(String connectionId, List<Task> tasks) {
+		for (Task task : tasks) {
+			// task is given a callback to call when it completes, which then
+			// starts next tasks having their turn
+			AtomicBoolean completed = new AtomicBoolean();
+			Runnable done = () -> {
+				if (completed.compareAndSet(false, true)) {
+					complete(connectionId, task);
+				}
+			};
+			try {
+				scheduler.schedule(() -> task.action.accept(done));
+			} catch (RuntimeException e) {
+				// scheduler rejected a task, fail it so that it's not left
+				// hanging and let next ones fail the same way
+				task.rejected.accept(e);
+				done.run();
+			}
+		}
+	}
+
+	private static class Task {
+
+		private final String uri;
+		private final Consumer<Runnable> action;
+		private final Consumer<Throwable> rejected;
+
+		Task(String uri, Consumer<Runnable> action, Consumer<Throwable> rejected) {
+			this.uri = uri;
+			this.action = action;
+			this.rejected = rejected;
+		}
+	}
+
+	private static class Connection {
+
+		private final List<Task> pending = new LinkedList<>();
+		private final List<Task> running = new ArrayList<>();
+
+		void poll(List<Task> startable) {
+			Set<String> blocked = new HashSet<>();
+			for (Task task : running) {
+				if (task.uri == null) {
+					return;
+				}
+				blocked.add(task.uri);
+			}
+			Iterator<Task> iterator = pending.iterator();
+			while (iterator.hasNext()) {
+				Task task = iterator.next();
+				if (task.uri == null) {
+					// waits for everything before it and holds everything
+					// after it
+					if (running.isEmpty()) {
+						iterator.remove();
+						running.add(task);
+						startable.add(task);
+					}
+					return;
+				}
+				if (blocked.add(task.uri)) {
+					iterator.remove();
+					running.add(task);
+					startable.add(task);
+				}
+			}
+		}
+
+		boolean isEmpty() {
+			return pending.isEmpty() && running.isEmpty();
+		}
+	}
+}
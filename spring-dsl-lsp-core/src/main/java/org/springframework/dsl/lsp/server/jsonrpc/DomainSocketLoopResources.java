@@ -0,0 +1,115 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.lsp.server.jsonrpc;
+
+import org.springframework.util.Assert;
+
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollDomainSocketChannel;
+import io.netty.channel.epoll.EpollServerDomainSocketChannel;
+import reactor.core.publisher.Mono;
+import reactor.ipc.netty.resources.LoopResources;
+
+/**
+ * {@link LoopResources} always using native epoll loops from a delegating
+ * {@link LoopResources} and resolving channel types to unix domain socket
+ * channels instead of tcp channels which {@code reactor-netty} would use.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class DomainSocketLoopResources implements LoopResources {
+
+	private final LoopResources delegate;
+
+	/**
+	 * Instantiates a new domain socket loop resources.
+	 *
+	 * @param delegate the delegating loop resources
+	 */
+	public DomainSocketLoopResources(LoopResources delegate) {
+		Assert.notNull(delegate, "LoopResources must be set");
+		this.delegate = delegate;
+	}
+
+	/**
+	 * Create domain socket loop resources with a given thread prefix.
+	 *
+	 * @param prefix the thread prefix
+	 * @return the domain socket loop resources
+	 * @throws IllegalStateException if native epoll is not available
+	 */
+	public static DomainSocketLoopResources create(String prefix) {
+		if (!Epoll.isAvailable()) {
+			throw new IllegalStateException("Unix domain sockets need native epoll which is not available",
+					Epoll.unavailabilityCause());
+		}
+		return new DomainSocketLoopResources(LoopResources.create(prefix, 1, true));
+	}
+
+	@Override
+	public EventLoopGroup onServer(boolean useNative) {
+		return delegate.onServer(true);
+	}
+
+	@Override
+	public EventLoopGroup onServerSelect(boolean useNative) {
+		return delegate.onServerSelect(true);
+	}
+
+	@Override
+	public EventLoopGroup onClient(boolean useNative) {
+		return delegate.onClient(true);
+	}
+
+	@Override
+	public Class<? extends ServerChannel> onServerChannel(EventLoopGroup group) {
+		return EpollServerDomainSocketChannel.class;
+	}
+
+	@Override
+	public Class<? extends Channel> onChannel(EventLoopGroup group) {
+		return EpollDomainSocketChannel.class;
+	}
+
+	@Override
+	public boolean preferNative() {
+		return true;
+	}
+
+	@Override
+	public boolean daemon() {
+		return delegate.daemon();
+	}
+
+	@Override
+	public void dispose() {
+		delegate.dispose();
+	}
+
+	@Override
+	public boolean isDisposed() {
+		return delegate.isDisposed();
+	}
+
+	@Override
+	public Mono<Void> disposeLater() {
+		return delegate.disposeLater();
+	}
+}
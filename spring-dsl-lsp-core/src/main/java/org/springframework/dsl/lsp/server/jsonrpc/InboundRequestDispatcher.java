@@ -0,0 +1,273 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.lsp.server.jsonrpc;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.reactivestreams.Subscription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dsl.DslException;
+import org.springframework.dsl.domain.DidChangeTextDocumentParams;
+import org.springframework.dsl.domain.TextDocumentContentChangeEvent;
+import org.springframework.dsl.jsonrpc.JsonRpcMessage;
+import org.springframework.dsl.jsonrpc.JsonRpcRequest;
+import org.springframework.dsl.jsonrpc.JsonRpcResponse;
+import org.springframework.dsl.jsonrpc.support.DefaultJsonRpcRequest;
+import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Mono;
+
+/**
+ * Bounded per-connection stage between received messages and handling of
+ * requests. At most {@code maxPending} requests are waiting in a queue and at
+ * most {@code maxConcurrent} are handled at the same time. When requests are
+ * backing up, consecutive {@code textDocument/didChange} notifications for a
+ * same document are merged into one so that a burst of changes results only
+ * one reconcile pass.
+ * <p>
+ * Responses to server initiated requests are passed to a response handler as
+ * soon as those are received and never count against the bounds, handlers
+ * waiting for a client response would otherwise block a stage which is needed
+ * to receive it.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class InboundRequestDispatcher extends BaseSubscriber<JsonRpcMessage> {
+
+	private static final Logger log = LoggerFactory.getLogger(InboundRequestDispatcher.class);
+	public static final int DEFAULT_MAX_PENDING = 256;
+	public static final int DEFAULT_MAX_CONCURRENT = 32;
+	private static final String METHOD_DID_CHANGE = "textDocument/didChange";
+	private static final String METHOD_CANCEL_REQUEST = "$/cancelRequest";
+	private final Function<JsonRpcRequest, Mono<Void>> handler;
+	private final Consumer<JsonRpcResponse> responseHandler;
+	private final ObjectMapper objectMapper;
+	private final int maxPending;
+	private final int maxConcurrent;
+	private final Queue<JsonRpcRequest> queue = new ArrayDeque<>();
+	private final AtomicInteger wip = new AtomicInteger();
+	private int active;
+
+	/**
+	 * Instantiates a new inbound request dispatcher with default limits.
+	 *
+	 * @param handler the handler returning a handling of a request
+	 * @param objectMapper the object mapper
+	 */
+	public InboundRequestDispatcher(Function<JsonRpcRequest, Mono<Void>> handler, ObjectMapper objectMapper) {
+		this(handler, objectMapper, DEFAULT_MAX_PENDING, DEFAULT_MAX_CONCURRENT);
+	}
+
+	/**
+	 * Instantiates a new inbound request dispatcher.
+	 *
+	 * @param handler the handler returning a handling of a request
+	 * @param objectMapper the object mapper
+	 * @param maxPending the max number of requests waiting to be handled
+	 * @param maxConcurrent the max number of requests handled at the same time
+	 */
+	public InboundRequestDispatcher(Function<JsonRpcRequest, Mono<Void>> handler, ObjectMapper objectMapper,
+			int maxPending, int maxConcurrent) {
+		this(handler, response -> {}, objectMapper, maxPending, maxConcurrent);
+	}
+
+	/**
+	 * Instantiates a new inbound request dispatcher.
+	 *
+	 * @param handler the handler returning a handling of a request
+	 * @param responseHandler the handler for received responses
+	 * @param objectMapper the object mapper
+	 * @param maxPending the max number of requests waiting to be handled
+	 * @param maxConcurrent the max number of requests handled at the same time
+	 */
+	public InboundRequestDispatcher(Function<JsonRpcRequest, Mono<Void>> handler,
+			Consumer<JsonRpcResponse> responseHandler, ObjectMapper objectMapper, int maxPending, int maxConcurrent) {
+		Assert.notNull(handler, "Handler must be set");
+		Assert.notNull(responseHandler, "Response handler must be set");
+		Assert.notNull(objectMapper, "ObjectMapper must be set");
+		Assert.isTrue(maxPending > 0, "maxPending must be positive");
+		Assert.isTrue(maxConcurrent > 0, "maxConcurrent must be positive");
+		this.handler = handler;
+		this.responseHandler = responseHandler;
+		this.objectMapper = objectMapper;
+		this.maxPending = maxPending;
+		this.maxConcurrent = maxConcurrent;
+	}
+
+	@Override
+	protected void hookOnSubscribe(Subscription subscription) {
+		subscription.request(maxPending);
+	}
+
+	@Override
+	protected void hookOnNext(JsonRpcMessage message) {
+		// responses may be what handlers in progress are waiting for so
+		// those bypass the queue same as cancellations
+		if (message instanceof JsonRpcResponse) {
+			request(1);
+			try {
+				responseHandler.accept((JsonRpcResponse) message);
+			} catch (Exception e) {
+				log.error("Unable to handle response {}", message, e);
+			}
+			return;
+		}
+		JsonRpcRequest request = (JsonRpcRequest) message;
+		// cancellation needs to reach requests already in progress so it
+		// can't wait behind those
+		if (ObjectUtils.nullSafeEquals(METHOD_CANCEL_REQUEST, request.getMethod())) {
+			request(1);
+			handle(request, false);
+			return;
+		}
+		synchronized (this) {
+			queue.add(request);
+		}
+		drain();
+	}
+
+	@Override
+	protected void hookOnError(Throwable throwable) {
+		log.error("Receiving requests completed with error", throwable);
+	}
+
+	private void drain() {
+		if (wip.getAndIncrement() != 0) {
+			return;
+		}
+		int missed = 1;
+		for (;;) {
+			for (;;) {
+				JsonRpcRequest request;
+				int consumed = 1;
+				synchronized (this) {
+					if (active >= maxConcurrent || queue.isEmpty()) {
+						break;
+					}
+					request = queue.poll();
+					if (isMergeable(request, queue.peek())) {
+						int merged = queue.size();
+						request = coalesce(request);
+						consumed += merged - queue.size();
+					}
+					active++;
+				}
+				request(consumed);
+				handle(request, true);
+			}
+			missed = wip.addAndGet(-missed);
+			if (missed == 0) {
+				break;
+			}
+		}
+	}
+
+	private void handle(JsonRpcRequest request, boolean counted) {
+		Mono<Void> handling;
+		try {
+			handling = handler.apply(request);
+		} catch (Exception e) {
+			log.error("Unable to dispatch request {}", request, e);
+			handling = Mono.empty();
+		}
+		handling
+			.doFinally(signal -> {
+				if (counted) {
+					synchronized (this) {
+						active--;
+					}
+					drain();
+				}
+			})
+			.subscribe(null, e -> log.debug("Handling of request {} failed", request, e));
+	}
+
+	private boolean isMergeable(JsonRpcRequest request, JsonRpcRequest next) {
+		if (next == null || request.getId() != null || next.getId() != null
+				|| !METHOD_DID_CHANGE.equals(request.getMethod()) || !METHOD_DID_CHANGE.equals(next.getMethod())) {
+			return false;
+		}
+		String uri = ReactorJsonRpcHandlerAdapter.resolveDocumentUri(request);
+		return uri != null && uri.equals(ReactorJsonRpcHandlerAdapter.resolveDocumentUri(next));
+	}
+
+	/**
+	 * Merge {@code didChange} notifications for a same document from a head of
+	 * a queue into a given one. Changes are concatenated in order and latest
+	 * version is used. Merging stops on a version which is not newer than a
+	 * former one as document would ignore it anyway.
+	 */
+	private JsonRpcRequest coalesce(JsonRpcRequest request) {
+		DidChangeTextDocumentParams params = readParams(request);
+		int merged = 0;
+		while (params != null && isMergeable(request, queue.peek())) {
+			DidChangeTextDocumentParams next = readParams(queue.peek());
+			if (next == null) {
+				break;
+			}
+			Integer version = params.getTextDocument().getVersion();
+			Integer nextVersion = next.getTextDocument().getVersion();
+			if (version != null && (nextVersion == null || nextVersion <= version)) {
+				break;
+			}
+			List<TextDocumentContentChangeEvent> changes = params.getContentChanges();
+			for (TextDocumentContentChangeEvent change : next.getContentChanges()) {
+				// full content replaces everything before it
+				if (change.getRange() == null) {
+					changes.clear();
+				}
+				changes.add(change);
+			}
+			params.setTextDocument(next.getTextDocument());
+			queue.poll();
+			merged++;
+		}
+		if (merged == 0) {
+			return request;
+		}
+		log.debug("Merged {} didChange notifications for {}", merged + 1, params.getTextDocument().getUri());
+		TokenBuffer buffer = new TokenBuffer(objectMapper, false);
+		try {
+			objectMapper.writeValue(buffer, params);
+		} catch (IOException e) {
+			throw new DslException("Unable to write merged didChange params", e);
+		}
+		return new DefaultJsonRpcRequest(request.getJsonrpc(), null, request.getMethod(), buffer);
+	}
+
+	private DidChangeTextDocumentParams readParams(JsonRpcRequest request) {
+		try {
+			return objectMapper.readValue(((TokenBuffer) request.getParams()).asParser(),
+					DidChangeTextDocumentParams.class);
+		} catch (IOException e) {
+			log.debug("Unable to read didChange params", e);
+			return null;
+		}
+	}
+}
@@ -15,10 +15,11 @@
  */
 package org.springframework.dsl.lsp.server.jsonrpc;
 
-import java.io.IOException;
 import java.nio.charset.Charset;
 import java.util.Arrays;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import org.springframework.core.GenericTypeResolver;
@@ -39,6 +40,7 @@ import org.springframework.dsl.domain.RenameParams;
 import org.springframework.dsl.domain.TextDocumentPositionParams;
 import org.springframework.dsl.jsonrpc.ServerJsonRpcExchange;
 import org.springframework.dsl.jsonrpc.result.method.JsonRpcHandlerMethodArgumentResolver;
+import org.springframework.dsl.jsonrpc.support.JsonRpcParamsUtils;
 import org.springframework.util.Assert;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
@@ -75,10 +77,24 @@ public class LspDomainArgumentResolver implements JsonRpcHandlerMethodArgumentRe
 			RenameParams.class
 			).stream().collect(Collectors.toSet());
 
+	private final Map<MethodParameter, ObjectReader> readerCache = new ConcurrentHashMap<>(64);
+	private final ObjectMapper objectMapper;
+
 	/**
 	 * Instantiates a new lsp domain argument resolver.
 	 */
 	public LspDomainArgumentResolver() {
+		this(new ObjectMapper());
+	}
+
+	/**
+	 * Instantiates a new lsp domain argument resolver.
+	 *
+	 * @param objectMapper the object mapper used to build readers
+	 */
+	public LspDomainArgumentResolver(ObjectMapper objectMapper) {
+		Assert.notNull(objectMapper, "ObjectMapper must be set");
+		this.objectMapper = objectMapper;
 	}
 
 	@Override
@@ -89,34 +105,17 @@ public class LspDomainArgumentResolver implements JsonRpcHandlerMethodArgumentRe
 
 	@Override
 	public Mono<Object> resolveArgument(MethodParameter parameter, ServerJsonRpcExchange exchange) {
-		Class<?> type = parameter.getParameterType();
-		Class<?> contextClass = (parameter != null ? parameter.getContainingClass() : null);
-
-//		Flux<DataBuffer> body = exchange.getRequest().getBody();
-//		Mono<String> bodyAsString = getBodyAsString(body);
-
-		Mono<String> bodyAsString = exchange.getRequest().getParams();
-
-		ObjectMapper objectMapper = new ObjectMapper();
-		objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-//		ObjectWriter writer = objectMapper.writer();
-//		ObjectReader reader = objectMapper.reader();
-		TypeFactory typeFactory = objectMapper.getTypeFactory();
-		JavaType javaType = typeFactory.constructType(GenericTypeResolver.resolveType(type, contextClass));
-		ObjectReader forType = objectMapper.readerFor(javaType);
-		try {
-			return Mono.just(forType.readValue(bodyAsString.block().toString()));
-		} catch (IOException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
-			return Mono.error(e);
-		}
-//		return Mono.just(BeanUtils.instantiateClass(type));
-//		Object body = null;
-//		if (exchange.getRequest() != null) {
-//		}
-//		Class<?> clazz = parameter.getParameterType();
-//		return Mono.just(conversionService.convert(body, clazz));
+		return JsonRpcParamsUtils.readParams(getObjectReader(parameter), exchange.getRequest());
+	}
+
+	private ObjectReader getObjectReader(MethodParameter parameter) {
+		return this.readerCache.computeIfAbsent(parameter, p -> {
+			Class<?> type = p.getParameterType();
+			Class<?> contextClass = p.getContainingClass();
+			TypeFactory typeFactory = this.objectMapper.getTypeFactory();
+			JavaType javaType = typeFactory.constructType(GenericTypeResolver.resolveType(type, contextClass));
+			return this.objectMapper.readerFor(javaType).without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+		});
 	}
 
 	public Mono<String> getBodyAsString(Flux<DataBuffer> body) {
@@ -15,153 +15,128 @@
  */
 package org.springframework.dsl.lsp.server.jsonrpc;
 
-import static io.netty.buffer.ByteBufUtil.readBytes;
-
-import java.nio.charset.Charset;
-import java.util.HashMap;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
-import java.util.Map;
-
-import org.springframework.dsl.lsp.server.jsonrpc.LspJsonRpcDecoder.State;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
-import io.netty.handler.codec.ReplayingDecoder;
+import io.netty.handler.codec.ByteToMessageDecoder;
+import io.netty.handler.codec.CorruptedFrameException;
 import io.netty.handler.codec.TooLongFrameException;
-import io.netty.util.internal.AppendableCharSequence;
 
-public class LspJsonRpcDecoder extends ReplayingDecoder<State> {
+/**
+ * Decoder splitting a stream of {@code LSP} base protocol messages into frames.
+ * Headers are parsed incrementally as bytes arrive and a message body is
+ * emitted as a retained {@link ByteBuf} slice of the cumulated input without
+ * copying it. Body is always expected to be {@code UTF-8} encoded json which
+ * can be passed as is to a json parser. Downstream consumer is responsible for
+ * releasing emitted buffers.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class LspJsonRpcDecoder extends ByteToMessageDecoder {
 
 	private static final byte CR = 13;
 	private static final byte LF = 10;
 	private static final byte COLON = 58;
 	private static final String CONTENT_LENGTH = "Content-Length";
+	private static final int DEFAULT_MAX_LINE_LENGTH = 128;
 
 	private final int maxLineLength;
-//	private final int maxChunkSize;
-	private long contentLength = -1;
-	private String lastContent;
-	private int alreadyReadChunkSize;
+	private State state = State.READ_HEADERS;
+	private int contentLength = -1;
 
-	enum State {
-		READ_HEADERS, READ_CONTENT, FINALIZE_FRAME_READ;
+	private enum State {
+		READ_HEADERS, READ_CONTENT;
 	}
 
+	/**
+	 * Instantiates a new lsp json rpc decoder.
+	 */
 	public LspJsonRpcDecoder() {
-		super(State.READ_HEADERS);
-		this.maxLineLength = 128;
-//		this.maxChunkSize = 1024;
+		this(DEFAULT_MAX_LINE_LENGTH);
+	}
+
+	/**
+	 * Instantiates a new lsp json rpc decoder.
+	 *
+	 * @param maxLineLength the max length of a header line
+	 */
+	public LspJsonRpcDecoder(int maxLineLength) {
+		this.maxLineLength = maxLineLength;
 	}
 
 	@Override
 	protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
-		switch (state()) {
-			case READ_HEADERS:
-				Map<String, String> headers = new HashMap<>();
-				checkpoint(readHeaders(in, headers));
-				break;
-			case READ_CONTENT:
-                int toRead = in.readableBytes();
-                if (toRead == 0) {
-                    return;
-                }
-                if (contentLength > -1) {
-                	toRead = (int)contentLength;
-                }
-//                if (toRead > maxChunkSize) {
-//                    toRead = maxChunkSize;
-//                }
-                if (contentLength >= 0) {
-                    int remainingLength = (int) (contentLength - alreadyReadChunkSize);
-                    if (toRead > remainingLength) {
-                        toRead = remainingLength;
-                    }
-                    ByteBuf chunkBuffer = readBytes(ctx.alloc(), in, toRead);
-                    if ((alreadyReadChunkSize += toRead) >= contentLength) {
-                    	lastContent = chunkBuffer.retain().duplicate().toString(Charset.defaultCharset());
-                        checkpoint(State.FINALIZE_FRAME_READ);
-                    } else {
-                    	String payload = chunkBuffer.retain().duplicate().toString(Charset.defaultCharset());
-                    	out.add(payload);
-                        return;
-                    }
-                }
-			case FINALIZE_FRAME_READ:
-				out.add(lastContent);
-				resetDecoder();
-			default:
-				break;
+		for (;;) {
+			if (state == State.READ_HEADERS) {
+				if (!readHeaders(in)) {
+					return;
+				}
+				state = State.READ_CONTENT;
+			}
+			if (in.readableBytes() < contentLength) {
+				return;
+			}
+			out.add(in.readRetainedSlice(contentLength));
+			resetDecoder();
 		}
 	}
 
-    private State readHeaders(ByteBuf buffer, Map<String, String> headers) {
-        AppendableCharSequence buf = new AppendableCharSequence(128);
-        for (;;) {
-            boolean headerRead = readHeader(headers, buf, buffer);
-            if (!headerRead) {
-                if (headers.containsKey(CONTENT_LENGTH)) {
-                    contentLength = getContentLength(headers, 0);
-//                    if (contentLength == 0) {
-//                        return State.FINALIZE_FRAME_READ;
-//                    }
-                }
-                return State.READ_CONTENT;
-            }
-        }
-    }
+	private boolean readHeaders(ByteBuf in) {
+		for (;;) {
+			int eol = in.indexOf(in.readerIndex(), in.writerIndex(), LF);
+			if (eol < 0) {
+				if (in.readableBytes() > maxLineLength) {
+					invalidLineLength();
+				}
+				return false;
+			}
+			int lineLength = eol - in.readerIndex();
+			if (lineLength > 0 && in.getByte(eol - 1) == CR) {
+				lineLength--;
+			}
+			if (lineLength > maxLineLength) {
+				invalidLineLength();
+			}
+			if (lineLength == 0) {
+				in.readerIndex(eol + 1);
+				if (contentLength < 0) {
+					throw new CorruptedFrameException("Missing " + CONTENT_LENGTH + " header");
+				}
+				return true;
+			}
+			readHeader(in, in.readerIndex(), lineLength);
+			in.readerIndex(eol + 1);
+		}
+	}
 
-    private long getContentLength(Map<String, String> headers, long defaultValue) {
-    	String value = headers.get(CONTENT_LENGTH);
-    	if (value != null) {
-    		return Long.parseLong(value);
-    	}
-    	// TODO: handle parse error and negative value
-        return contentLength;
-    }
+	private void readHeader(ByteBuf in, int index, int length) {
+		int colon = in.indexOf(index, index + length, COLON);
+		if (colon < 0) {
+			return;
+		}
+		String key = in.toString(index, colon - index, StandardCharsets.US_ASCII).trim();
+		if (CONTENT_LENGTH.equalsIgnoreCase(key)) {
+			String value = in.toString(colon + 1, index + length - colon - 1, StandardCharsets.US_ASCII).trim();
+			try {
+				contentLength = Integer.parseInt(value);
+			} catch (NumberFormatException e) {
+				throw new CorruptedFrameException("Invalid " + CONTENT_LENGTH + " header " + value, e);
+			}
+			if (contentLength < 0) {
+				throw new CorruptedFrameException("Negative " + CONTENT_LENGTH + " header " + value);
+			}
+		}
+	}
 
 	private void invalidLineLength() {
-        throw new TooLongFrameException("An JSRPC line is larger than " + maxLineLength + " bytes.");
-    }
-
-    private boolean readHeader(Map<String, String> headers, AppendableCharSequence buf, ByteBuf buffer) {
-        buf.reset();
-        int lineLength = 0;
-        String key = null;
-        boolean valid = false;
-
-        for (;;) {
-            byte nextByte = buffer.readByte();
-
-            if (nextByte == COLON && key == null) {
-                key = buf.toString();
-                valid = true;
-                buf.reset();
-            } else if (nextByte == CR) {
-                //do nothing
-            } else if (nextByte == LF) {
-                if (key == null && lineLength == 0) {
-                    return false;
-                } else if (valid) {
-                    headers.put(key, buf.toString().trim());
-                }
-                return true;
-            } else {
-                if (lineLength >= maxLineLength) {
-                    invalidLineLength();
-                }
-                if (nextByte == COLON && key != null) {
-                    valid = false;
-                }
-                lineLength ++;
-                buf.append((char) nextByte);
-            }
-        }
-    }
+		throw new TooLongFrameException("An JSRPC line is larger than " + maxLineLength + " bytes.");
+	}
 
 	private void resetDecoder() {
-        checkpoint(State.READ_HEADERS);
-        contentLength = -1;
-        alreadyReadChunkSize = 0;
-        lastContent = null;
-    }
+		state = State.READ_HEADERS;
+		contentLength = -1;
+	}
 }
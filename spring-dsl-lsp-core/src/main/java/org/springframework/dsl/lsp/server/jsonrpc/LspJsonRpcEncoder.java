@@ -15,25 +15,68 @@
  */
 package org.springframework.dsl.lsp.server.jsonrpc;
 
-import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToMessageEncoder;
 
+/**
+ * Encoder adding {@code LSP} base protocol headers in front of a message body.
+ * Header is written into its own small buffer and combined together with a
+ * body into a {@code CompositeByteBuf} so that a body is never copied. Headers
+ * for small bodies are served from a cached table of read-only buffers.
+ *
+ * @author Janne Valkealahti
+ *
+ */
 public class LspJsonRpcEncoder extends MessageToMessageEncoder<ByteBuf> {
 
+	private static final byte[] PREFIX = "Content-Length: ".getBytes(StandardCharsets.US_ASCII);
+	private static final byte[] SUFFIX = "\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+	private static final int MAX_HEADER_LENGTH = PREFIX.length + 10 + SUFFIX.length;
+	private static final int CACHED_HEADERS = 1024;
+	private static final ByteBuf[] HEADERS = new ByteBuf[CACHED_HEADERS];
+
+	static {
+		for (int i = 0; i < CACHED_HEADERS; i++) {
+			ByteBuf header = Unpooled.directBuffer(MAX_HEADER_LENGTH);
+			writeHeader(header, i);
+			HEADERS[i] = Unpooled.unreleasableBuffer(header.asReadOnly());
+		}
+	}
+
 	@Override
 	protected void encode(ChannelHandlerContext ctx, ByteBuf msg, List<Object> out) throws Exception {
-		int readableBytes = msg.readableBytes();
-		ByteBuf buf = ctx.alloc().buffer();
-		buf.writeCharSequence("Content-Length: ", Charset.defaultCharset());
-		buf.writeCharSequence(Integer.toString(readableBytes), Charset.defaultCharset());
-		buf.writeCharSequence("\r\n", Charset.defaultCharset());
-		buf.writeCharSequence("\r\n", Charset.defaultCharset());
-		buf.writeBytes(msg);
-		out.add(buf);
+		ByteBuf header = header(ctx.alloc(), msg.readableBytes());
+		out.add(ctx.alloc().compositeBuffer(2).addComponents(true, header, msg.retain()));
 	}
 
+	private static ByteBuf header(ByteBufAllocator alloc, int contentLength) {
+		if (contentLength < CACHED_HEADERS) {
+			return HEADERS[contentLength].duplicate();
+		}
+		return writeHeader(alloc.ioBuffer(MAX_HEADER_LENGTH), contentLength);
+	}
+
+	private static ByteBuf writeHeader(ByteBuf buf, int contentLength) {
+		buf.writeBytes(PREFIX);
+		writeDigits(buf, contentLength);
+		buf.writeBytes(SUFFIX);
+		return buf;
+	}
+
+	private static void writeDigits(ByteBuf buf, int value) {
+		int divisor = 1;
+		while (value / divisor >= 10) {
+			divisor *= 10;
+		}
+		while (divisor > 0) {
+			buf.writeByte('0' + (value / divisor) % 10);
+			divisor /= 10;
+		}
+	}
 }
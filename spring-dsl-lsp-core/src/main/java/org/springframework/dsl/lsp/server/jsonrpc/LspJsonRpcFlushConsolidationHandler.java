@@ -0,0 +1,152 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.lsp.server.jsonrpc;
+
+import java.time.Duration;
+
+import org.springframework.util.Assert;
+
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+
+/**
+ * Handler coalescing flushes of frames written back-to-back into a single
+ * flush, thus into a single gathered write on a channel. Pending flushes are
+ * done when current read completes or when an event loop gets to a flush
+ * task, whichever comes first. Flush is done immediately if there are too
+ * many pending flushes or if the oldest pending flush is older than a given
+ * max delay.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class LspJsonRpcFlushConsolidationHandler extends ChannelDuplexHandler {
+
+	/** Default max count of pending flushes */
+	public static final int DEFAULT_MAX_PENDING_FLUSHES = 256;
+
+	/** Default max delay of a pending flush */
+	public static final Duration DEFAULT_MAX_DELAY = Duration.ofMillis(5);
+
+	private final int maxPendingFlushes;
+	private final long maxDelayNanos;
+	private Runnable flushTask;
+	private int pendingFlushes;
+	private long firstPendingFlushNanos;
+	private boolean readInProgress;
+	private boolean flushScheduled;
+
+	/**
+	 * Instantiates a new lsp json rpc flush consolidation handler with default
+	 * settings.
+	 */
+	public LspJsonRpcFlushConsolidationHandler() {
+		this(DEFAULT_MAX_PENDING_FLUSHES, DEFAULT_MAX_DELAY);
+	}
+
+	/**
+	 * Instantiates a new lsp json rpc flush consolidation handler.
+	 *
+	 * @param maxPendingFlushes the max count of pending flushes
+	 * @param maxDelay the max delay of a pending flush
+	 */
+	public LspJsonRpcFlushConsolidationHandler(int maxPendingFlushes, Duration maxDelay) {
+		Assert.isTrue(maxPendingFlushes > 0, "maxPendingFlushes must be positive");
+		Assert.notNull(maxDelay, "maxDelay must be set");
+		this.maxPendingFlushes = maxPendingFlushes;
+		this.maxDelayNanos = maxDelay.toNanos();
+	}
+
+	@Override
+	public void handlerAdded(ChannelHandlerContext ctx) throws Exception {
+		flushTask = () -> {
+			flushScheduled = false;
+			if (!readInProgress) {
+				flushIfPending(ctx);
+			}
+		};
+	}
+
+	@Override
+	public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+		flushIfPending(ctx);
+	}
+
+	@Override
+	public void flush(ChannelHandlerContext ctx) throws Exception {
+		long now = System.nanoTime();
+		if (pendingFlushes++ == 0) {
+			firstPendingFlushNanos = now;
+		}
+		if (pendingFlushes >= maxPendingFlushes || now - firstPendingFlushNanos >= maxDelayNanos) {
+			flushNow(ctx);
+		} else if (!readInProgress && !flushScheduled) {
+			flushScheduled = true;
+			ctx.channel().eventLoop().execute(flushTask);
+		}
+	}
+
+	@Override
+	public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+		readInProgress = true;
+		ctx.fireChannelRead(msg);
+	}
+
+	@Override
+	public void channelReadComplete(ChannelHandlerContext ctx) throws Exception {
+		readInProgress = false;
+		flushIfPending(ctx);
+		ctx.fireChannelReadComplete();
+	}
+
+	@Override
+	public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+		if (!ctx.channel().isWritable()) {
+			flushIfPending(ctx);
+		}
+		ctx.fireChannelWritabilityChanged();
+	}
+
+	@Override
+	public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
+		flushIfPending(ctx);
+		ctx.fireExceptionCaught(cause);
+	}
+
+	@Override
+	public void disconnect(ChannelHandlerContext ctx, ChannelPromise promise) throws Exception {
+		flushIfPending(ctx);
+		ctx.disconnect(promise);
+	}
+
+	@Override
+	public void close(ChannelHandlerContext ctx, ChannelPromise promise) throws Exception {
+		flushIfPending(ctx);
+		ctx.close(promise);
+	}
+
+	private void flushIfPending(ChannelHandlerContext ctx) {
+		if (pendingFlushes > 0) {
+			flushNow(ctx);
+		}
+	}
+
+	private void flushNow(ChannelHandlerContext ctx) {
+		pendingFlushes = 0;
+		ctx.flush();
+	}
+}
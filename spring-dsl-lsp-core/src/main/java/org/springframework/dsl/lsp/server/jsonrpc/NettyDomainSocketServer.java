@@ -0,0 +1,225 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.lsp.server.jsonrpc;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.Objects;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dsl.lsp.server.LspServer;
+import org.springframework.dsl.lsp.server.LspServerException;
+import org.springframework.util.Assert;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.epoll.EpollDomainSocketChannel;
+import io.netty.channel.unix.DomainSocketAddress;
+import reactor.ipc.netty.NettyContext;
+import reactor.ipc.netty.tcp.TcpServer;
+
+/**
+ * Main entry point to handle lifecycle of a unix domain socket server and its
+ * used handler. Works like {@link NettyTcpServer} but binds to a socket file
+ * instead of a port which gives lower latency for co-located clients.
+ * <p>
+ * An existing socket file is replaced only if nothing listens to it anymore,
+ * other files at a path are left as is and fail a start. On stop a socket file
+ * is deleted only if it's still a one this server created.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class NettyDomainSocketServer implements LspServer {
+
+	private static final Logger log = LoggerFactory.getLogger(NettyDomainSocketServer.class);
+	private static final int S_IFMT = 0170000;
+	private static final int S_IFSOCK = 0140000;
+	private static final int STALE_CONNECT_TIMEOUT = 1000;
+	private final String path;
+	private final ReactorJsonRpcHandlerAdapter handlerAdapter;
+	private final Duration lifecycleTimeout;
+	private DomainSocketLoopResources loopResources;
+	private NettyContext nettyContext;
+	private Object socketFileKey;
+
+	/**
+	 * Instantiates a new netty domain socket server.
+	 *
+	 * @param path the socket file path
+	 * @param handlerAdapter the handler adapter
+	 * @param lifecycleTimeout the lifecycle timeout
+	 */
+	public NettyDomainSocketServer(String path, ReactorJsonRpcHandlerAdapter handlerAdapter,
+			Duration lifecycleTimeout) {
+		Assert.hasText(path, "Path must be set");
+		Assert.notNull(handlerAdapter, "ReactorJsonRpcHandlerAdapter must not be null");
+		this.path = path;
+		this.handlerAdapter = handlerAdapter;
+		this.lifecycleTimeout = lifecycleTimeout;
+	}
+
+	@Override
+	public void start() {
+		log.debug("Netty domain socket start called");
+		if (this.nettyContext == null) {
+			try {
+				loopResources = DomainSocketLoopResources.create("lsp-uds");
+				deleteStaleSocket();
+				nettyContext = startServer();
+				socketFileKey = getFileKey(Paths.get(path));
+			} catch (Exception e) {
+				if (loopResources != null) {
+					loopResources.dispose();
+					loopResources = null;
+				}
+				throw new LspServerException("Unable to start Netty", e);
+			}
+			log.info("Netty started on domain socket {}", path);
+			startDaemonAwaitThread(this.nettyContext);
+		}
+	}
+
+	@Override
+	public void stop() {
+		log.debug("Netty domain socket stop called");
+		if (nettyContext != null) {
+			nettyContext.dispose();
+			nettyContext.onClose().block(Duration.ofSeconds(5));
+			nettyContext = null;
+		}
+		if (loopResources != null) {
+			loopResources.dispose();
+			loopResources = null;
+		}
+		deleteOwnSocket();
+	}
+
+	@Override
+	public int getPort() {
+		return -1;
+	}
+
+	/**
+	 * Gets the socket file path this server binds to.
+	 *
+	 * @return the socket file path
+	 */
+	public String getPath() {
+		return path;
+	}
+
+	private NettyContext startServer() {
+		TcpServer tcpServer = TcpServer.create(options -> options
+				.listenAddress(new DomainSocketAddress(path))
+				.loopResources(loopResources)
+				.option(ChannelOption.SO_RCVBUF, null)
+				.option(ChannelOption.SO_SNDBUF, null)
+				.option(ChannelOption.SO_KEEPALIVE, null)
+				.option(ChannelOption.TCP_NODELAY, null));
+		// BlockingNettyContext expects an inet address so block on a plain context
+		if (this.lifecycleTimeout != null) {
+			return tcpServer.newHandler(handlerAdapter).block(lifecycleTimeout);
+		}
+		return tcpServer.newHandler(handlerAdapter).block();
+	}
+
+	private void deleteStaleSocket() throws IOException {
+		// stale socket from a previous run would fail a bind, but never
+		// touch a socket still in use or a file which is not a socket
+		Path socketPath = Paths.get(path);
+		if (!Files.exists(socketPath, LinkOption.NOFOLLOW_LINKS)) {
+			return;
+		}
+		if (!isSocket(socketPath)) {
+			throw new LspServerException("File " + path + " exists and is not a socket");
+		}
+		if (isListening()) {
+			throw new LspServerException("Socket " + path + " is already in use");
+		}
+		log.info("Deleting stale socket {}", path);
+		Files.deleteIfExists(socketPath);
+	}
+
+	private void deleteOwnSocket() {
+		if (socketFileKey == null) {
+			return;
+		}
+		Path socketPath = Paths.get(path);
+		try {
+			// file may have been replaced by some other server meanwhile
+			if (Objects.equals(socketFileKey, getFileKey(socketPath))) {
+				Files.deleteIfExists(socketPath);
+			}
+		} catch (IOException e) {
+			log.warn("Unable to delete socket {}", path, e);
+		}
+		socketFileKey = null;
+	}
+
+	private boolean isListening() {
+		ChannelFuture future = new Bootstrap()
+				.group(loopResources.onClient(true))
+				.channel(EpollDomainSocketChannel.class)
+				.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, STALE_CONNECT_TIMEOUT)
+				.handler(new ChannelInboundHandlerAdapter())
+				.connect(new DomainSocketAddress(path))
+				.awaitUninterruptibly();
+		if (future.isSuccess()) {
+			future.channel().close().awaitUninterruptibly();
+			return true;
+		}
+		return false;
+	}
+
+	private static boolean isSocket(Path path) throws IOException {
+		try {
+			int mode = (Integer) Files.getAttribute(path, "unix:mode", LinkOption.NOFOLLOW_LINKS);
+			return (mode & S_IFMT) == S_IFSOCK;
+		} catch (UnsupportedOperationException e) {
+			return false;
+		}
+	}
+
+	private static Object getFileKey(Path path) throws IOException {
+		if (!Files.exists(path, LinkOption.NOFOLLOW_LINKS)) {
+			return null;
+		}
+		return Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS).fileKey();
+	}
+
+	private void startDaemonAwaitThread(NettyContext nettyContext) {
+		Thread awaitThread = new Thread("server") {
+
+			@Override
+			public void run() {
+				nettyContext.onClose().block();
+			}
+
+		};
+		awaitThread.setContextClassLoader(getClass().getClassLoader());
+		awaitThread.setDaemon(false);
+		awaitThread.start();
+	}
+}
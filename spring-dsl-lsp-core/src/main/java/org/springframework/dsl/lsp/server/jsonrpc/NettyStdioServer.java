@@ -0,0 +1,151 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.lsp.server.jsonrpc;
+
+import java.time.Duration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dsl.lsp.server.LspServer;
+import org.springframework.dsl.lsp.server.LspServerException;
+import org.springframework.util.Assert;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.DefaultEventLoopGroup;
+import io.netty.channel.EventLoopGroup;
+import io.netty.handler.logging.LoggingHandler;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import reactor.core.publisher.Mono;
+import reactor.ipc.netty.NettyContext;
+import reactor.ipc.netty.channel.ChannelOperations;
+import reactor.ipc.netty.channel.ContextHandler;
+import reactor.ipc.netty.options.ClientOptions;
+
+/**
+ * Main entry point to handle lifecycle of a {@link StdioChannel} and its used
+ * handler. Messages are passed directly between process {@code stdin/stdout}
+ * and a {@link ReactorJsonRpcHandlerAdapter} without any loopback socket in
+ * between.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class NettyStdioServer implements LspServer {
+
+	private static final Logger log = LoggerFactory.getLogger(NettyStdioServer.class);
+	private static final LoggingHandler loggingHandler = new LoggingHandler(NettyStdioServer.class);
+	private static final ClientOptions OPTIONS = ClientOptions.builder().disablePool().build();
+	private final ReactorJsonRpcHandlerAdapter handlerAdapter;
+	private final StdioAddress address;
+	private final Duration lifecycleTimeout;
+	private EventLoopGroup eventLoopGroup;
+	private NettyContext nettyContext;
+
+	/**
+	 * Instantiates a new netty stdio server using process {@code stdin/stdout}.
+	 *
+	 * @param handlerAdapter the handler adapter
+	 */
+	public NettyStdioServer(ReactorJsonRpcHandlerAdapter handlerAdapter) {
+		this(handlerAdapter, StdioAddress.system(), null);
+	}
+
+	/**
+	 * Instantiates a new netty stdio server.
+	 *
+	 * @param handlerAdapter the handler adapter
+	 * @param address the stdio address
+	 * @param lifecycleTimeout the lifecycle timeout
+	 */
+	public NettyStdioServer(ReactorJsonRpcHandlerAdapter handlerAdapter, StdioAddress address,
+			Duration lifecycleTimeout) {
+		Assert.notNull(handlerAdapter, "ReactorJsonRpcHandlerAdapter must not be null");
+		Assert.notNull(address, "StdioAddress must not be null");
+		this.handlerAdapter = handlerAdapter;
+		this.address = address;
+		this.lifecycleTimeout = lifecycleTimeout;
+	}
+
+	@Override
+	public void start() {
+		log.debug("Netty stdio start called");
+		if (this.nettyContext == null) {
+			eventLoopGroup = new DefaultEventLoopGroup(1, new DefaultThreadFactory("stdio"));
+			try {
+				nettyContext = startServer();
+			} catch (Exception e) {
+				eventLoopGroup.shutdownGracefully();
+				eventLoopGroup = null;
+				throw new LspServerException("Unable to start Netty", e);
+			}
+			log.info("Netty started on stdio");
+			startDaemonAwaitThread(this.nettyContext);
+		}
+	}
+
+	@Override
+	public void stop() {
+		log.debug("Netty stdio stop called");
+		if (nettyContext != null) {
+			nettyContext.dispose();
+			nettyContext = null;
+		}
+		if (eventLoopGroup != null) {
+			eventLoopGroup.shutdownGracefully();
+			eventLoopGroup = null;
+		}
+	}
+
+	@Override
+	public int getPort() {
+		return -1;
+	}
+
+	private NettyContext startServer() {
+		// stdio channel is not a socket channel which tcp client expects, so
+		// connect it with a plain bootstrap and bind reactor operations to it
+		Mono<NettyContext> connect = Mono.create(sink -> {
+			ContextHandler<Channel> contextHandler = ContextHandler.newClientContext(sink, OPTIONS, loggingHandler,
+					false, address, (ch, c, msg) -> ChannelOperations.bind(ch, handlerAdapter, c));
+			sink.onCancel(contextHandler);
+			Bootstrap bootstrap = new Bootstrap()
+					.group(eventLoopGroup)
+					.channel(StdioChannel.class)
+					.remoteAddress(address)
+					.handler(contextHandler);
+			contextHandler.setFuture(bootstrap.connect());
+		});
+		if (this.lifecycleTimeout != null) {
+			return connect.block(lifecycleTimeout);
+		}
+		return connect.block();
+	}
+
+	private void startDaemonAwaitThread(NettyContext nettyContext) {
+		Thread awaitThread = new Thread("server") {
+
+			@Override
+			public void run() {
+				nettyContext.onClose().block();
+			}
+
+		};
+		awaitThread.setContextClassLoader(getClass().getClassLoader());
+		awaitThread.setDaemon(true);
+		awaitThread.start();
+	}
+}
@@ -15,35 +15,48 @@
  */
 package org.springframework.dsl.lsp.server.jsonrpc;
 
-import java.nio.charset.Charset;
-import java.util.HashMap;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
 import org.springframework.core.io.buffer.NettyDataBufferFactory;
-import org.springframework.dsl.DslException;
 import org.springframework.dsl.jsonrpc.JsonRpcInputMessage;
+import org.springframework.dsl.jsonrpc.JsonRpcMessage;
 import org.springframework.dsl.jsonrpc.JsonRpcOutputMessage;
 import org.springframework.dsl.jsonrpc.JsonRpcRequest;
-import org.springframework.dsl.jsonrpc.JsonRpcResponse;
+import org.springframework.dsl.jsonrpc.codec.Jackson2JsonRpcMessageWriter;
+import org.springframework.dsl.jsonrpc.session.JsonRpcSession;
 import org.springframework.dsl.jsonrpc.session.JsonRpcSession.JsonRpcSessionCustomizer;
+import org.springframework.dsl.jsonrpc.support.DefaultJsonRpcInputMessage;
+import org.springframework.dsl.jsonrpc.support.InflightRequestRegistry;
+import org.springframework.dsl.jsonrpc.support.JsonRpcBatch;
+import org.springframework.dsl.jsonrpc.support.SingleResponseJsonRpcOutputMessage;
+import org.springframework.dsl.lsp.client.LspClient;
 import org.springframework.dsl.lsp.client.LspClientResponse;
 import org.springframework.dsl.lsp.client.NettyBoundedLspClient;
 import org.springframework.util.Assert;
 import org.springframework.util.ObjectUtils;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
 
-import reactor.core.Disposable;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.ipc.netty.NettyInbound;
 import reactor.ipc.netty.NettyOutbound;
-import reactor.ipc.netty.NettyPipeline;
 
 /**
  * Adapter to hook into netty's channels to dispatch messages into {@link RpcHandler}.
@@ -56,8 +69,13 @@ public class ReactorJsonRpcHandlerAdapter implements BiFunction<NettyInbound, Ne
 	private static final Logger log = LoggerFactory.getLogger(ReactorJsonRpcHandlerAdapter.class);
 	private final RpcHandler rpcHandler;
 	private final ObjectMapper objectMapper;
-	private final Function<String, JsonRpcRequest> requestDecoder;
-	private final Function<String, JsonRpcResponse> responseDecoder;
+	private final Jackson2JsonRpcMessageWriter messageWriter;
+	private Map<String, Duration> requestTimeouts;
+	private Duration defaultRequestTimeout;
+	private Duration clientRequestTimeout;
+	private DocumentOrderedExecutor documentOrderedExecutor;
+	private int inboundQueueSize = InboundRequestDispatcher.DEFAULT_MAX_PENDING;
+	private int maxConcurrentRequests = InboundRequestDispatcher.DEFAULT_MAX_CONCURRENT;
 
 	/**
 	 * Instantiates a new reactor json rpc handler adapter.
@@ -70,125 +88,235 @@ public class ReactorJsonRpcHandlerAdapter implements BiFunction<NettyInbound, Ne
 		Assert.notNull(objectMapper, "ObjectMapper must be set");
 		this.rpcHandler = rpcHandler;
 		this.objectMapper = objectMapper;
-		this.requestDecoder = s -> {
-			try {
-				return objectMapper.readValue(s, JsonRpcRequest.class);
-			} catch (Exception e) {
-				throw new DslException("Unable to convert json to rpc request", e);
-			}
-		};
-		this.responseDecoder = s -> {
-			try {
-				return objectMapper.readValue(s, JsonRpcResponse.class);
-			} catch (Exception e) {
-				throw new DslException("Unable to convert json to rpc response", e);
-			}
-		};
+		this.messageWriter = new Jackson2JsonRpcMessageWriter(objectMapper);
+	}
+
+	/**
+	 * Sets the per-method deadlines for handling requests. Handling not
+	 * completed in time is cancelled and replied with an error.
+	 *
+	 * @param requestTimeouts the per-method request timeouts
+	 */
+	public void setRequestTimeouts(Map<String, Duration> requestTimeouts) {
+		this.requestTimeouts = requestTimeouts;
+	}
+
+	/**
+	 * Sets the deadline for handling requests not having a method specific
+	 * deadline.
+	 *
+	 * @param defaultRequestTimeout the default request timeout
+	 */
+	public void setDefaultRequestTimeout(Duration defaultRequestTimeout) {
+		this.defaultRequestTimeout = defaultRequestTimeout;
+	}
+
+	/**
+	 * Sets the timeout for requests sent to a client via a {@link LspClient}
+	 * bound to a connection, requests without a response in time fail with a
+	 * timeout.
+	 *
+	 * @param clientRequestTimeout the client request timeout
+	 */
+	public void setClientRequestTimeout(Duration clientRequestTimeout) {
+		this.clientRequestTimeout = clientRequestTimeout;
+	}
+
+	/**
+	 * Sets the executor used to handle requests outside of netty's event loop.
+	 * Requests for a same document are handled in order they were received and
+	 * requests not about a document in order with all requests of a
+	 * connection. If not set, requests are handled on a thread receiving
+	 * those.
+	 *
+	 * @param documentOrderedExecutor the document ordered executor
+	 */
+	public void setDocumentOrderedExecutor(DocumentOrderedExecutor documentOrderedExecutor) {
+		this.documentOrderedExecutor = documentOrderedExecutor;
+	}
+
+	/**
+	 * Sets the max number of received requests per connection waiting to be
+	 * handled. Reading from a connection is paused when this limit is reached.
+	 *
+	 * @param inboundQueueSize the inbound queue size
+	 */
+	public void setInboundQueueSize(int inboundQueueSize) {
+		this.inboundQueueSize = inboundQueueSize;
+	}
+
+	/**
+	 * Sets the max number of requests per connection handled at the same time.
+	 *
+	 * @param maxConcurrentRequests the max concurrent requests
+	 */
+	public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+		this.maxConcurrentRequests = maxConcurrentRequests;
 	}
 
 	@Override
 	public Mono<Void> apply(NettyInbound in, NettyOutbound out) {
 		NettyDataBufferFactory bufferFactory = new NettyDataBufferFactory(out.alloc());
-		Map<String, Disposable> disposables = new HashMap<>();
+
+		// requests in progress are tracked per connection and cancelled
+		// when connection goes away
+		InflightRequestRegistry inflightRequests = new InflightRequestRegistry(requestTimeouts,
+				defaultRequestTimeout);
+		in.context().onClose(inflightRequests::cancelAll);
 
 		in.context().addHandlerLast(new LspJsonRpcDecoder());
 		out.context().addHandlerLast(new LspJsonRpcEncoder());
+		// flushes are consolidated close to the channel so that frames
+		// written back-to-back end up in a single write
+		out.context().addHandlerFirst(new LspJsonRpcFlushConsolidationHandler());
 
 		// we can only have one subscriber to NettyInbound, so need to dispatch
 		// relevant responses to client.
-		NettyBoundedLspClient lspClient = new NettyBoundedLspClient(out, objectMapper);
+		NettyBoundedLspClient lspClient = new NettyBoundedLspClient(out, objectMapper, clientRequestTimeout);
+		in.context().onClose(lspClient.getPendingRequests()::cancelAll);
 		JsonRpcSessionCustomizer customizer = session -> session.getAttributes().put("lspClient", lspClient);
 
-		Flux<String> shared = in.receiveObject()
-			.ofType(String.class)
-			.share();
-
-		shared
-			.map(responseDecoder)
-			.filter(response -> response.getResult() != null || response.getError() != null)
-			.subscribe(bb -> {
-				lspClient.getResponses().onNext(LspClientResponse.create().response(bb).build());
-			});
+		// connection is always one session, so bind it once instead of
+		// resolving it for every message and let it go with a connection
+		String sessionId = in.context().channel().id().asLongText();
+		Mono<JsonRpcSession> boundSession = rpcHandler.bindSession(sessionId, customizer).cache();
+		in.context().onClose(() -> boundSession.flatMap(JsonRpcSession::invalidate).subscribe());
 
-		shared
-			.map(requestDecoder)
-			.filter(request -> request.getMethod() != null)
-			.subscribe(request -> {
-				log.info("Receive request {}", request);
+		// frames are parsed once into either requests or responses, frame
+		// itself is released by reactor after being decoded. batch is
+		// flattened into its requests which know where to write responses
+		Flux<JsonRpcMessage> messages = in.receiveObject()
+			.ofType(ByteBuf.class)
+			.flatMapIterable(buf -> decodeMessages(buf, bufferFactory,
+					() -> new ReactorJsonRpcOutputMessage(out, bufferFactory)));
 
-				JsonRpcInputMessage inputMessage = new JsonRpcInputMessage() {
+		// requests go through a bounded stage which merges document changes
+		// if those are backing up. batch member needs to complete its slot
+		// whichever way its handling goes, otherwise whole batch never replies.
+		// responses are dispatched to a client before that stage as handlers
+		// may be waiting for those.
+		InboundRequestDispatcher dispatcher = new InboundRequestDispatcher(request -> {
+			JsonRpcBatch batch = JsonRpcBatch.getBatch(request);
+			Mono<Void> handling = Mono.defer(() -> handleRequest(request, batch, out, bufferFactory, sessionId,
+					boundSession, customizer, inflightRequests));
+			return batch != null ? handling.doFinally(signal -> batch.complete(request)) : handling;
+		}, response -> {
+			if (response.getResult() != null || response.getError() != null) {
+				lspClient.getPendingRequests().complete(LspClientResponse.create().response(response).build());
+			}
+		}, objectMapper, inboundQueueSize, maxConcurrentRequests);
 
-					@Override
-					public Mono<String> getJsonrpc() {
-						return Mono.justOrEmpty(request.getJsonrpc());
-					}
+		messages.subscribe(dispatcher);
 
-					@Override
-					public Mono<String> getId() {
-						return Mono.justOrEmpty(request.getId());
-					}
-
-					@Override
-					public Mono<String> getMethod() {
-						return Mono.justOrEmpty(request.getMethod());
-					}
+		return out.neverComplete();
+	}
 
-					@Override
-					public Mono<String> getParams() {
-						return Mono.justOrEmpty(request.getParams().toString());
-					}
+	private Mono<Void> handleRequest(JsonRpcRequest request, JsonRpcBatch batch, NettyOutbound out,
+			NettyDataBufferFactory bufferFactory, String sessionId, Mono<JsonRpcSession> boundSession,
+			JsonRpcSessionCustomizer customizer, InflightRequestRegistry inflightRequests) {
+		log.info("Receive request {}", request);
 
-					@Override
-					public Mono<String> getSessionId() {
-						return Mono.fromSupplier(() -> in.context().channel().id().asLongText());
-					}
-				};
+		// cancel is a notification having an id of a request to cancel in its
+		// params, cancelled request itself replies with an error
+		if (ObjectUtils.nullSafeEquals("$/cancelRequest", request.getMethod())) {
+			String cancelId = InflightRequestRegistry.resolveParamsId(request.getParams());
+			if (!inflightRequests.cancel(cancelId)) {
+				log.debug("Cancel request {} but no existing request in progress", cancelId);
+			}
+			return Mono.empty();
+		}
 
-				JsonRpcOutputMessage adaptedResponse = new ReactorJsonRpcOutputMessage(out, bufferFactory);
+		JsonRpcInputMessage inputMessage = new DefaultJsonRpcInputMessage(request, () -> sessionId);
 
-				String disposableId = null;
-				Disposable disposable = null;
-				if (request.getId() != null) {
-					disposableId = in.context().channel().id().asLongText() + request.getId();
-				}
+		// only one response is written whichever of handling, its error,
+		// timeout or cancel comes first
+		SingleResponseJsonRpcOutputMessage adaptedResponse = new SingleResponseJsonRpcOutputMessage(
+				batch != null ? batch.getOutputMessage(request) : new ReactorJsonRpcOutputMessage(out, bufferFactory));
 
-				if (ObjectUtils.nullSafeEquals("$/cancelRequest", request.getMethod())) {
-					if (disposableId != null) {
-						disposable = disposables.remove(disposableId);
-						if (disposable != null) {
-							disposable.dispose();
-							String error = "{\"jsonrpc\":\"2.0\", \"id\":" + request.getId() + ", \"error\":{\"code\":-32800, \"message\": \"cancel\"}}";
-							DataBuffer buffer = bufferFactory.wrap(error.getBytes(Charset.defaultCharset()));
-							Flux<DataBuffer> body = Flux.just(buffer);
-							adaptedResponse.writeWith(body).subscribe();
-							adaptedResponse.setComplete().subscribe();
-						}
-					} else {
-						log.error("Cancel request but no existing disposable");
-					}
-					return;
-				}
+		// handler not binding sessions resolves one for every request
+		Mono<Void> handling = boundSession
+				.map(session -> rpcHandler.handle(inputMessage, adaptedResponse, session))
+				.defaultIfEmpty(Mono.defer(() -> rpcHandler.handle(inputMessage, adaptedResponse, customizer)))
+				.flatMap(Function.identity())
+				.doOnError(ex -> {
+					log.error("Handling completed with error", ex);
+					writeError(adaptedResponse, request.getId(), -32603, "internal server error");
+				})
+				.doOnSuccess(aVoid -> log.debug("Handling completed with success"));
 
-				disposable = rpcHandler.handle(inputMessage, adaptedResponse, customizer)
-						.doOnError(ex -> {
-							log.error("Handling completed with error", ex);
+		if (documentOrderedExecutor != null) {
+			handling = documentOrderedExecutor.ordered(sessionId, resolveDocumentUri(request), handling);
+		}
 
-							String error = "{\"jsonrpc\":\"2.0\", \"id\":" + request.getId() + ", \"error\":{\"code\":-32603, \"message\": \"internal server error\"}}";
+		if (request.getId() != null) {
+			Mono<Void> onTimeout = Mono.fromRunnable(() -> {
+				log.error("Handling of request {} timed out", request);
+				writeError(adaptedResponse, request.getId(), -32000, "timeout");
+			});
+			return inflightRequests.register(request.getId(), request.getMethod(), handling, onTimeout,
+					() -> writeError(adaptedResponse, request.getId(), -32800, "cancelled"));
+		}
+		return handling;
+	}
 
-							DataBuffer buffer = bufferFactory.wrap(error.getBytes(Charset.defaultCharset()));
-							Flux<DataBuffer> body = Flux.just(buffer);
-							adaptedResponse.writeWith(body).subscribe();
-							adaptedResponse.setComplete().subscribe();
-						})
-						.doOnSuccess(aVoid -> log.debug("Handling completed with success"))
-						.subscribe();
+	private List<JsonRpcMessage> decodeMessages(ByteBuf buf, DataBufferFactory bufferFactory,
+			Supplier<JsonRpcOutputMessage> outputMessage) {
+		try {
+			return JsonRpcBatch.readMessages(objectMapper, new ByteBufInputStream(buf.duplicate()), bufferFactory,
+					outputMessage);
+		} catch (Exception e) {
+			// invalid json is already replied with an error, failing here
+			// would stop reading a whole connection
+			log.error("Unable to convert json to rpc message", e);
+			return Collections.emptyList();
+		}
+	}
 
-				if (disposableId != null) {
-					disposables.put(disposableId, disposable);
+	/**
+	 * Resolve {@code textDocument.uri} from request params without binding
+	 * those into any particular type.
+	 *
+	 * @param request the request
+	 * @return the document uri or {@code null} if request is not about a document
+	 */
+	static String resolveDocumentUri(JsonRpcRequest request) {
+		if (!(request.getParams() instanceof TokenBuffer)) {
+			return null;
+		}
+		try (JsonParser parser = ((TokenBuffer) request.getParams()).asParser()) {
+			if (parser.nextToken() != JsonToken.START_OBJECT) {
+				return null;
+			}
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				String field = parser.getCurrentName();
+				JsonToken token = parser.nextToken();
+				if ("textDocument".equals(field) && token == JsonToken.START_OBJECT) {
+					while (parser.nextToken() == JsonToken.FIELD_NAME) {
+						String documentField = parser.getCurrentName();
+						parser.nextToken();
+						if ("uri".equals(documentField)) {
+							return parser.getValueAsString();
+						}
+						parser.skipChildren();
+					}
+					return null;
 				}
-			});
+				parser.skipChildren();
+			}
+		} catch (IOException e) {
+			log.debug("Unable to resolve document uri", e);
+		}
+		return null;
+	}
 
-		return out.options(NettyPipeline.SendOptions::flushOnEach)
-				.neverComplete();
+	private void writeError(SingleResponseJsonRpcOutputMessage response, String id, int code, String message) {
+		if (!response.claim()) {
+			log.debug("Not replying error {} for request {} as response was already written", code, id);
+			return;
+		}
+		JsonRpcOutputMessage delegate = response.getDelegate();
+		DataBuffer buffer = messageWriter.encodeError(delegate.bufferFactory(), id, code, message, null);
+		delegate.writeWith(Mono.just(buffer)).subscribe();
+		delegate.setComplete().subscribe();
 	}
 }
@@ -17,6 +17,7 @@ package org.springframework.dsl.lsp.server.jsonrpc;
 
 import org.springframework.dsl.jsonrpc.JsonRpcInputMessage;
 import org.springframework.dsl.jsonrpc.JsonRpcOutputMessage;
+import org.springframework.dsl.jsonrpc.session.JsonRpcSession;
 import org.springframework.dsl.jsonrpc.session.JsonRpcSession.JsonRpcSessionCustomizer;
 
 import reactor.core.publisher.Mono;
@@ -39,7 +40,37 @@ public interface RpcHandler {
 	 */
 	Mono<Void> handle(JsonRpcInputMessage request, JsonRpcOutputMessage response, JsonRpcSessionCustomizer sessionCustomizer);
 
+	/**
+	 * Handle the given request within a session which has been bound to a
+	 * connection via {@link #bindSession(String, JsonRpcSessionCustomizer)}, thus
+	 * skipping session lookups. Default implementation ignores given session
+	 * and delegates to {@link #handle(JsonRpcInputMessage, JsonRpcOutputMessage)}.
+	 *
+	 * @param request the current request
+	 * @param response the current response
+	 * @param session the bound session
+	 * @return indicates completion of request handling
+	 */
+	default Mono<Void> handle(JsonRpcInputMessage request, JsonRpcOutputMessage response, JsonRpcSession session) {
+		return handle(request, response);
+	}
+
+	/**
+	 * Get a session to be bound to a connection for its whole lifetime. Session
+	 * is customized once when bound and a transport is responsible to invalidate
+	 * it when connection is closed. Default implementation doesn't bind a
+	 * session and returns empty, in which case a transport handles requests
+	 * via {@link #handle(JsonRpcInputMessage, JsonRpcOutputMessage, JsonRpcSessionCustomizer)}.
+	 *
+	 * @param sessionId the session id
+	 * @param sessionCustomizer the session customizer
+	 * @return the session or empty if session is not bound
+	 */
+	default Mono<JsonRpcSession> bindSession(String sessionId, JsonRpcSessionCustomizer sessionCustomizer) {
+		return Mono.empty();
+	}
+
 	default Mono<Void> handle(JsonRpcInputMessage request, JsonRpcOutputMessage response) {
-		return handle(request, response, null);
+		return handle(request, response, (JsonRpcSessionCustomizer) null);
 	}
 }
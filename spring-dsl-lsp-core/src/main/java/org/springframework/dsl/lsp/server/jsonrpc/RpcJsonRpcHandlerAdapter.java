@@ -22,6 +22,7 @@ import org.springframework.dsl.jsonrpc.JsonRpcInputMessage;
 import org.springframework.dsl.jsonrpc.JsonRpcOutputMessage;
 import org.springframework.dsl.jsonrpc.ServerJsonRpcExchange;
 import org.springframework.dsl.jsonrpc.session.DefaultJsonRpcSessionManager;
+import org.springframework.dsl.jsonrpc.session.JsonRpcSession;
 import org.springframework.dsl.jsonrpc.session.JsonRpcSession.JsonRpcSessionCustomizer;
 import org.springframework.dsl.jsonrpc.session.JsonRpcSessionManager;
 import org.springframework.dsl.jsonrpc.support.DefaultServerJsonRpcExchange;
@@ -54,9 +55,21 @@ public class RpcJsonRpcHandlerAdapter implements RpcHandler {
 	@Override
 	public Mono<Void> handle(JsonRpcInputMessage request, JsonRpcOutputMessage response, JsonRpcSessionCustomizer sessionCustomizer) {
 		ServerJsonRpcExchange exchange = createExchange(request, response, sessionCustomizer);
-		return delegate.handle(exchange)
-				.onErrorResume(exception -> handleFailure(request, response, exception))
-				.then(Mono.defer(response::setComplete));
+		return handle(exchange);
+	}
+
+	@Override
+	public Mono<Void> handle(JsonRpcInputMessage request, JsonRpcOutputMessage response, JsonRpcSession session) {
+		return handle(new DefaultServerJsonRpcExchange(request, response, session));
+	}
+
+	@Override
+	public Mono<JsonRpcSession> bindSession(String sessionId, JsonRpcSessionCustomizer sessionCustomizer) {
+		return sessionManager.getSession(sessionId).doOnNext(session -> {
+			if (sessionCustomizer != null) {
+				sessionCustomizer.customize(session);
+			}
+		});
 	}
 
 	/**
@@ -89,6 +102,12 @@ public class RpcJsonRpcHandlerAdapter implements RpcHandler {
 		return new DefaultServerJsonRpcExchange(request, response, sessionManager, sessionCustomizer);
 	}
 
+	private Mono<Void> handle(ServerJsonRpcExchange exchange) {
+		return delegate.handle(exchange)
+				.onErrorResume(exception -> handleFailure(exchange.getRequest(), exchange.getResponse(), exception))
+				.then(Mono.defer(exchange.getResponse()::setComplete));
+	}
+
 	private Mono<Void> handleFailure(JsonRpcInputMessage request, JsonRpcOutputMessage response, Throwable exception) {
 //		EncoderJsonRpcMessageWriter<CharSequence> writer = new EncoderJsonRpcMessageWriter<>(CharSequenceEncoder.allMimeTypes());
 //		ResolvableType elementType = ResolvableType.forClass(String.class);
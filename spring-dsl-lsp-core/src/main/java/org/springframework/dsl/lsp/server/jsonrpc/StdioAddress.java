@@ -0,0 +1,86 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.lsp.server.jsonrpc;
+
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.net.SocketAddress;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.ScatteringByteChannel;
+
+import org.springframework.util.Assert;
+
+/**
+ * {@link SocketAddress} used to connect a {@link StdioChannel} into a pair of
+ * nio byte channels, typically process {@code stdin} and {@code stdout}.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class StdioAddress extends SocketAddress {
+
+	private static final long serialVersionUID = 3624581137826419584L;
+	private final transient ScatteringByteChannel input;
+	private final transient GatheringByteChannel output;
+
+	/**
+	 * Instantiates a new stdio address.
+	 *
+	 * @param input the channel to read from
+	 * @param output the channel to write to
+	 */
+	public StdioAddress(ScatteringByteChannel input, GatheringByteChannel output) {
+		Assert.notNull(input, "Input channel must be set");
+		Assert.notNull(output, "Output channel must be set");
+		this.input = input;
+		this.output = output;
+	}
+
+	/**
+	 * Creates a {@link StdioAddress} backed by file channels on top of process
+	 * {@code fd 0} and {@code fd 1}.
+	 *
+	 * @return the stdio address for this process
+	 */
+	public static StdioAddress system() {
+		return new StdioAddress(new FileInputStream(FileDescriptor.in).getChannel(),
+				new FileOutputStream(FileDescriptor.out).getChannel());
+	}
+
+	/**
+	 * Gets the channel to read from.
+	 *
+	 * @return the input channel
+	 */
+	public ScatteringByteChannel getInput() {
+		return input;
+	}
+
+	/**
+	 * Gets the channel to write to.
+	 *
+	 * @return the output channel
+	 */
+	public GatheringByteChannel getOutput() {
+		return output;
+	}
+
+	@Override
+	public String toString() {
+		return "stdio";
+	}
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.lsp.server.jsonrpc;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.AbstractChannel;
+import io.netty.channel.ChannelConfig;
+import io.netty.channel.ChannelMetadata;
+import io.netty.channel.ChannelOutboundBuffer;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.DefaultChannelConfig;
+import io.netty.channel.DefaultEventLoop;
+import io.netty.channel.EventLoop;
+import io.netty.channel.RecvByteBufAllocator;
+
+/**
+ * Netty {@code Channel} reading from and writing to nio byte channels given
+ * via {@link StdioAddress} when connected. Reads are done in bulk from a
+ * dedicated thread as blocking reads on {@code stdin} can't be multiplexed
+ * and writes are gathered directly from outbound buffers, thus bytes are
+ * never decoded into characters on their way in or out.
+ * <p>
+ * Underlying byte channels are not closed when this channel is closed as
+ * those are owned by whoever created a {@link StdioAddress}.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class StdioChannel extends AbstractChannel {
+
+	private static final Logger log = LoggerFactory.getLogger(StdioChannel.class);
+	private static final ChannelMetadata METADATA = new ChannelMetadata(false);
+	private final ChannelConfig config = new DefaultChannelConfig(this);
+	private final Object readLock = new Object();
+	private volatile boolean open = true;
+	private volatile StdioAddress address;
+	private boolean readPending;
+
+	/**
+	 * Instantiates a new stdio channel.
+	 */
+	public StdioChannel() {
+		super(null);
+	}
+
+	@Override
+	public ChannelConfig config() {
+		return config;
+	}
+
+	@Override
+	public boolean isOpen() {
+		return open;
+	}
+
+	@Override
+	public boolean isActive() {
+		return open && address != null;
+	}
+
+	@Override
+	public ChannelMetadata metadata() {
+		return METADATA;
+	}
+
+	@Override
+	protected AbstractUnsafe newUnsafe() {
+		return new StdioUnsafe();
+	}
+
+	@Override
+	protected boolean isCompatible(EventLoop loop) {
+		return loop instanceof DefaultEventLoop;
+	}
+
+	@Override
+	protected SocketAddress localAddress0() {
+		return address;
+	}
+
+	@Override
+	protected SocketAddress remoteAddress0() {
+		return address;
+	}
+
+	@Override
+	protected void doBind(SocketAddress localAddress) throws Exception {
+		throw new UnsupportedOperationException("Stdio channel can't be bound");
+	}
+
+	@Override
+	protected void doDisconnect() throws Exception {
+		doClose();
+	}
+
+	@Override
+	protected void doClose() throws Exception {
+		open = false;
+		synchronized (readLock) {
+			readLock.notifyAll();
+		}
+	}
+
+	@Override
+	protected void doBeginRead() throws Exception {
+		synchronized (readLock) {
+			readPending = true;
+			readLock.notifyAll();
+		}
+	}
+
+	@Override
+	protected Object filterOutboundMessage(Object msg) throws Exception {
+		if (msg instanceof ByteBuf) {
+			return msg;
+		}
+		throw new UnsupportedOperationException("Unsupported message type " + msg.getClass().getName());
+	}
+
+	@Override
+	protected void doWrite(ChannelOutboundBuffer in) throws Exception {
+		while (!in.isEmpty()) {
+			ByteBuffer[] buffers = in.nioBuffers();
+			int count = in.nioBufferCount();
+			long expected = in.nioBufferSize();
+			long written = 0;
+			while (written < expected) {
+				written += address.getOutput().write(buffers, 0, count);
+			}
+			in.removeBytes(written);
+		}
+	}
+
+	private void readLoop() {
+		// allocators shipped with netty all create extended handles
+		RecvByteBufAllocator.ExtendedHandle allocHandle = (RecvByteBufAllocator.ExtendedHandle) unsafe()
+				.recvBufAllocHandle();
+		try {
+			while (awaitReadPending()) {
+				allocHandle.reset(config);
+				ByteBuf buf = allocHandle.allocate(config.getAllocator());
+				try {
+					allocHandle.lastBytesRead(buf.writeBytes(address.getInput(), buf.writableBytes()));
+				} catch (IOException e) {
+					buf.release();
+					throw e;
+				}
+				if (allocHandle.lastBytesRead() < 0 || !open) {
+					buf.release();
+					break;
+				}
+				allocHandle.readComplete();
+				eventLoop().execute(() -> {
+					pipeline().fireChannelRead(buf);
+					pipeline().fireChannelReadComplete();
+					if (config.isAutoRead()) {
+						read();
+					}
+				});
+			}
+		} catch (IOException e) {
+			log.debug("Reading from stdio failed", e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (RejectedExecutionException e) {
+			// event loop already gone
+			return;
+		}
+		if (open) {
+			try {
+				eventLoop().execute(() -> unsafe().close(unsafe().voidPromise()));
+			} catch (RejectedExecutionException e) {
+			}
+		}
+	}
+
+	private boolean awaitReadPending() throws InterruptedException {
+		synchronized (readLock) {
+			while (!readPending && open) {
+				readLock.wait();
+			}
+			readPending = false;
+			return open;
+		}
+	}
+
+	private final class StdioUnsafe extends AbstractUnsafe {
+
+		@Override
+		public void connect(SocketAddress remoteAddress, SocketAddress localAddress, ChannelPromise promise) {
+			if (!promise.setUncancellable() || !ensureOpen(promise)) {
+				return;
+			}
+			if (!(remoteAddress instanceof StdioAddress)) {
+				promise.tryFailure(new IllegalArgumentException("Unsupported address " + remoteAddress));
+				return;
+			}
+			if (address != null) {
+				promise.tryFailure(new IllegalStateException("Already connected"));
+				return;
+			}
+			address = (StdioAddress) remoteAddress;
+			Thread reader = new Thread(StdioChannel.this::readLoop, "stdio-reader");
+			reader.setDaemon(true);
+			reader.start();
+			promise.trySuccess();
+			pipeline().fireChannelActive();
+		}
+	}
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.lsp.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.ReactiveAdapterRegistry;
+import org.springframework.dsl.jsonrpc.JsonRpcSystemConstants;
+import org.springframework.dsl.jsonrpc.annotation.JsonRpcController;
+import org.springframework.dsl.jsonrpc.annotation.JsonRpcNotification;
+import org.springframework.dsl.jsonrpc.annotation.JsonRpcRequestMapping;
+import org.springframework.dsl.jsonrpc.annotation.JsonRpcRequestParams;
+import org.springframework.dsl.jsonrpc.annotation.JsonRpcResponseResult;
+import org.springframework.dsl.jsonrpc.config.EnableJsonRpc;
+import org.springframework.dsl.jsonrpc.config.JsonRpcJacksonConfiguration;
+import org.springframework.dsl.jsonrpc.support.DispatcherJsonRpcHandler;
+import org.springframework.dsl.lsp.server.config.LspDomainJacksonConfiguration;
+import org.springframework.dsl.lsp.server.jsonrpc.LspClientArgumentResolver;
+import org.springframework.dsl.lsp.server.jsonrpc.LspDomainArgumentResolver;
+import org.springframework.dsl.lsp.server.jsonrpc.RpcJsonRpcHandlerAdapter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Tests for {@link LocalLspClient}.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class LocalLspClientTests {
+
+	private AnnotationConfigApplicationContext context;
+	private AnnotationConfigApplicationContext clientContext;
+
+	@Before
+	public void init() {
+		context = new AnnotationConfigApplicationContext();
+		context.register(JsonRpcConfig.class, TestServerJsonRpcController.class);
+		context.refresh();
+		clientContext = new AnnotationConfigApplicationContext();
+		clientContext.register(JsonRpcConfig.class, TestClientJsonRpcController.class);
+		clientContext.refresh();
+	}
+
+	@After
+	public void clean() {
+		if (context != null) {
+			context.close();
+		}
+		if (clientContext != null) {
+			clientContext.close();
+		}
+	}
+
+	@Test
+	public void testRequest() {
+		LspClient lspClient = createClient();
+
+		LspClientResponse response = lspClient.request().id("1").method("hi").exchange()
+				.block(Duration.ofSeconds(2));
+		assertThat(response.response().getId()).isEqualTo("1");
+		assertThat(response.response().getResult()).isEqualTo("hi");
+	}
+
+	@Test
+	public void testObjectsPassedAsIs() {
+		LspClient lspClient = createClient();
+		TestServerJsonRpcController controller = context.getBean(TestServerJsonRpcController.class);
+
+		LspClientResponse response = lspClient.request().id("1").method("pojo").params(new Pojo("hi")).exchange()
+				.block(Duration.ofSeconds(2));
+		assertThat(response.response().getId()).isEqualTo("1");
+		Pojo pojo = response.resultToMono(Pojo.class).block();
+		assertThat(pojo).isSameAs(controller.pojo);
+		assertThat(pojo.getMessage()).isEqualTo("hi");
+		assertThat(response.response().getResult()).isEqualTo("{\"message\":\"hi\"}");
+	}
+
+	@Test
+	public void testNotification() {
+		LspClient lspClient = createClient();
+		TestServerJsonRpcController controller = context.getBean(TestServerJsonRpcController.class);
+
+		lspClient.notification().method("count").exchange().block(Duration.ofSeconds(2));
+		lspClient.notification().method("count").exchange().block(Duration.ofSeconds(2));
+		assertThat(controller.count).isEqualTo(2);
+	}
+
+	@Test
+	public void testServerToClientRequest() {
+		LspClient lspClient = createClient();
+
+		LspClientResponse response = lspClient.request().id("1").method("serverhi").exchange()
+				.block(Duration.ofSeconds(2));
+		assertThat(response.response().getResult()).isEqualTo("clienthi");
+	}
+
+	@Test
+	public void testServerToClientNotification() throws InterruptedException {
+		LspClient lspClient = createClient();
+		TestClientJsonRpcController controller = clientContext.getBean(TestClientJsonRpcController.class);
+
+		lspClient.notification().method("servernotification").exchange().block(Duration.ofSeconds(2));
+		assertThat(controller.latch.await(2, TimeUnit.SECONDS)).isTrue();
+	}
+
+	private LspClient createClient() {
+		RpcJsonRpcHandlerAdapter serverHandler = context.getBean(RpcJsonRpcHandlerAdapter.class);
+		RpcJsonRpcHandlerAdapter clientHandler = clientContext.getBean(RpcJsonRpcHandlerAdapter.class);
+		ObjectMapper objectMapper = context.getBean(JsonRpcSystemConstants.JSONRPC_OBJECT_MAPPER_BEAN_NAME,
+				ObjectMapper.class);
+		LspClient lspClient = new LocalLspClient(serverHandler, clientHandler, objectMapper);
+		lspClient.start();
+		return lspClient;
+	}
+
+	@EnableJsonRpc
+	@Import({ JsonRpcJacksonConfiguration.class, LspDomainJacksonConfiguration.class })
+	static class JsonRpcConfig {
+
+		@Bean
+		public LspDomainArgumentResolver lspDomainArgumentResolver() {
+			return new LspDomainArgumentResolver();
+		}
+
+		@Bean
+		public LspClientArgumentResolver lspClientArgumentResolver() {
+			return new LspClientArgumentResolver();
+		}
+
+		@Bean
+		public ReactiveAdapterRegistry jsonRpcAdapterRegistry() {
+			return new ReactiveAdapterRegistry();
+		}
+
+		@Bean
+		public RpcJsonRpcHandlerAdapter rpcJsonRpcHandlerAdapter(DispatcherJsonRpcHandler dispatcherJsonRpcHandler) {
+			return new RpcJsonRpcHandlerAdapter(dispatcherJsonRpcHandler);
+		}
+	}
+
+	@JsonRpcController
+	private static class TestServerJsonRpcController {
+
+		private volatile Pojo pojo;
+		private volatile int count;
+
+		@JsonRpcRequestMapping(method = "hi")
+		@JsonRpcResponseResult
+		public String hi() {
+			return "hi";
+		}
+
+		@JsonRpcRequestMapping(method = "pojo")
+		@JsonRpcResponseResult
+		public Pojo pojo(@JsonRpcRequestParams Pojo pojo) {
+			this.pojo = new Pojo(pojo.getMessage());
+			return this.pojo;
+		}
+
+		@JsonRpcRequestMapping(method = "count")
+		@JsonRpcNotification
+		public void count() {
+			count++;
+		}
+
+		@JsonRpcRequestMapping(method = "serverhi")
+		@JsonRpcResponseResult
+		public Mono<String> serverhi(LspClient lspClient) {
+			return lspClient
+					.request().id("10").method("clienthi").exchange()
+					.map(r -> r.response().getResult());
+		}
+
+		@JsonRpcRequestMapping(method = "servernotification")
+		@JsonRpcNotification
+		public Mono<Void> servernotification(LspClient lspClient) {
+			return lspClient.notification().method("clientnotification").exchange();
+		}
+	}
+
+	@JsonRpcController
+	private static class TestClientJsonRpcController {
+
+		private final CountDownLatch latch = new CountDownLatch(1);
+
+		@JsonRpcRequestMapping(method = "clienthi")
+		@JsonRpcResponseResult
+		public String clienthi() {
+			return "clienthi";
+		}
+
+		@JsonRpcRequestMapping(method = "clientnotification")
+		@JsonRpcNotification
+		public void clientnotification() {
+			latch.countDown();
+		}
+	}
+
+	private static class Pojo {
+
+		private String message;
+
+		@SuppressWarnings("unused")
+		Pojo() {
+		}
+
+		Pojo(String message) {
+			this.message = message;
+		}
+
+		public String getMessage() {
+			return message;
+		}
+
+		@SuppressWarnings("unused")
+		public void setMessage(String message) {
+			this.message = message;
+		}
+	}
+}
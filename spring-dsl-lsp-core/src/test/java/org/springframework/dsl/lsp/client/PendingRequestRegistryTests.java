@@ -0,0 +1,164 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.lsp.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+import org.springframework.dsl.jsonrpc.JsonRpcRequest;
+import org.springframework.dsl.jsonrpc.support.DefaultJsonRpcRequest;
+import org.springframework.dsl.jsonrpc.support.DefaultJsonRpcResponse;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+
+/**
+ * Tests for {@link PendingRequestRegistry}.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class PendingRequestRegistryTests {
+
+	@Test
+	public void testCompleteById() {
+		PendingRequestRegistry registry = new PendingRequestRegistry();
+		MonoProcessor<LspClientResponse> first = registry.register("1", Mono.empty()).toProcessor();
+		MonoProcessor<LspClientResponse> second = registry.register("2", Mono.empty()).toProcessor();
+		assertThat(registry.size()).isEqualTo(2);
+
+		assertThat(registry.complete(response("2"))).isTrue();
+		assertThat(registry.complete(response("3"))).isFalse();
+		assertThat(registry.complete(response("1"))).isTrue();
+
+		assertThat(second.block().response().getId()).isEqualTo("2");
+		assertThat(first.block().response().getId()).isEqualTo("1");
+		assertThat(registry.size()).isEqualTo(0);
+	}
+
+	@Test
+	public void testResponseDuringSend() {
+		PendingRequestRegistry registry = new PendingRequestRegistry();
+		Mono<LspClientResponse> response = registry.register("1",
+				Mono.fromRunnable(() -> registry.complete(response("1"))));
+		assertThat(response.block(Duration.ofSeconds(5)).response().getId()).isEqualTo("1");
+		assertThat(registry.size()).isEqualTo(0);
+	}
+
+	@Test
+	public void testNotRegisteredUntilSubscribed() {
+		PendingRequestRegistry registry = new PendingRequestRegistry();
+		AtomicBoolean sent = new AtomicBoolean();
+		registry.register("1", Mono.fromRunnable(() -> sent.set(true)));
+		assertThat(registry.size()).isEqualTo(0);
+		assertThat(sent.get()).isFalse();
+		assertThat(registry.complete(response("1"))).isFalse();
+	}
+
+	@Test
+	public void testDuplicateId() {
+		PendingRequestRegistry registry = new PendingRequestRegistry();
+		registry.register("1", Mono.empty()).subscribe();
+		Mono<LspClientResponse> duplicate = registry.register("1", Mono.empty());
+		assertThatThrownBy(() -> duplicate.block()).isInstanceOf(IllegalStateException.class);
+		assertThat(registry.size()).isEqualTo(1);
+	}
+
+	@Test
+	public void testCancelRemoves() {
+		PendingRequestRegistry registry = new PendingRequestRegistry();
+		Disposable disposable = registry.register("1", Mono.empty()).subscribe();
+		assertThat(registry.size()).isEqualTo(1);
+		disposable.dispose();
+		assertThat(registry.size()).isEqualTo(0);
+		assertThat(registry.complete(response("1"))).isFalse();
+	}
+
+	@Test
+	public void testSendErrorRemoves() {
+		PendingRequestRegistry registry = new PendingRequestRegistry();
+		Mono<LspClientResponse> response = registry.register("1", Mono.error(new RuntimeException("fail")));
+		assertThatThrownBy(() -> response.block(Duration.ofSeconds(5))).hasMessage("fail");
+		assertThat(registry.size()).isEqualTo(0);
+	}
+
+	@Test
+	public void testDefaultTimeout() {
+		PendingRequestRegistry registry = new PendingRequestRegistry("", Duration.ofMillis(50));
+		Mono<LspClientResponse> response = registry.register("1", Mono.empty());
+		assertThatThrownBy(() -> response.block(Duration.ofSeconds(5))).hasCauseInstanceOf(TimeoutException.class);
+		assertThat(registry.size()).isEqualTo(0);
+	}
+
+	@Test
+	public void testGeneratedIds() {
+		PendingRequestRegistry registry = new PendingRequestRegistry("s", null);
+		registry.register("s1", Mono.empty()).subscribe();
+		JsonRpcRequest request = registry.withId(new DefaultJsonRpcRequest(null, "method", null));
+		assertThat(request.getId()).isEqualTo("s2");
+		assertThat(request.getMethod()).isEqualTo("method");
+		JsonRpcRequest withId = new DefaultJsonRpcRequest("x", "method", null);
+		assertThat(registry.withId(withId)).isSameAs(withId);
+	}
+
+	@Test
+	public void testBatch() {
+		PendingRequestRegistry registry = new PendingRequestRegistry();
+		List<JsonRpcRequest> requests = Arrays.asList(new DefaultJsonRpcRequest("1", "m1", null),
+				new DefaultJsonRpcRequest(null, "notify", null), new DefaultJsonRpcRequest("2", "m2", null));
+		Flux<LspClientResponse> responses = registry.registerBatch(requests, Mono.fromRunnable(() -> {
+			registry.complete(response("2"));
+			registry.complete(response("1"));
+		}));
+		assertThat(registry.size()).isEqualTo(0);
+		assertThat(responses.collectList().block(Duration.ofSeconds(5))).hasSize(2);
+		assertThat(registry.size()).isEqualTo(0);
+	}
+
+	@Test
+	public void testBatchDuplicateIdCleansUp() {
+		PendingRequestRegistry registry = new PendingRequestRegistry();
+		registry.register("2", Mono.empty()).subscribe();
+		List<JsonRpcRequest> requests = Arrays.asList(new DefaultJsonRpcRequest("1", "m1", null),
+				new DefaultJsonRpcRequest("2", "m2", null));
+		Flux<LspClientResponse> responses = registry.registerBatch(requests, Mono.empty());
+		assertThatThrownBy(() -> responses.blockLast()).isInstanceOf(IllegalStateException.class);
+		assertThat(registry.size()).isEqualTo(1);
+	}
+
+	@Test
+	public void testCancelAll() {
+		PendingRequestRegistry registry = new PendingRequestRegistry();
+		MonoProcessor<LspClientResponse> response = registry.register("1", Mono.empty()).toProcessor();
+		registry.cancelAll();
+		assertThatThrownBy(() -> response.block(Duration.ofSeconds(5))).isInstanceOf(CancellationException.class);
+		assertThat(registry.size()).isEqualTo(0);
+	}
+
+	private static LspClientResponse response(String id) {
+		return LspClientResponse.create().response(new DefaultJsonRpcResponse("2.0", id, "hi", null)).build();
+	}
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.lsp.server.jsonrpc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Test;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Tests for {@link DocumentOrderedExecutor}.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class DocumentOrderedExecutorTests {
+
+	private DocumentOrderedExecutor executor;
+
+	@After
+	public void clean() {
+		if (executor != null) {
+			executor.dispose();
+		}
+		executor = null;
+	}
+
+	@Test
+	public void testOrderedPerDocument() throws InterruptedException {
+		executor = new DocumentOrderedExecutor(Schedulers.newParallel("test", 4, true));
+		List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+		CountDownLatch latch = new CountDownLatch(100);
+		for (int i = 0; i < 100; i++) {
+			int index = i;
+			executor.ordered("conn", "file:///doc", Mono.fromRunnable(() -> order.add(index)))
+				.subscribe(null, null, () -> latch.countDown());
+		}
+		assertThat(latch.await(2, TimeUnit.SECONDS)).isTrue();
+		for (int i = 0; i < 100; i++) {
+			assertThat(order.get(i)).isEqualTo(i);
+		}
+	}
+
+	@Test
+	public void testDocumentsNotBlockingEachOther() throws InterruptedException {
+		executor = new DocumentOrderedExecutor(Schedulers.newParallel("test", 2, true));
+		CountDownLatch latch = new CountDownLatch(1);
+		executor.ordered("conn", "file:///doc1", Mono.never()).subscribe();
+		executor.ordered("conn", "file:///doc2", Mono.fromRunnable(() -> latch.countDown())).subscribe();
+		assertThat(latch.await(1, TimeUnit.SECONDS)).isTrue();
+	}
+
+	@Test
+	public void testConnectionsNotBlockingEachOther() throws InterruptedException {
+		executor = new DocumentOrderedExecutor(Schedulers.newParallel("test", 2, true));
+		CountDownLatch latch = new CountDownLatch(1);
+		executor.ordered("conn1", null, Mono.never()).subscribe();
+		executor.ordered("conn2", null, Mono.fromRunnable(() -> latch.countDown())).subscribe();
+		assertThat(latch.await(1, TimeUnit.SECONDS)).isTrue();
+	}
+
+	@Test
+	public void testOrderedWaitsCompletion() throws InterruptedException {
+		executor = new DocumentOrderedExecutor(Schedulers.newParallel("test", 4, true));
+		List<String> order = Collections.synchronizedList(new ArrayList<>());
+		CountDownLatch latch = new CountDownLatch(2);
+		executor.ordered("conn", "file:///doc", Mono.delay(Duration.ofMillis(200))
+				.doOnSubscribe(s -> order.add("start1"))
+				.doOnSuccess(l -> order.add("end1")))
+			.subscribe(null, null, () -> latch.countDown());
+		executor.ordered("conn", "file:///doc", Mono.fromRunnable(() -> order.add("start2")))
+			.subscribe(null, null, () -> latch.countDown());
+		assertThat(latch.await(2, TimeUnit.SECONDS)).isTrue();
+		assertThat(order).containsExactly("start1", "end1", "start2");
+	}
+
+	@Test
+	public void testConnectionMessagesInLifecycleOrder() throws InterruptedException {
+		executor = new DocumentOrderedExecutor(Schedulers.newParallel("test", 4, true));
+		List<String> order = Collections.synchronizedList(new ArrayList<>());
+		CountDownLatch latch = new CountDownLatch(5);
+		executor.ordered("conn", null, Mono.delay(Duration.ofMillis(100))
+				.doOnSuccess(l -> order.add("initialize")))
+			.subscribe(null, null, () -> latch.countDown());
+		executor.ordered("conn", null, Mono.fromRunnable(() -> order.add("initialized")))
+			.subscribe(null, null, () -> latch.countDown());
+		executor.ordered("conn", "file:///doc", Mono.delay(Duration.ofMillis(100))
+				.doOnSuccess(l -> order.add("didOpen")))
+			.subscribe(null, null, () -> latch.countDown());
+		executor.ordered("conn", null, Mono.fromRunnable(() -> order.add("shutdown")))
+			.subscribe(null, null, () -> latch.countDown());
+		executor.ordered("conn", "file:///doc2", Mono.fromRunnable(() -> order.add("didOpen2")))
+			.subscribe(null, null, () -> latch.countDown());
+		assertThat(latch.await(2, TimeUnit.SECONDS)).isTrue();
+		assertThat(order).containsExactly("initialize", "initialized", "didOpen", "shutdown", "didOpen2");
+	}
+
+	@Test
+	public void testOrderedCancelReleasesDocument() throws InterruptedException {
+		executor = new DocumentOrderedExecutor(Schedulers.newParallel("test", 4, true));
+		CountDownLatch latch = new CountDownLatch(1);
+		Disposable first = executor.ordered("conn", "file:///doc", Mono.never()).subscribe();
+		Disposable second = executor.ordered("conn", "file:///doc", Mono.never()).subscribe();
+		executor.ordered("conn", "file:///doc", Mono.fromRunnable(() -> latch.countDown())).subscribe();
+		second.dispose();
+		assertThat(latch.await(200, TimeUnit.MILLISECONDS)).isFalse();
+		first.dispose();
+		assertThat(latch.await(2, TimeUnit.SECONDS)).isTrue();
+	}
+
+	@Test
+	public void testOrderedError() {
+		executor = new DocumentOrderedExecutor(Schedulers.newParallel("test", 4, true));
+		Mono<Object> error = executor.ordered("conn", "file:///doc", Mono.error(new RuntimeException("fail")));
+		assertThatThrownBy(() -> error.block()).hasMessage("fail");
+		assertThat(executor.ordered("conn", "file:///doc", Mono.just("hi")).block()).isEqualTo("hi");
+	}
+
+	@Test
+	public void testRejectedFailsQueued() throws InterruptedException {
+		Scheduler scheduler = Schedulers.newParallel("test", 2, true);
+		executor = new DocumentOrderedExecutor(scheduler);
+		MonoProcessor<Void> first = MonoProcessor.create();
+		CountDownLatch started = new CountDownLatch(1);
+		executor.ordered("conn", "file:///doc", first.doOnSubscribe(s -> started.countDown())).subscribe();
+		assertThat(started.await(1, TimeUnit.SECONDS)).isTrue();
+
+		AtomicReference<Throwable> error = new AtomicReference<>();
+		CountDownLatch latch = new CountDownLatch(2);
+		for (int i = 0; i < 2; i++) {
+			executor.ordered("conn", "file:///doc", Mono.just("hi")).subscribe(null, e -> {
+				error.set(e);
+				latch.countDown();
+			});
+		}
+		scheduler.dispose();
+		first.onComplete();
+		assertThat(latch.await(1, TimeUnit.SECONDS)).isTrue();
+		assertThat(error.get()).isInstanceOf(RejectedExecutionException.class);
+	}
+
+	@Test
+	public void testImmediate() {
+		executor = new DocumentOrderedExecutor(Schedulers.immediate());
+		List<Integer> order = new ArrayList<>();
+		executor.ordered("conn", "file:///doc", Mono.fromRunnable(() -> {
+			order.add(0);
+			executor.ordered("conn", "file:///doc", Mono.fromRunnable(() -> order.add(2))).subscribe();
+			order.add(1);
+		})).subscribe();
+		assertThat(order).containsExactly(0, 1, 2);
+	}
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.lsp.server.jsonrpc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.reactivestreams.Subscription;
+import org.springframework.dsl.domain.DidChangeTextDocumentParams;
+import org.springframework.dsl.jsonrpc.JsonRpcRequest;
+import org.springframework.dsl.jsonrpc.JsonRpcResponse;
+import org.springframework.dsl.jsonrpc.support.DefaultJsonRpcRequest;
+import org.springframework.dsl.jsonrpc.support.DefaultJsonRpcResponse;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import reactor.core.publisher.MonoProcessor;
+
+/**
+ * Tests for {@link InboundRequestDispatcher}.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class InboundRequestDispatcherTests {
+
+	private ObjectMapper mapper;
+	private List<JsonRpcRequest> handled;
+	private List<JsonRpcResponse> responses;
+	private List<MonoProcessor<Void>> handlings;
+	private AtomicLong requested;
+	private InboundRequestDispatcher dispatcher;
+
+	@Before
+	public void setup() {
+		mapper = new ObjectMapper();
+		handled = new ArrayList<>();
+		responses = new ArrayList<>();
+		handlings = new ArrayList<>();
+		requested = new AtomicLong();
+		dispatcher = new InboundRequestDispatcher(request -> {
+			handled.add(request);
+			MonoProcessor<Void> handling = MonoProcessor.create();
+			handlings.add(handling);
+			return handling;
+		}, responses::add, mapper, 4, 1);
+		dispatcher.onSubscribe(new Subscription() {
+
+			@Override
+			public void request(long n) {
+				requested.addAndGet(n);
+			}
+
+			@Override
+			public void cancel() {
+			}
+		});
+	}
+
+	@Test
+	public void testBoundedDemand() {
+		assertThat(requested.get()).isEqualTo(4);
+		dispatcher.onNext(request("1", "hover", null));
+		dispatcher.onNext(request("2", "hover", null));
+		assertThat(handled).hasSize(1);
+		assertThat(requested.get()).isEqualTo(5);
+		handlings.get(0).onComplete();
+		assertThat(handled).hasSize(2);
+		assertThat(requested.get()).isEqualTo(6);
+	}
+
+	@Test
+	public void testMergeDidChange() throws Exception {
+		dispatcher.onNext(didChange("file:///doc", 1, "a"));
+		dispatcher.onNext(didChange("file:///doc", 2, "b"));
+		dispatcher.onNext(didChange("file:///doc", 3, "c"));
+		dispatcher.onNext(didChange("file:///doc", 4, "d"));
+		assertThat(handled).hasSize(1);
+		handlings.get(0).onComplete();
+		assertThat(handled).hasSize(2);
+		assertThat(requested.get()).isEqualTo(8);
+
+		DidChangeTextDocumentParams params = params(handled.get(1));
+		assertThat(params.getTextDocument().getUri()).isEqualTo("file:///doc");
+		assertThat(params.getTextDocument().getVersion()).isEqualTo(4);
+		assertThat(params.getContentChanges()).hasSize(1);
+		assertThat(params.getContentChanges().get(0).getText()).isEqualTo("d");
+	}
+
+	@Test
+	public void testNoMergeAcrossOtherRequests() throws Exception {
+		dispatcher.onNext(request("1", "hover", null));
+		dispatcher.onNext(didChange("file:///doc", 2, "b"));
+		dispatcher.onNext(didChange("file:///other", 2, "x"));
+		dispatcher.onNext(didChange("file:///doc", 3, "c"));
+		handlings.get(0).onComplete();
+		handlings.get(1).onComplete();
+		handlings.get(2).onComplete();
+		assertThat(handled).hasSize(4);
+		assertThat(params(handled.get(1)).getTextDocument().getVersion()).isEqualTo(2);
+		assertThat(params(handled.get(3)).getTextDocument().getVersion()).isEqualTo(3);
+	}
+
+	@Test
+	public void testNoMergeWithStaleVersion() throws Exception {
+		dispatcher.onNext(request("1", "hover", null));
+		dispatcher.onNext(didChange("file:///doc", 3, "c"));
+		dispatcher.onNext(didChange("file:///doc", 2, "b"));
+		handlings.get(0).onComplete();
+		handlings.get(1).onComplete();
+		assertThat(handled).hasSize(3);
+		assertThat(params(handled.get(1)).getTextDocument().getVersion()).isEqualTo(3);
+		assertThat(params(handled.get(2)).getTextDocument().getVersion()).isEqualTo(2);
+	}
+
+	@Test
+	public void testCancelNotQueued() {
+		dispatcher.onNext(request("1", "hover", null));
+		dispatcher.onNext(request("2", "hover", null));
+		dispatcher.onNext(request("1", "$/cancelRequest", null));
+		assertThat(handled).hasSize(2);
+		assertThat(handled.get(1).getMethod()).isEqualTo("$/cancelRequest");
+	}
+
+	@Test
+	public void testResponsesNotBlockedByHandling() {
+		// handling in progress waits for a response while requests are queued
+		dispatcher.onNext(request("1", "hover", null));
+		dispatcher.onNext(request("2", "hover", null));
+		dispatcher.onNext(request("3", "hover", null));
+		dispatcher.onNext(request("4", "hover", null));
+		dispatcher.onNext(request("5", "hover", null));
+		assertThat(handled).hasSize(1);
+		assertThat(requested.get()).isEqualTo(5);
+
+		dispatcher.onNext(new DefaultJsonRpcResponse("2.0", "s1", "result", null));
+		assertThat(responses).hasSize(1);
+		assertThat(responses.get(0).getId()).isEqualTo("s1");
+		assertThat(requested.get()).isEqualTo(6);
+		assertThat(handled).hasSize(1);
+	}
+
+	private JsonRpcRequest request(String id, String method, Object params) {
+		return new DefaultJsonRpcRequest("2.0", id, method, params);
+	}
+
+	private JsonRpcRequest didChange(String uri, int version, String text) throws Exception {
+		TokenBuffer buffer = new TokenBuffer(mapper, false);
+		mapper.writeValue(buffer, DidChangeTextDocumentParams.didChangeTextDocumentParams()
+				.textDocument()
+					.uri(uri)
+					.version(version)
+					.and()
+				.contentChanges()
+					.text(text)
+					.and()
+				.build());
+		return request(null, "textDocument/didChange", buffer);
+	}
+
+	private DidChangeTextDocumentParams params(JsonRpcRequest request) throws Exception {
+		return mapper.readValue(((TokenBuffer) request.getParams()).asParser(), DidChangeTextDocumentParams.class);
+	}
+}
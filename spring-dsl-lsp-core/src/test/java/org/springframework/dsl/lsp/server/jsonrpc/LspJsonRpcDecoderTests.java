@@ -18,9 +18,11 @@ package org.springframework.dsl.lsp.server.jsonrpc;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 
 import org.junit.Test;
 
+import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.embedded.EmbeddedChannel;
 
@@ -43,8 +45,12 @@ public class LspJsonRpcDecoderTests {
 			buf.append(line);
 			buf.append("\r\n");
 		}
-		String message = "Content-Length: " + buf.length() + "\r\n\r\n" + buf.toString();
-		return message.getBytes();
+		byte[] body = buf.toString().getBytes(StandardCharsets.UTF_8);
+		byte[] header = ("Content-Length: " + body.length + "\r\n\r\n").getBytes(StandardCharsets.UTF_8);
+		byte[] message = new byte[header.length + body.length];
+		System.arraycopy(header, 0, message, 0, header.length);
+		System.arraycopy(body, 0, message, header.length, body.length);
+		return message;
 	}
 
 	private static String string(int length) {
@@ -75,10 +81,47 @@ public class LspJsonRpcDecoderTests {
 		testDoubleRequestAtOnce(concat(CONTENT1, CONTENT2));
 	}
 
+	@Test
+	public void testMultiByteContent() {
+		String body = "{\"jsonrpc\": \"2.0\",\"id\": 100, \"params\": \"\u00e4\u00f6\u20ac\"}";
+		byte[] content = createContent(body);
+		testSingleRequestAtOnce(content);
+		testSingleRequestByteAtTime(content);
+		EmbeddedChannel channel = new EmbeddedChannel(new LspJsonRpcDecoder());
+		channel.writeInbound(Unpooled.wrappedBuffer(content));
+		String req = readInbound(channel);
+		assertThat(req).isEqualTo(body + "\r\n");
+		assertThat(readInbound(channel)).isNull();
+	}
+
+	@Test
+	public void testExtraHeaders() {
+		String body = "{\"jsonrpc\": \"2.0\",\"id\": 100}";
+		String message = "Content-Type: application/vscode-jsonrpc; charset=utf-8\r\ncontent-length: " + body.length()
+				+ "\r\n\r\n" + body;
+		EmbeddedChannel channel = new EmbeddedChannel(new LspJsonRpcDecoder());
+		assertThat(channel.writeInbound(Unpooled.copiedBuffer(message, StandardCharsets.UTF_8))).isTrue();
+		String req = readInbound(channel);
+		assertThat(req).isEqualTo(body);
+		assertThat(channel.finish()).isFalse();
+	}
+
+	private static String readInbound(EmbeddedChannel channel) {
+		ByteBuf buf = channel.readInbound();
+		if (buf == null) {
+			return null;
+		}
+		try {
+			return buf.toString(StandardCharsets.UTF_8);
+		} finally {
+			buf.release();
+		}
+	}
+
 	private static void testSingleRequestAtOnce(byte[] content) {
         EmbeddedChannel channel = new EmbeddedChannel(new LspJsonRpcDecoder());
         assertThat(channel.writeInbound(Unpooled.wrappedBuffer(content))).isTrue();
-        String req = channel.readInbound();
+        String req = readInbound(channel);
         assertThat(req).isNotNull();
         assertThat(req).isNotNull();
         assertThat(req).contains("2.0");
@@ -92,7 +135,7 @@ public class LspJsonRpcDecoderTests {
 	private static void testSingleLongRequestAtOnce(byte[] content, int lentgh) {
         EmbeddedChannel channel = new EmbeddedChannel(new LspJsonRpcDecoder());
         assertThat(channel.writeInbound(Unpooled.wrappedBuffer(content))).isTrue();
-        String req = channel.readInbound();
+        String req = readInbound(channel);
         assertThat(req).isNotNull();
         assertThat(req).isNotNull();
         assertThat(req).contains("2.0");
@@ -111,7 +154,7 @@ public class LspJsonRpcDecoderTests {
 			byte[] bytes = new byte[] { b };
 			channel.writeInbound(Unpooled.wrappedBuffer(bytes));
         }
-        String req = channel.readInbound();
+        String req = readInbound(channel);
         assertThat(req).isNotNull();
         assertThat(req).isNotNull();
         assertThat(req).contains("2.0");
@@ -128,7 +171,7 @@ public class LspJsonRpcDecoderTests {
 			byte[] bytes = new byte[] { b };
 			channel.writeInbound(Unpooled.wrappedBuffer(bytes));
         }
-        String req = channel.readInbound();
+        String req = readInbound(channel);
         assertThat(req).isNotNull();
         assertThat(req).isNotNull();
         assertThat(req).contains("2.0");
@@ -144,14 +187,14 @@ public class LspJsonRpcDecoderTests {
 	private static void testDoubleRequestAtOnce(byte[] content) {
         EmbeddedChannel channel = new EmbeddedChannel(new LspJsonRpcDecoder());
         assertThat(channel.writeInbound(Unpooled.wrappedBuffer(content))).isTrue();
-        String req = channel.readInbound();
+        String req = readInbound(channel);
         assertThat(req).isNotNull();
         assertThat(req).isNotNull();
         assertThat(req).contains("2.0");
         assertThat(req).contains("100");
         assertThat(req).doesNotContain("200");
 
-        req = channel.readInbound();
+        req = readInbound(channel);
         assertThat(req).isNotNull();
         assertThat(req).isNotNull();
         assertThat(req).contains("2.0");
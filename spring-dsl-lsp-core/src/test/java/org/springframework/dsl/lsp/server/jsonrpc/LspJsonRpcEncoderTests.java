@@ -0,0 +1,94 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.lsp.server.jsonrpc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+/**
+ * Tests for {@link LspJsonRpcEncoder}.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class LspJsonRpcEncoderTests {
+
+	@Test
+	public void testSmallContent() {
+		testContent("{\"jsonrpc\":\"2.0\",\"id\":\"1\",\"result\":\"hi\"}");
+		testContent("");
+	}
+
+	@Test
+	public void testLargeContent() {
+		testContent(string(1023));
+		testContent(string(1024));
+		testContent(string(100000));
+	}
+
+	@Test
+	public void testMultiByteContent() {
+		EmbeddedChannel channel = new EmbeddedChannel(new LspJsonRpcEncoder());
+		assertThat(channel.writeOutbound(Unpooled.copiedBuffer("hä€", StandardCharsets.UTF_8))).isTrue();
+		assertThat(readOutbound(channel)).isEqualTo("Content-Length: 6\r\n\r\nhä€");
+		assertThat(channel.finish()).isFalse();
+	}
+
+	@Test
+	public void testBodyNotCopied() {
+		EmbeddedChannel channel = new EmbeddedChannel(new LspJsonRpcEncoder());
+		ByteBuf body = Unpooled.copiedBuffer(string(2000), StandardCharsets.UTF_8);
+		assertThat(channel.writeOutbound(body)).isTrue();
+		CompositeByteBuf frame = channel.readOutbound();
+		assertThat(frame.numComponents()).isEqualTo(2);
+		assertThat(frame.internalComponent(1).unwrap()).isSameAs(body);
+		assertThat(body.refCnt()).isEqualTo(1);
+		frame.release();
+		assertThat(body.refCnt()).isEqualTo(0);
+	}
+
+	private static void testContent(String content) {
+		EmbeddedChannel channel = new EmbeddedChannel(new LspJsonRpcEncoder());
+		assertThat(channel.writeOutbound(Unpooled.copiedBuffer(content, StandardCharsets.UTF_8))).isTrue();
+		assertThat(readOutbound(channel)).isEqualTo("Content-Length: " + content.length() + "\r\n\r\n" + content);
+		assertThat(channel.finish()).isFalse();
+	}
+
+	private static String readOutbound(EmbeddedChannel channel) {
+		ByteBuf buf = channel.readOutbound();
+		try {
+			return buf.toString(StandardCharsets.UTF_8);
+		} finally {
+			buf.release();
+		}
+	}
+
+	private static String string(int length) {
+		StringBuilder buf = new StringBuilder();
+		for (int i = 0; i < length; i++) {
+			buf.append("x");
+		}
+		return buf.toString();
+	}
+}
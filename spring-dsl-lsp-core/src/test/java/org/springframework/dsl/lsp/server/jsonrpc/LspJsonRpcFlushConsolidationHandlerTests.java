@@ -0,0 +1,116 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.lsp.server.jsonrpc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+
+import org.junit.Test;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+/**
+ * Tests for {@link LspJsonRpcFlushConsolidationHandler}.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class LspJsonRpcFlushConsolidationHandlerTests {
+
+	@Test
+	public void testFlushesCoalescedUntilTaskRuns() {
+		EmbeddedChannel channel = new EmbeddedChannel(
+				new LspJsonRpcFlushConsolidationHandler(100, Duration.ofSeconds(10)));
+		channel.write(buffer(1));
+		channel.write(buffer(2));
+		channel.pipeline().flush();
+		channel.pipeline().flush();
+		assertThat(channel.outboundMessages()).isEmpty();
+
+		channel.runPendingTasks();
+		assertThat(channel.outboundMessages()).hasSize(2);
+		release(channel);
+	}
+
+	@Test
+	public void testFlushDeferredUntilReadComplete() {
+		EmbeddedChannel channel = new EmbeddedChannel(
+				new LspJsonRpcFlushConsolidationHandler(100, Duration.ofSeconds(10)),
+				new ChannelInboundHandlerAdapter() {
+
+					@Override
+					public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+						ctx.writeAndFlush(msg);
+					}
+				});
+		channel.pipeline().fireChannelRead(buffer(1));
+		channel.pipeline().fireChannelRead(buffer(2));
+		channel.runPendingTasks();
+		assertThat(channel.outboundMessages()).isEmpty();
+
+		channel.pipeline().fireChannelReadComplete();
+		assertThat(channel.outboundMessages()).hasSize(2);
+		release(channel);
+	}
+
+	@Test
+	public void testMaxPendingFlushes() {
+		EmbeddedChannel channel = new EmbeddedChannel(
+				new LspJsonRpcFlushConsolidationHandler(2, Duration.ofSeconds(10)));
+		channel.write(buffer(1));
+		channel.write(buffer(2));
+		channel.pipeline().flush();
+		assertThat(channel.outboundMessages()).isEmpty();
+		channel.pipeline().flush();
+		assertThat(channel.outboundMessages()).hasSize(2);
+		release(channel);
+	}
+
+	@Test
+	public void testMaxDelay() {
+		EmbeddedChannel channel = new EmbeddedChannel(
+				new LspJsonRpcFlushConsolidationHandler(100, Duration.ZERO));
+		channel.write(buffer(1));
+		channel.pipeline().flush();
+		assertThat(channel.outboundMessages()).hasSize(1);
+		release(channel);
+	}
+
+	@Test
+	public void testFlushOnClose() {
+		EmbeddedChannel channel = new EmbeddedChannel(
+				new LspJsonRpcFlushConsolidationHandler(100, Duration.ofSeconds(10)));
+		channel.write(buffer(1));
+		channel.pipeline().flush();
+		assertThat(channel.outboundMessages()).isEmpty();
+		channel.close();
+		assertThat(channel.outboundMessages()).hasSize(1);
+		release(channel);
+	}
+
+	private static ByteBuf buffer(int value) {
+		return Unpooled.buffer().writeInt(value);
+	}
+
+	private static void release(EmbeddedChannel channel) {
+		channel.finishAndReleaseAll();
+	}
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.lsp.server.jsonrpc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.File;
+import java.time.Duration;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.dsl.jsonrpc.annotation.JsonRpcController;
+import org.springframework.dsl.jsonrpc.annotation.JsonRpcRequestMapping;
+import org.springframework.dsl.jsonrpc.annotation.JsonRpcResponseResult;
+import org.springframework.dsl.lsp.client.ClientReactorJsonRpcHandlerAdapter;
+import org.springframework.dsl.lsp.client.LspClient;
+import org.springframework.dsl.lsp.client.LspClientResponse;
+import org.springframework.dsl.lsp.server.LspServerException;
+
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.unix.DomainSocketAddress;
+import io.netty.channel.unix.Socket;
+
+public class NettyDomainSocketServerIntegrationTests {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private AnnotationConfigApplicationContext context;
+	private AnnotationConfigApplicationContext clientContext;
+	private NettyDomainSocketServer server;
+	private LspClient lspClient;
+
+	@Before
+	public void init() {
+		Assume.assumeTrue(Epoll.isAvailable());
+		context = null;
+		clientContext = null;
+		server = null;
+		lspClient = null;
+	}
+
+	@After
+	public void clean() {
+		if (lspClient != null) {
+			lspClient.stop();
+		}
+		if (server != null) {
+			server.stop();
+		}
+		if (clientContext != null) {
+			clientContext.close();
+		}
+		if (context != null) {
+			context.close();
+		}
+	}
+
+	@Test
+	public void testClient() throws Exception {
+		String path = new File(folder.getRoot(), "lsp.sock").getAbsolutePath();
+		context = new AnnotationConfigApplicationContext();
+		context.register(NettyTcpServerIntegrationTests.JsonRpcConfig.class, TestServerJsonRpcController.class);
+		context.refresh();
+		ReactorJsonRpcHandlerAdapter serverAdapter = context.getBean(ReactorJsonRpcHandlerAdapter.class);
+		server = new NettyDomainSocketServer(path, serverAdapter, null);
+		server.start();
+		assertThat(server.getPort()).isEqualTo(-1);
+		assertThat(new File(server.getPath())).exists();
+
+		clientContext = new AnnotationConfigApplicationContext();
+		clientContext.register(NettyTcpServerIntegrationTests.JsonRpcConfig.class,
+				NettyTcpServerIntegrationTests.JsonRpcClientConfig.class);
+		clientContext.refresh();
+		ClientReactorJsonRpcHandlerAdapter adapter = clientContext.getBean(ClientReactorJsonRpcHandlerAdapter.class);
+
+		lspClient = LspClient.builder()
+				.path(server.getPath())
+				.function(adapter)
+				.processor(adapter)
+				.build();
+		lspClient.start();
+
+		LspClientResponse response = lspClient.request().id("1").method("hi").exchange()
+				.block(Duration.ofSeconds(2));
+		assertThat(response.response().getId()).isEqualTo("1");
+		assertThat(response.response().getResult()).isEqualTo("hi");
+	}
+
+	@Test
+	public void testStopRemovesSocketFile() throws Exception {
+		File file = new File(folder.getRoot(), "lsp.sock");
+		server = new NettyDomainSocketServer(file.getAbsolutePath(), createAdapter(), null);
+		server.start();
+		assertThat(file).exists();
+		server.stop();
+		server = null;
+		assertThat(file).doesNotExist();
+	}
+
+	@Test
+	public void testStaleSocketReplaced() throws Exception {
+		File file = new File(folder.getRoot(), "stale.sock");
+		// socket bound without netty channel is left behind when closed
+		Socket socket = Socket.newSocketDomain();
+		try {
+			socket.bind(new DomainSocketAddress(file.getAbsolutePath()));
+		} finally {
+			socket.close();
+		}
+		assertThat(file).exists();
+
+		server = new NettyDomainSocketServer(file.getAbsolutePath(), createAdapter(), null);
+		server.start();
+		assertThat(file).exists();
+		server.stop();
+		server = null;
+		assertThat(file).doesNotExist();
+	}
+
+	@Test
+	public void testRegularFileNotDeleted() throws Exception {
+		File file = folder.newFile("file.sock");
+		NettyDomainSocketServer other = new NettyDomainSocketServer(file.getAbsolutePath(), createAdapter(), null);
+		assertThatThrownBy(() -> other.start()).isInstanceOf(LspServerException.class);
+		other.stop();
+		assertThat(file).exists();
+	}
+
+	@Test
+	public void testSocketInUseNotDeleted() throws Exception {
+		File file = new File(folder.getRoot(), "lsp.sock");
+		ReactorJsonRpcHandlerAdapter adapter = createAdapter();
+		server = new NettyDomainSocketServer(file.getAbsolutePath(), adapter, null);
+		server.start();
+
+		NettyDomainSocketServer other = new NettyDomainSocketServer(file.getAbsolutePath(), adapter, null);
+		assertThatThrownBy(() -> other.start()).isInstanceOf(LspServerException.class);
+		other.stop();
+		assertThat(file).exists();
+	}
+
+	private ReactorJsonRpcHandlerAdapter createAdapter() {
+		context = new AnnotationConfigApplicationContext();
+		context.register(NettyTcpServerIntegrationTests.JsonRpcConfig.class, TestServerJsonRpcController.class);
+		context.refresh();
+		return context.getBean(ReactorJsonRpcHandlerAdapter.class);
+	}
+
+	@JsonRpcController
+	private static class TestServerJsonRpcController {
+
+		@JsonRpcRequestMapping(method = "hi")
+		@JsonRpcResponseResult
+		public String hi() {
+			return "hi";
+		}
+	}
+}
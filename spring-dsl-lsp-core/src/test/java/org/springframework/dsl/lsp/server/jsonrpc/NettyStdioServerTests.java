@@ -0,0 +1,184 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.lsp.server.jsonrpc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Pipe;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.ReactiveAdapterRegistry;
+import org.springframework.dsl.jsonrpc.JsonRpcSystemConstants;
+import org.springframework.dsl.jsonrpc.annotation.JsonRpcController;
+import org.springframework.dsl.jsonrpc.annotation.JsonRpcRequestMapping;
+import org.springframework.dsl.jsonrpc.annotation.JsonRpcRequestParams;
+import org.springframework.dsl.jsonrpc.annotation.JsonRpcResponseResult;
+import org.springframework.dsl.jsonrpc.config.EnableJsonRpc;
+import org.springframework.dsl.jsonrpc.config.JsonRpcJacksonConfiguration;
+import org.springframework.dsl.jsonrpc.support.DispatcherJsonRpcHandler;
+import org.springframework.dsl.lsp.server.config.LspDomainJacksonConfiguration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class NettyStdioServerTests {
+
+	private AnnotationConfigApplicationContext context;
+	private NettyStdioServer server;
+	private Pipe input;
+	private Pipe output;
+
+	@Before
+	public void init() throws IOException {
+		context = new AnnotationConfigApplicationContext();
+		context.register(JsonRpcConfig.class, TestServerJsonRpcController.class);
+		context.refresh();
+		input = Pipe.open();
+		output = Pipe.open();
+		server = new NettyStdioServer(context.getBean(ReactorJsonRpcHandlerAdapter.class),
+				new StdioAddress(input.source(), output.sink()), Duration.ofSeconds(10));
+		server.start();
+	}
+
+	@After
+	public void clean() throws IOException {
+		server.stop();
+		context.close();
+		input.sink().close();
+		input.source().close();
+		output.sink().close();
+		output.source().close();
+	}
+
+	@Test
+	public void testNoPort() {
+		assertThat(server.getPort()).isEqualTo(-1);
+	}
+
+	@Test
+	public void testRequest() throws IOException {
+		write(createContent("{\"jsonrpc\": \"2.0\",\"id\": 2, \"method\": \"hi\"}"));
+		assertThat(read()).isEqualTo("{\"jsonrpc\":\"2.0\",\"id\":\"2\",\"result\":\"hi\"}");
+	}
+
+	@Test
+	public void testMultiByteContent() throws IOException {
+		write(createContent("{\"jsonrpc\": \"2.0\",\"id\": 2, \"method\": \"echo\", \"params\":\"hä€\"}"));
+		assertThat(read()).isEqualTo("{\"jsonrpc\":\"2.0\",\"id\":\"2\",\"result\":\"hä€\"}");
+	}
+
+	@Test
+	public void testSplitAndCoalescedFrames() throws IOException {
+		byte[] content1 = createContent("{\"jsonrpc\": \"2.0\",\"id\": 1, \"method\": \"hi\"}");
+		byte[] content2 = createContent("{\"jsonrpc\": \"2.0\",\"id\": 2, \"method\": \"hi\"}");
+		ByteBuffer buffer = ByteBuffer.allocate(content1.length + content2.length);
+		buffer.put(content1).put(content2).flip();
+		byte[] bytes = buffer.array();
+		write(Arrays.copyOfRange(bytes, 0, 7));
+		write(Arrays.copyOfRange(bytes, 7, bytes.length));
+		assertThat(read()).isEqualTo("{\"jsonrpc\":\"2.0\",\"id\":\"1\",\"result\":\"hi\"}");
+		assertThat(read()).isEqualTo("{\"jsonrpc\":\"2.0\",\"id\":\"2\",\"result\":\"hi\"}");
+	}
+
+	private void write(byte[] bytes) throws IOException {
+		ByteBuffer buffer = ByteBuffer.wrap(bytes);
+		while (buffer.hasRemaining()) {
+			input.sink().write(buffer);
+		}
+	}
+
+	private String read() throws IOException {
+		String header = readLine();
+		assertThat(header).startsWith("Content-Length: ");
+		int length = Integer.parseInt(header.substring(16));
+		assertThat(readLine()).isEmpty();
+		ByteBuffer content = ByteBuffer.allocate(length);
+		while (content.hasRemaining()) {
+			assertThat(output.source().read(content)).isNotNegative();
+		}
+		return new String(content.array(), StandardCharsets.UTF_8);
+	}
+
+	private String readLine() throws IOException {
+		StringBuilder buf = new StringBuilder();
+		ByteBuffer single = ByteBuffer.allocate(1);
+		while (true) {
+			single.clear();
+			assertThat(output.source().read(single)).isNotNegative();
+			char c = (char) single.get(0);
+			if (c == '\n') {
+				return buf.toString();
+			} else if (c != '\r') {
+				buf.append(c);
+			}
+		}
+	}
+
+	private static byte[] createContent(String content) {
+		byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+		byte[] header = ("Content-Length: " + bytes.length + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+		ByteBuffer buffer = ByteBuffer.allocate(header.length + bytes.length);
+		return buffer.put(header).put(bytes).array();
+	}
+
+	@EnableJsonRpc
+	@Import({ JsonRpcJacksonConfiguration.class, LspDomainJacksonConfiguration.class })
+	static class JsonRpcConfig {
+
+		@Bean
+		public ReactiveAdapterRegistry jsonRpcAdapterRegistry() {
+			return new ReactiveAdapterRegistry();
+		}
+
+		@Bean
+		public RpcJsonRpcHandlerAdapter rpcJsonRpcHandlerAdapter(DispatcherJsonRpcHandler dispatcherJsonRpcHandler) {
+			return new RpcJsonRpcHandlerAdapter(dispatcherJsonRpcHandler);
+		}
+
+		@Bean
+		public ReactorJsonRpcHandlerAdapter reactorJsonRpcHandlerAdapter(
+				RpcJsonRpcHandlerAdapter rpcJsonRpcHandlerAdapter,
+				@Qualifier(JsonRpcSystemConstants.JSONRPC_OBJECT_MAPPER_BEAN_NAME) ObjectMapper objectMapper) {
+			return new ReactorJsonRpcHandlerAdapter(rpcJsonRpcHandlerAdapter, objectMapper);
+		}
+	}
+
+	@JsonRpcController
+	private static class TestServerJsonRpcController {
+
+		@JsonRpcRequestMapping(method = "hi")
+		@JsonRpcResponseResult
+		public String hi() {
+			return "hi";
+		}
+
+		@JsonRpcRequestMapping(method = "echo")
+		@JsonRpcResponseResult
+		public String echo(@JsonRpcRequestParams String params) {
+			return params;
+		}
+	}
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.lsp.server.websocket;
+
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.http.server.reactive.AbstractServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.web.reactive.socket.HandshakeInfo;
+import org.springframework.web.reactive.socket.WebSocketHandler;
+import org.springframework.web.reactive.socket.server.RequestUpgradeStrategy;
+import org.springframework.web.server.ServerWebExchange;
+
+import reactor.core.publisher.Mono;
+import reactor.ipc.netty.http.server.HttpServerResponse;
+
+/**
+ * {@link RequestUpgradeStrategy} for reactor netty creating
+ * {@link LspReactorNettyWebSocketSession}s. Exchanges not running on reactor
+ * netty are upgraded with a given fallback strategy.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class LspReactorNettyRequestUpgradeStrategy implements RequestUpgradeStrategy {
+
+	private final RequestUpgradeStrategy fallback;
+
+	/**
+	 * Instantiates a new lsp reactor netty request upgrade strategy.
+	 *
+	 * @param fallback the strategy used with other runtimes
+	 */
+	public LspReactorNettyRequestUpgradeStrategy(RequestUpgradeStrategy fallback) {
+		Assert.notNull(fallback, "Fallback RequestUpgradeStrategy must be set");
+		this.fallback = fallback;
+	}
+
+	@Override
+	public Mono<Void> upgrade(ServerWebExchange exchange, WebSocketHandler handler, @Nullable String subProtocol) {
+		ServerHttpResponse response = exchange.getResponse();
+		if (!(response instanceof AbstractServerHttpResponse)
+				|| !(((AbstractServerHttpResponse) response).getNativeResponse() instanceof HttpServerResponse)) {
+			return fallback.upgrade(exchange, handler, subProtocol);
+		}
+		HttpServerResponse reactorResponse = ((AbstractServerHttpResponse) response).getNativeResponse();
+		ServerHttpRequest request = exchange.getRequest();
+		HandshakeInfo info = new HandshakeInfo(request.getURI(), request.getHeaders(), exchange.getPrincipal(),
+				subProtocol);
+		NettyDataBufferFactory bufferFactory = (NettyDataBufferFactory) response.bufferFactory();
+		return reactorResponse.sendWebsocket(subProtocol,
+				(in, out) -> handler.handle(new LspReactorNettyWebSocketSession(in, out, info, bufferFactory)));
+	}
+}
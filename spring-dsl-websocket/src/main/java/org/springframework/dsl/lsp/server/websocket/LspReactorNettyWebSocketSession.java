@@ -0,0 +1,59 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.lsp.server.websocket;
+
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.web.reactive.socket.HandshakeInfo;
+import org.springframework.web.reactive.socket.adapter.ReactorNettyWebSocketSession;
+
+import reactor.ipc.netty.http.websocket.WebsocketInbound;
+import reactor.ipc.netty.http.websocket.WebsocketOutbound;
+
+/**
+ * {@link ReactorNettyWebSocketSession} exposing its {@link WebsocketInbound}
+ * so that raw frames can be received instead of aggregated messages.
+ *
+ * @author Janne Valkealahti
+ * @see LspReactorNettyRequestUpgradeStrategy
+ *
+ */
+public class LspReactorNettyWebSocketSession extends ReactorNettyWebSocketSession {
+
+	private final WebsocketInbound inbound;
+
+	/**
+	 * Instantiates a new lsp reactor netty web socket session.
+	 *
+	 * @param inbound the websocket inbound
+	 * @param outbound the websocket outbound
+	 * @param info the handshake info
+	 * @param bufferFactory the buffer factory
+	 */
+	public LspReactorNettyWebSocketSession(WebsocketInbound inbound, WebsocketOutbound outbound, HandshakeInfo info,
+			NettyDataBufferFactory bufferFactory) {
+		super(inbound, outbound, info, bufferFactory);
+		this.inbound = inbound;
+	}
+
+	/**
+	 * Gets the websocket inbound of this session.
+	 *
+	 * @return the websocket inbound
+	 */
+	public WebsocketInbound getInbound() {
+		return inbound;
+	}
+}
@@ -18,16 +18,20 @@ package org.springframework.dsl.lsp.server.websocket;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.Ordered;
 import org.springframework.dsl.jsonrpc.JsonRpcSystemConstants;
+import org.springframework.dsl.jsonrpc.jackson.JsonRpcJackson2ObjectMapperBuilder;
 import org.springframework.dsl.lsp.server.config.DslConfigurationProperties;
+import org.springframework.dsl.lsp.server.config.DslConfigurationProperties.WebSocketProperties;
 import org.springframework.dsl.lsp.server.jsonrpc.RpcHandler;
 import org.springframework.web.reactive.HandlerMapping;
 import org.springframework.web.reactive.handler.SimpleUrlHandlerMapping;
 import org.springframework.web.reactive.socket.WebSocketHandler;
+import org.springframework.web.reactive.socket.server.support.HandshakeWebSocketService;
 import org.springframework.web.reactive.socket.server.support.WebSocketHandlerAdapter;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -49,10 +53,26 @@ public class LspWebSocketConfig {
 
 	@Bean
 	public HandlerMapping handlerMapping(RpcHandler rpcHandler,
-			@Qualifier(JsonRpcSystemConstants.JSONRPC_OBJECT_MAPPER_BEAN_NAME) ObjectMapper objectMapper) {
+			@Qualifier(JsonRpcSystemConstants.JSONRPC_OBJECT_MAPPER_BEAN_NAME) ObjectMapper objectMapper,
+			ObjectProvider<JsonRpcJackson2ObjectMapperBuilder> objectMapperBuilder) {
+		WebSocketProperties websocket = properties.getLsp().getServer().getWebsocket();
+		LspWebSocketHandler handler = new LspWebSocketHandler(rpcHandler, objectMapper);
+		handler.setBinary(websocket.isBinary());
+		handler.setMaxMessageSize(websocket.getMaxMessageSize());
+		handler.setClientRequestTimeout(properties.getLsp().getServer().getClientRequestTimeout());
+		JsonRpcJackson2ObjectMapperBuilder builder = objectMapperBuilder.getIfAvailable();
+		if (builder != null) {
+			// binary formats need mappers configured same way as a json one
+			for (WebSocketDataFormat format : WebSocketDataFormat.values()) {
+				if (format.isBinary() && format.isAvailable()) {
+					ObjectMapper formatMapper = new ObjectMapper(format.createFactory());
+					builder.configure(formatMapper);
+					handler.addDataFormat(format, formatMapper);
+				}
+			}
+		}
 		Map<String, WebSocketHandler> map = new HashMap<>();
-		map.put(properties.getLsp().getServer().getWebsocket().getPath(),
-				new LspWebSocketHandler(rpcHandler, objectMapper));
+		map.put(websocket.getPath(), handler);
 
 		SimpleUrlHandlerMapping mapping = new SimpleUrlHandlerMapping();
 		mapping.setUrlMap(map);
@@ -62,6 +82,10 @@ public class LspWebSocketConfig {
 
 	@Bean
 	public WebSocketHandlerAdapter handlerAdapter() {
-		return new WebSocketHandlerAdapter();
+		// sessions expose raw frames on reactor netty, other runtimes use a
+		// default upgrade strategy
+		HandshakeWebSocketService defaultService = new HandshakeWebSocketService();
+		return new WebSocketHandlerAdapter(new HandshakeWebSocketService(
+				new LspReactorNettyRequestUpgradeStrategy(defaultService.getUpgradeStrategy())));
 	}
 }
@@ -15,22 +15,30 @@
  */
 package org.springframework.dsl.lsp.server.websocket;
 
-import java.nio.charset.Charset;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
 import java.util.function.Function;
 
-import org.reactivestreams.Publisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.io.buffer.DataBuffer;
-import org.springframework.core.io.buffer.DataBufferFactory;
-import org.springframework.dsl.DslException;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.dsl.jsonrpc.JsonRpcInputMessage;
+import org.springframework.dsl.jsonrpc.JsonRpcMessage;
 import org.springframework.dsl.jsonrpc.JsonRpcOutputMessage;
 import org.springframework.dsl.jsonrpc.JsonRpcRequest;
 import org.springframework.dsl.jsonrpc.JsonRpcResponse;
+import org.springframework.dsl.jsonrpc.codec.Jackson2JsonRpcMessageWriter;
+import org.springframework.dsl.jsonrpc.session.JsonRpcSession;
 import org.springframework.dsl.jsonrpc.session.JsonRpcSession.JsonRpcSessionCustomizer;
-import org.springframework.dsl.jsonrpc.support.AbstractJsonRpcOutputMessage;
+import org.springframework.dsl.jsonrpc.support.DefaultJsonRpcInputMessage;
+import org.springframework.dsl.jsonrpc.support.JsonRpcBatch;
 import org.springframework.dsl.lsp.LspSystemConstants;
+import org.springframework.dsl.lsp.client.LspClient;
 import org.springframework.dsl.lsp.client.LspClientResponse;
 import org.springframework.dsl.lsp.server.jsonrpc.RpcHandler;
 import org.springframework.util.Assert;
@@ -38,6 +46,7 @@ import org.springframework.web.reactive.socket.WebSocketHandler;
 import org.springframework.web.reactive.socket.WebSocketMessage;
 import org.springframework.web.reactive.socket.WebSocketSession;
 
+import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import reactor.core.publisher.Flux;
@@ -54,8 +63,11 @@ public class LspWebSocketHandler implements WebSocketHandler {
 	private static final Logger log = LoggerFactory.getLogger(LspWebSocketHandler.class);
 	private final RpcHandler rpcHandler;
 	private final ObjectMapper objectMapper;
-	private final Function<String, JsonRpcRequest> requestDecoder;
-	private final Function<String, JsonRpcResponse> responseDecoder;
+	private final Jackson2JsonRpcMessageWriter messageWriter;
+	private final Map<WebSocketDataFormat, ObjectMapper> dataFormats = new EnumMap<>(WebSocketDataFormat.class);
+	private WebSocketMessage.Type messageType = WebSocketMessage.Type.TEXT;
+	private int maxMessageSize = WebSocketInboundPayloads.DEFAULT_MAX_MESSAGE_SIZE;
+	private Duration clientRequestTimeout;
 
 	/**
 	 * Instantiates a new lsp web socket handler.
@@ -68,118 +80,167 @@ public class LspWebSocketHandler implements WebSocketHandler {
 		Assert.notNull(objectMapper, "ObjectMapper must be set");
 		this.rpcHandler = rpcHandler;
 		this.objectMapper = objectMapper;
-		this.requestDecoder = s -> {
-			try {
-				return objectMapper.readValue(s, JsonRpcRequest.class);
-			} catch (Exception e) {
-				throw new DslException("Unable to convert json to rpc request", e);
-			}
-		};
-		this.responseDecoder = s -> {
-			try {
-				return objectMapper.readValue(s, JsonRpcResponse.class);
-			} catch (Exception e) {
-				throw new DslException("Unable to convert json to rpc response", e);
-			}
-		};
+		this.messageWriter = new Jackson2JsonRpcMessageWriter(objectMapper);
+	}
+
+	/**
+	 * Sets if responses and server initiated messages are sent as
+	 * {@code BINARY} frames carrying {@code UTF-8} json instead of
+	 * {@code TEXT} frames. Inbound messages are accepted in both types.
+	 *
+	 * @param binary the flag if binary frames are sent
+	 */
+	public void setBinary(boolean binary) {
+		this.messageType = binary ? WebSocketMessage.Type.BINARY : WebSocketMessage.Type.TEXT;
+	}
+
+	/**
+	 * Sets the maximum size of an inbound message assembled from fragmented
+	 * frames.
+	 *
+	 * @param maxMessageSize the max message size in bytes
+	 */
+	public void setMaxMessageSize(int maxMessageSize) {
+		Assert.isTrue(maxMessageSize > 0, "Max message size must be positive");
+		this.maxMessageSize = maxMessageSize;
+	}
+
+	/**
+	 * Sets the timeout for requests sent to a client via a {@link LspClient}
+	 * bound to a session, requests without a response in time fail with a
+	 * timeout.
+	 *
+	 * @param clientRequestTimeout the client request timeout
+	 */
+	public void setClientRequestTimeout(Duration clientRequestTimeout) {
+		this.clientRequestTimeout = clientRequestTimeout;
+	}
+
+	/**
+	 * Adds a binary data format clients can negotiate during a handshake,
+	 * given {@link ObjectMapper} needs to be created with a format's
+	 * {@code JsonFactory} and otherwise configured same as a json mapper.
+	 *
+	 * @param format the data format
+	 * @param objectMapper the object mapper for a format
+	 */
+	public void addDataFormat(WebSocketDataFormat format, ObjectMapper objectMapper) {
+		Assert.notNull(format, "WebSocketDataFormat must be set");
+		Assert.notNull(objectMapper, "ObjectMapper must be set");
+		dataFormats.put(format, objectMapper);
+	}
+
+	@Override
+	public List<String> getSubProtocols() {
+		List<String> subProtocols = new ArrayList<>();
+		for (WebSocketDataFormat format : dataFormats.keySet()) {
+			subProtocols.add(format.getSubProtocol());
+		}
+		if (!subProtocols.isEmpty()) {
+			subProtocols.add(WebSocketDataFormat.JSON.getSubProtocol());
+		}
+		return subProtocols;
 	}
 
 	@Override
 	public Mono<Void> handle(WebSocketSession session) {
-		WebSocketBoundedLspClient lspClient = new WebSocketBoundedLspClient(session, objectMapper);
+		WebSocketDataFormat format = WebSocketDataFormat.resolve(session.getHandshakeInfo());
+		ObjectMapper objectMapper = dataFormats.getOrDefault(format, this.objectMapper);
+		JsonFactory jsonFactory = null;
+		WebSocketMessage.Type messageType = this.messageType;
+		if (objectMapper != this.objectMapper) {
+			log.debug("Using data format {} with session {}", format, session.getId());
+			jsonFactory = objectMapper.getFactory();
+			messageType = WebSocketMessage.Type.BINARY;
+		}
+
+		// all outbound traffic goes through one sink so that responses and
+		// server initiated messages don't race with separate sends
+		WebSocketOutboundSink outbound = new WebSocketOutboundSink(session,
+				WebSocketOutboundSink.DEFAULT_HIGH_WATER_MARK, messageType, jsonFactory);
+		WebSocketBoundedLspClient lspClient = new WebSocketBoundedLspClient(session, outbound, objectMapper,
+				clientRequestTimeout);
 		JsonRpcSessionCustomizer customizer = s -> s.getAttributes()
 				.put(LspSystemConstants.SESSION_ATTRIBUTE_LSP_CLIENT, lspClient);
 
-		// can read payload only once so need to share it
-		Flux<String> shared = session
-				.receive()
-				.map(WebSocketMessage::getPayloadAsText)
+		// websocket session is always one session, so bind it once instead
+		// of resolving it for every message and let it go with a connection
+		Mono<JsonRpcSession> boundSession = rpcHandler.bindSession(session.getId(), customizer).cache();
+
+		// can read payload only once so parse it into a message and share it,
+		// batch is flattened into its requests which know where to write
+		// responses. payload is released as soon as it's parsed.
+		Flux<JsonRpcMessage> shared = WebSocketInboundPayloads
+				.receive(session, maxMessageSize)
+				.flatMapIterable(payload -> decodeMessages(payload, objectMapper, session, outbound))
 				.share();
 
 		// push stuff to lsp client
 		shared
-			.map(responseDecoder)
+			.ofType(JsonRpcResponse.class)
 			.filter(response -> response.getResult() != null || response.getError() != null)
 			.subscribe(bb -> {
-					lspClient.getResponses().onNext(
+					lspClient.getPendingRequests().complete(
 							LspClientResponse.create(lspClient.getJsonRpcExtractorStrategies()).response(bb).build());
 				});
 
 		// return normal rpc handling
-		return shared
-			.map(requestDecoder)
-			.filter(request -> request.getMethod() != null)
+		Mono<Void> inbound = shared
+			.ofType(JsonRpcRequest.class)
 			.doOnNext(request -> {
 
-				JsonRpcInputMessage inputMessage = new JsonRpcInputMessage() {
-
-					@Override
-					public Mono<String> getJsonrpc() {
-						return Mono.justOrEmpty(request.getJsonrpc());
-					}
-
-					@Override
-					public Mono<String> getId() {
-						return Mono.justOrEmpty(request.getId());
-					}
-
-					@Override
-					public Mono<String> getMethod() {
-						return Mono.justOrEmpty(request.getMethod());
-					}
-
-					@Override
-					public Mono<String> getParams() {
-						return Mono.justOrEmpty(request.getParams().toString());
-					}
+				JsonRpcInputMessage inputMessage = new DefaultJsonRpcInputMessage(request, () -> session.getId());
 
-					@Override
-					public Mono<String> getSessionId() {
-						return Mono.fromSupplier(() -> session.getId());
+				JsonRpcBatch batch = JsonRpcBatch.getBatch(request);
+				JsonRpcOutputMessage adaptedResponse = batch != null ? batch.getOutputMessage(request)
+						: outbound.createOutputMessage();
 
-					}
-				};
-
-				JsonRpcOutputMessage adaptedResponse = new WebSocketJsonRpcOutputMessage(session, session.bufferFactory());
-
-				rpcHandler.handle(inputMessage, adaptedResponse, customizer)
+				// handler not binding sessions resolves one for every request
+				boundSession
+					.map(s -> rpcHandler.handle(inputMessage, adaptedResponse, s))
+					.defaultIfEmpty(Mono.defer(() -> rpcHandler.handle(inputMessage, adaptedResponse, customizer)))
+					.flatMap(Function.identity())
 					.doOnError(ex -> {
 						log.error("Handling completed with error", ex);
-						String error = "{\"jsonrpc\":\"2.0\", \"id\":" + request.getId() + ", \"error\":{\"code\":-32603, \"message\": \"internal server error\"}}";
-						DataBuffer buffer = session.bufferFactory().wrap(error.getBytes(Charset.defaultCharset()));
-						Flux<DataBuffer> body = Flux.just(buffer);
-						adaptedResponse.writeWith(body).subscribe();
-						adaptedResponse.setComplete().subscribe();
+						// error is a plain json so it may need to be transcoded
+						JsonRpcOutputMessage errorResponse = batch != null ? adaptedResponse
+								: outbound.createJsonOutputMessage();
+						DataBuffer buffer = messageWriter.encodeError(errorResponse.bufferFactory(), request.getId(),
+								-32603, "internal server error", null);
+						errorResponse.writeWith(Mono.just(buffer)).subscribe();
+						errorResponse.setComplete().subscribe();
 					})
 					.doOnSuccess(aVoid -> log.debug("Handling completed with success"))
+					.doFinally(signal -> {
+						if (batch != null) {
+							batch.complete(request);
+						}
+					})
 					.subscribe();
 			})
-			.then();
+			.then()
+			.doFinally(signal -> {
+				outbound.dispose();
+				lspClient.getPendingRequests().cancelAll();
+				boundSession.flatMap(JsonRpcSession::invalidate).subscribe();
+			});
+
+		return Mono.when(inbound, outbound.send());
 	}
 
-	private static class WebSocketJsonRpcOutputMessage extends AbstractJsonRpcOutputMessage {
-
-		private WebSocketSession session;
-
-		public WebSocketJsonRpcOutputMessage(WebSocketSession session, DataBufferFactory dataBufferFactory) {
-			super(dataBufferFactory);
-			this.session = session;
-		}
-
-		@Override
-		protected Mono<Void> writeWithInternal(Publisher<? extends DataBuffer> body) {
-
-			Flux<WebSocketMessage> messages = Flux.from(body)
-				.map(bodyBuffer -> {
-					return new WebSocketMessage(WebSocketMessage.Type.TEXT, bodyBuffer);
-				});
-			return session.send(messages);
-		}
-
-		@Override
-		protected Mono<Void> writeAndFlushWithInternal(Publisher<? extends Publisher<? extends DataBuffer>> body) {
-			// TODO: not sure if this is needed right now
-			return Mono.empty();
+	private List<JsonRpcMessage> decodeMessages(DataBuffer payload, ObjectMapper objectMapper,
+			WebSocketSession session, WebSocketOutboundSink outbound) {
+		try {
+			// batch responses are joined as a json array
+			return JsonRpcBatch.readMessages(objectMapper, payload.asInputStream(),
+					session.bufferFactory(), outbound::createJsonOutputMessage);
+		} catch (Exception e) {
+			// invalid json is already replied with an error, failing here
+			// would stop reading a whole connection
+			log.error("Unable to convert json to rpc message", e);
+			return Collections.emptyList();
+		} finally {
+			DataBufferUtils.release(payload);
 		}
 	}
 }
@@ -15,29 +15,25 @@
  */
 package org.springframework.dsl.lsp.server.websocket;
 
-import java.nio.charset.Charset;
+import java.time.Duration;
+import java.util.List;
 import java.util.function.Function;
 
-import org.reactivestreams.Publisher;
-import org.springframework.core.io.buffer.DataBuffer;
-import org.springframework.core.io.buffer.DataBufferFactory;
 import org.springframework.dsl.DslException;
-import org.springframework.dsl.jsonrpc.JsonRpcOutputMessage;
 import org.springframework.dsl.jsonrpc.JsonRpcRequest;
-import org.springframework.dsl.jsonrpc.support.AbstractJsonRpcOutputMessage;
 import org.springframework.dsl.lsp.client.AbstractLspClient;
+import org.springframework.dsl.lsp.client.ExchangeBatchFunction;
 import org.springframework.dsl.lsp.client.ExchangeNotificationFunction;
 import org.springframework.dsl.lsp.client.ExchangeRequestFunction;
 import org.springframework.dsl.lsp.client.LspClient;
 import org.springframework.dsl.lsp.client.LspClientResponse;
+import org.springframework.dsl.lsp.client.PendingRequestRegistry;
+import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
-import org.springframework.util.ObjectUtils;
-import org.springframework.web.reactive.socket.WebSocketMessage;
 import org.springframework.web.reactive.socket.WebSocketSession;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
-import reactor.core.publisher.EmitterProcessor;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -49,27 +45,59 @@ import reactor.core.publisher.Mono;
  */
 public class WebSocketBoundedLspClient extends AbstractLspClient {
 
-	private WebSocketSession session;
-	private final Function<JsonRpcRequest, String> requestDecoder;
-	private final EmitterProcessor<LspClientResponse> responses = EmitterProcessor.create();
+	private static final String ID_PREFIX = "websocket-";
+	private final WebSocketSession session;
+	private final WebSocketOutboundSink outbound;
+	private final Function<JsonRpcRequest, byte[]> requestDecoder;
+	private final Function<List<JsonRpcRequest>, byte[]> batchDecoder;
+	private final PendingRequestRegistry pendingRequests;
 
 	/**
 	 * Instantiates a new web socket bounded lsp client.
 	 *
 	 * @param session the session
-	 * @param objectMapper the object mapper
+	 * @param outbound the outbound sink shared with a session
+	 * @param objectMapper the object mapper for a data format used with a session
 	 */
-	public WebSocketBoundedLspClient(WebSocketSession session, ObjectMapper objectMapper) {
+	public WebSocketBoundedLspClient(WebSocketSession session, WebSocketOutboundSink outbound,
+			ObjectMapper objectMapper) {
+		this(session, outbound, objectMapper, null);
+	}
+
+	/**
+	 * Instantiates a new web socket bounded lsp client. Requests not having an
+	 * explicit timeout fail if a response doesn't arrive within a given
+	 * timeout, {@code null} meaning waiting until a session is closed.
+	 *
+	 * @param session the session
+	 * @param outbound the outbound sink shared with a session
+	 * @param objectMapper the object mapper for a data format used with a session
+	 * @param requestTimeout the default timeout for requests
+	 */
+	public WebSocketBoundedLspClient(WebSocketSession session, WebSocketOutboundSink outbound,
+			ObjectMapper objectMapper, @Nullable Duration requestTimeout) {
 		Assert.notNull(session, "WebSocketSession must be set");
+		Assert.notNull(outbound, "WebSocketOutboundSink must be set");
 		Assert.notNull(objectMapper, "ObjectMapper must be set");
 		this.session = session;
+		this.outbound = outbound;
+		// ids are prefixed so that those can't be confused with ids of
+		// requests a remote end sends to us
+		this.pendingRequests = new PendingRequestRegistry(ID_PREFIX, requestTimeout);
 		this.requestDecoder = s -> {
 			try {
-				return objectMapper.writeValueAsString(s);
+				return objectMapper.writeValueAsBytes(s);
 			} catch (Exception e) {
 				throw new DslException("Unable to convert json rpc request", e);
 			}
 		};
+		this.batchDecoder = s -> {
+			try {
+				return objectMapper.writeValueAsBytes(s);
+			} catch (Exception e) {
+				throw new DslException("Unable to convert json rpc batch", e);
+			}
+		};
 	}
 
 	@Override
@@ -82,8 +110,22 @@ public class WebSocketBoundedLspClient extends AbstractLspClient {
 		return new DefaultNotificationSpec(new DefaultExchangeNotificationFunction());
 	}
 
-	public EmitterProcessor<LspClientResponse> getResponses() {
-		return responses;
+	@Override
+	public BatchSpec batch() {
+		return new DefaultBatchSpec(new DefaultExchangeBatchFunction());
+	}
+
+	/**
+	 * Gets the registry of requests waiting for a response.
+	 *
+	 * @return the pending requests
+	 */
+	public PendingRequestRegistry getPendingRequests() {
+		return pendingRequests;
+	}
+
+	private Mono<Void> write(byte[] message) {
+		return outbound.write(Mono.fromSupplier(() -> session.bufferFactory().wrap(message)));
 	}
 
 	private class DefaultExchangeRequestFunction implements ExchangeRequestFunction {
@@ -91,17 +133,8 @@ public class WebSocketBoundedLspClient extends AbstractLspClient {
 		@Override
 		public Mono<LspClientResponse> exchange(JsonRpcRequest request) {
 			return Mono.defer(() -> {
-				JsonRpcOutputMessage adaptedResponse = new WebSocketJsonRpcOutputMessage(session, session.bufferFactory());
-				Mono.just(request)
-					.map(requestDecoder)
-					.map(r -> session.bufferFactory().wrap(r.getBytes(Charset.defaultCharset())))
-					.doOnNext(r -> {
-						adaptedResponse.writeWith(Mono.just(r)).subscribe();
-						adaptedResponse.setComplete().subscribe();
-					})
-					.subscribe();
-				return Mono.from(responses)
-						.filter(r -> ObjectUtils.nullSafeEquals(r.response().getId(), request.getId()));
+				JsonRpcRequest pendingRequest = pendingRequests.withId(request);
+				return pendingRequests.register(pendingRequest.getId(), write(requestDecoder.apply(pendingRequest)));
 			});
 		}
 	}
@@ -110,42 +143,15 @@ public class WebSocketBoundedLspClient extends AbstractLspClient {
 
 		@Override
 		public Mono<Void> exchange(JsonRpcRequest request) {
-			return Mono.defer(() -> {
-				JsonRpcOutputMessage adaptedResponse = new WebSocketJsonRpcOutputMessage(session, session.bufferFactory());
-				return Mono.just(request)
-					.map(requestDecoder)
-					.map(r -> session.bufferFactory().wrap(r.getBytes(Charset.defaultCharset())))
-					.doOnNext(r -> {
-						adaptedResponse.writeWith(Mono.just(r)).subscribe();
-						adaptedResponse.setComplete().subscribe();
-					})
-					.then();
-			});
+			return Mono.defer(() -> write(requestDecoder.apply(request)));
 		}
 	}
 
-	private static class WebSocketJsonRpcOutputMessage extends AbstractJsonRpcOutputMessage {
-
-		private WebSocketSession session;
-
-		public WebSocketJsonRpcOutputMessage(WebSocketSession session, DataBufferFactory dataBufferFactory) {
-			super(dataBufferFactory);
-			this.session = session;
-		}
-
-		@Override
-		protected Mono<Void> writeWithInternal(Publisher<? extends DataBuffer> body) {
-
-			Flux<WebSocketMessage> messages = Flux.from(body)
-				.map(bodyBuffer -> {
-					return new WebSocketMessage(WebSocketMessage.Type.TEXT, bodyBuffer);
-				});
-			return session.send(messages);
-		}
+	private class DefaultExchangeBatchFunction implements ExchangeBatchFunction {
 
 		@Override
-		protected Mono<Void> writeAndFlushWithInternal(Publisher<? extends Publisher<? extends DataBuffer>> body) {
-			return null;
+		public Flux<LspClientResponse> exchange(List<JsonRpcRequest> requests) {
+			return Flux.defer(() -> pendingRequests.registerBatch(requests, write(batchDecoder.apply(requests))));
 		}
 	}
 }
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.lsp.server.websocket;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.web.reactive.socket.HandshakeInfo;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.fasterxml.jackson.core.JsonFactory;
+
+/**
+ * {@code Jackson} data formats a websocket client can negotiate either via
+ * a subprotocol or a {@code format} query parameter. Binary formats are
+ * available if their {@code jackson-dataformat} module is on a classpath.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public enum WebSocketDataFormat {
+
+	/** Plain json, used if nothing else is negotiated. */
+	JSON("jsonrpc.json", null),
+
+	/** Concise binary object representation. */
+	CBOR("jsonrpc.cbor", "com.fasterxml.jackson.dataformat.cbor.CBORFactory"),
+
+	/** Binary json format from jackson. */
+	SMILE("jsonrpc.smile", "com.fasterxml.jackson.dataformat.smile.SmileFactory");
+
+	public static final String FORMAT_QUERY_PARAM = "format";
+	private final String subProtocol;
+	private final String factoryClassName;
+
+	WebSocketDataFormat(String subProtocol, String factoryClassName) {
+		this.subProtocol = subProtocol;
+		this.factoryClassName = factoryClassName;
+	}
+
+	/**
+	 * Gets the websocket subprotocol name for this format.
+	 *
+	 * @return the subprotocol
+	 */
+	public String getSubProtocol() {
+		return subProtocol;
+	}
+
+	/**
+	 * Checks if this format is binary and needs to be sent in binary frames.
+	 *
+	 * @return true, if format is binary
+	 */
+	public boolean isBinary() {
+		return factoryClassName != null;
+	}
+
+	/**
+	 * Checks if this format can be used with a current classpath.
+	 *
+	 * @return true, if format is available
+	 */
+	public boolean isAvailable() {
+		return factoryClassName == null
+				|| ClassUtils.isPresent(factoryClassName, WebSocketDataFormat.class.getClassLoader());
+	}
+
+	/**
+	 * Creates a new {@link JsonFactory} for this format.
+	 *
+	 * @return the json factory
+	 */
+	public JsonFactory createFactory() {
+		if (factoryClassName == null) {
+			return new JsonFactory();
+		}
+		Class<?> clazz = ClassUtils.resolveClassName(factoryClassName, WebSocketDataFormat.class.getClassLoader());
+		return (JsonFactory) BeanUtils.instantiateClass(clazz);
+	}
+
+	/**
+	 * Resolve a format from a handshake. Selected subprotocol takes precedence
+	 * over a query parameter and {@link #JSON} is used if neither is known.
+	 *
+	 * @param handshakeInfo the handshake info
+	 * @return the negotiated data format
+	 */
+	public static WebSocketDataFormat resolve(HandshakeInfo handshakeInfo) {
+		String subProtocol = handshakeInfo.getSubProtocol();
+		if (subProtocol != null) {
+			for (WebSocketDataFormat format : values()) {
+				if (format.subProtocol.equalsIgnoreCase(subProtocol)) {
+					return format;
+				}
+			}
+		}
+		String param = UriComponentsBuilder.fromUri(handshakeInfo.getUri()).build().getQueryParams()
+				.getFirst(FORMAT_QUERY_PARAM);
+		if (StringUtils.hasText(param)) {
+			for (WebSocketDataFormat format : values()) {
+				if (format.name().equalsIgnoreCase(param)) {
+					return format;
+				}
+			}
+		}
+		return JSON;
+	}
+}
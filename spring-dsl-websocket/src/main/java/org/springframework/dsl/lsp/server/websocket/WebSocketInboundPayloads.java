@@ -0,0 +1,174 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.lsp.server.websocket;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.util.Assert;
+import org.springframework.web.reactive.socket.CloseStatus;
+import org.springframework.web.reactive.socket.WebSocketSession;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.handler.codec.http.websocketx.BinaryWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.ContinuationWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.WebSocketFrame;
+import reactor.core.publisher.Flux;
+import reactor.ipc.netty.http.websocket.WebsocketInbound;
+
+/**
+ * Utility methods receiving complete message payloads from a
+ * {@link WebSocketSession} regardless if those were sent as {@code TEXT} or
+ * {@code BINARY} frames.
+ * <p>
+ * With a {@link LspReactorNettyWebSocketSession} raw frames are used instead
+ * of {@link WebSocketSession#receive()} which would aggregate fragments into
+ * a fixed maximum of 64k. Fragments are kept as they are in a composite
+ * buffer without copying, and parser can then stream through them. With
+ * other sessions we fall back to aggregated messages.
+ * <p>
+ * Every emitted {@link DataBuffer} is owned by a subscriber which is
+ * responsible to release it.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public abstract class WebSocketInboundPayloads {
+
+	private static final Logger log = LoggerFactory.getLogger(WebSocketInboundPayloads.class);
+	public static final int DEFAULT_MAX_MESSAGE_SIZE = 10 * 1024 * 1024;
+
+	/**
+	 * Receive complete message payloads from a session.
+	 *
+	 * @param session the web socket session
+	 * @param maxMessageSize the maximum size of an assembled message
+	 * @return the flux of message payloads
+	 */
+	public static Flux<DataBuffer> receive(WebSocketSession session, int maxMessageSize) {
+		Assert.notNull(session, "WebSocketSession must be set");
+		Assert.isTrue(maxMessageSize > 0, "Max message size must be positive");
+		if (session instanceof LspReactorNettyWebSocketSession) {
+			LspReactorNettyWebSocketSession nettySession = (LspReactorNettyWebSocketSession) session;
+			return receiveFrames(nettySession, nettySession.getInbound(), maxMessageSize);
+		}
+		// other runtimes give aggregated messages, retain so that ownership
+		// is same with both paths
+		return session.receive()
+				.map(message -> DataBufferUtils.retain(message.getPayload()));
+	}
+
+	private static Flux<DataBuffer> receiveFrames(LspReactorNettyWebSocketSession session, WebsocketInbound inbound,
+			int maxMessageSize) {
+		NettyDataBufferFactory bufferFactory = session.bufferFactory();
+		return Flux.defer(() -> {
+			FrameAssembler assembler = new FrameAssembler(bufferFactory, maxMessageSize);
+			return inbound
+					.receiveFrames()
+					.<DataBuffer>handle((frame, sink) -> {
+						ByteBuf complete;
+						try {
+							complete = assembler.next(frame);
+						} catch (MessageTooBigException e) {
+							log.warn("Closing session {}, {}", session.getId(), e.getMessage());
+							session.close(CloseStatus.TOO_BIG_TO_PROCESS).subscribe();
+							sink.complete();
+							return;
+						}
+						if (complete != null) {
+							sink.next(bufferFactory.wrap(complete));
+						}
+					})
+					.doFinally(signal -> assembler.dispose());
+		});
+	}
+
+	/**
+	 * Keeps fragments of one message until its final frame has been received.
+	 * Frames are released by reactor netty after those are dispatched, thus
+	 * content is retained here.
+	 */
+	private static class FrameAssembler {
+
+		private final NettyDataBufferFactory bufferFactory;
+		private final int maxMessageSize;
+		private CompositeByteBuf fragments;
+
+		FrameAssembler(NettyDataBufferFactory bufferFactory, int maxMessageSize) {
+			this.bufferFactory = bufferFactory;
+			this.maxMessageSize = maxMessageSize;
+		}
+
+		ByteBuf next(WebSocketFrame frame) {
+			ByteBuf content = frame.content();
+			if (frame instanceof ContinuationWebSocketFrame) {
+				if (fragments == null) {
+					log.debug("Ignoring continuation frame without a start frame");
+					return null;
+				}
+			} else if (frame instanceof TextWebSocketFrame || frame instanceof BinaryWebSocketFrame) {
+				if (fragments != null) {
+					log.debug("Discarding unfinished message of {} bytes", fragments.readableBytes());
+					dispose();
+				}
+				if (frame.isFinalFragment()) {
+					checkSize(content.readableBytes());
+					return content.retain();
+				}
+				// don't let composite to consolidate as it would copy fragments
+				fragments = bufferFactory.getByteBufAllocator().compositeBuffer(Integer.MAX_VALUE);
+			} else {
+				// ping, pong and close are handled by netty itself
+				return null;
+			}
+			checkSize(fragments.readableBytes() + content.readableBytes());
+			fragments.addComponent(true, content.retain());
+			if (frame.isFinalFragment()) {
+				ByteBuf complete = fragments;
+				fragments = null;
+				return complete;
+			}
+			return null;
+		}
+
+		void dispose() {
+			if (fragments != null) {
+				fragments.release();
+				fragments = null;
+			}
+		}
+
+		private void checkSize(int size) {
+			if (size > maxMessageSize) {
+				dispose();
+				throw new MessageTooBigException(
+						"Message size exceeds maximum of " + maxMessageSize + " bytes");
+			}
+		}
+	}
+
+	@SuppressWarnings("serial")
+	private static class MessageTooBigException extends RuntimeException {
+
+		MessageTooBigException(String message) {
+			super(message);
+		}
+	}
+}
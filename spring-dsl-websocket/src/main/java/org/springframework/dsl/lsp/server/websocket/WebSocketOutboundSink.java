@@ -0,0 +1,309 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.lsp.server.websocket;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.dsl.DslException;
+import org.springframework.dsl.jsonrpc.JsonRpcOutputMessage;
+import org.springframework.dsl.jsonrpc.codec.JsonRpcFormatOutputMessage;
+import org.springframework.dsl.jsonrpc.support.AbstractJsonRpcOutputMessage;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import org.springframework.web.reactive.socket.WebSocketSession;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+import reactor.core.publisher.UnicastProcessor;
+import reactor.util.concurrent.Queues;
+
+/**
+ * Single ordered outbound path for a {@link WebSocketSession}. Everything
+ * written into a session, responses from handlers and messages from a
+ * bounded {@code LspClient}, goes through one {@link WebSocketSession#send}
+ * so that frames are never interleaved by concurrent sends. Every written
+ * buffer is sent as its own frame, messages are not coalesced as a frame
+ * needs to carry exactly one json rpc message.
+ * <p>
+ * Writers are accepted from any thread in an order of writes. Once more than
+ * a high water mark of messages are waiting to be sent, writes are completed
+ * only after a queue has drained down to a low water mark which pushes back
+ * to handlers producing faster than a client is able to read.
+ * <p>
+ * If a session has negotiated a binary data format, bodies written via
+ * {@link #createJsonOutputMessage()} are transcoded into it while messages
+ * from {@link #createOutputMessage()} are expected to be encoded already.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class WebSocketOutboundSink implements Disposable {
+
+	public static final int DEFAULT_HIGH_WATER_MARK = 256;
+	private static final JsonFactory JSON_FACTORY = new JsonFactory();
+	private final WebSocketSession session;
+	private final UnicastProcessor<DataBuffer> processor = UnicastProcessor
+			.create(Queues.<DataBuffer>unboundedMultiproducer().get());
+	private final FluxSink<DataBuffer> sink = processor.sink();
+	private final AtomicInteger pending = new AtomicInteger();
+	private final int highWaterMark;
+	private final int lowWaterMark;
+	private final WebSocketMessage.Type messageType;
+	private final JsonFactory jsonFactory;
+	private volatile MonoProcessor<Void> writable;
+	private volatile boolean disposed;
+
+	/**
+	 * Instantiates a new web socket outbound sink.
+	 *
+	 * @param session the web socket session
+	 */
+	public WebSocketOutboundSink(WebSocketSession session) {
+		this(session, DEFAULT_HIGH_WATER_MARK);
+	}
+
+	/**
+	 * Instantiates a new web socket outbound sink.
+	 *
+	 * @param session the web socket session
+	 * @param highWaterMark the number of pending messages after which writers need to wait
+	 */
+	public WebSocketOutboundSink(WebSocketSession session, int highWaterMark) {
+		this(session, highWaterMark, WebSocketMessage.Type.TEXT);
+	}
+
+	/**
+	 * Instantiates a new web socket outbound sink.
+	 *
+	 * @param session the web socket session
+	 * @param highWaterMark the number of pending messages after which writers need to wait
+	 * @param messageType the type of sent messages, either {@code TEXT} or {@code BINARY}
+	 */
+	public WebSocketOutboundSink(WebSocketSession session, int highWaterMark, WebSocketMessage.Type messageType) {
+		this(session, highWaterMark, messageType, null);
+	}
+
+	/**
+	 * Instantiates a new web socket outbound sink.
+	 *
+	 * @param session the web socket session
+	 * @param highWaterMark the number of pending messages after which writers need to wait
+	 * @param messageType the type of sent messages, either {@code TEXT} or {@code BINARY}
+	 * @param jsonFactory the factory for a negotiated data format, {@code null} for plain json
+	 */
+	public WebSocketOutboundSink(WebSocketSession session, int highWaterMark, WebSocketMessage.Type messageType,
+			@Nullable JsonFactory jsonFactory) {
+		Assert.notNull(session, "WebSocketSession must be set");
+		Assert.isTrue(highWaterMark > 0, "High water mark must be positive");
+		Assert.isTrue(messageType == WebSocketMessage.Type.TEXT || messageType == WebSocketMessage.Type.BINARY,
+				"Message type must be either TEXT or BINARY");
+		this.session = session;
+		this.highWaterMark = highWaterMark;
+		this.lowWaterMark = highWaterMark / 2;
+		this.messageType = messageType;
+		this.jsonFactory = jsonFactory;
+	}
+
+	/**
+	 * Start sending into a session. Returned {@link Mono} completes when
+	 * this sink is disposed or session is closed.
+	 *
+	 * @return a {@link Mono} that indicates completion of sending
+	 */
+	public Mono<Void> send() {
+		Flux<WebSocketMessage> messages = processor
+				.doOnNext(buffer -> consumed())
+				.map(buffer -> new WebSocketMessage(messageType, buffer));
+		return session.send(messages)
+				.doFinally(signal -> dispose());
+	}
+
+	/**
+	 * Write given buffers into a session, each one sent as its own message.
+	 *
+	 * @param body the body content publisher
+	 * @return a {@link Mono} completing when writer is allowed to continue
+	 */
+	public Mono<Void> write(Publisher<? extends DataBuffer> body) {
+		return Flux.from(body)
+				.concatMap(this::write)
+				.then();
+	}
+
+	/**
+	 * Creates a {@link JsonRpcOutputMessage} writing into this sink. If a
+	 * session has negotiated a data format, returned message is a
+	 * {@link JsonRpcFormatOutputMessage} and its body is expected to be
+	 * encoded with that format.
+	 *
+	 * @return the json rpc output message
+	 */
+	public JsonRpcOutputMessage createOutputMessage() {
+		return jsonFactory != null ? new FormatSinkJsonRpcOutputMessage() : new SinkJsonRpcOutputMessage(false);
+	}
+
+	/**
+	 * Creates a {@link JsonRpcOutputMessage} writing into this sink which
+	 * always takes a plain json body and transcodes it into a negotiated data
+	 * format if needed.
+	 *
+	 * @return the json rpc output message
+	 */
+	public JsonRpcOutputMessage createJsonOutputMessage() {
+		return new SinkJsonRpcOutputMessage(jsonFactory != null);
+	}
+
+	/**
+	 * Gets the number of messages waiting to be sent.
+	 *
+	 * @return the number of pending messages
+	 */
+	public int getPending() {
+		return pending.get();
+	}
+
+	@Override
+	public void dispose() {
+		synchronized (this) {
+			if (disposed) {
+				return;
+			}
+			disposed = true;
+		}
+		sink.complete();
+		release();
+	}
+
+	@Override
+	public boolean isDisposed() {
+		return disposed;
+	}
+
+	private Mono<Void> write(DataBuffer buffer) {
+		int count;
+		// checked under same guard as dispose so that buffer is either
+		// queued before sink completes or released here
+		synchronized (this) {
+			if (disposed) {
+				DataBufferUtils.release(buffer);
+				return Mono.empty();
+			}
+			count = pending.incrementAndGet();
+			sink.next(buffer);
+		}
+		if (count >= highWaterMark) {
+			return awaitWritable();
+		}
+		return Mono.empty();
+	}
+
+	private Mono<Void> awaitWritable() {
+		synchronized (this) {
+			if (disposed || pending.get() <= lowWaterMark) {
+				return Mono.empty();
+			}
+			if (writable == null) {
+				writable = MonoProcessor.create();
+			}
+			return writable;
+		}
+	}
+
+	private void consumed() {
+		if (pending.decrementAndGet() <= lowWaterMark && writable != null) {
+			release();
+		}
+	}
+
+	private void release() {
+		MonoProcessor<Void> toRelease;
+		synchronized (this) {
+			toRelease = writable;
+			writable = null;
+		}
+		if (toRelease != null) {
+			toRelease.onComplete();
+		}
+	}
+
+	private DataBuffer transcode(DataBuffer json) {
+		DataBuffer buffer = session.bufferFactory().allocateBuffer(json.readableByteCount());
+		boolean release = true;
+		try (JsonParser parser = JSON_FACTORY.createParser(json.asInputStream());
+				JsonGenerator generator = jsonFactory.createGenerator(buffer.asOutputStream())) {
+			while (parser.nextToken() != null) {
+				generator.copyCurrentStructure(parser);
+			}
+			release = false;
+		} catch (IOException e) {
+			throw new DslException("Unable to transcode json into " + jsonFactory.getFormatName(), e);
+		} finally {
+			DataBufferUtils.release(json);
+			if (release) {
+				DataBufferUtils.release(buffer);
+			}
+		}
+		return buffer;
+	}
+
+	private class SinkJsonRpcOutputMessage extends AbstractJsonRpcOutputMessage {
+
+		private final boolean transcode;
+
+		SinkJsonRpcOutputMessage(boolean transcode) {
+			super(session.bufferFactory());
+			this.transcode = transcode;
+		}
+
+		@Override
+		protected Mono<Void> writeWithInternal(Publisher<? extends DataBuffer> body) {
+			return write(transcode ? Flux.from(body).map(WebSocketOutboundSink.this::transcode) : body);
+		}
+
+		@Override
+		protected Mono<Void> writeAndFlushWithInternal(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+			// every message is its own frame so nothing extra to flush
+			return Flux.from(body)
+					.concatMap(this::writeWithInternal)
+					.then();
+		}
+	}
+
+	private class FormatSinkJsonRpcOutputMessage extends SinkJsonRpcOutputMessage
+			implements JsonRpcFormatOutputMessage {
+
+		FormatSinkJsonRpcOutputMessage() {
+			super(false);
+		}
+
+		@Override
+		public JsonFactory getJsonFactory() {
+			return jsonFactory;
+		}
+	}
+}
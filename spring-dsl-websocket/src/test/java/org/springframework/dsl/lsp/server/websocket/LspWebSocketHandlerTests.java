@@ -0,0 +1,49 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.lsp.server.websocket;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import org.junit.Test;
+import org.springframework.dsl.lsp.server.jsonrpc.RpcHandler;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Tests for {@link LspWebSocketHandler}.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class LspWebSocketHandlerTests {
+
+	@Test
+	public void testNoSubProtocolsWithoutDataFormats() {
+		LspWebSocketHandler handler = new LspWebSocketHandler(mock(RpcHandler.class), new ObjectMapper());
+		assertThat(handler.getSubProtocols()).isEmpty();
+	}
+
+	@Test
+	public void testSubProtocolsWithDataFormats() {
+		LspWebSocketHandler handler = new LspWebSocketHandler(mock(RpcHandler.class), new ObjectMapper());
+		handler.addDataFormat(WebSocketDataFormat.SMILE, new ObjectMapper(new SmileFactory()));
+		handler.addDataFormat(WebSocketDataFormat.CBOR, new ObjectMapper(new CBORFactory()));
+		assertThat(handler.getSubProtocols()).containsExactly("jsonrpc.cbor", "jsonrpc.smile", "jsonrpc.json");
+	}
+}
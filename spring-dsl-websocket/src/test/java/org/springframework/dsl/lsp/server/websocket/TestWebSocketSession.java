@@ -0,0 +1,62 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.lsp.server.websocket;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.socket.CloseStatus;
+import org.springframework.web.reactive.socket.HandshakeInfo;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import org.springframework.web.reactive.socket.adapter.AbstractWebSocketSession;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@code WebSocketSession} for tests capturing messages sent to it.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+class TestWebSocketSession extends AbstractWebSocketSession<Object> {
+
+	final List<WebSocketMessage> sent = new ArrayList<>();
+
+	TestWebSocketSession(DataBufferFactory bufferFactory) {
+		super(new Object(), "id1", new HandshakeInfo(URI.create("ws://localhost/ws"), new HttpHeaders(),
+				Mono.empty(), null), bufferFactory);
+	}
+
+	@Override
+	public Flux<WebSocketMessage> receive() {
+		return Flux.empty();
+	}
+
+	@Override
+	public Mono<Void> send(Publisher<WebSocketMessage> messages) {
+		return Flux.from(messages).doOnNext(sent::add).then();
+	}
+
+	@Override
+	public Mono<Void> close(CloseStatus status) {
+		return Mono.empty();
+	}
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.lsp.server.websocket;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.Test;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.dsl.jsonrpc.support.DefaultJsonRpcResponse;
+import org.springframework.dsl.lsp.client.LspClientResponse;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.netty.buffer.UnpooledByteBufAllocator;
+import reactor.core.publisher.Mono;
+
+/**
+ * Tests for {@link WebSocketBoundedLspClient}.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class WebSocketBoundedLspClientTests {
+
+	private final NettyDataBufferFactory bufferFactory = new NettyDataBufferFactory(UnpooledByteBufAllocator.DEFAULT);
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@Test
+	public void testRequestTimeout() {
+		TestWebSocketSession session = new TestWebSocketSession(bufferFactory);
+		WebSocketOutboundSink sink = new WebSocketOutboundSink(session);
+		sink.send().subscribe();
+		WebSocketBoundedLspClient client = new WebSocketBoundedLspClient(session, sink, objectMapper,
+				Duration.ofMillis(50));
+
+		Mono<LspClientResponse> response = client.request().method("hi").exchange();
+		assertThatThrownBy(() -> response.block(Duration.ofSeconds(5))).hasCauseInstanceOf(TimeoutException.class);
+
+		assertThat(session.sent).hasSize(1);
+		assertThat(client.getPendingRequests().size()).isEqualTo(0);
+	}
+
+	@Test
+	public void testResponseBeforeTimeout() {
+		TestWebSocketSession session = new TestWebSocketSession(bufferFactory);
+		WebSocketOutboundSink sink = new WebSocketOutboundSink(session);
+		sink.send().subscribe();
+		WebSocketBoundedLspClient client = new WebSocketBoundedLspClient(session, sink, objectMapper,
+				Duration.ofSeconds(5));
+
+		Mono<LspClientResponse> response = client.request().method("hi").exchange().cache();
+		response.subscribe();
+		assertThat(session.sent).extracting(WebSocketMessage::getPayloadAsText)
+				.allMatch(json -> json.contains("\"id\":\"websocket-1\""));
+		client.getPendingRequests().complete(LspClientResponse.create()
+				.response(new DefaultJsonRpcResponse("2.0", "websocket-1", "hello", null)).build());
+
+		assertThat(response.block(Duration.ofSeconds(5)).response().getResult()).isEqualTo("hello");
+		assertThat(client.getPendingRequests().size()).isEqualTo(0);
+	}
+}
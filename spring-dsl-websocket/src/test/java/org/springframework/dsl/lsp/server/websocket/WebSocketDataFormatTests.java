@@ -0,0 +1,94 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.lsp.server.websocket;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.socket.HandshakeInfo;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Tests for {@link WebSocketDataFormat}.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class WebSocketDataFormatTests {
+
+	@Test
+	public void testResolveDefaultsToJson() {
+		assertThat(WebSocketDataFormat.resolve(handshake("ws://localhost/ws", null)))
+				.isEqualTo(WebSocketDataFormat.JSON);
+	}
+
+	@Test
+	public void testResolveFromSubProtocol() {
+		assertThat(WebSocketDataFormat.resolve(handshake("ws://localhost/ws", "jsonrpc.cbor")))
+				.isEqualTo(WebSocketDataFormat.CBOR);
+		assertThat(WebSocketDataFormat.resolve(handshake("ws://localhost/ws", "JSONRPC.SMILE")))
+				.isEqualTo(WebSocketDataFormat.SMILE);
+		assertThat(WebSocketDataFormat.resolve(handshake("ws://localhost/ws", "jsonrpc.json")))
+				.isEqualTo(WebSocketDataFormat.JSON);
+	}
+
+	@Test
+	public void testResolveFromQueryParam() {
+		assertThat(WebSocketDataFormat.resolve(handshake("ws://localhost/ws?format=cbor", null)))
+				.isEqualTo(WebSocketDataFormat.CBOR);
+		assertThat(WebSocketDataFormat.resolve(handshake("ws://localhost/ws?foo=bar&format=Smile", null)))
+				.isEqualTo(WebSocketDataFormat.SMILE);
+	}
+
+	@Test
+	public void testSubProtocolOverQueryParam() {
+		assertThat(WebSocketDataFormat.resolve(handshake("ws://localhost/ws?format=smile", "jsonrpc.cbor")))
+				.isEqualTo(WebSocketDataFormat.CBOR);
+	}
+
+	@Test
+	public void testResolveUnknownFallsBackToJson() {
+		assertThat(WebSocketDataFormat.resolve(handshake("ws://localhost/ws?format=xml", "jsonrpc.xml")))
+				.isEqualTo(WebSocketDataFormat.JSON);
+		assertThat(WebSocketDataFormat.resolve(handshake("ws://localhost/ws?format=", null)))
+				.isEqualTo(WebSocketDataFormat.JSON);
+	}
+
+	@Test
+	public void testFactories() {
+		assertThat(WebSocketDataFormat.JSON.isBinary()).isFalse();
+		assertThat(WebSocketDataFormat.JSON.isAvailable()).isTrue();
+		assertThat(WebSocketDataFormat.JSON.createFactory()).isExactlyInstanceOf(JsonFactory.class);
+		assertThat(WebSocketDataFormat.CBOR.isBinary()).isTrue();
+		assertThat(WebSocketDataFormat.CBOR.isAvailable()).isTrue();
+		assertThat(WebSocketDataFormat.CBOR.createFactory()).isInstanceOf(CBORFactory.class);
+		assertThat(WebSocketDataFormat.SMILE.isBinary()).isTrue();
+		assertThat(WebSocketDataFormat.SMILE.isAvailable()).isTrue();
+		assertThat(WebSocketDataFormat.SMILE.createFactory()).isInstanceOf(SmileFactory.class);
+	}
+
+	private static HandshakeInfo handshake(String uri, String subProtocol) {
+		return new HandshakeInfo(URI.create(uri), new HttpHeaders(), Mono.empty(), subProtocol);
+	}
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.lsp.server.websocket;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.NettyDataBuffer;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.socket.HandshakeInfo;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.handler.codec.http.websocketx.BinaryWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.ContinuationWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.WebSocketFrame;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.ipc.netty.http.websocket.WebsocketInbound;
+import reactor.ipc.netty.http.websocket.WebsocketOutbound;
+
+/**
+ * Tests for {@link WebSocketInboundPayloads}.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class WebSocketInboundPayloadsTests {
+
+	private final NettyDataBufferFactory bufferFactory = new NettyDataBufferFactory(UnpooledByteBufAllocator.DEFAULT);
+
+	@Test
+	public void testSingleFrameMessages() {
+		List<DataBuffer> payloads = receive(new TextWebSocketFrame("{\"id\":1}"),
+				new BinaryWebSocketFrame(content("{\"id\":2}")));
+
+		assertThat(payloads).hasSize(2);
+		assertThat(text(payloads.get(0))).isEqualTo("{\"id\":1}");
+		assertThat(text(payloads.get(1))).isEqualTo("{\"id\":2}");
+		assertReleased(payloads);
+	}
+
+	@Test
+	public void testFragmentedMessage() {
+		List<DataBuffer> payloads = receive(new TextWebSocketFrame(false, 0, content("{\"jsonrpc\":")),
+				new ContinuationWebSocketFrame(false, 0, content("\"2.0\",")),
+				new ContinuationWebSocketFrame(true, 0, content("\"id\":1}")),
+				new TextWebSocketFrame("{\"id\":2}"));
+
+		assertThat(payloads).hasSize(2);
+		assertThat(text(payloads.get(0))).isEqualTo("{\"jsonrpc\":\"2.0\",\"id\":1}");
+		assertThat(text(payloads.get(1))).isEqualTo("{\"id\":2}");
+		assertReleased(payloads);
+	}
+
+	@Test
+	public void testUnfinishedMessageDiscarded() {
+		List<DataBuffer> payloads = receive(new TextWebSocketFrame(false, 0, content("{\"jsonrpc\":")),
+				new TextWebSocketFrame("{\"id\":2}"),
+				new ContinuationWebSocketFrame(true, 0, content("\"id\":1}")));
+
+		assertThat(payloads).hasSize(1);
+		assertThat(text(payloads.get(0))).isEqualTo("{\"id\":2}");
+		assertReleased(payloads);
+	}
+
+	private List<DataBuffer> receive(WebSocketFrame... frames) {
+		WebsocketInbound inbound = mock(WebsocketInbound.class);
+		when(inbound.receiveFrames()).thenReturn(Flux.just(frames));
+		LspReactorNettyWebSocketSession session = new LspReactorNettyWebSocketSession(inbound,
+				mock(WebsocketOutbound.class), new HandshakeInfo(URI.create("ws://localhost/ws"), new HttpHeaders(),
+						Mono.empty(), null),
+				bufferFactory);
+		List<DataBuffer> payloads = WebSocketInboundPayloads.receive(session, 1024).collectList().block();
+		// netty releases frames after those are dispatched
+		for (WebSocketFrame frame : frames) {
+			frame.release();
+		}
+		return payloads;
+	}
+
+	private static ByteBuf content(String content) {
+		return Unpooled.copiedBuffer(content, StandardCharsets.UTF_8);
+	}
+
+	private static String text(DataBuffer buffer) {
+		return ((NettyDataBuffer) buffer).getNativeBuffer().toString(StandardCharsets.UTF_8);
+	}
+
+	private static void assertReleased(List<DataBuffer> payloads) {
+		for (DataBuffer payload : payloads) {
+			DataBufferUtils.release(payload);
+			assertThat(((NettyDataBuffer) payload).getNativeBuffer().refCnt()).isEqualTo(0);
+		}
+	}
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.lsp.server.websocket;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+import org.springframework.core.io.buffer.NettyDataBuffer;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.dsl.jsonrpc.JsonRpcOutputMessage;
+import org.springframework.dsl.jsonrpc.codec.JsonRpcFormatOutputMessage;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import io.netty.buffer.UnpooledByteBufAllocator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Tests for {@link WebSocketOutboundSink}.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class WebSocketOutboundSinkTests {
+
+	private final NettyDataBufferFactory bufferFactory = new NettyDataBufferFactory(UnpooledByteBufAllocator.DEFAULT);
+
+	@Test
+	public void testMessagesSentInWriteOrder() {
+		TestWebSocketSession session = new TestWebSocketSession(bufferFactory);
+		WebSocketOutboundSink sink = new WebSocketOutboundSink(session);
+		sink.send().subscribe();
+
+		sink.createOutputMessage().writeWith(Mono.just(buffer("{\"id\":1}"))).block();
+		sink.createJsonOutputMessage().writeWith(Mono.just(buffer("{\"id\":2}"))).block();
+		sink.write(Flux.just(buffer("{\"id\":3}"), buffer("{\"id\":4}"))).block();
+
+		assertThat(session.sent).extracting(WebSocketMessage::getPayloadAsText)
+				.containsExactly("{\"id\":1}", "{\"id\":2}", "{\"id\":3}", "{\"id\":4}");
+		assertThat(session.sent).allMatch(message -> message.getType() == WebSocketMessage.Type.TEXT);
+	}
+
+	@Test
+	public void testBinaryMessageType() {
+		TestWebSocketSession session = new TestWebSocketSession(bufferFactory);
+		WebSocketOutboundSink sink = new WebSocketOutboundSink(session, 16, WebSocketMessage.Type.BINARY);
+		sink.send().subscribe();
+
+		sink.createOutputMessage().writeWith(Mono.just(buffer("{\"id\":1}"))).block();
+
+		assertThat(session.sent).hasSize(1);
+		assertThat(session.sent.get(0).getType()).isEqualTo(WebSocketMessage.Type.BINARY);
+		assertThat(session.sent.get(0).getPayloadAsText()).isEqualTo("{\"id\":1}");
+	}
+
+	@Test
+	public void testWriterWaitsAboveHighWaterMark() {
+		TestWebSocketSession session = new TestWebSocketSession(bufferFactory);
+		WebSocketOutboundSink sink = new WebSocketOutboundSink(session, 2);
+
+		// nothing is sent until session is sending
+		sink.write(Mono.just(buffer("1"))).block();
+		AtomicBoolean writable = new AtomicBoolean();
+		sink.write(Mono.just(buffer("2"))).doOnSuccess(aVoid -> writable.set(true)).subscribe();
+		assertThat(sink.getPending()).isEqualTo(2);
+		assertThat(writable.get()).isFalse();
+
+		sink.send().subscribe();
+		assertThat(writable.get()).isTrue();
+		assertThat(sink.getPending()).isEqualTo(0);
+		assertThat(session.sent).extracting(WebSocketMessage::getPayloadAsText).containsExactly("1", "2");
+	}
+
+	@Test
+	public void testDisposeReleasesWaitingWriter() {
+		TestWebSocketSession session = new TestWebSocketSession(bufferFactory);
+		WebSocketOutboundSink sink = new WebSocketOutboundSink(session, 1);
+
+		AtomicBoolean writable = new AtomicBoolean();
+		sink.write(Mono.just(buffer("1"))).doOnSuccess(aVoid -> writable.set(true)).subscribe();
+		assertThat(writable.get()).isFalse();
+
+		sink.dispose();
+		assertThat(sink.isDisposed()).isTrue();
+		assertThat(writable.get()).isTrue();
+	}
+
+	@Test
+	public void testWriteAfterDisposeReleasesBuffer() {
+		TestWebSocketSession session = new TestWebSocketSession(bufferFactory);
+		WebSocketOutboundSink sink = new WebSocketOutboundSink(session);
+		sink.send().subscribe();
+		sink.dispose();
+
+		NettyDataBuffer buffer = buffer("{\"id\":1}");
+		sink.write(Mono.just(buffer)).block();
+
+		assertThat(buffer.getNativeBuffer().refCnt()).isEqualTo(0);
+		assertThat(session.sent).isEmpty();
+	}
+
+	@Test
+	public void testJsonTranscodedIntoCbor() throws Exception {
+		assertTranscoded(new CBORFactory());
+	}
+
+	@Test
+	public void testJsonTranscodedIntoSmile() throws Exception {
+		assertTranscoded(new SmileFactory());
+	}
+
+	@Test
+	public void testJsonNotTranscodedWithoutFormat() {
+		TestWebSocketSession session = new TestWebSocketSession(bufferFactory);
+		WebSocketOutboundSink sink = new WebSocketOutboundSink(session, 16, WebSocketMessage.Type.TEXT, null);
+		sink.send().subscribe();
+
+		assertThat(sink.createOutputMessage()).isNotInstanceOf(JsonRpcFormatOutputMessage.class);
+		sink.createJsonOutputMessage().writeWith(Mono.just(buffer("{\"id\":1}"))).block();
+
+		assertThat(session.sent).hasSize(1);
+		assertThat(session.sent.get(0).getType()).isEqualTo(WebSocketMessage.Type.TEXT);
+		assertThat(session.sent.get(0).getPayloadAsText()).isEqualTo("{\"id\":1}");
+	}
+
+	private void assertTranscoded(JsonFactory jsonFactory) throws Exception {
+		TestWebSocketSession session = new TestWebSocketSession(bufferFactory);
+		WebSocketOutboundSink sink = new WebSocketOutboundSink(session, 16, WebSocketMessage.Type.BINARY, jsonFactory);
+		sink.send().subscribe();
+		ObjectMapper mapper = new ObjectMapper(jsonFactory);
+
+		// json message is transcoded while format message is passed as is
+		NettyDataBuffer json = buffer("{\"jsonrpc\":\"2.0\",\"id\":1,\"result\":[1,\"two\"]}");
+		sink.createJsonOutputMessage().writeWith(Mono.just(json)).block();
+		JsonRpcOutputMessage output = sink.createOutputMessage();
+		assertThat(output).isInstanceOf(JsonRpcFormatOutputMessage.class);
+		assertThat(((JsonRpcFormatOutputMessage) output).getJsonFactory()).isSameAs(jsonFactory);
+		byte[] encoded = mapper.writeValueAsBytes(Collections.singletonMap("id", 2));
+		output.writeWith(Mono.just(bufferFactory.wrap(encoded))).block();
+
+		assertThat(json.getNativeBuffer().refCnt()).isEqualTo(0);
+		assertThat(session.sent).hasSize(2);
+		assertThat(session.sent).allMatch(message -> message.getType() == WebSocketMessage.Type.BINARY);
+		assertThat(mapper.readTree(bytes(session.sent.get(0))))
+				.isEqualTo(new ObjectMapper().readTree("{\"jsonrpc\":\"2.0\",\"id\":1,\"result\":[1,\"two\"]}"));
+		assertThat(bytes(session.sent.get(1))).isEqualTo(encoded);
+	}
+
+	private static byte[] bytes(WebSocketMessage message) {
+		byte[] bytes = new byte[message.getPayload().readableByteCount()];
+		message.getPayload().read(bytes);
+		return bytes;
+	}
+
+	private NettyDataBuffer buffer(String content) {
+		NettyDataBuffer buffer = bufferFactory.allocateBuffer();
+		buffer.write(content.getBytes(StandardCharsets.UTF_8));
+		return buffer;
+	}
+}